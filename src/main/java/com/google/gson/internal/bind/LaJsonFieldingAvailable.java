@@ -15,9 +15,23 @@
  */
 package com.google.gson.internal.bind;
 
+import java.lang.reflect.Field;
+
+import com.google.gson.TypeAdapter;
+
 /**
  * @author jflute
  * @since 0.8.5 (2016/10/21 Friday at showbase)
  */
 public interface LaJsonFieldingAvailable { // marker interface to use original annotation in JSON bean
+
+    /**
+     * Specialize the type adapter for the field, called once when the bound field is created. <br>
+     * The specialized adapter does not need the field on thread, e.g. the annotation is already resolved.
+     * @param field The field of JSON bean for the adapter. (NotNull)
+     * @return The type adapter specialized for the field. (NullAllowed: if null, the field is given on thread when reading/writing)
+     */
+    default TypeAdapter<?> specializeByField(Field field) {
+        return null;
+    }
 }
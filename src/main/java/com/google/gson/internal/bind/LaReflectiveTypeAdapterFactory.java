@@ -16,7 +16,11 @@
 package com.google.gson.internal.bind;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -55,16 +59,23 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
     protected final FieldNamingStrategy fieldNamingPolicy;
     protected final Excluder excluder;
     protected final JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory;
+    protected final boolean fieldAccessByHandle; // false: by reflection (default)
 
     // ===================================================================================
     //                                                                         Constructor
     //                                                                         ===========
     public LaReflectiveTypeAdapterFactory(ConstructorConstructor constructorConstructor, FieldNamingStrategy fieldNamingPolicy,
             Excluder excluder, JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory) {
+        this(constructorConstructor, fieldNamingPolicy, excluder, jsonAdapterFactory, false);
+    }
+
+    public LaReflectiveTypeAdapterFactory(ConstructorConstructor constructorConstructor, FieldNamingStrategy fieldNamingPolicy,
+            Excluder excluder, JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory, boolean fieldAccessByHandle) {
         this.constructorConstructor = constructorConstructor;
         this.fieldNamingPolicy = fieldNamingPolicy;
         this.excluder = excluder;
         this.jsonAdapterFactory = jsonAdapterFactory;
+        this.fieldAccessByHandle = fieldAccessByHandle;
     }
 
     // ===================================================================================
@@ -161,12 +172,14 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
         if (mapped == null)
             mapped = context.getAdapter(fieldType);
 
-        final TypeAdapter<?> typeAdapter = mapped;
-        final boolean fieldingAvailable = typeAdapter instanceof LaJsonFieldingAvailable; // #for_lastaflute
+        final TypeAdapter<?> specialized = specializeByField(field, mapped); // #for_lastaflute
+        final TypeAdapter<?> typeAdapter = specialized != null ? specialized : mapped;
+        final boolean fieldingAvailable = specialized == null && typeAdapter instanceof LaJsonFieldingAvailable; // #for_lastaflute
+        final LaFieldAccessor accessor = createFieldAccessor(field); // #for_lastaflute
         return new LaReflectiveTypeAdapterFactory.LaBoundField(name, serialize, deserialize) {
             @Override
             public void write(JsonWriter writer, Object value) throws IOException, IllegalAccessException {
-                final Object fieldValue = field.get(value);
+                final Object fieldValue = accessor.get(value);
                 final TypeAdapter<Object> realAdapter = prepareRealAdapter(context, fieldType, jsonAdapterPresent, typeAdapter);
                 if (fieldingAvailable) {
                     try {
@@ -194,7 +207,7 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
                     fieldValue = typeAdapter.read(reader);
                 }
                 if (fieldValue != null || !isPrimitive) {
-                    field.set(value, fieldValue);
+                    accessor.set(value, fieldValue);
                 }
             }
 
@@ -202,12 +215,29 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
             public boolean writeField(Object value) throws IOException, IllegalAccessException {
                 if (!serialized)
                     return false;
-                final Object fieldValue = field.get(value);
+                final Object fieldValue = accessor.get(value);
                 return fieldValue != value; // avoid recursion for example for Throwable.cause
             }
         };
     }
 
+    protected TypeAdapter<?> specializeByField(Field field, TypeAdapter<?> mapped) { // null allowed
+        if (mapped instanceof LaJsonFieldingAvailable) { // resolved once here, not on thread for every value
+            return ((LaJsonFieldingAvailable) mapped).specializeByField(field);
+        }
+        return null;
+    }
+
+    protected LaFieldAccessor createFieldAccessor(Field field) { // field is already accessible
+        if (fieldAccessByHandle && !Modifier.isStatic(field.getModifiers())) {
+            final LaFieldAccessor handleAccessor = HandleFieldAccessor.createIfPossible(field);
+            if (handleAccessor != null) {
+                return handleAccessor;
+            }
+        } // reflection if not option or e.g. handle denied
+        return new ReflectionFieldAccessor(field);
+    }
+
     @SuppressWarnings("unchecked") // the type adapter and field type always agree
     protected TypeAdapter<Object> prepareRealAdapter(Gson context, TypeToken<?> fieldType, boolean jsonAdapterPresent,
             TypeAdapter<?> typeAdapter) {
@@ -245,6 +275,133 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
         public abstract boolean writeField(Object value) throws IOException, IllegalAccessException;
     }
 
+    // ===================================================================================
+    //                                                                      Field Accessor
+    //                                                                      ==============
+    public static interface LaFieldAccessor {
+
+        Object get(Object bean) throws IllegalAccessException;
+
+        void set(Object bean, Object value) throws IllegalAccessException;
+    }
+
+    public static class ReflectionFieldAccessor implements LaFieldAccessor {
+
+        protected final Field field;
+
+        public ReflectionFieldAccessor(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object get(Object bean) throws IllegalAccessException {
+            return field.get(bean);
+        }
+
+        @Override
+        public void set(Object bean, Object value) throws IllegalAccessException {
+            field.set(bean, value);
+        }
+    }
+
+    public static class HandleFieldAccessor implements LaFieldAccessor {
+
+        protected static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+        protected static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        protected final MethodHandle getter; // (Object)Object, unboxing and access check are resolved
+        protected final MethodHandle setter; // (Object, Object)void
+
+        protected HandleFieldAccessor(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        public static HandleFieldAccessor createIfPossible(Field field) { // null allowed: when cannot
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try { // the field should be accessible here (also final field)
+                final MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                final MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                return new HandleFieldAccessor(getter, setter);
+            } catch (IllegalAccessException | RuntimeException ignored) { // e.g. module restriction
+                return null;
+            }
+        }
+
+        @Override
+        public Object get(Object bean) throws IllegalAccessException {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) { // no way
+                throw new IllegalStateException("Failed to get the field by handle: " + getter, e);
+            }
+        }
+
+        @Override
+        public void set(Object bean, Object value) throws IllegalAccessException {
+            try {
+                setter.invokeExact(bean, value);
+            } catch (ClassCastException e) { // same exception type as Field.set()
+                throw new IllegalArgumentException("Cannot set the value to the field by handle: " + value, e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) { // no way
+                throw new IllegalStateException("Failed to set the field by handle: " + setter, e);
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                    Bound Name Index
+    //                                                                    ================
+    /**
+     * The open-addressing index of bound fields by JSON name, fixed after creation. <br>
+     * Its table is sparse enough that most names are found at the first slot.
+     */
+    public static class LaBoundFieldIndex {
+
+        protected final String[] names; // slot to name, null means empty slot
+        protected final LaBoundField[] fields; // same slot as names
+        protected final int mask; // table size - 1 (table size is power of two)
+
+        public LaBoundFieldIndex(Map<String, LaBoundField> boundFields) {
+            int size = 4;
+            while (size < boundFields.size() * 4) { // load factor is at most 0.25
+                size <<= 1;
+            }
+            names = new String[size];
+            fields = new LaBoundField[size];
+            mask = size - 1;
+            for (Map.Entry<String, LaBoundField> entry : boundFields.entrySet()) {
+                final String name = entry.getKey();
+                int slot = spread(name.hashCode()) & mask;
+                while (names[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                names[slot] = name;
+                fields[slot] = entry.getValue();
+            }
+        }
+
+        protected static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        public LaBoundField find(String name) { // null allowed: when not found
+            int slot = spread(name.hashCode()) & mask;
+            String current;
+            while ((current = names[slot]) != null) {
+                if (current == name || current.equals(name)) {
+                    return fields[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+    }
+
     // ===================================================================================
     //                                                                  Reflective Adapter
     //                                                                  ==================
@@ -252,10 +409,25 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
 
         protected final ObjectConstructor<PROPERTY> constructor;
         protected final Map<String, LaBoundField> boundFields;
+        protected final LaBoundFieldIndex readingIndex; // only deserialized fields
+        protected final LaBoundField[] writingFields; // only serialized fields, in declared order
 
         protected ReflextiveAdapter(ObjectConstructor<PROPERTY> constructor, Map<String, LaBoundField> boundFields) {
             this.constructor = constructor;
             this.boundFields = boundFields;
+            final Map<String, LaBoundField> deserializedMap = new LinkedHashMap<String, LaBoundField>();
+            final List<LaBoundField> serializedList = new ArrayList<LaBoundField>();
+            for (Map.Entry<String, LaBoundField> entry : boundFields.entrySet()) {
+                final LaBoundField boundField = entry.getValue();
+                if (boundField.deserialized) {
+                    deserializedMap.put(entry.getKey(), boundField);
+                }
+                if (boundField.serialized) {
+                    serializedList.add(boundField);
+                }
+            }
+            this.readingIndex = new LaBoundFieldIndex(deserializedMap);
+            this.writingFields = serializedList.toArray(new LaBoundField[serializedList.size()]);
         }
 
         @Override
@@ -271,8 +443,8 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
                 in.beginObject();
                 while (in.hasNext()) {
                     final String name = in.nextName();
-                    final LaBoundField field = boundFields.get(name);
-                    if (field == null || !field.deserialized) {
+                    final LaBoundField field = readingIndex.find(name);
+                    if (field == null) { // also not deserialized
                         in.skipValue();
                     } else {
                         field.read(in, instance);
@@ -295,7 +467,7 @@ public class LaReflectiveTypeAdapterFactory implements TypeAdapterFactory {
             }
             out.beginObject();
             try {
-                for (LaBoundField boundField : boundFields.values()) {
+                for (LaBoundField boundField : writingFields) { // only serialized
                     if (boundField.writeField(value)) {
                         out.name(boundField.name);
                         boundField.write(out, value);
@@ -15,10 +15,15 @@
  */
 package org.lastaflute.core.json;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 
 import org.dbflute.optional.OptionalThing;
 import org.lastaflute.core.json.engine.RealJsonEngine;
+import org.lastaflute.core.util.LaStringUtil;
 
 /**
  * @author jflute
@@ -51,6 +56,30 @@ public interface JsonManager {
      */
     <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType);
 
+    /**
+     * Convert from the JSON reader to the specified bean, without materializing whole string if the engine can stream. <br>
+     * The reader is not closed here, the caller should close it.
+     * @param <BEAN> The type of JSON bean.
+     * @param reader The reader of JSON to be parsed. (NotNull, EmptyAllowed: returns new-only)
+     * @param beanType The type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) { // for compatible, override it to stream
+        return fromJson(LaStringUtil.readAll(reader), beanType);
+    }
+
+    /**
+     * Convert from the JSON reader to the parameterized bean, without materializing whole string if the engine can stream. <br>
+     * The reader is not closed here, the caller should close it.
+     * @param <BEAN> The type of JSON bean as root.
+     * @param reader The reader of JSON to be parsed. (NotNull, EmptyAllowed: returns new-only)
+     * @param parameterizedType The parameterized type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values, also List and Map. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) { // me too
+        return fromJsonParameteried(LaStringUtil.readAll(reader), parameterizedType);
+    }
+
     /**
      * Convert from the source object to JSON string.
      * @param bean The instance of bean to encode. (NotNull)
@@ -58,6 +87,20 @@ public interface JsonManager {
      */
     String toJson(Object bean);
 
+    /**
+     * Convert from the source object to JSON and write it to the writer, without building whole string if the engine can stream. <br>
+     * The writer is not closed here, the caller should close it.
+     * @param bean The instance of bean to encode. (NotNull)
+     * @param writer The writer that the JSON is written to. (NotNull)
+     */
+    default void toJson(Object bean, Writer writer) { // for compatible, override it to stream
+        try {
+            writer.write(toJson(bean));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JSON to the writer: " + writer, e);
+        }
+    }
+
     /**
      * Create new JSON engine as another rule. <br>
      * (inheriting basic settings e.g. serializeNulls, yourCollections)
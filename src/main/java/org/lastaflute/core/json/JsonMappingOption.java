@@ -47,6 +47,7 @@ public class JsonMappingOption {
     protected boolean listNullToEmptyWriting; // same
     protected OptionalThing<JsonFieldNaming> fieldNaming = OptionalThing.empty(); // not null;
     protected List<JsonYourCollectionResource> yourCollections = Collections.emptyList();
+    protected boolean fieldAccessByHandle; // method handle instead of reflection
 
     // ===================================================================================
     //                                                                    Supplement Class
@@ -76,6 +77,7 @@ public class JsonMappingOption {
         listNullToEmptyWriting = another.isListNullToEmptyWriting();
         fieldNaming = another.getFieldNaming();
         yourCollections = another.getYourCollections();
+        fieldAccessByHandle = another.isFieldAccessByHandle();
         return this;
     }
 
@@ -202,6 +204,17 @@ public class JsonMappingOption {
         return this;
     }
 
+    /**
+     * Set up as field access by method handle, instead of reflection. <br>
+     * The handles are prepared once per JSON bean field so it may be faster for many beans. <br>
+     * (falls back to reflection if the handle cannot be prepared, e.g. static field)
+     * @return this. (NotNull)
+     */
+    public JsonMappingOption asFieldAccessByHandle() {
+        fieldAccessByHandle = true;
+        return this;
+    }
+
     // ===================================================================================
     //                                                                      Basic Override
     //                                                                      ==============
@@ -231,6 +244,9 @@ public class JsonMappingOption {
             }).collect(Collectors.toList());
             sb.append(delimiter).append(expList);
         }
+        if (fieldAccessByHandle) {
+            sb.append(delimiter).append("fieldAccessByHandle");
+        }
         return "{" + Srl.ltrim(sb.toString(), delimiter) + "}";
     }
 
@@ -288,4 +304,8 @@ public class JsonMappingOption {
     public List<JsonYourCollectionResource> getYourCollections() {
         return Collections.unmodifiableList(yourCollections);
     }
+
+    public boolean isFieldAccessByHandle() {
+        return fieldAccessByHandle;
+    }
 }
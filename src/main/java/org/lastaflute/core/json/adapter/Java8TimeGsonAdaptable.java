@@ -17,12 +17,16 @@ package org.lastaflute.core.json.adapter;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.lastaflute.core.json.JsonMappingOption;
@@ -94,16 +98,24 @@ public interface Java8TimeGsonAdaptable {
 
     abstract class AbstractTypeDateTimeAdapter<DATE extends TemporalAccessor> extends TypeAdapter<DATE> implements LaJsonFieldingAvailable {
 
+        protected static final Map<String, DateTimeFormatter> patternFormatterMap = new ConcurrentHashMap<String, DateTimeFormatter>();
+
         protected final JsonMappingOption option;
         protected final JsonSimpleTextReadingFilter readingFilter; // null allowed
+        protected final TemporalQuery<DATE> temporalQuery; // not null, cached to avoid new instance per value
 
         public AbstractTypeDateTimeAdapter(JsonMappingOption option) {
             this.option = option;
             this.readingFilter = option.getSimpleTextReadingFilter().orElse(null); // cache, unwrap for performance
+            this.temporalQuery = temporal -> fromTemporal(temporal);
         }
 
         @Override
         public DATE read(JsonReader in) throws IOException {
+            return readWith(in, prepareDateTimeFormatter());
+        }
+
+        protected DATE readWith(JsonReader in, DateTimeFormatter formatter) throws IOException {
             if (in.peek() == JsonToken.NULL) {
                 in.nextNull();
                 return null;
@@ -112,15 +124,18 @@ public interface Java8TimeGsonAdaptable {
             if (isEmptyToNullReading() && "".equals(exp)) { // option
                 return null;
             }
-            final DateTimeFormatter formatter = prepareDateTimeFormatter();
             try {
-                return formatter.parse(exp, temporal -> fromTemporal(temporal));
+                return parseDate(formatter, exp);
             } catch (DateTimeParseException e) {
                 throwJsonPropertyDateTimeParseFailureException(formatter, exp, in, e);
                 return null; // unreachable
             }
         }
 
+        protected DATE parseDate(DateTimeFormatter formatter, String exp) {
+            return formatter.parse(exp, temporalQuery);
+        }
+
         protected String filterReading(String text) {
             if (text == null) {
                 return null;
@@ -134,30 +149,56 @@ public interface Java8TimeGsonAdaptable {
 
         @Override
         public void write(JsonWriter out, DATE value) throws IOException {
+            writeWith(out, value, prepareDateTimeFormatter());
+        }
+
+        protected void writeWith(JsonWriter out, DATE value, DateTimeFormatter formatter) throws IOException {
             if (isNullToEmptyWriting() && value == null) { // option
                 out.value("");
             } else { // mainly here
-                out.value(value != null ? prepareDateTimeFormatter().format(value) : null);
+                out.value(value != null ? formatDate(formatter, value) : null);
             }
         }
 
+        protected String formatDate(DateTimeFormatter formatter, DATE value) {
+            return formatter.format(value);
+        }
+
         protected boolean isNullToEmptyWriting() {
             return option.isNullToEmptyWriting();
         }
 
-        private DateTimeFormatter prepareDateTimeFormatter() {
-            DateTimeFormatter formatter = null;
+        // -----------------------------------------------------
+        //                                             Formatter
+        //                                             ---------
+        @Override
+        public TypeAdapter<?> specializeByField(Field field) { // called once per bound field
+            final DateTimeFormatter formatter = findPatternFormatter(field);
+            return newFieldSpecializedAdapter(formatter != null ? formatter : getDateTimeFormatter());
+        }
+
+        protected TypeAdapter<DATE> newFieldSpecializedAdapter(DateTimeFormatter formatter) {
+            return new FieldSpecializedDateTimeAdapter<DATE>(this, formatter);
+        }
+
+        private DateTimeFormatter prepareDateTimeFormatter() { // for e.g. adapter not via bound field
             final Field field = LaJsonFieldingContext.getJsonFieldOnThread();
-            if (field != null) { // no way but avoid stop
-                final JsonDatePattern anno = field.getAnnotation(JsonDatePattern.class);
-                if (anno != null) {
-                    final String pattern = anno.value();
-                    formatter = DateTimeFormatter.ofPattern(pattern); // #hope can be cached? by jflute
-                }
+            final DateTimeFormatter formatter = field != null ? findPatternFormatter(field) : null; // no way but avoid stop
+            return formatter != null ? formatter : getDateTimeFormatter(); // not null
+        }
+
+        protected DateTimeFormatter findPatternFormatter(Field field) { // null allowed
+            final JsonDatePattern anno = field.getAnnotation(JsonDatePattern.class);
+            if (anno == null) {
+                return null;
             }
-            if (formatter == null) {
-                formatter = getDateTimeFormatter(); // not null
+            final String pattern = anno.value();
+            final DateTimeFormatter cached = patternFormatterMap.get(pattern);
+            if (cached != null) {
+                return cached;
             }
+            final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern); // immutable and thread-safe
+            patternFormatterMap.put(pattern, formatter); // patterns are defined in annotations so limited
             return formatter;
         }
 
@@ -203,6 +244,51 @@ public interface Java8TimeGsonAdaptable {
             return realFormatter;
         }
 
+        @Override
+        protected LocalDate parseDate(DateTimeFormatter formatter, String exp) {
+            if (formatter == DEFAULT_FORMATTER) { // mainly here, e.g. 2017-09-18
+                final LocalDate quickly = parseIsoLocalDateQuickly(exp);
+                if (quickly != null) {
+                    return quickly;
+                }
+            } // formatter handles it, e.g. its parse failure message
+            return super.parseDate(formatter, exp);
+        }
+
+        protected LocalDate parseIsoLocalDateQuickly(String exp) { // null allowed: when not simple ISO date
+            if (exp.length() != 10 || exp.charAt(4) != '-' || exp.charAt(7) != '-') {
+                return null;
+            }
+            final int year = parseDigits(exp, 0, 4);
+            final int month = parseDigits(exp, 5, 7);
+            final int day = parseDigits(exp, 8, 10);
+            if (year < 0 || month < 0 || day < 0) {
+                return null;
+            }
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e) { // e.g. 2017-02-30
+                return null;
+            }
+        }
+
+        protected int parseDigits(String exp, int begin, int end) { // minus if not digits
+            int value = 0;
+            for (int i = begin; i < end; i++) {
+                final char ch = exp.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    return -1;
+                }
+                value = value * 10 + (ch - '0');
+            }
+            return value;
+        }
+
+        @Override
+        protected String formatDate(DateTimeFormatter formatter, LocalDate value) {
+            return formatter == DEFAULT_FORMATTER ? value.toString() : super.formatDate(formatter, value); // same as ISO
+        }
+
         @Override
         protected LocalDate fromTemporal(TemporalAccessor temporal) {
             return LocalDate.from(temporal);
@@ -266,6 +352,27 @@ public interface Java8TimeGsonAdaptable {
         }
     }
 
+    class FieldSpecializedDateTimeAdapter<DATE extends TemporalAccessor> extends TypeAdapter<DATE> {
+
+        protected final AbstractTypeDateTimeAdapter<DATE> baseAdapter; // not null
+        protected final DateTimeFormatter formatter; // not null, already resolved for the field
+
+        public FieldSpecializedDateTimeAdapter(AbstractTypeDateTimeAdapter<DATE> baseAdapter, DateTimeFormatter formatter) {
+            this.baseAdapter = baseAdapter;
+            this.formatter = formatter;
+        }
+
+        @Override
+        public DATE read(JsonReader in) throws IOException {
+            return baseAdapter.readWith(in, formatter);
+        }
+
+        @Override
+        public void write(JsonWriter out, DATE value) throws IOException {
+            baseAdapter.writeWith(out, value, formatter);
+        }
+    }
+
     // ===================================================================================
     //                                                                             Creator
     //                                                                             =======
@@ -15,6 +15,8 @@
  */
 package org.lastaflute.core.json.engine;
 
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
@@ -198,7 +200,9 @@ public class GsonJsonEngine implements RealJsonEngine // adapters here
         final JsonAdapterAnnotationTypeAdapterFactory jsonAdapterFactory = getJsonAdapterFactory(factory);
         final FieldNamingStrategy fieldNamingStrategy = newGson.fieldNamingStrategy();
         final Excluder excluder = newGson.excluder();
-        return new LaReflectiveTypeAdapterFactory(constructorConstructor, fieldNamingStrategy, excluder, jsonAdapterFactory);
+        final boolean fieldAccessByHandle = option.isFieldAccessByHandle();
+        return new LaReflectiveTypeAdapterFactory(constructorConstructor, fieldNamingStrategy, excluder, jsonAdapterFactory,
+                fieldAccessByHandle);
     }
 
     protected ConstructorConstructor getConstructorConstructor(Object factory) {
@@ -223,21 +227,33 @@ public class GsonJsonEngine implements RealJsonEngine // adapters here
     @Override
     public <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType) {
         final BEAN bean = gson.fromJson(json, parameterizedType); // if empty JSON, new-only instance
-        if (bean != null) {
-            return bean;
-        } else { // e.g. empty string JSON
-            final Class<?> rawClass = DfReflectionUtil.getRawClass(parameterizedType.getRawType()); // null allowed?
-            if (List.class.equals(rawClass)) {
-                @SuppressWarnings("unchecked")
-                final BEAN emptyList = (BEAN) DfCollectionUtil.newArrayListSized(2); // empty but mutable for coherence
-                return emptyList;
-            } else if (Map.class.equals(rawClass)) {
-                @SuppressWarnings("unchecked")
-                final BEAN emptyList = (BEAN) DfCollectionUtil.newHashMapSized(2); // empty but mutable for coherence
-                return emptyList;
-            } else {
-                return newEmptyInstance(parameterizedType);
-            }
+        return bean != null ? bean : newEmptyParameterized(parameterizedType);
+    }
+
+    @Override
+    public <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) { // streaming by JsonReader in Gson
+        final BEAN bean = gson.fromJson(reader, beanType); // if empty JSON, new-only instance
+        return bean != null ? bean : newEmptyInstance(beanType);
+    }
+
+    @Override
+    public <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) {
+        final BEAN bean = gson.fromJson(reader, parameterizedType); // if empty JSON, new-only instance
+        return bean != null ? bean : newEmptyParameterized(parameterizedType);
+    }
+
+    protected <BEAN> BEAN newEmptyParameterized(ParameterizedType parameterizedType) { // e.g. empty string JSON
+        final Class<?> rawClass = DfReflectionUtil.getRawClass(parameterizedType.getRawType()); // null allowed?
+        if (List.class.equals(rawClass)) {
+            @SuppressWarnings("unchecked")
+            final BEAN emptyList = (BEAN) DfCollectionUtil.newArrayListSized(2); // empty but mutable for coherence
+            return emptyList;
+        } else if (Map.class.equals(rawClass)) {
+            @SuppressWarnings("unchecked")
+            final BEAN emptyList = (BEAN) DfCollectionUtil.newHashMapSized(2); // empty but mutable for coherence
+            return emptyList;
+        } else {
+            return newEmptyInstance(parameterizedType);
         }
     }
 
@@ -260,6 +276,11 @@ public class GsonJsonEngine implements RealJsonEngine // adapters here
         return gson.toJson(bean);
     }
 
+    @Override
+    public void toJson(Object bean, Writer writer) { // streaming by JsonWriter in Gson
+        gson.toJson(bean, writer);
+    }
+
     // ===================================================================================
     //                                                                            Accessor
     //                                                                            ========
@@ -15,8 +15,14 @@
  */
 package org.lastaflute.core.json.engine;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 
+import org.lastaflute.core.util.LaStringUtil;
+
 /**
  * The real engine of JSON.
  * @author jflute
@@ -49,10 +55,51 @@ public interface RealJsonEngine {
      */
     <BEAN> BEAN fromJsonParameteried(String json, ParameterizedType parameterizedType);
 
+    /**
+     * Convert from the JSON reader to the bean new-created by the specified type. <br>
+     * The reader is not closed here, the caller should close it. <br>
+     * (default implementation reads all as string, so override it if the engine can stream)
+     * @param <BEAN> The type of JSON bean.
+     * @param reader The reader of JSON to be parsed. (NotNull, EmptyAllowed: returns new-only)
+     * @param beanType The type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJson(Reader reader, Class<BEAN> beanType) {
+        return fromJson(LaStringUtil.readAll(reader), beanType);
+    }
+
+    /**
+     * Convert from the JSON reader to the parameterized bean. <br>
+     * The reader is not closed here, the caller should close it. <br>
+     * (default implementation reads all as string, so override it if the engine can stream)
+     * @param <BEAN> The type of JSON bean as root.
+     * @param reader The reader of JSON to be parsed. (NotNull, EmptyAllowed: returns new-only)
+     * @param parameterizedType The parameterized type of bean to convert, should have default constructor. (NotNull)
+     * @return The new-created bean that has the JSON values, also List and Map. (NotNull: if empty JSON, new-only)
+     */
+    default <BEAN> BEAN fromJsonParameteried(Reader reader, ParameterizedType parameterizedType) {
+        return fromJsonParameteried(LaStringUtil.readAll(reader), parameterizedType);
+    }
+
     /**
      * Convert from the source object to JSON string.
      * @param bean The instance of bean to encode. (NotNull)
      * @return The encoded JSON string. (NotNull)
      */
     String toJson(Object bean);
+
+    /**
+     * Convert from the source object to JSON and write it to the writer. <br>
+     * The writer is not closed (and not flushed) here, the caller should close it. <br>
+     * (default implementation builds string, so override it if the engine can stream)
+     * @param bean The instance of bean to encode. (NotNull)
+     * @param writer The writer that the JSON is written to. (NotNull)
+     */
+    default void toJson(Object bean, Writer writer) {
+        try {
+            writer.write(toJson(bean));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write JSON to the writer: " + writer, e);
+        }
+    }
 }
@@ -16,12 +16,17 @@
 package org.lastaflute.core.magic;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.util.DfCollectionUtil;
+import org.lastaflute.core.magic.async.ConcurrentAsyncFutureCounter;
 import org.lastaflute.core.mail.PostedMailCounter;
 import org.lastaflute.db.jta.romanticist.SavedTransactionMemories;
 import org.lastaflute.web.ruts.ActionRequestProcessor;
@@ -66,6 +71,21 @@ public class ThreadCacheContext {
     //                                                ------
     public static final String FW_MAIL_COUNTER = "fw:mailCounter";
 
+    // -----------------------------------------------------
+    //                                             Multipart
+    //                                             ---------
+    public static final String FW_MULTIPART_HANDLERS = "fw:multipartHandlers";
+
+    // -----------------------------------------------------
+    //                                          Async Future
+    //                                          ------------
+    public static final String FW_ASYNC_FUTURE_COUNTER = "fw:asyncFutureCounter";
+
+    // -----------------------------------------------------
+    //                                        MasterDB Write
+    //                                        --------------
+    public static final String FW_MASTER_DB_WRITTEN = "fw:masterDBWritten";
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
@@ -268,4 +288,66 @@ public class ThreadCacheContext {
     public static void registerMailCounter(PostedMailCounter memories) {
         setObject(FW_MAIL_COUNTER, memories);
     }
+
+    // -----------------------------------------------------
+    //                                             Multipart
+    //                                             ---------
+    public static List<Object> findMultipartHandlerList() { // object not to depend on web
+        if (exists()) {
+            final List<Object> handlerList = getObject(FW_MULTIPART_HANDLERS);
+            return handlerList != null ? handlerList : Collections.emptyList();
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    public static void registerMultipartHandler(Object handler) { // to finish them at request end
+        List<Object> handlerList = getObject(FW_MULTIPART_HANDLERS);
+        if (handlerList == null) {
+            handlerList = new ArrayList<Object>(2);
+            setObject(FW_MULTIPART_HANDLERS, handlerList);
+        }
+        handlerList.add(handler);
+    }
+
+    // -----------------------------------------------------
+    //                                          Async Future
+    //                                          ------------
+    public static ConcurrentAsyncFutureCounter findAsyncFutureCounter() {
+        return exists() ? getObject(FW_ASYNC_FUTURE_COUNTER) : null;
+    }
+
+    public static void registerAsyncFutureCounter(ConcurrentAsyncFutureCounter counter) {
+        setObject(FW_ASYNC_FUTURE_COUNTER, counter);
+    }
+
+    // -----------------------------------------------------
+    //                                        MasterDB Write
+    //                                        --------------
+    /**
+     * @param schemaKey The key of schema to determine. (NullAllowed: any schema)
+     * @return true if MasterDB of the schema has been written in the thread.
+     */
+    public static boolean isMasterDBWritten(String schemaKey) {
+        if (!exists()) {
+            return false;
+        }
+        final Set<String> schemaSet = getObject(FW_MASTER_DB_WRITTEN);
+        if (schemaSet == null) {
+            return false;
+        }
+        return schemaKey != null ? schemaSet.contains(schemaKey) : !schemaSet.isEmpty();
+    }
+
+    /**
+     * @param schemaKey The key of written schema. (NotNull)
+     */
+    public static void markMasterDBWritten(String schemaKey) {
+        Set<String> schemaSet = getObject(FW_MASTER_DB_WRITTEN);
+        if (schemaSet == null) {
+            schemaSet = new HashSet<String>(2);
+            setObject(FW_MASTER_DB_WRITTEN, schemaSet);
+        }
+        schemaSet.add(schemaKey);
+    }
 }
@@ -15,6 +15,9 @@
  */
 package org.lastaflute.core.magic.async;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author jflute
  */
@@ -46,4 +49,54 @@ public interface AsyncManager {
      * @param noArgLambda The callback for asynchronous process. (NotNull)
      */
     void async(ConcurrentAsyncCall noArgLambda);
+
+    /**
+     * Execute asynchronous process by other thread and return the future of its result. <br>
+     * The thread contexts are inherited in the same way as async(), and also ConcurrentAsyncOption. <br>
+     * The exception in the process is not logged here but completes the future exceptionally.
+     * <pre>
+     * CompletableFuture&lt;List&lt;Product&gt;&gt; future
+     *         = <span style="color: #CC4747">future</span>(() <span style="font-size: 120%">-</span>&gt;</span> {
+     *     return productBhv.selectList(...); <span style="color: #3F7E5E">// in other thread</span>
+     * });
+     * ... <span style="color: #3F7E5E">// other process in caller thread</span>
+     * List&lt;Product&gt; productList = future.join();
+     * </pre>
+     * <p>The SQL and mail counts in the process are added to the caller's ones (e.g. request logging).</p>
+     * @param <RESULT> The type of result.
+     * @param noArgLambda The callback for asynchronous process that returns the result. (NotNull)
+     * @return The future of the result, completed by the other thread. (NotNull)
+     */
+    <RESULT> CompletableFuture<RESULT> future(ConcurrentAsyncFutureCall<RESULT> noArgLambda);
+
+    /**
+     * Execute the asynchronous processes in parallel and wait for all of them. <br>
+     * If some processes fail or are not finished in the timeout, the failures are thrown together.
+     * <pre>
+     * List&lt;Object&gt; resultList
+     *         = <span style="color: #CC4747">parallelAll</span>(Arrays.asList(() <span style="font-size: 120%">-</span>&gt;</span> {
+     *     return memberBhv.selectCount(...);
+     * }, () <span style="font-size: 120%">-</span>&gt;</span> {
+     *     return productBhv.selectList(...);
+     * }), 3000L);
+     * </pre>
+     * @param <RESULT> The type of result.
+     * @param callList The list of callback for asynchronous process. (NotNull, NotEmpty)
+     * @param timeoutMillis The milliseconds to wait for all processes. (NotMinus)
+     * @return The list of results in the same order as the callbacks. (NotNull)
+     * @throws org.lastaflute.core.magic.async.exception.ConcurrentAsyncParallelFailureException When any failure or timeout.
+     */
+    <RESULT> List<RESULT> parallelAll(List<ConcurrentAsyncFutureCall<RESULT>> callList, long timeoutMillis);
+
+    /**
+     * Execute the asynchronous processes in parallel and return the first successful result. <br>
+     * If all processes fail or nothing succeeds in the timeout, the failures are thrown together. <br>
+     * (the other processes are not stopped, their futures are only cancelled)
+     * @param <RESULT> The type of result.
+     * @param callList The list of callback for asynchronous process. (NotNull, NotEmpty)
+     * @param timeoutMillis The milliseconds to wait for the first success. (NotMinus)
+     * @return The result of the first successful process. (NullAllowed: if the process returns null)
+     * @throws org.lastaflute.core.magic.async.exception.ConcurrentAsyncParallelFailureException When all failures or timeout.
+     */
+    <RESULT> RESULT parallelAny(List<ConcurrentAsyncFutureCall<RESULT>> callList, long timeoutMillis);
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.magic.async;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of executor for asynchronous process, live counts and latencies. <br>
+ * The live counts are read from the executor when called, and the others are cumulative.
+ * @author jflute
+ */
+public class ConcurrentAsyncExecutorMetrics {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String title; // not null, e.g. primary
+    protected final ExecutorService executor; // not null
+    protected final LongAdder executedCount = new LongAdder();
+    protected final LongAdder completedCount = new LongAdder();
+    protected final LongAdder rejectedCount = new LongAdder();
+    protected final LongAdder callerRunsCount = new LongAdder();
+    protected final LongAdder discardedCount = new LongAdder();
+    protected final ConcurrentAsyncLatencyHistogram waitingHistogram = new ConcurrentAsyncLatencyHistogram();
+    protected final ConcurrentAsyncLatencyHistogram runningHistogram = new ConcurrentAsyncLatencyHistogram();
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ConcurrentAsyncExecutorMetrics(String title, ExecutorService executor) {
+        this.title = title;
+        this.executor = executor;
+    }
+
+    // ===================================================================================
+    //                                                                              Record
+    //                                                                              ======
+    public void recordExecuted() {
+        executedCount.increment();
+    }
+
+    public void recordWaiting(long waitingNanos) {
+        waitingHistogram.record(waitingNanos);
+    }
+
+    public void recordRunning(long runningNanos) {
+        completedCount.increment();
+        runningHistogram.record(runningNanos);
+    }
+
+    public void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    public void recordCallerRuns() {
+        callerRunsCount.increment();
+    }
+
+    public void recordDiscarded() {
+        discardedCount.increment();
+    }
+
+    // ===================================================================================
+    //                                                                          Live Count
+    //                                                                          ==========
+    /**
+     * @return The approximate count of threads that are running processes. (minus if unknown executor)
+     */
+    public int getActiveCount() {
+        if (executor instanceof ConcurrentAsyncVirtualThreadExecutor) {
+            return ((ConcurrentAsyncVirtualThreadExecutor) executor).getActiveCount();
+        }
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getActiveCount() : -1;
+    }
+
+    /**
+     * @return The count of processes waiting in the queue (or for permit if virtual thread). (minus if unknown executor)
+     */
+    public int getQueuedCount() {
+        if (executor instanceof ConcurrentAsyncVirtualThreadExecutor) {
+            return ((ConcurrentAsyncVirtualThreadExecutor) executor).getWaitingCount();
+        }
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : -1;
+    }
+
+    /**
+     * @return The current count of threads in the pool. (minus if unknown executor, e.g. virtual thread)
+     */
+    public int getPoolSize() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getPoolSize() : -1;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{").append(title);
+        sb.append(", active=").append(getActiveCount());
+        sb.append(", queued=").append(getQueuedCount());
+        sb.append(", pool=").append(getPoolSize());
+        sb.append(", executed=").append(getExecutedCount());
+        sb.append(", completed=").append(getCompletedCount());
+        sb.append(", rejected=").append(getRejectedCount());
+        sb.append(", callerRuns=").append(getCallerRunsCount());
+        sb.append(", discarded=").append(getDiscardedCount());
+        sb.append(", waiting=").append(waitingHistogram);
+        sb.append(", running=").append(runningHistogram);
+        sb.append("}");
+        return sb.toString();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return The count of processes accepted by the executor (or run by caller), not including rejected ones by exception.
+     */
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    /**
+     * @return The count of processes discarded without running, also counted as executed if discarded from the queue.
+     */
+    public long getDiscardedCount() {
+        return discardedCount.sum();
+    }
+
+    /**
+     * @return The histogram of latency from executing to running in thread. (NotNull)
+     */
+    public ConcurrentAsyncLatencyHistogram getWaitingHistogram() {
+        return waitingHistogram;
+    }
+
+    /**
+     * @return The histogram of latency of running process. (NotNull)
+     */
+    public ConcurrentAsyncLatencyHistogram getRunningHistogram() {
+        return runningHistogram;
+    }
+
+    // ===================================================================================
+    //                                                                   Latency Histogram
+    //                                                                   =================
+    /**
+     * The histogram of latency by power-of-two milliseconds buckets, lock-free for recording. <br>
+     * e.g. bucket 0 is under 1ms, bucket 1 is 1ms to 2ms, bucket 2 is 2ms to 4ms, ... and the last is overflow.
+     */
+    public static class ConcurrentAsyncLatencyHistogram {
+
+        public static final int BUCKET_SIZE = 22; // until about 17 minutes, and overflow
+
+        protected final LongAdder[] buckets;
+        protected final LongAdder totalNanos = new LongAdder();
+        protected final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+        public ConcurrentAsyncLatencyHistogram() {
+            buckets = new LongAdder[BUCKET_SIZE];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            final long actual = nanos > 0 ? nanos : 0L; // just in case of clock adjustment
+            buckets[toBucketIndex(actual / 1000000L)].increment();
+            totalNanos.add(actual);
+            maxNanos.accumulate(actual);
+        }
+
+        protected static int toBucketIndex(long millis) {
+            final int index = 64 - Long.numberOfLeadingZeros(millis); // 0 if zero, 1 if one, 2 if two or three...
+            return index < BUCKET_SIZE ? index : BUCKET_SIZE - 1;
+        }
+
+        /**
+         * @param index The index of bucket. (NotMinus, less than bucket size)
+         * @return The exclusive upper bound milliseconds of the bucket. (Long.MAX_VALUE if overflow bucket)
+         */
+        public static long getBucketUpperMillis(int index) {
+            return index < BUCKET_SIZE - 1 ? (1L << index) : Long.MAX_VALUE;
+        }
+
+        public long[] getBucketCounts() { // snapshot
+            final long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long getAverageMillis() {
+            final long count = getCount();
+            return count > 0 ? totalNanos.sum() / count / 1000000L : 0L;
+        }
+
+        public long getMaxMillis() {
+            return maxNanos.get() / 1000000L;
+        }
+
+        /**
+         * @param percentile The percentile e.g. 50.0, 99.0. (NotMinus, until 100)
+         * @return The exclusive upper bound milliseconds of the bucket that has the percentile. (0 if no record)
+         */
+        public long getPercentileUpperMillis(double percentile) {
+            final long[] counts = getBucketCounts();
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+            if (count == 0) {
+                return 0L;
+            }
+            final long threshold = (long) Math.ceil(count * (percentile / 100.0));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= threshold && cumulative > 0) {
+                    return getBucketUpperMillis(i);
+                }
+            }
+            return getBucketUpperMillis(counts.length - 1); // no way
+        }
+
+        @Override
+        public String toString() {
+            final long count = getCount();
+            if (count == 0) {
+                return "{no record}";
+            }
+            final StringBuilder sb = new StringBuilder();
+            sb.append("{count=").append(count);
+            sb.append(", avg=").append(getAverageMillis()).append("ms");
+            sb.append(", p50<").append(toUpperExp(getPercentileUpperMillis(50.0)));
+            sb.append(", p99<").append(toUpperExp(getPercentileUpperMillis(99.0)));
+            sb.append(", max=").append(getMaxMillis()).append("ms}");
+            return sb.toString();
+        }
+
+        protected String toUpperExp(long upperMillis) {
+            return upperMillis != Long.MAX_VALUE ? upperMillis + "ms" : "infinity";
+        }
+    }
+}
@@ -31,4 +31,30 @@ public interface ConcurrentAsyncExecutorProvider {
     default Integer provideMaxPoolSize() {
         return null;
     }
+
+    /**
+     * @return The capacity of waiting queue of one thread pool. (NullAllowed: if null, no queue, waits when pool short)
+     */
+    default Integer provideQueueCapacity() {
+        return null;
+    }
+
+    /**
+     * Does it use virtual thread per task instead of thread pool if the runtime supports it? <br>
+     * The max pool size is used as max concurrency (by semaphore) of the virtual threads. <br>
+     * The queue capacity and rejected policy are not used because the tasks wait in virtual threads. <br>
+     * (the thread pool is used if the runtime does not support it, e.g. Java8)
+     * @return The determination, true or false. (default is false)
+     */
+    default boolean isVirtualThreadEnabled() {
+        return false;
+    }
+
+    /**
+     * Accept the metrics of the executor, called once per executor at initialization. <br>
+     * You can keep it to show the live counts and latencies, e.g. in your monitoring.
+     * @param metrics The metrics of the executor. (NotNull)
+     */
+    default void acceptExecutorMetrics(ConcurrentAsyncExecutorMetrics metrics) {
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.magic.async;
+
+/**
+ * The callback of asynchronous process that returns the result to the future.
+ * @param <RESULT> The type of result.
+ * @author jflute
+ */
+@FunctionalInterface
+public interface ConcurrentAsyncFutureCall<RESULT> {
+
+    /**
+     * Callback your asynchronous process in the other thread.
+     * @return The result of the process, completed in the future. (NullAllowed)
+     */
+    RESULT callback();
+
+    default boolean asPrimary() {
+        return false;
+    }
+
+    default ConcurrentAsyncOption option() {
+        return new ConcurrentAsyncOption();
+    }
+}
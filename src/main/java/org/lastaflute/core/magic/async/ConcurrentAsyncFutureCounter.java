@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.magic.async;
+
+import org.dbflute.bhv.proposal.callback.ExecutedSqlCounter;
+import org.lastaflute.core.mail.PostedMailCounter;
+
+/**
+ * The counter of future processes called in the thread, e.g. request. <br>
+ * It is thread cached and inherited to asynchronous threads (so not thread completed), <br>
+ * and the asynchronous threads add their SQL and mail counts before completing the future.
+ * @author jflute
+ */
+public class ConcurrentAsyncFutureCounter { // thread cached
+
+    protected int countOfFuture;
+    protected int countOfFailure;
+    protected int countOfSelectCB;
+    protected int countOfEntityUpdate;
+    protected int countOfQueryUpdate;
+    protected int countOfOutsideSql;
+    protected int countOfProcedure;
+    protected int countOfPosting;
+    protected int countOfAlsoHtml;
+    protected int countOfDryrun;
+    protected int countOfForcedlyDirect;
+
+    // ===================================================================================
+    //                                                                               Count
+    //                                                                               =====
+    public synchronized ConcurrentAsyncFutureCounter incrementFuture() {
+        ++countOfFuture;
+        return this;
+    }
+
+    public synchronized ConcurrentAsyncFutureCounter incrementFailure() {
+        ++countOfFailure;
+        return this;
+    }
+
+    public synchronized ConcurrentAsyncFutureCounter plusSqlCount(ExecutedSqlCounter counter) {
+        countOfSelectCB += counter.getCountOfSelectCB();
+        countOfEntityUpdate += counter.getCountOfEntityUpdate();
+        countOfQueryUpdate += counter.getCountOfQueryUpdate();
+        countOfOutsideSql += counter.getCountOfOutsideSql();
+        countOfProcedure += counter.getCountOfProcedure();
+        return this;
+    }
+
+    public synchronized ConcurrentAsyncFutureCounter plusMailCount(PostedMailCounter counter) {
+        countOfPosting += counter.getCountOfPosting();
+        countOfAlsoHtml += counter.getCountOfAlsoHtml();
+        countOfDryrun += counter.getCountOfDryrun();
+        countOfForcedlyDirect += counter.getCountOfForcedlyDirect();
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    public synchronized String toLineDisp() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{future=").append(countOfFuture);
+        sb.append(", failure=").append(countOfFailure);
+        sb.append(", sqlTotal=").append(getTotalCountOfSql());
+        sb.append(", posting=").append(countOfPosting);
+        sb.append("}");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "futureCounter:" + toLineDisp();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public synchronized int getCountOfFuture() {
+        return countOfFuture;
+    }
+
+    public synchronized int getCountOfFailure() {
+        return countOfFailure;
+    }
+
+    public synchronized int getTotalCountOfSql() {
+        return countOfSelectCB + countOfEntityUpdate + countOfQueryUpdate + countOfOutsideSql + countOfProcedure;
+    }
+
+    public synchronized int getCountOfSelectCB() {
+        return countOfSelectCB;
+    }
+
+    public synchronized int getCountOfEntityUpdate() {
+        return countOfEntityUpdate;
+    }
+
+    public synchronized int getCountOfQueryUpdate() {
+        return countOfQueryUpdate;
+    }
+
+    public synchronized int getCountOfOutsideSql() {
+        return countOfOutsideSql;
+    }
+
+    public synchronized int getCountOfProcedure() {
+        return countOfProcedure;
+    }
+
+    public synchronized int getCountOfPosting() {
+        return countOfPosting;
+    }
+
+    public synchronized int getCountOfAlsoHtml() {
+        return countOfAlsoHtml;
+    }
+
+    public synchronized int getCountOfDryrun() {
+        return countOfDryrun;
+    }
+
+    public synchronized int getCountOfForcedlyDirect() {
+        return countOfForcedlyDirect;
+    }
+}
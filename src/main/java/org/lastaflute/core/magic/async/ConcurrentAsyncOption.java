@@ -28,11 +28,31 @@ public class ConcurrentAsyncOption {
     protected ConcurrentAsyncInheritType sqlLogHandlerType;
     protected ConcurrentAsyncInheritType sqlResultHandlerType;
     protected ConcurrentAsyncInheritType sqlStringFilterType;
+    protected ConcurrentAsyncRejectedPolicy rejectedPolicy; // null allowed: as default option or waiting queue
+    protected Long rejectedOfferMillis; // null allowed: only for timed offer
 
     public enum ConcurrentAsyncInheritType {
         INHERIT, SEPARATE
     }
 
+    public enum ConcurrentAsyncRejectedPolicy {
+
+        /** Retry putting it to the queue in background thread, waiting without limit. (traditional default) */
+        WAITING_QUEUE,
+
+        /** Run it in the caller thread, so the caller is slowed down as backpressure. */
+        CALLER_RUNS,
+
+        /** Discard the oldest waiting process in the queue and retry executing it. */
+        DISCARD_OLDEST,
+
+        /** Throw the rejected exception to the caller immediately. */
+        FAIL_FAST,
+
+        /** Offer it to the queue in the caller thread with timeout, and throw the rejected exception if timeout. */
+        TIMED_OFFER
+    }
+
     // ===================================================================================
     //                                                                       Determination
     //                                                                       =============
@@ -145,6 +165,59 @@ public class ConcurrentAsyncOption {
         return this;
     }
 
+    // -----------------------------------------------------
+    //                                              Rejected
+    //                                              --------
+    /**
+     * Retry putting the process to the queue in background thread when the executor is busy. (traditional default)
+     * @return this. (NotNull)
+     */
+    public ConcurrentAsyncOption rejectAsWaitingQueue() {
+        rejectedPolicy = ConcurrentAsyncRejectedPolicy.WAITING_QUEUE;
+        return this;
+    }
+
+    /**
+     * Run the process in the caller thread when the executor is busy.
+     * @return this. (NotNull)
+     */
+    public ConcurrentAsyncOption rejectAsCallerRuns() {
+        rejectedPolicy = ConcurrentAsyncRejectedPolicy.CALLER_RUNS;
+        return this;
+    }
+
+    /**
+     * Discard the oldest waiting process in the queue when the executor is busy.
+     * @return this. (NotNull)
+     */
+    public ConcurrentAsyncOption rejectAsDiscardOldest() {
+        rejectedPolicy = ConcurrentAsyncRejectedPolicy.DISCARD_OLDEST;
+        return this;
+    }
+
+    /**
+     * Throw the rejected exception immediately when the executor is busy.
+     * @return this. (NotNull)
+     */
+    public ConcurrentAsyncOption rejectAsFailFast() {
+        rejectedPolicy = ConcurrentAsyncRejectedPolicy.FAIL_FAST;
+        return this;
+    }
+
+    /**
+     * Wait for the queue in the caller thread when the executor is busy, and throw the rejected exception if timeout.
+     * @param offerMillis The milliseconds to wait for the queue. (NotMinus)
+     * @return this. (NotNull)
+     */
+    public ConcurrentAsyncOption rejectAfterOffering(long offerMillis) {
+        if (offerMillis < 0) {
+            throw new IllegalArgumentException("The argument 'offerMillis' should not be minus: " + offerMillis);
+        }
+        rejectedPolicy = ConcurrentAsyncRejectedPolicy.TIMED_OFFER;
+        rejectedOfferMillis = offerMillis;
+        return this;
+    }
+
     // ===================================================================================
     //                                                                      Basic Override
     //                                                                      ==============
@@ -166,6 +239,12 @@ public class ConcurrentAsyncOption {
         if (sqlStringFilterType != null) {
             sb.append(sb.length() > 0 ? ", " : "").append("sqlStringFilter=").append(sqlStringFilterType);
         }
+        if (rejectedPolicy != null) {
+            sb.append(sb.length() > 0 ? ", " : "").append("rejectedPolicy=").append(rejectedPolicy);
+            if (rejectedOfferMillis != null) {
+                sb.append("(").append(rejectedOfferMillis).append("ms)");
+            }
+        }
         if (sb.length() == 0) {
             sb.append("no option");
         }
@@ -195,4 +274,12 @@ public class ConcurrentAsyncOption {
     public ConcurrentAsyncInheritType getSqlStringFilterType() {
         return sqlStringFilterType;
     }
+
+    public ConcurrentAsyncRejectedPolicy getRejectedPolicy() {
+        return rejectedPolicy;
+    }
+
+    public Long getRejectedOfferMillis() {
+        return rejectedOfferMillis;
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.core.magic.async;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The executor service of virtual thread per task, whose concurrency is limited by semaphore. <br>
+ * Virtual threads are found by reflection at runtime so it can be compiled by Java8. <br>
+ * Tasks over the concurrency wait for permit in their virtual threads, so no rejection here. <br>
+ * Tasks dropped without running by shutdown-now are passed to the dropped-task handler, e.g. to complete their futures.
+ * @author jflute
+ */
+public class ConcurrentAsyncVirtualThreadExecutor extends AbstractExecutorService {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ExecutorService virtualExecutor; // not null, thread per task
+    protected final int maxConcurrency; // positive
+    protected final Semaphore concurrencySemaphore; // not null, fair to keep order of waiting tasks
+    protected final AtomicInteger waitingCount = new AtomicInteger();
+    protected final Consumer<Runnable> droppedTaskHandler; // not null, called with the task dropped without running
+    protected volatile boolean stopped; // by shutdown now, waiting tasks are not run after it
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ConcurrentAsyncVirtualThreadExecutor(ExecutorService virtualExecutor, int maxConcurrency) {
+        this(virtualExecutor, maxConcurrency, dropped -> {});
+    }
+
+    public ConcurrentAsyncVirtualThreadExecutor(ExecutorService virtualExecutor, int maxConcurrency,
+            Consumer<Runnable> droppedTaskHandler) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The argument 'maxConcurrency' should be positive: " + maxConcurrency);
+        }
+        this.virtualExecutor = virtualExecutor;
+        this.maxConcurrency = maxConcurrency;
+        this.concurrencySemaphore = new Semaphore(maxConcurrency, true);
+        this.droppedTaskHandler = droppedTaskHandler;
+    }
+
+    // ===================================================================================
+    //                                                                      Virtual Thread
+    //                                                                      ==============
+    /**
+     * Create the executor service of virtual thread per task if the runtime supports it.
+     * @return The new-created executor service. (NullAllowed: when e.g. Java8, preview not enabled)
+     */
+    public static ExecutorService createVirtualThreadPerTaskExecutorIfPossible() {
+        final Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) { // e.g. Java8
+            return null;
+        }
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (InvocationTargetException | IllegalAccessException | RuntimeException e) { // e.g. preview API not enabled
+            return null;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             Execute
+    //                                                                             =======
+    @Override
+    public void execute(Runnable command) {
+        waitingCount.incrementAndGet(); // in caller thread to count it as waiting immediately
+        try {
+            virtualExecutor.execute(() -> runWithPermit(command));
+        } catch (RuntimeException e) { // e.g. rejected after shutdown
+            waitingCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    protected void runWithPermit(Runnable command) { // in virtual thread
+        try {
+            concurrencySemaphore.acquire(); // blocking virtual thread is cheap
+        } catch (InterruptedException e) { // e.g. shutdown now, so the task is not run
+            Thread.currentThread().interrupt();
+            droppedTaskHandler.accept(command); // not to wait for the never-run task forever
+            return;
+        } finally {
+            waitingCount.decrementAndGet();
+        }
+        if (stopped) { // permit might be released before interruption reaches here
+            concurrencySemaphore.release();
+            droppedTaskHandler.accept(command);
+            return;
+        }
+        try {
+            command.run();
+        } finally {
+            concurrencySemaphore.release();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                          Live Count
+    //                                                                          ==========
+    public int getActiveCount() {
+        return maxConcurrency - concurrencySemaphore.availablePermits();
+    }
+
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    // ===================================================================================
+    //                                                                            Shutdown
+    //                                                                            ========
+    @Override
+    public void shutdown() {
+        virtualExecutor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        stopped = true; // before interruption for waiting tasks that get permit
+        return virtualExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return virtualExecutor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return virtualExecutor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return virtualExecutor.awaitTermination(timeout, unit);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "virtualThread:{max=" + maxConcurrency + ", active=" + getActiveCount() + ", waiting=" + getWaitingCount() + "}";
+    }
+}
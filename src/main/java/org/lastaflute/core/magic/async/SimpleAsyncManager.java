@@ -19,23 +19,38 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import javax.transaction.InvalidTransactionException;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
 
 import org.dbflute.bhv.core.BehaviorCommandHook;
 import org.dbflute.bhv.proposal.callback.ExecutedSqlCounter;
+import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.hook.AccessContext;
 import org.dbflute.hook.AccessContext.AccessModuleProvider;
 import org.dbflute.hook.AccessContext.AccessProcessProvider;
@@ -56,14 +71,19 @@ import org.lastaflute.core.exception.ExceptionTranslator;
 import org.lastaflute.core.magic.ThreadCacheContext;
 import org.lastaflute.core.magic.ThreadCompleted;
 import org.lastaflute.core.magic.async.ConcurrentAsyncOption.ConcurrentAsyncInheritType;
+import org.lastaflute.core.magic.async.ConcurrentAsyncOption.ConcurrentAsyncRejectedPolicy;
+import org.lastaflute.core.magic.async.exception.ConcurrentAsyncParallelFailureException;
+import org.lastaflute.core.magic.async.exception.ConcurrentAsyncRejectedException;
 import org.lastaflute.core.magic.destructive.BowgunDestructiveAdjuster;
 import org.lastaflute.core.mail.PostedMailCounter;
+import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
 import org.lastaflute.db.dbflute.callbackcontext.traceablesql.RomanticTraceableSqlFireHook;
 import org.lastaflute.db.dbflute.callbackcontext.traceablesql.RomanticTraceableSqlResultHandler;
 import org.lastaflute.db.dbflute.callbackcontext.traceablesql.RomanticTraceableSqlStringFilter;
 import org.lastaflute.db.jta.romanticist.SavedTransactionMemories;
 import org.lastaflute.db.jta.romanticist.TransactionMemoriesProvider;
+import org.lastaflute.di.core.factory.SingletonLaContainerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +122,12 @@ public class SimpleAsyncManager implements AsyncManager {
     /** The service of executor for waiting queue. (NullAllowed: lazy-loaded) */
     protected ExecutorService waitingQueueExecutorService;
 
+    /** The metrics of primary executor. (NotNull: after initialization) */
+    protected ConcurrentAsyncExecutorMetrics primaryExecutorMetrics;
+
+    /** The metrics of secondary executor. (NotNull: after initialization) */
+    protected ConcurrentAsyncExecutorMetrics secondaryExecutorMetrics;
+
     // ===================================================================================
     //                                                                          Initialize
     //                                                                          ==========
@@ -119,6 +145,12 @@ public class SimpleAsyncManager implements AsyncManager {
         }
         primaryExecutorService = createDefaultPrimaryExecutorService(provider);
         secondaryExecutorService = createDefaultSecondaryExecutorService(provider);
+        primaryExecutorMetrics = createExecutorMetrics("primary", primaryExecutorService);
+        secondaryExecutorMetrics = createExecutorMetrics("secondary", secondaryExecutorService);
+        if (provider != null) {
+            provider.acceptExecutorMetrics(primaryExecutorMetrics);
+            provider.acceptExecutorMetrics(secondaryExecutorMetrics);
+        }
         showBootLogging();
     }
 
@@ -143,17 +175,74 @@ public class SimpleAsyncManager implements AsyncManager {
         if (maximumPoolSize == null) {
             maximumPoolSize = 10;
         }
+        if (provider != null && provider.isVirtualThreadEnabled()) {
+            final ExecutorService virtualExecutor = createVirtualThreadExecutorService(maximumPoolSize);
+            if (virtualExecutor != null) {
+                return virtualExecutor;
+            }
+            logger.info("#flow #async Virtual thread is not supported by the runtime so using thread pool.");
+        }
         final long keepAliveTime = 60L;
         final TimeUnit seconds = TimeUnit.SECONDS;
-        final BlockingQueue<Runnable> workQueue = createDefaultBlockingQueue();
         final RejectedExecutionHandler rejected = createRejectedExecutionHandler();
-        return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, seconds, workQueue, rejected);
+        final Integer queueCapacity = provider != null ? provider.provideQueueCapacity() : null;
+        if (queueCapacity != null) { // bounded queue
+            // threads are not increased until queue is full if less core threads, so core is max here
+            final BlockingQueue<Runnable> workQueue = createBoundedBlockingQueue(queueCapacity);
+            final ThreadPoolExecutor executor =
+                    new ThreadPoolExecutor(maximumPoolSize, maximumPoolSize, keepAliveTime, seconds, workQueue, rejected);
+            executor.allowCoreThreadTimeOut(true); // same as zero core when idle
+            return executor;
+        } else { // traditional
+            final BlockingQueue<Runnable> workQueue = createDefaultBlockingQueue();
+            return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, seconds, workQueue, rejected);
+        }
     }
 
     protected BlockingQueue<Runnable> createDefaultBlockingQueue() {
         return new SynchronousQueue<Runnable>(); // waits when pool short
     }
 
+    protected BlockingQueue<Runnable> createBoundedBlockingQueue(int queueCapacity) {
+        return new LinkedBlockingQueue<Runnable>(queueCapacity); // rejected when queue is full
+    }
+
+    protected ExecutorService createVirtualThreadExecutorService(int maxConcurrency) { // null allowed: if not supported
+        final ExecutorService virtualExecutor = ConcurrentAsyncVirtualThreadExecutor.createVirtualThreadPerTaskExecutorIfPossible();
+        if (virtualExecutor == null) {
+            return null;
+        }
+        // limited by semaphore, and tasks waiting for permit are aborted when shutdown now
+        return new ConcurrentAsyncVirtualThreadExecutor(virtualExecutor, maxConcurrency, dropped -> abortDroppedRunnable(dropped));
+    }
+
+    protected void abortDroppedRunnable(Runnable dropped) { // in virtual thread
+        if (dropped instanceof ConcurrentAsyncTask) { // basically here
+            final ConcurrentAsyncTask droppedTask = (ConcurrentAsyncTask) dropped;
+            droppedTask.getMetrics().recordDiscarded();
+            droppedTask.abort(createConcurrentAsyncDroppedException(droppedTask));
+        }
+    }
+
+    protected ConcurrentAsyncRejectedException createConcurrentAsyncDroppedException(ConcurrentAsyncTask task) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("The asynchronous process was dropped by shutdown of the executor.");
+        br.addItem("Advice");
+        br.addElement("The process was waiting for the concurrency permit of virtual threads,");
+        br.addElement("but the executor was shut down now, so it was not executed.");
+        br.addItem("Executor");
+        br.addElement(task.getKeyword());
+        br.addElement(task.getMetrics());
+        br.addItem("Callback");
+        br.addElement(task.getCall());
+        final String msg = br.buildExceptionMessage();
+        return new ConcurrentAsyncRejectedException(msg, null);
+    }
+
+    protected ConcurrentAsyncExecutorMetrics createExecutorMetrics(String title, ExecutorService executor) {
+        return new ConcurrentAsyncExecutorMetrics(title, executor);
+    }
+
     // -----------------------------------------------------
     //                            Rejected Execution Handler
     //                            --------------------------
@@ -164,6 +253,221 @@ public class SimpleAsyncManager implements AsyncManager {
     }
 
     protected void handleRejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) { // caller thread
+        if (runnable instanceof ConcurrentAsyncTask) { // basically here
+            final ConcurrentAsyncTask task = (ConcurrentAsyncTask) runnable;
+            task.getMetrics().recordRejected();
+            final ConcurrentAsyncRejectedPolicy policy = resolveRejectedPolicy(task.getCall());
+            if (ConcurrentAsyncRejectedPolicy.CALLER_RUNS.equals(policy)) {
+                handleRejectedAsCallerRuns(task, executor);
+                return;
+            } else if (ConcurrentAsyncRejectedPolicy.DISCARD_OLDEST.equals(policy)) {
+                handleRejectedAsDiscardOldest(task, executor);
+                return;
+            } else if (ConcurrentAsyncRejectedPolicy.FAIL_FAST.equals(policy)) {
+                throwConcurrentAsyncRejectedException(task, executor, policy, null);
+                return; // unreachable
+            } else if (ConcurrentAsyncRejectedPolicy.TIMED_OFFER.equals(policy)) {
+                handleRejectedAsTimedOffer(task, executor, resolveRejectedOfferMillis(task.getCall()));
+                return;
+            } // waiting queue here
+        }
+        registerWaitingQueue(runnable, executor);
+    }
+
+    protected ConcurrentAsyncRejectedPolicy resolveRejectedPolicy(ConcurrentAsyncCall call) {
+        final ConcurrentAsyncRejectedPolicy policy = call.option().getRejectedPolicy();
+        if (policy != null) {
+            return policy;
+        }
+        final ConcurrentAsyncRejectedPolicy defaultPolicy = defaultConcurrentAsyncOption.getRejectedPolicy();
+        return defaultPolicy != null ? defaultPolicy : ConcurrentAsyncRejectedPolicy.WAITING_QUEUE;
+    }
+
+    protected long resolveRejectedOfferMillis(ConcurrentAsyncCall call) {
+        final Long offerMillis = call.option().getRejectedOfferMillis();
+        if (offerMillis != null) {
+            return offerMillis;
+        }
+        final Long defaultMillis = defaultConcurrentAsyncOption.getRejectedOfferMillis();
+        return defaultMillis != null ? defaultMillis : 0L; // zero if e.g. policy only in call option
+    }
+
+    // -----------------------------------------------------
+    //                                           Caller Runs
+    //                                           -----------
+    protected void handleRejectedAsCallerRuns(ConcurrentAsyncTask task, ThreadPoolExecutor executor) { // caller thread
+        if (executor.isShutdown()) {
+            throwConcurrentAsyncRejectedException(task, executor, ConcurrentAsyncRejectedPolicy.CALLER_RUNS, null);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow #async ...Running the runnable in caller thread because of busy executor: " + task);
+        }
+        task.getMetrics().recordCallerRuns();
+        // the task prepares and clears thread contexts for itself so the caller's ones should be saved
+        final ConcurrentAsyncCall call = task.getCall();
+        final Map<String, Object> savedThreadCacheMap = ThreadCacheContext.exists() ? inheritThreadCacheContext(call) : null;
+        final AccessContext savedAccessContext = PreparedAccessContext.getAccessContextOnThread();
+        final CallbackContext savedCallbackContext = CallbackContext.getCallbackContextOnThread();
+        final Map<String, Object> savedVariousContextMap = findCallerVariousContextMap();
+        // the task should not join the caller's transaction, same as in other thread
+        final TransactionManager transactionManager = findCallerTransactionManager(); // null allowed
+        final Transaction suspendedTransaction = suspendCallerTransaction(transactionManager); // null allowed
+        try {
+            task.run();
+        } finally {
+            restoreCallerThreadCacheContext(savedThreadCacheMap);
+            restoreCallerAccessContext(savedAccessContext);
+            restoreCallerCallbackContext(savedCallbackContext);
+            restoreCallerVariousContext(call, savedVariousContextMap);
+            resumeCallerTransaction(transactionManager, suspendedTransaction);
+        }
+    }
+
+    protected void restoreCallerThreadCacheContext(Map<String, Object> savedThreadCacheMap) {
+        if (savedThreadCacheMap != null) {
+            ThreadCacheContext.initialize();
+            savedThreadCacheMap.forEach((key, value) -> ThreadCacheContext.setObject(key, value));
+        } else {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    protected void restoreCallerAccessContext(AccessContext savedAccessContext) {
+        if (savedAccessContext != null) {
+            PreparedAccessContext.setAccessContextOnThread(savedAccessContext);
+        } else {
+            PreparedAccessContext.clearAccessContextOnThread();
+        }
+    }
+
+    protected void restoreCallerCallbackContext(CallbackContext savedCallbackContext) {
+        if (savedCallbackContext != null) {
+            CallbackContext.setCallbackContextOnThread(savedCallbackContext);
+        } else {
+            CallbackContext.clearCallbackContextOnThread();
+        }
+    }
+
+    protected void restoreCallerVariousContext(ConcurrentAsyncCall call, Map<String, Object> savedVariousContextMap) { // for extension
+        if (savedVariousContextMap != null) { // prepared again because the task clears it
+            prepareVariousContext(call, savedVariousContextMap);
+        }
+    }
+
+    protected TransactionManager findCallerTransactionManager() { // null allowed: e.g. no database
+        if (!SingletonLaContainerFactory.hasContainer()) { // e.g. UnitTest without container
+            return null;
+        }
+        final TransactionManager[] managers = ContainerUtil.searchComponentsAll(TransactionManager.class);
+        return managers.length > 0 ? managers[0] : null;
+    }
+
+    protected Transaction suspendCallerTransaction(TransactionManager transactionManager) { // null allowed: if no transaction
+        if (transactionManager == null) {
+            return null;
+        }
+        try {
+            return transactionManager.getTransaction() != null ? transactionManager.suspend() : null;
+        } catch (SystemException e) {
+            String msg = "Failed to suspend the caller transaction for caller-runs: " + transactionManager;
+            throw new IllegalStateException(msg, e);
+        }
+    }
+
+    protected void resumeCallerTransaction(TransactionManager transactionManager, Transaction suspendedTransaction) {
+        if (transactionManager == null || suspendedTransaction == null) {
+            return;
+        }
+        try {
+            transactionManager.resume(suspendedTransaction);
+        } catch (InvalidTransactionException | SystemException e) {
+            String msg = "Failed to resume the caller transaction after caller-runs: " + suspendedTransaction;
+            throw new IllegalStateException(msg, e);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                        Discard Oldest
+    //                                        --------------
+    protected void handleRejectedAsDiscardOldest(ConcurrentAsyncTask task, ThreadPoolExecutor executor) { // caller thread
+        if (executor.isShutdown()) {
+            throwConcurrentAsyncRejectedException(task, executor, ConcurrentAsyncRejectedPolicy.DISCARD_OLDEST, null);
+        }
+        final Runnable oldest = executor.getQueue().poll();
+        if (oldest != null) {
+            logger.warn("#flow #async *Discarded the oldest runnable in the queue because of busy executor: " + oldest);
+            abortDiscardedRunnable(oldest, executor);
+            executor.execute(task); // may be rejected again, then handled again
+        } else { // e.g. no queue (synchronous queue), so discard the new one instead
+            logger.warn("#flow #async *Discarded the runnable because of busy executor without queue: " + task);
+            abortDiscardedRunnable(task, executor);
+        }
+    }
+
+    protected void abortDiscardedRunnable(Runnable discarded, ThreadPoolExecutor executor) { // caller thread
+        if (discarded instanceof ConcurrentAsyncTask) { // basically here
+            final ConcurrentAsyncTask discardedTask = (ConcurrentAsyncTask) discarded;
+            discardedTask.getMetrics().recordDiscarded();
+            final ConcurrentAsyncRejectedPolicy policy = ConcurrentAsyncRejectedPolicy.DISCARD_OLDEST;
+            discardedTask.abort(createConcurrentAsyncRejectedException(discardedTask, executor, policy, null));
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                           Timed Offer
+    //                                           -----------
+    protected void handleRejectedAsTimedOffer(ConcurrentAsyncTask task, ThreadPoolExecutor executor, long offerMillis) { // caller
+        if (executor.isShutdown()) {
+            throwConcurrentAsyncRejectedException(task, executor, ConcurrentAsyncRejectedPolicy.TIMED_OFFER, null);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow #async ...Offering the runnable to the queue in " + offerMillis + "ms: " + task);
+        }
+        final boolean offered;
+        try {
+            offered = executor.getQueue().offer(task, offerMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // keep interrupted state for caller
+            throwConcurrentAsyncRejectedException(task, executor, ConcurrentAsyncRejectedPolicy.TIMED_OFFER, e);
+            return; // unreachable
+        }
+        if (!offered) {
+            throwConcurrentAsyncRejectedException(task, executor, ConcurrentAsyncRejectedPolicy.TIMED_OFFER, null);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                    Rejected Exception
+    //                                    ------------------
+    protected void throwConcurrentAsyncRejectedException(ConcurrentAsyncTask task, ThreadPoolExecutor executor,
+            ConcurrentAsyncRejectedPolicy policy, Throwable cause) {
+        throw createConcurrentAsyncRejectedException(task, executor, policy, cause);
+    }
+
+    protected ConcurrentAsyncRejectedException createConcurrentAsyncRejectedException(ConcurrentAsyncTask task,
+            ThreadPoolExecutor executor, ConcurrentAsyncRejectedPolicy policy, Throwable cause) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("The asynchronous process was rejected by the busy executor.");
+        br.addItem("Advice");
+        br.addElement("The executor has no more thread and queue space for the process.");
+        br.addElement("So the process was not executed by the rejected policy.");
+        br.addElement("Increase the pool size or queue capacity by ConcurrentAsyncExecutorProvider,");
+        br.addElement("or change the rejected policy by ConcurrentAsyncOption.");
+        br.addItem("Rejected Policy");
+        br.addElement(policy);
+        br.addItem("Executor");
+        br.addElement(task.getKeyword());
+        br.addElement(task.getMetrics());
+        br.addItem("Callback");
+        br.addElement(task.getCall());
+        final String msg = br.buildExceptionMessage();
+        return new ConcurrentAsyncRejectedException(msg, cause);
+    }
+
+    // -----------------------------------------------------
+    //                                         Waiting Queue
+    //                                         -------------
+    protected void registerWaitingQueue(final Runnable runnable, final ThreadPoolExecutor executor) { // caller thread
         if (logger.isDebugEnabled()) {
             logger.debug("#flow #async ...Registering the runnable to waiting queue as retry: " + runnable);
         }
@@ -173,6 +477,11 @@ public class SimpleAsyncManager implements AsyncManager {
             } catch (InterruptedException e) {
                 final String torExp = buildExecutorHashExp(executor);
                 logger.warn("*Failed to put the runnable to the executor" + torExp + "'s queue: " + runnable, e);
+                if (runnable instanceof ConcurrentAsyncTask) { // not to wait for the lost task forever
+                    final ConcurrentAsyncTask task = (ConcurrentAsyncTask) runnable;
+                    final ConcurrentAsyncRejectedPolicy policy = ConcurrentAsyncRejectedPolicy.WAITING_QUEUE;
+                    task.abort(createConcurrentAsyncRejectedException(task, executor, policy, e));
+                }
             }
         });
     }
@@ -220,6 +529,8 @@ public class SimpleAsyncManager implements AsyncManager {
             logger.info(" defaultConcurrentAsyncOption: " + defaultConcurrentAsyncOption);
             logger.info(" primaryExecutorService: " + buildExecutorNamedExp(primaryExecutorService));
             logger.info(" secondaryExecutorService: " + buildExecutorNamedExp(secondaryExecutorService));
+            logger.info(" primaryExecutorMetrics: " + primaryExecutorMetrics);
+            logger.info(" secondaryExecutorMetrics: " + secondaryExecutorMetrics);
         }
     }
 
@@ -254,11 +565,107 @@ public class SimpleAsyncManager implements AsyncManager {
             destructiveNormalSync(callback);
         } else { // basically here
             final String keyword = title + buildExecutorHashExp(service);
-            final Runnable task = createRunnable(callback, keyword);
-            service.submit(task); // real asynchronous
+            final Runnable runnable = createRunnable(callback, keyword);
+            final ConcurrentAsyncTask task = newConcurrentAsyncTask(callback, keyword, runnable, findExecutorMetrics(service));
+            service.execute(task); // real asynchronous, the runnable handles its exception
+            if (!task.isAborted()) { // accepted by the executor (or ran by caller), not discarded
+                task.getMetrics().recordExecuted(); // not counted if rejected by exception
+            }
         }
     }
 
+    protected ConcurrentAsyncExecutorMetrics findExecutorMetrics(ExecutorService service) {
+        if (service == primaryExecutorService) {
+            return primaryExecutorMetrics;
+        } else if (service == secondaryExecutorService) {
+            return secondaryExecutorMetrics;
+        } else { // e.g. extended executor service
+            return createExecutorMetrics("unknown", service); // not kept
+        }
+    }
+
+    protected ConcurrentAsyncTask newConcurrentAsyncTask(ConcurrentAsyncCall call, String keyword, Runnable runnable,
+            ConcurrentAsyncExecutorMetrics metrics) {
+        return new ConcurrentAsyncTask(call, keyword, runnable, metrics);
+    }
+
+    /**
+     * The task executed by executor, which keeps the call for rejected policy and records the metrics.
+     */
+    protected static class ConcurrentAsyncTask implements Runnable {
+
+        protected final ConcurrentAsyncCall call; // not null
+        protected final String keyword; // not null
+        protected final Runnable runnable; // not null
+        protected final ConcurrentAsyncExecutorMetrics metrics; // not null
+        protected final long executedNanos; // in caller thread
+        protected volatile boolean aborted; // true if discarded without running
+
+        public ConcurrentAsyncTask(ConcurrentAsyncCall call, String keyword, Runnable runnable,
+                ConcurrentAsyncExecutorMetrics metrics) {
+            this.call = call;
+            this.keyword = keyword;
+            this.runnable = runnable;
+            this.metrics = metrics;
+            this.executedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() { // in other thread (or caller thread if caller-runs)
+            final long before = System.nanoTime();
+            metrics.recordWaiting(before - executedNanos);
+            try {
+                runnable.run();
+            } finally {
+                metrics.recordRunning(System.nanoTime() - before);
+            }
+        }
+
+        /**
+         * Abort the task that is discarded without running, e.g. by rejected policy. <br>
+         * The abortable call is notified, e.g. future is completed exceptionally.
+         * @param cause The exception that explains the abort. (NotNull)
+         */
+        public void abort(Throwable cause) { // in the thread that discards it
+            aborted = true;
+            if (call instanceof ConcurrentAsyncAbortableCall) {
+                ((ConcurrentAsyncAbortableCall) call).abort(cause);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "task:{" + keyword + ", " + call + "}";
+        }
+
+        public ConcurrentAsyncCall getCall() {
+            return call;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public ConcurrentAsyncExecutorMetrics getMetrics() {
+            return metrics;
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+    }
+
+    /**
+     * The call notified when its task is aborted without running, e.g. to complete the future.
+     */
+    protected static interface ConcurrentAsyncAbortableCall extends ConcurrentAsyncCall {
+
+        /**
+         * @param cause The exception that explains the abort. (NotNull)
+         */
+        void abort(Throwable cause);
+    }
+
     protected void destructiveNormalSync(ConcurrentAsyncCall callback) {
         if (logger.isInfoEnabled()) { // no way of production so INFO
             logger.info("#flow #async *Non-asynchronous by destructive adjuster, so executing as synchronous.");
@@ -267,6 +674,255 @@ public class SimpleAsyncManager implements AsyncManager {
         callback.callback(); // normal synchronous
     }
 
+    // ===================================================================================
+    //                                                                        Future Entry
+    //                                                                        ============
+    @Override
+    public <RESULT> CompletableFuture<RESULT> future(ConcurrentAsyncFutureCall<RESULT> noArgLambda) {
+        assertFutureCallNotNull(noArgLambda);
+        assertExecutorServiceValid();
+        final CompletableFuture<RESULT> future = new CompletableFuture<RESULT>();
+        final ConcurrentAsyncFutureCounter futureCounter = prepareFutureCounter(); // null allowed
+        final ConcurrentAsyncCall call = createFutureAsyncCall(noArgLambda, future, futureCounter);
+        try {
+            if (noArgLambda.asPrimary()) {
+                doAsyncPrimary(call);
+            } else {
+                doAsyncSecondary(call);
+            }
+        } catch (ConcurrentAsyncRejectedException e) { // e.g. fail-fast, timed offer
+            if (futureCounter != null) { // counted as future so also failure
+                futureCounter.incrementFailure();
+            }
+            future.completeExceptionally(e); // for e.g. parallel process that catches it
+            throw e;
+        }
+        return future;
+    }
+
+    protected ConcurrentAsyncFutureCounter prepareFutureCounter() { // caller thread
+        if (!ThreadCacheContext.exists()) { // e.g. out of request or batch
+            return null;
+        }
+        ConcurrentAsyncFutureCounter counter = ThreadCacheContext.findAsyncFutureCounter();
+        if (counter == null) {
+            counter = new ConcurrentAsyncFutureCounter(); // inherited to async threads by thread cache
+            ThreadCacheContext.registerAsyncFutureCounter(counter);
+        }
+        return counter.incrementFuture();
+    }
+
+    protected <RESULT> ConcurrentAsyncCall createFutureAsyncCall(ConcurrentAsyncFutureCall<RESULT> futureCall,
+            CompletableFuture<RESULT> future, ConcurrentAsyncFutureCounter futureCounter) {
+        // to avoid double count when the caller's ones are used, e.g. inherited filter, destructive synchronous
+        final ExecutedSqlCounter callerSqlCounter = extractSqlCount().orElse(null);
+        final PostedMailCounter callerMailCounter = ThreadCacheContext.findMailCounter();
+        return new ConcurrentAsyncAbortableCall() {
+            @Override
+            public void callback() { // in other thread, contexts are prepared by the runnable
+                RESULT result = null;
+                Throwable cause = null;
+                try {
+                    result = futureCall.callback();
+                } catch (Throwable e) { // thrown to the caller via the future so not logged here
+                    cause = e;
+                }
+                if (futureCounter != null) { // should be before completing for caller's counting
+                    countFutureResource(futureCounter, callerSqlCounter, callerMailCounter, cause);
+                }
+                if (cause != null) {
+                    future.completeExceptionally(cause);
+                } else {
+                    future.complete(result);
+                }
+            }
+
+            @Override
+            public void abort(Throwable cause) { // in the thread that discards it, e.g. rejected policy
+                if (futureCounter != null) {
+                    futureCounter.incrementFailure();
+                }
+                future.completeExceptionally(cause); // not to wait for the never-run process forever
+            }
+
+            @Override
+            public boolean asPrimary() {
+                return futureCall.asPrimary();
+            }
+
+            @Override
+            public ConcurrentAsyncOption option() {
+                return futureCall.option();
+            }
+
+            @Override
+            public String toString() {
+                return "future:{" + futureCall + "}";
+            }
+        };
+    }
+
+    protected void countFutureResource(ConcurrentAsyncFutureCounter futureCounter, ExecutedSqlCounter callerSqlCounter,
+            PostedMailCounter callerMailCounter, Throwable cause) { // in other thread
+        extractSqlCount().ifPresent(counter -> {
+            if (counter != callerSqlCounter) { // caller's one is already counted
+                futureCounter.plusSqlCount(counter);
+            }
+        });
+        final PostedMailCounter mailCounter = ThreadCacheContext.findMailCounter(); // basically not inherited
+        if (mailCounter != null && mailCounter != callerMailCounter) {
+            futureCounter.plusMailCount(mailCounter);
+        }
+        if (cause != null) {
+            futureCounter.incrementFailure();
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                          Parallel All
+    //                                          ------------
+    @Override
+    public <RESULT> List<RESULT> parallelAll(List<ConcurrentAsyncFutureCall<RESULT>> callList, long timeoutMillis) {
+        assertParallelCallListValid(callList, timeoutMillis);
+        final List<CompletableFuture<RESULT>> futureList = executeParallelFuture(callList);
+        final CompletableFuture<Void> allFuture = CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0]));
+        try {
+            allFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException continued) { // failures are collected below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // keep interrupted state for caller
+            cancelParallelFuture(futureList);
+            throwConcurrentAsyncParallelFailureException("all", callList, timeoutMillis, Collections.emptyMap(), e);
+        }
+        final List<RESULT> resultList = new ArrayList<RESULT>(futureList.size());
+        final Map<Integer, Throwable> failureMap = new LinkedHashMap<Integer, Throwable>();
+        for (int i = 0; i < futureList.size(); i++) {
+            final CompletableFuture<RESULT> future = futureList.get(i);
+            final Throwable failure = extractFutureFailure(future, timeoutMillis);
+            if (failure != null) {
+                failureMap.put(i, failure);
+            } else {
+                resultList.add(future.getNow(null));
+            }
+        }
+        if (!failureMap.isEmpty()) {
+            cancelParallelFuture(futureList);
+            throwConcurrentAsyncParallelFailureException("all", callList, timeoutMillis, failureMap, null);
+        }
+        return resultList;
+    }
+
+    // -----------------------------------------------------
+    //                                          Parallel Any
+    //                                          ------------
+    @Override
+    public <RESULT> RESULT parallelAny(List<ConcurrentAsyncFutureCall<RESULT>> callList, long timeoutMillis) {
+        assertParallelCallListValid(callList, timeoutMillis);
+        final List<CompletableFuture<RESULT>> futureList = executeParallelFuture(callList);
+        final CompletableFuture<RESULT> anyFuture = new CompletableFuture<RESULT>();
+        final AtomicInteger failureCount = new AtomicInteger();
+        for (CompletableFuture<RESULT> future : futureList) {
+            future.whenComplete((result, cause) -> {
+                if (cause == null) {
+                    anyFuture.complete(result); // first success wins
+                } else if (failureCount.incrementAndGet() == futureList.size()) { // all failed
+                    anyFuture.completeExceptionally(cause); // details are collected later
+                }
+            });
+        }
+        try {
+            return anyFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            final Map<Integer, Throwable> failureMap = new LinkedHashMap<Integer, Throwable>();
+            for (int i = 0; i < futureList.size(); i++) {
+                final Throwable failure = extractFutureFailure(futureList.get(i), timeoutMillis);
+                if (failure != null) { // basically all
+                    failureMap.put(i, failure);
+                }
+            }
+            throwConcurrentAsyncParallelFailureException("any", callList, timeoutMillis, failureMap, null);
+            return null; // unreachable
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // keep interrupted state for caller
+            throwConcurrentAsyncParallelFailureException("any", callList, timeoutMillis, Collections.emptyMap(), e);
+            return null; // unreachable
+        } finally {
+            cancelParallelFuture(futureList); // results of the others are unneeded
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                       Parallel Helper
+    //                                       ---------------
+    protected <RESULT> List<CompletableFuture<RESULT>> executeParallelFuture(List<ConcurrentAsyncFutureCall<RESULT>> callList) {
+        final List<CompletableFuture<RESULT>> futureList = new ArrayList<CompletableFuture<RESULT>>(callList.size());
+        for (ConcurrentAsyncFutureCall<RESULT> call : callList) {
+            CompletableFuture<RESULT> future;
+            try {
+                future = future(call);
+            } catch (ConcurrentAsyncRejectedException e) { // e.g. fail-fast, the others are already started
+                future = new CompletableFuture<RESULT>();
+                future.completeExceptionally(e); // aggregated as failure of the parallel process
+            }
+            futureList.add(future);
+        }
+        return futureList;
+    }
+
+    protected void cancelParallelFuture(List<? extends CompletableFuture<?>> futureList) { // running threads are not stopped
+        for (CompletableFuture<?> future : futureList) {
+            if (!future.isDone()) {
+                future.cancel(true); // interruption is meaningless for completable future
+            }
+        }
+    }
+
+    protected Throwable extractFutureFailure(CompletableFuture<?> future, long timeoutMillis) { // null allowed: if success
+        if (!future.isDone()) {
+            return new TimeoutException("Not finished in " + timeoutMillis + "ms");
+        }
+        try {
+            future.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+
+    protected void throwConcurrentAsyncParallelFailureException(String parallelType, List<? extends Object> callList,
+            long timeoutMillis, Map<Integer, Throwable> failureMap, Throwable cause) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("Failed to complete the parallel asynchronous processes.");
+        br.addItem("Advice");
+        br.addElement("Some asynchronous processes failed or were not finished in the timeout.");
+        br.addElement("Read the failures and the nested exceptions (suppressed) below.");
+        br.addItem("Parallel Type");
+        br.addElement(parallelType);
+        br.addItem("Timeout");
+        br.addElement(timeoutMillis + "ms");
+        br.addItem("Callback");
+        for (int i = 0; i < callList.size(); i++) {
+            br.addElement(i + ": " + callList.get(i));
+        }
+        if (!failureMap.isEmpty()) {
+            br.addItem("Failure");
+            failureMap.forEach((index, failure) -> {
+                br.addElement(index + ": " + failure.getClass().getName() + ": " + failure.getMessage());
+            });
+        }
+        final String msg = br.buildExceptionMessage();
+        final Throwable mainCause = cause != null ? cause : findFirstFailure(failureMap);
+        final ConcurrentAsyncParallelFailureException ex = new ConcurrentAsyncParallelFailureException(msg, mainCause);
+        failureMap.values().stream().filter(failure -> failure != mainCause).forEach(failure -> ex.addSuppressed(failure));
+        throw ex;
+    }
+
+    protected Throwable findFirstFailure(Map<Integer, Throwable> failureMap) { // null allowed
+        return failureMap.isEmpty() ? null : failureMap.values().iterator().next();
+    }
+
     // ===================================================================================
     //                                                                     Create Runnable
     //                                                                     ===============
@@ -708,6 +1364,21 @@ public class SimpleAsyncManager implements AsyncManager {
         }
     }
 
+    protected void assertFutureCallNotNull(ConcurrentAsyncFutureCall<?> futureCall) {
+        if (futureCall == null) {
+            throw new IllegalArgumentException("The argument 'futureCall' should not be null.");
+        }
+    }
+
+    protected void assertParallelCallListValid(List<? extends ConcurrentAsyncFutureCall<?>> callList, long timeoutMillis) {
+        if (callList == null || callList.isEmpty()) {
+            throw new IllegalArgumentException("The argument 'callList' should not be null or empty: " + callList);
+        }
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("The argument 'timeoutMillis' should not be minus: " + timeoutMillis);
+        }
+    }
+
     protected void assertExecutorServiceValid() {
         if (primaryExecutorService == null) {
             throw new IllegalArgumentException("The primaryExecutorService should not be null.");
@@ -716,4 +1387,21 @@ public class SimpleAsyncManager implements AsyncManager {
             throw new IllegalArgumentException("The secondaryExecutorService should not be null.");
         }
     }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    /**
+     * @return The metrics of primary executor. (NotNull: after initialization)
+     */
+    public ConcurrentAsyncExecutorMetrics getPrimaryExecutorMetrics() {
+        return primaryExecutorMetrics;
+    }
+
+    /**
+     * @return The metrics of secondary executor. (NotNull: after initialization)
+     */
+    public ConcurrentAsyncExecutorMetrics getSecondaryExecutorMetrics() {
+        return secondaryExecutorMetrics;
+    }
 }
@@ -15,6 +15,8 @@
  */
 package org.lastaflute.core.mail;
 
+import org.lastaflute.core.magic.async.ConcurrentAsyncFutureCounter;
+
 /**
  * @author jflute
  * @since 0.7.6 (2016/01/07 Thursday)
@@ -25,12 +27,25 @@ public class RequestedMailCount {
     protected final int countOfAlsoHtml;
     protected final int countOfDryrun;
     protected final int countOfForcedlyDirect;
+    protected final int countOfAsyncFuture; // zero if no future
+    protected final int countOfAsyncFailure; // failed futures, their postings until failure are also counted
 
     public RequestedMailCount(PostedMailCounter counter) {
         this.countOfPosting = counter.getCountOfPosting();
         this.countOfAlsoHtml = counter.getCountOfAlsoHtml();
         this.countOfDryrun = counter.getCountOfDryrun();
         this.countOfForcedlyDirect = counter.getCountOfForcedlyDirect();
+        this.countOfAsyncFuture = 0;
+        this.countOfAsyncFailure = 0;
+    }
+
+    public RequestedMailCount(PostedMailCounter counter, ConcurrentAsyncFutureCounter futureCounter) { // with asynchronous futures
+        this.countOfPosting = counter.getCountOfPosting() + futureCounter.getCountOfPosting();
+        this.countOfAlsoHtml = counter.getCountOfAlsoHtml() + futureCounter.getCountOfAlsoHtml();
+        this.countOfDryrun = counter.getCountOfDryrun() + futureCounter.getCountOfDryrun();
+        this.countOfForcedlyDirect = counter.getCountOfForcedlyDirect() + futureCounter.getCountOfForcedlyDirect();
+        this.countOfAsyncFuture = futureCounter.getCountOfFuture();
+        this.countOfAsyncFailure = futureCounter.getCountOfFailure();
     }
 
     @Override
@@ -40,6 +55,10 @@ public class RequestedMailCount {
         sb.append(", alsoHtml=").append(countOfAlsoHtml);
         sb.append(", dryrun=").append(countOfDryrun);
         sb.append(", forcedlyDirect=").append(countOfForcedlyDirect);
+        if (countOfAsyncFuture > 0) {
+            sb.append(", asyncFuture=").append(countOfAsyncFuture);
+            sb.append(", asyncFailure=").append(countOfAsyncFailure);
+        }
         sb.append("}");
         return sb.toString();
     }
@@ -59,4 +78,12 @@ public class RequestedMailCount {
     public int getCountOfForcedlyDirect() {
         return countOfForcedlyDirect;
     }
+
+    public int getCountOfAsyncFuture() {
+        return countOfAsyncFuture;
+    }
+
+    public int getCountOfAsyncFailure() {
+        return countOfAsyncFailure;
+    }
 }
@@ -15,9 +15,12 @@
  */
 package org.lastaflute.core.security;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -30,6 +33,9 @@ import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.lastaflute.core.security.exception.CipherFailureException;
 
 /**
+ * The cryptographer for invertible encryption, thread-safe without lock. <br>
+ * Cipher instances (not thread-safe) are pooled per mode, initialized by the same secret key,
+ * so several threads can encrypt/decrypt at the same time.
  * @author jflute (using Commons-Codec logic, thanks)
  */
 public class InvertibleCryptographer {
@@ -49,8 +55,9 @@ public class InvertibleCryptographer {
     protected final String algorithm;
     protected final SecretKey skey;
     protected final String encoding;
-    protected Cipher encryptoCipher;
-    protected Cipher decryptoCipher;
+    protected volatile Charset charset; // null until initialized
+    protected ArrayBlockingQueue<Cipher> encryptoCipherPool; // null until initialized
+    protected ArrayBlockingQueue<Cipher> decryptoCipherPool; // null until initialized
 
     // ===================================================================================
     //                                                                         Constructor
@@ -91,7 +98,7 @@ public class InvertibleCryptographer {
     //                                                                          Initialize
     //                                                                          ==========
     protected synchronized void initialize() {
-        if (encryptoCipher != null) {
+        if (charset != null) {
             return;
         }
         assertInit();
@@ -108,17 +115,42 @@ public class InvertibleCryptographer {
     }
 
     protected void doInitializeCipher() {
+        final Charset resolvedCharset = resolveCharset();
+        final int poolSize = getCipherPoolSize();
+        encryptoCipherPool = new ArrayBlockingQueue<Cipher>(poolSize);
+        decryptoCipherPool = new ArrayBlockingQueue<Cipher>(poolSize);
+        encryptoCipherPool.offer(createCipher(Cipher.ENCRYPT_MODE)); // also checks the key here
+        decryptoCipherPool.offer(createCipher(Cipher.DECRYPT_MODE));
+        charset = resolvedCharset; // as initialized mark, volatile so pools are visible
+    }
+
+    protected Charset resolveCharset() {
         try {
-            encryptoCipher = Cipher.getInstance(algorithm);
-            encryptoCipher.init(Cipher.ENCRYPT_MODE, skey);
-            decryptoCipher = Cipher.getInstance(algorithm);
-            decryptoCipher.init(Cipher.DECRYPT_MODE, skey);
+            return Charset.forName(encoding);
+        } catch (UnsupportedCharsetException | IllegalCharsetNameException e) {
+            throw new CipherFailureException("Failed by unsupported encoding: " + encoding, e);
+        }
+    }
+
+    /**
+     * @return The max size of pooled ciphers per mode, over-size ciphers are just garbage.
+     */
+    protected int getCipherPoolSize() { // you can override
+        return Math.max(Runtime.getRuntime().availableProcessors() * 2, 8);
+    }
+
+    protected Cipher createCipher(int opmode) {
+        try {
+            final Cipher cipher = Cipher.getInstance(algorithm);
+            cipher.init(opmode, skey);
+            return cipher;
         } catch (NoSuchAlgorithmException e) {
             throw new CipherFailureException("Failed by unknown algorithm: " + algorithm, e);
         } catch (NoSuchPaddingException e) {
             throw new CipherFailureException("Failed by no such padding: " + algorithm, e);
         } catch (InvalidKeyException e) {
             throwCipherFailureInvalidKeyException(e); // frequently ocurred
+            return null; // unreachable
         }
     }
 
@@ -145,24 +177,26 @@ public class InvertibleCryptographer {
      * @return The encrypted text from the plain text. (NotNull)
      * @throws CipherFailureException When the cipher fails.
      */
-    public synchronized String encrypt(String plainText) {
+    public String encrypt(String plainText) {
         assertArgumentNotNull("plainText", plainText);
-        if (encryptoCipher == null) {
+        if (charset == null) {
             initialize();
         }
-        return new String(encodeHex(doEncrypt(plainText)));
+        return encodeHex(doEncrypt(plainText));
     }
 
     protected byte[] doEncrypt(String plainText) {
+        final Cipher cipher = borrowCipher(encryptoCipherPool, Cipher.ENCRYPT_MODE);
+        final byte[] encrypted;
         try {
-            return encryptoCipher.doFinal(plainText.getBytes(encoding));
-        } catch (IllegalBlockSizeException e) {
+            encrypted = cipher.doFinal(plainText.getBytes(charset));
+        } catch (IllegalBlockSizeException e) { // the cipher is not returned to pool just in case
             throw new CipherFailureException("Failed by illegal block size: " + plainText, e);
         } catch (BadPaddingException e) {
             throw new CipherFailureException("Failed by bad padding: " + plainText, e);
-        } catch (UnsupportedEncodingException e) {
-            throw new CipherFailureException("Failed by unsupported encoding: " + encoding, e);
         }
+        returnCipher(encryptoCipherPool, cipher); // doFinal() resets the cipher so reusable
+        return encrypted;
     }
 
     /**
@@ -172,26 +206,39 @@ public class InvertibleCryptographer {
      * @return The plain text from the encrypted text. (NotNull)
      * @throws CipherFailureException When the cipher fails.
      */
-    public synchronized String decrypt(String encryptedText) {
+    public String decrypt(String encryptedText) {
         assertArgumentNotNull("encryptedText", encryptedText);
-        if (decryptoCipher == null) {
+        if (charset == null) {
             initialize();
         }
-        try {
-            return new String(doDecrypt(encryptedText), encoding);
-        } catch (UnsupportedEncodingException e) {
-            throw new CipherFailureException("Failed by unsupported encoding: " + encoding, e);
-        }
+        return new String(doDecrypt(encryptedText), charset);
     }
 
     protected byte[] doDecrypt(String cryptedText) {
+        final byte[] decoded = decodeHex(cryptedText); // before borrowing for illegal text
+        final Cipher cipher = borrowCipher(decryptoCipherPool, Cipher.DECRYPT_MODE);
+        final byte[] decrypted;
         try {
-            return decryptoCipher.doFinal(decodeHex(cryptedText.toCharArray()));
-        } catch (IllegalBlockSizeException e) {
+            decrypted = cipher.doFinal(decoded);
+        } catch (IllegalBlockSizeException e) { // the cipher is not returned to pool just in case
             throw new CipherFailureException("Failed by illegal block size: " + cryptedText, e);
         } catch (BadPaddingException e) {
             throw new CipherFailureException("Failed by bad padding: " + cryptedText, e);
         }
+        returnCipher(decryptoCipherPool, cipher); // doFinal() resets the cipher so reusable
+        return decrypted;
+    }
+
+    // -----------------------------------------------------
+    //                                           Cipher Pool
+    //                                           -----------
+    protected Cipher borrowCipher(ArrayBlockingQueue<Cipher> cipherPool, int opmode) {
+        final Cipher pooled = cipherPool.poll();
+        return pooled != null ? pooled : createCipher(opmode); // new one if all are used now
+    }
+
+    protected void returnCipher(ArrayBlockingQueue<Cipher> cipherPool, Cipher cipher) {
+        cipherPool.offer(cipher); // ignored if full
     }
 
     // ===================================================================================
@@ -201,26 +248,40 @@ public class InvertibleCryptographer {
             '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' // number
             , 'a', 'b', 'c', 'd', 'e', 'f' }; // alphabet
 
-    protected char[] encodeHex(byte[] data) {
+    protected static final byte[] DIGIT_VALUES; // index is character, -1 means illegal
+
+    static {
+        final byte[] values = new byte[128];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -1;
+        }
+        for (int i = 0; i < DIGITS_LOWER.length; i++) {
+            values[DIGITS_LOWER[i]] = (byte) i;
+            values[Character.toUpperCase(DIGITS_LOWER[i])] = (byte) i; // also upper case is allowed
+        }
+        DIGIT_VALUES = values;
+    }
+
+    protected String encodeHex(byte[] data) {
         final int len = data.length;
         final char[] out = new char[len << 1];
         for (int i = 0, j = 0; i < len; i++) {
             out[j++] = DIGITS_LOWER[(0xF0 & data[i]) >>> 4];
             out[j++] = DIGITS_LOWER[0x0F & data[i]];
         }
-        return out;
+        return new String(out);
     }
 
-    protected byte[] decodeHex(char[] data) {
-        final int len = data.length;
+    protected byte[] decodeHex(String data) { // without char array copy
+        final int len = data.length();
         if ((len & 0x01) != 0) {
             throw new CipherFailureException("Odd number of characters."); // not show data for security
         }
         final byte[] out = new byte[len >> 1];
         for (int i = 0, j = 0; j < len; i++) {
-            int f = toDigit(data[j], j) << 4;
+            int f = toDigit(data.charAt(j), j) << 4;
             j++;
-            f = f | toDigit(data[j], j);
+            f = f | toDigit(data.charAt(j), j);
             j++;
             out[i] = (byte) (f & 0xFF);
         }
@@ -228,7 +289,7 @@ public class InvertibleCryptographer {
     }
 
     protected int toDigit(char ch, int index) {
-        final int digit = Character.digit(ch, 16);
+        final int digit = ch < DIGIT_VALUES.length ? DIGIT_VALUES[ch] : -1;
         if (digit == -1) {
             throw new CipherFailureException("Illegal hexadecimal character " + ch + " at index " + index);
         }
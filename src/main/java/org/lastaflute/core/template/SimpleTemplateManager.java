@@ -18,6 +18,7 @@ package org.lastaflute.core.template;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +37,9 @@ import org.dbflute.util.DfResourceUtil;
 import org.dbflute.util.Srl;
 import org.dbflute.util.Srl.ScopeInfo;
 import org.lastaflute.core.template.exception.TemplateFileParseFailureException;
+import org.lastaflute.di.DisposableUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jflute
@@ -46,6 +50,8 @@ public class SimpleTemplateManager implements TemplateManager {
     // ===================================================================================
     //                                                                          Definition
     //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(SimpleTemplateManager.class);
+
     protected static final String IF_PREFIX = "/*IF ";
     protected static final String FOR_PREFIX = "/*FOR ";
     protected static final String END_COMMENT = "/*END*/";
@@ -83,6 +89,34 @@ public class SimpleTemplateManager implements TemplateManager {
         return new FileTextIO().encodeAsUTF8().removeUTF8Bom().replaceCrLfToLf();
     }
 
+    /**
+     * The cache of analyzed template node keyed by template path, least-recently-used order. <br>
+     * The node is immutable after analyzing so it can be evaluated by several threads. (NotNull)
+     */
+    protected final Map<String, Node> compiledTemplateMap = createCompiledTemplateMap();
+
+    /** Is HotDeploy requested? (cleared when next parsing) */
+    protected volatile boolean hotDeployRequested;
+
+    protected Map<String, Node> createCompiledTemplateMap() {
+        final int limit = getCompiledTemplateCacheLimit();
+        return new LinkedHashMap<String, Node>(Math.min(limit, 64), 0.75f, true) { // access order for LRU
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * @return The max size of compiled template cache, least-recently-used template is removed if over.
+     */
+    protected int getCompiledTemplateCacheLimit() { // you can override
+        return 300; // enough for mail and text templates of basic application
+    }
+
     // ===================================================================================
     //                                                                          Initialize
     //                                                                          ==========
@@ -92,7 +126,7 @@ public class SimpleTemplateManager implements TemplateManager {
      */
     @PostConstruct
     public synchronized void initialize() {
-        // empty for now
+        prepareHotDeploy();
     }
 
     // ===================================================================================
@@ -103,7 +137,7 @@ public class SimpleTemplateManager implements TemplateManager {
         assertArgumentNotNull("pmb", pmb);
         final String templatePath = pmb.getTemplatePath();
         assertArgumentNotNull("pmb.getTemplatePath()", templatePath);
-        final String evaluated = evaluate(readText(templatePath), pmb);
+        final String evaluated = evaluate(prepareCompiledTemplate(templatePath, pmb), pmb);
         return filterBodyMeta(templatePath, evaluated);
     }
 
@@ -111,7 +145,7 @@ public class SimpleTemplateManager implements TemplateManager {
     public String parse(String templatePath, Map<String, Object> variableMap) {
         assertArgumentNotNull("templatePath", templatePath);
         assertArgumentNotNull("variableMap", variableMap);
-        final String evaluated = evaluate(readText(templatePath), variableMap);
+        final String evaluated = evaluate(prepareCompiledTemplate(templatePath, variableMap), variableMap);
         return filterBodyMeta(templatePath, evaluated);
     }
 
@@ -150,11 +184,41 @@ public class SimpleTemplateManager implements TemplateManager {
     //                                                                            Evaluate
     //                                                                            ========
     // very similar to pm-comment proofreader of MailFlute but no recycle to be independent
+    // -----------------------------------------------------
+    //                                     Compiled Template
+    //                                     -----------------
+    protected Node prepareCompiledTemplate(String templatePath, Object pmb) {
+        reloadIfNeeds();
+        Node node;
+        synchronized (compiledTemplateMap) { // also get() needs lock for access order
+            node = compiledTemplateMap.get(templatePath);
+        }
+        if (node != null) {
+            return node;
+        }
+        node = compileTemplate(readText(templatePath), pmb); // outside lock, heavy
+        synchronized (compiledTemplateMap) {
+            final Node existing = compiledTemplateMap.get(templatePath);
+            if (existing != null) { // other thread already compiled
+                return existing;
+            }
+            compiledTemplateMap.put(templatePath, node);
+        }
+        return node;
+    }
+
+    protected Node compileTemplate(String templateText, Object pmb) {
+        return analyze(filterTemplateText(templateText, pmb));
+    }
+
     // -----------------------------------------------------
     //                                              Evaluate
     //                                              --------
     protected String evaluate(String templateText, Object pmb) {
-        final Node node = analyze(filterTemplateText(templateText, pmb));
+        return evaluate(compileTemplate(templateText, pmb), pmb);
+    }
+
+    protected String evaluate(Node node, Object pmb) {
         final CommandContext ctx = prepareContext(pmb);
         node.accept(ctx);
         return ctx.getSql();
@@ -616,6 +680,41 @@ public class SimpleTemplateManager implements TemplateManager {
         br.addElement(evaluated);
     }
 
+    // ===================================================================================
+    //                                                                          Hot Deploy
+    //                                                                          ==========
+    protected void prepareHotDeploy() { // only unused if cool
+        DisposableUtil.add(() -> requestHotDeploy());
+        hotDeployRequested = false;
+    }
+
+    protected void requestHotDeploy() { // called when request ending if HotDeploy
+        // no sync to avoid disposable thread locking this (or deadlock) and so no clearing here
+        hotDeployRequested = true;
+    }
+
+    protected void reloadIfNeeds() {
+        if (hotDeployRequested) {
+            synchronized (this) {
+                if (hotDeployRequested) {
+                    // INFO to find mistake that it uses HotDeploy in production
+                    logger.info("...Reloading template manager by HotDeploy request");
+                    clearCompiledTemplate();
+                    prepareHotDeploy(); // for next HotDeploy
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear the cache of compiled template, e.g. when template files are modified.
+     */
+    public void clearCompiledTemplate() {
+        synchronized (compiledTemplateMap) {
+            compiledTemplateMap.clear();
+        }
+    }
+
     // ===================================================================================
     //                                                                        Small Helper
     //                                                                        ============
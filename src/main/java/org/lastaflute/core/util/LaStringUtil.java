@@ -15,6 +15,10 @@
  */
 package org.lastaflute.core.util;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
 import org.dbflute.util.Srl;
 
 /**
@@ -30,4 +34,23 @@ public class LaStringUtil {
     public static boolean isNotEmpty(String str) {
         return Srl.is_NotNull_and_NotEmpty(str);
     }
+
+    /**
+     * Read all characters from the reader, e.g. for default methods of streaming API.
+     * @param reader The reader to be read, not closed here. (NotNull)
+     * @return The read string. (NotNull, EmptyAllowed)
+     */
+    public static String readAll(Reader reader) {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buffer = new char[4096];
+        try {
+            int length;
+            while ((length = reader.read(buffer)) >= 0) {
+                sb.append(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read all from the reader: " + reader, e);
+        }
+        return sb.toString();
+    }
 }
@@ -16,6 +16,7 @@
 package org.lastaflute.db.dbflute.callbackcontext.traceablesql;
 
 import org.dbflute.bhv.proposal.callback.ExecutedSqlCounter;
+import org.lastaflute.core.magic.async.ConcurrentAsyncFutureCounter;
 
 /**
  * @author jflute
@@ -28,6 +29,8 @@ public class RequestedSqlCount {
     protected final int countOfQueryUpdate;
     protected final int countOfOutsideSql;
     protected final int countOfProcedure;
+    protected final int countOfAsyncFuture; // zero if no future
+    protected final int countOfAsyncFailure; // failed futures, their SQLs until failure are also counted
 
     public RequestedSqlCount(ExecutedSqlCounter counter) {
         this.countOfSelectCB = counter.getCountOfSelectCB();
@@ -35,6 +38,18 @@ public class RequestedSqlCount {
         this.countOfQueryUpdate = counter.getCountOfQueryUpdate();
         this.countOfOutsideSql = counter.getCountOfOutsideSql();
         this.countOfProcedure = counter.getCountOfProcedure();
+        this.countOfAsyncFuture = 0;
+        this.countOfAsyncFailure = 0;
+    }
+
+    public RequestedSqlCount(ExecutedSqlCounter counter, ConcurrentAsyncFutureCounter futureCounter) { // with asynchronous futures
+        this.countOfSelectCB = counter.getCountOfSelectCB() + futureCounter.getCountOfSelectCB();
+        this.countOfEntityUpdate = counter.getCountOfEntityUpdate() + futureCounter.getCountOfEntityUpdate();
+        this.countOfQueryUpdate = counter.getCountOfQueryUpdate() + futureCounter.getCountOfQueryUpdate();
+        this.countOfOutsideSql = counter.getCountOfOutsideSql() + futureCounter.getCountOfOutsideSql();
+        this.countOfProcedure = counter.getCountOfProcedure() + futureCounter.getCountOfProcedure();
+        this.countOfAsyncFuture = futureCounter.getCountOfFuture();
+        this.countOfAsyncFailure = futureCounter.getCountOfFailure();
     }
 
     @Override
@@ -46,6 +61,10 @@ public class RequestedSqlCount {
         sb.append(", queryUpdate=").append(getCountOfQueryUpdate());
         sb.append(", outsideSql=").append(getCountOfOutsideSql());
         sb.append(", procedure=").append(getCountOfProcedure());
+        if (countOfAsyncFuture > 0) {
+            sb.append(", asyncFuture=").append(countOfAsyncFuture);
+            sb.append(", asyncFailure=").append(countOfAsyncFailure);
+        }
         sb.append("}");
         return sb.toString();
     }
@@ -73,4 +92,12 @@ public class RequestedSqlCount {
     public int getCountOfProcedure() {
         return countOfProcedure;
     }
+
+    public int getCountOfAsyncFuture() {
+        return countOfAsyncFuture;
+    }
+
+    public int getCountOfAsyncFailure() {
+        return countOfAsyncFailure;
+    }
 }
@@ -22,18 +22,24 @@ import org.dbflute.hook.SqlFireReadyInfo;
 import org.dbflute.hook.SqlFireResultInfo;
 import org.dbflute.hook.SqlLogInfo;
 import org.dbflute.util.DfTypeUtil;
+import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.db.jta.RomanticTransaction;
 import org.lastaflute.db.jta.TransactionRomanticContext;
 import org.lastaflute.db.jta.romanticist.TransactionCurrentSqlBuilder;
+import org.lastaflute.db.replication.slavedb.SlaveDBWriteHistory;
+import org.lastaflute.di.core.factory.SingletonLaContainerFactory;
 
 /**
  * @author jflute
  */
 public class RomanticTraceableSqlFireHook implements SqlFireHook {
 
+    protected static final SlaveDBWriteHistory[] EMPTY_WRITE_HISTORIES = new SlaveDBWriteHistory[0];
+
     @Override
     public void hookBefore(BehaviorCommandMeta meta, SqlFireReadyInfo fireReadyInfo) {
         saveCommandToRomanticTransaction(meta, fireReadyInfo);
+        markMasterDBWrittenIfUpdate(meta);
     }
 
     @Override
@@ -52,6 +58,24 @@ public class RomanticTraceableSqlFireHook implements SqlFireHook {
         }
     }
 
+    protected void markMasterDBWrittenIfUpdate(BehaviorCommandMeta meta) { // for read-your-writes of SlaveDB
+        if (meta.isSelect()) { // mainly here, no cost for select
+            return;
+        }
+        for (SlaveDBWriteHistory history : findSlaveDBWriteHistories()) { // empty if no SlaveDB
+            if (history.isRecordingEnabled()) { // opt-in by SlaveDBAccessor
+                history.markWrittenIfUpdate(meta);
+            }
+        }
+    }
+
+    protected SlaveDBWriteHistory[] findSlaveDBWriteHistories() { // per schema if several
+        if (!SingletonLaContainerFactory.hasContainer()) { // e.g. UnitTest without container
+            return EMPTY_WRITE_HISTORIES;
+        }
+        return ContainerUtil.searchComponentsAll(SlaveDBWriteHistory.class);
+    }
+
     protected TransactionCurrentSqlBuilder createCurrentSqlBuilder(SqlLogInfo sqlLogInfo) {
         return () -> {
             // to be exact, this is not perfectly thread-safe but no problem,
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.db.replication.replica;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.lastaflute.db.replication.replica.ReplicaSelector.LeastOutstandingSelector;
+import org.lastaflute.db.replication.replica.ReplicaSelector.WeightedRoundRobinSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The data source balancing connections across replica data sources. <br>
+ * Define it as the slave data source (e.g. 'slaveDataSource' component) so that SlaveDBAccessor
+ * routes to the group by the existing 'slave' key. <br>
+ * A replica failing to provide a connection is quarantined for a while (and tried again after that),
+ * and the fallback data source (basically master) is used when no replica is available.
+ * <pre>
+ * ReplicaGroupDataSource group = new ReplicaGroupDataSource();
+ * group.registerReplica("slave1", slave1DataSource, 2);
+ * group.registerReplica("slave2", slave2DataSource, 1);
+ * group.fallbackTo(masterDataSource).asLeastOutstanding();
+ * </pre>
+ * @author jflute
+ */
+public class ReplicaGroupDataSource implements DataSource {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaGroupDataSource.class);
+    public static final long DEFAULT_QUARANTINE_MILLIS = 30000L;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final List<ReplicaMember> memberList = new CopyOnWriteArrayList<ReplicaMember>(); // registered when initialization
+    protected ReplicaSelector replicaSelector = new WeightedRoundRobinSelector(); // not null
+    protected DataSource fallbackDataSource; // null allowed, basically master
+    protected long quarantineMillis = DEFAULT_QUARANTINE_MILLIS;
+
+    // ===================================================================================
+    //                                                                             Setting
+    //                                                                             =======
+    public ReplicaGroupDataSource registerReplica(String replicaName, DataSource dataSource) {
+        return registerReplica(replicaName, dataSource, 1);
+    }
+
+    public ReplicaGroupDataSource registerReplica(String replicaName, DataSource dataSource, int weight) {
+        memberList.add(newReplicaMember(replicaName, dataSource, weight));
+        return this;
+    }
+
+    protected ReplicaMember newReplicaMember(String replicaName, DataSource dataSource, int weight) {
+        return new ReplicaMember(replicaName, dataSource, weight);
+    }
+
+    public ReplicaGroupDataSource fallbackTo(DataSource fallbackDataSource) {
+        if (fallbackDataSource == null) {
+            throw new IllegalArgumentException("The argument 'fallbackDataSource' should not be null.");
+        }
+        this.fallbackDataSource = fallbackDataSource;
+        return this;
+    }
+
+    public ReplicaGroupDataSource asWeightedRoundRobin() {
+        return selectBy(new WeightedRoundRobinSelector());
+    }
+
+    public ReplicaGroupDataSource asLeastOutstanding() {
+        return selectBy(new LeastOutstandingSelector());
+    }
+
+    public ReplicaGroupDataSource selectBy(ReplicaSelector replicaSelector) {
+        if (replicaSelector == null) {
+            throw new IllegalArgumentException("The argument 'replicaSelector' should not be null.");
+        }
+        this.replicaSelector = replicaSelector;
+        return this;
+    }
+
+    public ReplicaGroupDataSource quarantineMillis(long quarantineMillis) {
+        if (quarantineMillis < 0L) {
+            throw new IllegalArgumentException("The argument 'quarantineMillis' should not be minus: " + quarantineMillis);
+        }
+        this.quarantineMillis = quarantineMillis;
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                          Connection
+    //                                                                          ==========
+    @Override
+    public Connection getConnection() throws SQLException {
+        return doGetConnection(dataSource -> dataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return doGetConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    @FunctionalInterface
+    protected static interface ReplicaConnectionProvider {
+
+        Connection provide(DataSource dataSource) throws SQLException;
+    }
+
+    protected Connection doGetConnection(ReplicaConnectionProvider provider) throws SQLException {
+        SQLException firstCause = null;
+        final List<ReplicaMember> triedList = new ArrayList<ReplicaMember>(2);
+        while (true) {
+            final List<ReplicaMember> candidateList = findAvailableCandidateList(triedList);
+            if (candidateList.isEmpty()) {
+                break;
+            }
+            final ReplicaMember member = replicaSelector.select(candidateList);
+            triedList.add(member);
+            member.beginConnection();
+            final Connection connection;
+            try {
+                connection = provider.provide(member.getDataSource());
+            } catch (SQLException e) {
+                member.endConnection();
+                if (isQuarantineTarget(e)) { // e.g. the replica is down
+                    quarantineReplica(member, e);
+                } else { // e.g. pool timeout, the replica itself may be alive so only tries next
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("...Trying next replica without quarantine: " + member + " cause=" + e.getMessage());
+                    }
+                }
+                if (firstCause == null) {
+                    firstCause = e;
+                } else {
+                    firstCause.addSuppressed(e);
+                }
+                continue;
+            }
+            member.markSuccess();
+            return wrapReplicaConnection(member, connection);
+        }
+        return fallbackConnection(provider, triedList, firstCause);
+    }
+
+    protected List<ReplicaMember> findAvailableCandidateList(List<ReplicaMember> triedList) {
+        if (memberList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final long currentMillis = currentTimeMillis();
+        final List<ReplicaMember> candidateList = new ArrayList<ReplicaMember>(memberList.size());
+        for (ReplicaMember member : memberList) {
+            if (member.isAvailable(currentMillis) && !triedList.contains(member)) {
+                candidateList.add(member);
+            }
+        }
+        return candidateList;
+    }
+
+    /**
+     * Is the exception the target of quarantine? (connection or network failure?)
+     * @param cause The exception thrown when getting connection from the replica. (NotNull)
+     * @return true if SQLState class is 08 (connection exception) in the causes.
+     */
+    protected boolean isQuarantineTarget(SQLException cause) {
+        Throwable current = cause;
+        while (current != null) {
+            if (current instanceof SQLException) {
+                final String sqlState = ((SQLException) current).getSQLState();
+                if (sqlState != null && sqlState.startsWith("08")) {
+                    return true;
+                }
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    protected void quarantineReplica(ReplicaMember member, SQLException cause) {
+        final long untilMillis = currentTimeMillis() + quarantineMillis;
+        member.quarantine(untilMillis);
+        logger.warn("...Quarantining the replica for " + quarantineMillis + "ms: " + member + " cause=" + cause.getMessage());
+    }
+
+    protected Connection fallbackConnection(ReplicaConnectionProvider provider, List<ReplicaMember> triedList, SQLException cause)
+            throws SQLException {
+        if (fallbackDataSource == null) {
+            final String msg = "No available replica in the group: tried=" + triedList + ", members=" + memberList;
+            throw cause != null ? new SQLException(msg, cause) : new SQLException(msg);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("...Falling back to the fallback data source because of no available replica: " + memberList);
+        }
+        return provider.provide(fallbackDataSource);
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    // -----------------------------------------------------
+    //                                    Replica Connection
+    //                                    ------------------
+    protected Connection wrapReplicaConnection(ReplicaMember member, Connection connection) {
+        final ClassLoader loader = ReplicaGroupDataSource.class.getClassLoader();
+        final Class<?>[] interfaces = new Class<?>[] { Connection.class };
+        return (Connection) Proxy.newProxyInstance(loader, interfaces, new ReplicaConnectionHandler(member, connection));
+    }
+
+    /**
+     * The handler of replica connection to count outstanding connections by close().
+     */
+    protected static class ReplicaConnectionHandler implements InvocationHandler {
+
+        protected final ReplicaMember member;
+        protected final Connection connection;
+        protected boolean closed; // to count down only once
+
+        public ReplicaConnectionHandler(ReplicaMember member, Connection connection) {
+            this.member = member;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String methodName = method.getName();
+            if ("close".equals(methodName) && method.getParameterCount() == 0) {
+                synchronized (this) {
+                    if (!closed) {
+                        closed = true;
+                        member.endConnection();
+                    }
+                }
+            } else if ("equals".equals(methodName) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            } else if ("toString".equals(methodName) && method.getParameterCount() == 0) {
+                return member.getReplicaName() + ":" + connection;
+            } else if ("unwrap".equals(methodName) && method.getParameterCount() == 1) {
+                final Class<?> iface = (Class<?>) args[0];
+                if (iface.isInstance(proxy)) { // e.g. Connection, keep counting outstanding by the proxy
+                    return proxy;
+                }
+            } else if ("isWrapperFor".equals(methodName) && method.getParameterCount() == 1) {
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Implementation
+    //                                                                      ==============
+    protected DataSource getRepresentativeDataSource() throws SQLException {
+        if (!memberList.isEmpty()) {
+            return memberList.get(0).getDataSource();
+        }
+        if (fallbackDataSource != null) {
+            return fallbackDataSource;
+        }
+        throw new SQLException("No replica in the group and no fallback data source.");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getRepresentativeDataSource().getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        for (ReplicaMember member : memberList) {
+            member.getDataSource().setLogWriter(out);
+        }
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getRepresentativeDataSource().getLoginTimeout();
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        for (ReplicaMember member : memberList) {
+            member.getDataSource().setLoginTimeout(seconds);
+        }
+    }
+
+    // #java8comp DataSource: getParentLogger(), unwrap(), isWrapperFor()
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Not supported in replica group: " + memberList);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Cannot unwrap the replica group as " + iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "replicaGroup:{" + replicaSelector + ", members=" + memberList + ", fallback=" + (fallbackDataSource != null) + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public List<ReplicaMember> getMemberList() {
+        return Collections.unmodifiableList(memberList);
+    }
+
+    public ReplicaSelector getReplicaSelector() {
+        return replicaSelector;
+    }
+}
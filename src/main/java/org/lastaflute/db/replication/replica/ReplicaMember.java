@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.db.replication.replica;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * The member of replica group, keeping its own weight and health state.
+ * @author jflute
+ */
+public class ReplicaMember {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String replicaName; // not null, for logging and monitoring
+    protected final DataSource dataSource; // not null
+    protected final int weight; // positive
+    protected final AtomicInteger outstandingCount = new AtomicInteger(); // connections not closed yet
+    protected final AtomicInteger failureCount = new AtomicInteger(); // continuous failures, cleared by success
+    protected volatile long quarantinedUntil; // epoch millis, zero means healthy
+    protected int currentWeight; // for smooth weighted round-robin, guarded by the selector
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ReplicaMember(String replicaName, DataSource dataSource, int weight) {
+        if (replicaName == null) {
+            throw new IllegalArgumentException("The argument 'replicaName' should not be null.");
+        }
+        if (dataSource == null) {
+            throw new IllegalArgumentException("The argument 'dataSource' should not be null: " + replicaName);
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("The argument 'weight' should be positive: " + replicaName + ", " + weight);
+        }
+        this.replicaName = replicaName;
+        this.dataSource = dataSource;
+        this.weight = weight;
+    }
+
+    // ===================================================================================
+    //                                                                              Health
+    //                                                                              ======
+    /**
+     * @param currentMillis The current time as epoch millis.
+     * @return true if not quarantined or the quarantine has expired (then it is tried again).
+     */
+    public boolean isAvailable(long currentMillis) {
+        return quarantinedUntil <= currentMillis;
+    }
+
+    public boolean isQuarantined(long currentMillis) {
+        return !isAvailable(currentMillis);
+    }
+
+    public void quarantine(long untilMillis) {
+        failureCount.incrementAndGet();
+        quarantinedUntil = untilMillis;
+    }
+
+    public void markSuccess() {
+        if (quarantinedUntil != 0L) { // recovered
+            quarantinedUntil = 0L;
+        }
+        if (failureCount.get() != 0) {
+            failureCount.set(0);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Outstanding
+    //                                                                         ===========
+    public void beginConnection() {
+        outstandingCount.incrementAndGet();
+    }
+
+    public void endConnection() {
+        outstandingCount.decrementAndGet();
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "replica:{" + replicaName + ", weight=" + weight + ", outstanding=" + outstandingCount.get() + ", failure="
+                + failureCount.get() + (quarantinedUntil != 0L ? ", quarantinedUntil=" + quarantinedUntil : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getReplicaName() {
+        return replicaName;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getOutstandingCount() {
+        return outstandingCount.get();
+    }
+
+    public int getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getQuarantinedUntil() {
+        return quarantinedUntil;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.db.replication.replica;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The selector of replica member from the available candidates.
+ * @author jflute
+ */
+public interface ReplicaSelector {
+
+    /**
+     * @param candidateList The list of available members. (NotNull, NotEmpty)
+     * @return The selected member in the candidates. (NotNull)
+     */
+    ReplicaMember select(List<ReplicaMember> candidateList);
+
+    // ===================================================================================
+    //                                                                Weighted Round-Robin
+    //                                                                ====================
+    /**
+     * Smooth weighted round-robin, e.g. weights 5:1:1 are selected as a, a, b, a, c, a, a.
+     */
+    public static class WeightedRoundRobinSelector implements ReplicaSelector {
+
+        @Override
+        public synchronized ReplicaMember select(List<ReplicaMember> candidateList) {
+            int totalWeight = 0;
+            ReplicaMember best = null;
+            for (ReplicaMember member : candidateList) {
+                member.currentWeight += member.getWeight();
+                totalWeight += member.getWeight();
+                if (best == null || member.currentWeight > best.currentWeight) {
+                    best = member;
+                }
+            }
+            best.currentWeight -= totalWeight;
+            return best;
+        }
+
+        @Override
+        public String toString() {
+            return "weightedRoundRobin";
+        }
+    }
+
+    // ===================================================================================
+    //                                                                   Least Outstanding
+    //                                                                   =================
+    /**
+     * The member that has the fewest outstanding connections per weight is selected,
+     * and ties are broken by rotation not to concentrate on the first member.
+     */
+    public static class LeastOutstandingSelector implements ReplicaSelector {
+
+        protected final AtomicInteger rotation = new AtomicInteger();
+
+        @Override
+        public ReplicaMember select(List<ReplicaMember> candidateList) {
+            final int size = candidateList.size();
+            final int start = (rotation.getAndIncrement() & Integer.MAX_VALUE) % size;
+            ReplicaMember best = null;
+            for (int i = 0; i < size; i++) {
+                final ReplicaMember member = candidateList.get((start + i) % size);
+                if (best == null) {
+                    best = member;
+                    continue;
+                }
+                // outstanding / weight compared by cross multiplication
+                final long bestLoad = (long) best.getOutstandingCount() * member.getWeight();
+                final long memberLoad = (long) member.getOutstandingCount() * best.getWeight();
+                if (memberLoad < bestLoad) {
+                    best = member;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public String toString() {
+            return "leastOutstanding";
+        }
+    }
+}
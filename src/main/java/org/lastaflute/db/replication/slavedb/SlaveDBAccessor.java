@@ -16,6 +16,8 @@
 package org.lastaflute.db.replication.slavedb;
 
 /**
+ * The accessor to SlaveDB selected by the key 'slave'. <br>
+ * If you have several replicas, define the slave data source as ReplicaGroupDataSource to balance them.
  * @author jflute
  */
 public interface SlaveDBAccessor {
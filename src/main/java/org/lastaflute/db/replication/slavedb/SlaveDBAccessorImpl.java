@@ -15,6 +15,7 @@
  */
 package org.lastaflute.db.replication.slavedb;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import org.dbflute.bhv.core.BehaviorCommandHook;
@@ -40,6 +41,23 @@ public class SlaveDBAccessorImpl implements SlaveDBAccessor {
     @Resource
     protected SelectableDataSourceHolder selectableDataSourceHolder;
 
+    @Resource
+    protected SlaveDBWriteHistory slaveDBWriteHistory; // records writes only when read-your-writes is enabled
+
+    // ===================================================================================
+    //                                                                          Initialize
+    //                                                                          ==========
+    /**
+     * Initialize this component. <br>
+     * This is basically called by DI setting file.
+     */
+    @PostConstruct
+    public synchronized void initialize() {
+        if (isReadYourWritesEnabled()) { // opt-in so no recording cost as default
+            slaveDBWriteHistory.enableRecording();
+        }
+    }
+
     // ===================================================================================
     //                                                                      SlaveDB Access
     //                                                                      ==============
@@ -54,6 +72,9 @@ public class SlaveDBAccessorImpl implements SlaveDBAccessor {
 
     protected <RESULT> RESULT doAccessFixedly(SlaveDBCallback<RESULT> callback) {
         assertCallbackNotNull(callback);
+        if (needsReadYourWritesMaster()) {
+            return doMasterAccessFixedly(callback); // not to read stale data
+        }
         final String currentKey = selectableDataSourceHolder.getCurrentSelectableDataSourceKey();
         try {
             final String slaveDB = SLAVE_DB;
@@ -103,6 +124,62 @@ public class SlaveDBAccessorImpl implements SlaveDBAccessor {
         return (determinationNumber % 2) == 0;
     }
 
+    // ===================================================================================
+    //                                                                    Read Your Writes
+    //                                                                    ================
+    /**
+     * Does it need to read MasterDB because of recent writes? <br>
+     * SlaveDB may not catch up with the writes so reads after them are kept on MasterDB:
+     * writes to the schema in the current thread (request or job), or by the same writer (login access user) within the window.
+     * @return true if it reads MasterDB instead of SlaveDB.
+     */
+    protected boolean needsReadYourWritesMaster() {
+        if (!isReadYourWritesEnabled()) {
+            return false;
+        }
+        final String schemaKey = myReadYourWritesSchemaKey();
+        if (slaveDBWriteHistory.isWrittenOnThread(schemaKey)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("...Keeping MasterDB for " + mySchemaDisp() + " because of writes in the thread");
+            }
+            return true;
+        }
+        final long windowMillis = getReadYourWritesWindowMillis();
+        if (windowMillis > 0L) {
+            final String writerKey = slaveDBWriteHistory.findWriterKeyOnThread();
+            if (writerKey != null && slaveDBWriteHistory.isWrittenWithin(writerKey, schemaKey, windowMillis)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("...Keeping MasterDB for " + mySchemaDisp() + " because of recent writes by " + writerKey);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Is read-your-writes routing enabled? (opt-in) <br>
+     * Override this to return true if reads after writes should not be stale.
+     * @return The determination, true or false. (default: false, always SlaveDB as before)
+     */
+    protected boolean isReadYourWritesEnabled() {
+        return false;
+    }
+
+    /**
+     * @return The millis of window to keep reads on MasterDB after writes by the same access user. (zero: only in thread)
+     */
+    protected long getReadYourWritesWindowMillis() {
+        return 0L; // e.g. 3000L if replication lag is a few seconds (max is retention of write history)
+    }
+
+    /**
+     * @return The key of schema to determine writes, DBFlute project name e.g. DBCurrent.getInstance().projectName(). (NullAllowed: any schema)
+     */
+    protected String myReadYourWritesSchemaKey() {
+        return null; // writes to other schemas also keep MasterDB (override for sub schema)
+    }
+
     // ===================================================================================
     //                                                                        Fixed Master
     //                                                                        ============
@@ -141,6 +218,9 @@ public class SlaveDBAccessorImpl implements SlaveDBAccessor {
             protected boolean forcedSet;
 
             public void hookBefore(BehaviorCommandMeta meta) {
+                if (isReadYourWritesEnabled()) {
+                    slaveDBWriteHistory.markWrittenIfUpdate(meta); // also for no SQL fire hook e.g. out of action
+                }
                 if (needsForcedMasterCommand(meta)) {
                     final String masterDB = MASTER_DB;
                     currentKey = selectableDataSourceHolder.getCurrentSelectableDataSourceKey();
@@ -168,7 +248,13 @@ public class SlaveDBAccessorImpl implements SlaveDBAccessor {
     }
 
     protected boolean needsForcedMasterCommand(BehaviorCommandMeta meta) {
-        return !meta.isSelect();
+        if (!meta.isSelect()) {
+            return true;
+        }
+        if (!isReadYourWritesEnabled()) {
+            return false;
+        }
+        return slaveDBWriteHistory.isWrittenOnThread(slaveDBWriteHistory.extractSchemaKey(meta)); // reads after writes in callback
     }
 
     protected String buildForcedMasterHookDebugMessage(String masterDB) {
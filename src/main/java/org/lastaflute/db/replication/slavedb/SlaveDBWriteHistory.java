@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.db.replication.slavedb;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dbflute.bhv.core.BehaviorCommandMeta;
+import org.dbflute.dbmeta.DBMeta;
+import org.dbflute.hook.AccessContext;
+import org.dbflute.hook.AccessContext.AccessUserProvider;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
+
+/**
+ * The history of MasterDB writes for read-your-writes routing of SlaveDB access. <br>
+ * Writes are marked per schema (DBFlute project) on the current thread (until the request or job ends)
+ * and recorded by access user and schema to keep reads on MasterDB for a while. <br>
+ * Access users without login user bean (e.g. guest, batch) are not recorded
+ * because the fixed user is shared by other requests. <br>
+ * This is DI component owned by SlaveDBAccessor, and records nothing until it is enabled by the accessor.
+ * @author jflute
+ */
+public class SlaveDBWriteHistory {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    /** The max millis to retain written time per writer, so longer window is treated as this. */
+    public static final long RETENTION_MILLIS = 60000L;
+
+    /** The schema key of unknown schema e.g. no DB meta, treated as written to all schemas. */
+    public static final String UNKNOWN_SCHEMA = "?";
+
+    /** The schema key of any schema for determination, also recorded with each write. */
+    protected static final String ANY_SCHEMA = "*";
+
+    protected static final int SWEEP_INTERVAL = 1024; // count of writes
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Map<String, Long> writtenMillisMap = new ConcurrentHashMap<String, Long>(); // key is writer@schema
+    protected final AtomicInteger writtenCount = new AtomicInteger();
+    protected volatile boolean recordingEnabled; // false until read-your-writes is enabled
+
+    // ===================================================================================
+    //                                                                    Enable Recording
+    //                                                                    ================
+    /**
+     * Enable recording of writes, called by the accessor whose read-your-writes is enabled.
+     */
+    public void enableRecording() {
+        recordingEnabled = true;
+    }
+
+    /**
+     * @return true if writes are recorded. (default: false)
+     */
+    public boolean isRecordingEnabled() {
+        return recordingEnabled;
+    }
+
+    // ===================================================================================
+    //                                                                        Mark Written
+    //                                                                        ============
+    /**
+     * Mark the MasterDB write if the command is not select (and recording is enabled).
+     * @param meta The meta of behavior command. (NotNull)
+     */
+    public void markWrittenIfUpdate(BehaviorCommandMeta meta) {
+        if (recordingEnabled && !meta.isSelect()) { // also procedure, same as forced master
+            markWritten(extractSchemaKey(meta));
+        }
+    }
+
+    /**
+     * Mark the MasterDB write on the current thread and record it by writer key if found (and recording is enabled).
+     * @param schemaKey The key of written schema, basically DBFlute project name. (NullAllowed: unknown schema)
+     */
+    public void markWritten(String schemaKey) {
+        if (!recordingEnabled) { // opt-in
+            return;
+        }
+        final String writtenSchema = schemaKey != null ? schemaKey : UNKNOWN_SCHEMA;
+        if (ThreadCacheContext.exists()) {
+            ThreadCacheContext.markMasterDBWritten(writtenSchema);
+        }
+        final String writerKey = findWriterKeyOnThread();
+        if (writerKey != null) {
+            final long currentMillis = System.currentTimeMillis();
+            writtenMillisMap.put(buildHistoryKey(writerKey, writtenSchema), currentMillis);
+            writtenMillisMap.put(buildHistoryKey(writerKey, ANY_SCHEMA), currentMillis); // for determination of any schema
+            if ((writtenCount.incrementAndGet() % SWEEP_INTERVAL) == 0) {
+                sweepExpired(currentMillis);
+            }
+        }
+    }
+
+    protected void sweepExpired(long currentMillis) {
+        final Iterator<Entry<String, Long>> ite = writtenMillisMap.entrySet().iterator();
+        while (ite.hasNext()) {
+            if (currentMillis - ite.next().getValue() >= RETENTION_MILLIS) {
+                ite.remove();
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                       Determination
+    //                                                                       =============
+    /**
+     * @param schemaKey The key of schema to determine. (NullAllowed: any schema)
+     * @return true if the current thread has written to MasterDB of the schema.
+     */
+    public boolean isWrittenOnThread(String schemaKey) {
+        if (schemaKey == null) {
+            return ThreadCacheContext.isMasterDBWritten(null);
+        }
+        return ThreadCacheContext.isMasterDBWritten(schemaKey) || ThreadCacheContext.isMasterDBWritten(UNKNOWN_SCHEMA);
+    }
+
+    /**
+     * @param writerKey The key of writer, basically access user. (NotNull)
+     * @param schemaKey The key of schema to determine. (NullAllowed: any schema)
+     * @param windowMillis The millis of window after the write, limited by retention. (NotMinus)
+     * @return true if the writer has written to MasterDB of the schema within the window.
+     */
+    public boolean isWrittenWithin(String writerKey, String schemaKey, long windowMillis) {
+        final Long writtenMillis = findWrittenMillis(writerKey, schemaKey != null ? schemaKey : ANY_SCHEMA);
+        if (writtenMillis == null) {
+            return false;
+        }
+        final long elapsed = System.currentTimeMillis() - writtenMillis;
+        return elapsed < Math.min(windowMillis, RETENTION_MILLIS);
+    }
+
+    protected Long findWrittenMillis(String writerKey, String schemaKey) {
+        final Long writtenMillis = writtenMillisMap.get(buildHistoryKey(writerKey, schemaKey));
+        if (ANY_SCHEMA.equals(schemaKey)) {
+            return writtenMillis;
+        }
+        final Long unknownMillis = writtenMillisMap.get(buildHistoryKey(writerKey, UNKNOWN_SCHEMA));
+        if (writtenMillis == null || unknownMillis == null) {
+            return writtenMillis != null ? writtenMillis : unknownMillis;
+        }
+        return Math.max(writtenMillis, unknownMillis);
+    }
+
+    // ===================================================================================
+    //                                                                          Writer Key
+    //                                                                          ==========
+    /**
+     * @return The key of writer from access user of prepared access context. (NullAllowed: when no context or fixed user)
+     */
+    public String findWriterKeyOnThread() {
+        if (ThreadCacheContext.findUserBean() == null) { // e.g. guest, batch: fixed user shared by others
+            return null;
+        }
+        final AccessContext context = PreparedAccessContext.getAccessContextOnThread();
+        if (context == null) {
+            return null;
+        }
+        final String accessUser = context.getAccessUser();
+        if (accessUser != null) {
+            return accessUser;
+        }
+        final AccessUserProvider provider = context.getAccessUserProvider();
+        return provider != null ? provider.provideUser() : null;
+    }
+
+    // ===================================================================================
+    //                                                                          Schema Key
+    //                                                                          ==========
+    /**
+     * @param meta The meta of behavior command. (NotNull)
+     * @return The key of schema from DBFlute project name of the command. (NullAllowed: when no DB meta)
+     */
+    public String extractSchemaKey(BehaviorCommandMeta meta) {
+        final DBMeta dbmeta = meta.getDBMeta();
+        return dbmeta != null ? dbmeta.getProjectName() : null;
+    }
+
+    protected String buildHistoryKey(String writerKey, String schemaKey) {
+        return writerKey + "@" + schemaKey;
+    }
+
+    // ===================================================================================
+    //                                                                               Clear
+    //                                                                               =====
+    public void clear() { // basically for UnitTest
+        writtenMillisMap.clear();
+    }
+}
@@ -23,6 +23,7 @@ public interface LastaWebKey {
     String MODULE_CONFIG_KEY = "lastaflute.config.MODULE"; // ServletContext, Request
     String ACTION_MAPPING_KEY = "lastaflute.config.ACTION_MAPPING"; // Request
     String ACTION_EXECUTE_KEY = "lastaflute.config.ACTION_EXECUTE"; // Request
+    String URL_PATTERN_MATCHED_KEY = "lastaflute.config.URL_PATTERN_MATCHED"; // Request
 
     String MESSAGE_RESOURCES_KEY = "lastaflute.message.RESOURCES"; // ServletContext
     String ACTION_ERRORS_KEY = "lastaflute.message.ACTION_ERRORS"; // Request or Session
@@ -31,6 +32,7 @@ public interface LastaWebKey {
     String ACTION_PATH_KEY = "lastaflute.action.ACTION_PATH"; // Request
     String ACTION_RUNTIME_KEY = "lastaflute.action.ACTION_RUMTIME"; // Request
     String PUSHED_ACTION_FORM_KEY = "lastaflute.action.PUSHED_ACTION_FORM"; // Request
+    String ASYNC_REQUEST_COMPLETION_KEY = "lastaflute.action.ASYNC_REQUEST_COMPLETION"; // Request
 
     String USER_BEAN_KEY = "lastaflute.action.USER_BEAN"; // Session (actually suffix added per assist)
     String USER_LOCALE_KEY = "lastaflute.action.USER_LOCALE"; // Request or Session
@@ -30,6 +30,7 @@ import org.lastaflute.web.ruts.multipart.MultipartResourceProvider;
 import org.lastaflute.web.ruts.renderer.HtmlRenderingProvider;
 import org.lastaflute.web.servlet.cookie.CookieResourceProvider;
 import org.lastaflute.web.servlet.filter.accesslog.AccessLogHandler;
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionHook;
 import org.lastaflute.web.servlet.filter.cors.CorsHook;
 import org.lastaflute.web.servlet.filter.hook.FilterHook;
 import org.lastaflute.web.servlet.filter.hook.FilterHookServletAdapter;
@@ -180,6 +181,11 @@ public class FwWebDirection {
         getOutsideFilterHookList().add(hook); // before routing
     }
 
+    public void directCompression(ResponseCompressionHook hook) {
+        assertArgumentNotNull("hook", hook);
+        getInsideFilterHookList().add(hook); // around action to wrap response writing
+    }
+
     public void directServletFilter(Filter servletFilter, boolean inside) { // inside means after logging
         assertArgumentNotNull("servletFilter", servletFilter);
         final List<FilterHook> hookList = inside ? getInsideFilterHookList() : getOutsideFilterHookList();
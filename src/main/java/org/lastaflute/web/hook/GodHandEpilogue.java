@@ -19,6 +19,7 @@ import org.dbflute.bhv.proposal.callback.ExecutedSqlCounter;
 import org.dbflute.hook.CallbackContext;
 import org.dbflute.hook.SqlStringFilter;
 import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.core.magic.async.ConcurrentAsyncFutureCounter;
 import org.lastaflute.core.mail.PostedMailCounter;
 import org.lastaflute.core.mail.RequestedMailCount;
 import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
@@ -132,8 +133,9 @@ public class GodHandEpilogue {
         requestManager.setAttribute(LastaWebKey.DBFLUTE_SQL_COUNT_KEY, createRequestedSqlCount(counter)); // logged by logging filter
     }
 
-    protected RequestedSqlCount createRequestedSqlCount(ExecutedSqlCounter counter) {
-        return new RequestedSqlCount(counter); // as snapshot
+    protected RequestedSqlCount createRequestedSqlCount(ExecutedSqlCounter counter) { // as snapshot
+        final ConcurrentAsyncFutureCounter futureCounter = ThreadCacheContext.findAsyncFutureCounter(); // null allowed
+        return futureCounter != null ? new RequestedSqlCount(counter, futureCounter) : new RequestedSqlCount(counter);
     }
 
     // ===================================================================================
@@ -148,6 +150,11 @@ public class GodHandEpilogue {
             final PostedMailCounter counter = ThreadCacheContext.findMailCounter();
             if (counter != null) {
                 saveRequestedMailCount(counter);
+            } else { // no posting in the thread but might be in asynchronous futures
+                final ConcurrentAsyncFutureCounter futureCounter = ThreadCacheContext.findAsyncFutureCounter();
+                if (futureCounter != null && futureCounter.getCountOfPosting() > 0) {
+                    saveRequestedMailCount(new PostedMailCounter()); // as zero, plus futures
+                }
             }
         }
     }
@@ -156,8 +163,9 @@ public class GodHandEpilogue {
         requestManager.setAttribute(LastaWebKey.MAILFLUTE_MAIL_COUNT_KEY, createRequestedMailCount(counter));
     }
 
-    protected RequestedMailCount createRequestedMailCount(PostedMailCounter counter) {
-        return new RequestedMailCount(counter); // as snapshot
+    protected RequestedMailCount createRequestedMailCount(PostedMailCounter counter) { // as snapshot
+        final ConcurrentAsyncFutureCounter futureCounter = ThreadCacheContext.findAsyncFutureCounter(); // null allowed
+        return futureCounter != null ? new RequestedMailCount(counter, futureCounter) : new RequestedMailCount(counter);
     }
 
     // ===================================================================================
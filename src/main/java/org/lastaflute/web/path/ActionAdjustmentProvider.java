@@ -129,4 +129,14 @@ public interface ActionAdjustmentProvider {
     default ResponseReflectingOption adjustResponseReflecting() {
         return null;
     }
+
+    /**
+     * Provide the timeout of asynchronous execute, e.g. CompletableFuture return. <br>
+     * The future is completed as timeout exception if it is not completed until the timeout.
+     * @param runtime The runtime of action that has current various state. (NotNull)
+     * @return The timeout milliseconds, zero means no timeout. (MinusAllowed: if minus, container's default)
+     */
+    default long provideAsyncExecuteTimeoutMillis(ActionRuntime runtime) {
+        return -1L; // as default
+    }
 }
@@ -27,14 +27,21 @@ import org.dbflute.util.DfCollectionUtil;
 import org.dbflute.util.DfStringUtil;
 import org.dbflute.util.Srl;
 import org.lastaflute.core.direction.FwAssistantDirector;
+import org.lastaflute.core.smartdeploy.ManagedHotdeploy;
 import org.lastaflute.di.core.LaContainer;
 import org.lastaflute.di.naming.NamingConvention;
 import org.lastaflute.di.util.LdiStringUtil;
 import org.lastaflute.web.UrlChain;
 import org.lastaflute.web.direction.FwWebDirection;
 import org.lastaflute.web.exception.ActionClassPackageMismatchException;
+import org.lastaflute.web.path.ActionRoutingIndex.RoutingEntry;
+import org.lastaflute.web.path.ActionRoutingIndex.RoutingNode;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.ruts.config.UrlPatternMatched;
 import org.lastaflute.web.util.LaActionExecuteUtil;
+import org.lastaflute.web.util.LaModuleConfigUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +76,9 @@ public class ActionPathResolver {
     /** The provider of action adjustment. (NotNull: after initialization) */
     protected ActionAdjustmentProvider actionAdjustmentProvider;
 
+    /** The routing index compiled from action mappings. (NullAllowed: lazy loaded, rebuilt when mappings are changed) */
+    protected volatile ActionRoutingIndex routingIndex;
+
     // ===================================================================================
     //                                                                          Initialize
     //                                                                          ==========
@@ -112,6 +122,112 @@ public class ActionPathResolver {
     }
 
     protected boolean doHandleActionPath(String requestPath, ActionFoundPathHandler handler) throws Exception {
+        if (doHandleActionPathByIndex(requestPath, handler, prepareRoutingIndex())) { // mainly here
+            return true;
+        }
+        if (isProbingFallbackEnabled()) { // e.g. hot deploy
+            // actions are lazily registered to module config when first called
+            // so the action may be unregistered yet, index is only a fast path for registered actions
+            return doHandleActionPathByProbing(requestPath, handler);
+        }
+        return false; // e.g. cool deploy, all actions are registered in boot so not found
+    }
+
+    // -----------------------------------------------------
+    //                                         Routing Index
+    //                                         -------------
+    /**
+     * Does it probe components when the routing index misses? <br>
+     * Needed by hot deploy that lazily loads actions, not needed when all actions are registered in boot. <br>
+     * As default, only in hot deploy, so override it if your actions are lazily registered in other mode.
+     * @return The determination, true or false.
+     */
+    protected boolean isProbingFallbackEnabled() {
+        return ManagedHotdeploy.isHotdeploy();
+    }
+
+    protected ActionRoutingIndex prepareRoutingIndex() {
+        final ModuleConfig moduleConfig = getModuleConfig();
+        final int mappingVersion = moduleConfig.getMappingVersion();
+        ActionRoutingIndex index = routingIndex;
+        if (index == null || index.getMappingVersion() != mappingVersion) {
+            synchronized (this) {
+                index = routingIndex;
+                if (index == null || index.getMappingVersion() != mappingVersion) {
+                    index = createRoutingIndex(moduleConfig, mappingVersion);
+                    routingIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    protected ModuleConfig getModuleConfig() {
+        return LaModuleConfigUtil.getModuleConfig();
+    }
+
+    protected ActionRoutingIndex createRoutingIndex(ModuleConfig moduleConfig, int mappingVersion) {
+        return new ActionRoutingIndex(moduleConfig.getActionMappingList(), namingConvention.getActionSuffix(), mappingVersion);
+    }
+
+    protected boolean doHandleActionPathByIndex(String requestPath, ActionFoundPathHandler handler, ActionRoutingIndex index)
+            throws Exception {
+        final String[] names = LdiStringUtil.split(requestPath, "/"); // e.g. [sea, land] if /sea/land/
+        final ActionMapping rootMapping = index.findMapping("rootAction");
+        if (names.length == 0) { // root action, / => rootAction
+            if (rootMapping != null) {
+                if (actuallyHandleMappedActionPath(requestPath, handler, rootMapping, null)) {
+                    return true;
+                }
+            }
+        }
+        // same priority as probing, e.g. /sea/land/ => seaAction, sea_seaAction, seaLandAction, sea_seaLandAction, ...
+        RoutingNode node = index.getTopNode(); // null if no more action under the path
+        for (int segmentIndex = 0; segmentIndex < names.length; segmentIndex++) {
+            final String currentName = names[segmentIndex];
+            if (containsNotAllowedCharacterAsActionPath(currentName)) { // e.g. /Sea/land/, /sea/Land/
+                return false; // cannot use upper case in action path (while, allowed in param path)
+            }
+            if (node == null) { // only checking upper case of remaining segments
+                continue;
+            }
+            node = node.walk(currentName, segmentIndex > 0); // sea => seaLand => seaLandIks
+            if (node == null) {
+                continue;
+            }
+            for (RoutingEntry entry : node.getEntries()) { // ordered by package depth
+                if (entry.matchesPackage(names, segmentIndex)) {
+                    final String paramPath = buildParamPath(names, segmentIndex + 1);
+                    if (actuallyHandleMappedActionPath(requestPath, handler, entry.getMapping(), paramPath)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        if (names.length > 0) { // e.g. /sea/land but not found except root action
+            if (rootMapping != null) {
+                if (actuallyHandleMappedActionPath(requestPath, handler, rootMapping, buildParamPath(names, 0))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected boolean actuallyHandleMappedActionPath(String requestPath, ActionFoundPathHandler handler, ActionMapping mapping,
+            String paramPath) throws Exception {
+        final boolean emptyParam = paramPath == null || paramPath.isEmpty();
+        final ActionExecute execByParam = !emptyParam ? toMatchedExecute(mapping.findUrlPatternMatched(paramPath)) : null;
+        if (emptyParam || execByParam != null) { // certainly hit
+            return handler.handleActionPath(requestPath, mapping.getActionName(), paramPath, execByParam);
+        }
+        return false;
+    }
+
+    // -----------------------------------------------------
+    //                                     Component Probing
+    //                                     -----------------
+    protected boolean doHandleActionPathByProbing(String requestPath, ActionFoundPathHandler handler) throws Exception {
         final String[] names = LdiStringUtil.split(requestPath, "/"); // e.g. [sea, land] if /sea/land/
         final LaContainer root = container.getRoot(); // because actions are in root
         final String rootAction = "rootAction";
@@ -264,15 +380,28 @@ public class ActionPathResolver {
     protected boolean actuallyHandleActionPath(String requestPath, ActionFoundPathHandler handler, String actionName, String paramPath)
             throws Exception {
         final boolean emptyParam = paramPath == null || paramPath.isEmpty();
-        final ActionExecute execByParam = !emptyParam ? findExecuteConfig(actionName, paramPath).orElse(null) : null;
+        final UrlPatternMatched matched = !emptyParam ? findUrlPatternMatched(actionName, paramPath).orElse(null) : null;
+        final ActionExecute execByParam = toMatchedExecute(matched);
         if (emptyParam || execByParam != null) { // certainly hit
             return handler.handleActionPath(requestPath, actionName, paramPath, execByParam);
         }
         return false;
     }
 
-    protected OptionalThing<ActionExecute> findExecuteConfig(String actionName, String paramPath) {
-        return LaActionExecuteUtil.findActionExecute(actionName, paramPath);
+    protected OptionalThing<UrlPatternMatched> findUrlPatternMatched(String actionName, String paramPath) {
+        return LaActionExecuteUtil.findUrlPatternMatched(actionName, paramPath);
+    }
+
+    protected ActionExecute toMatchedExecute(UrlPatternMatched matched) { // null allowed
+        if (matched == null) {
+            return null;
+        }
+        saveUrlPatternMatched(matched); // to reuse matched values when analyzing URL parameter
+        return matched.getExecute();
+    }
+
+    protected void saveUrlPatternMatched(UrlPatternMatched matched) {
+        LaActionExecuteUtil.setUrlPatternMatched(matched);
     }
 
     // ===================================================================================
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.dbflute.util.DfTypeUtil;
+import org.lastaflute.web.ruts.config.ActionMapping;
+
+/**
+ * The routing index of actions, compiled from registered action mappings. <br>
+ * The trie is keyed by characters of action class prefix (without package), e.g. seaLand for /sea/land/,
+ * and entries are put on the node of segment end, ordered by package depth. <br>
+ * So the resolver can walk request path segments once without building candidate names.
+ * <pre>
+ * e.g. /sea/land/
+ *  s-e-a (seaAction, sea_seaAction)
+ *      -L-a-n-d (seaLandAction, sea_seaLandAction, sea_land_seaLandAction)
+ * </pre>
+ * @author jflute
+ */
+public class ActionRoutingIndex {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final RoutingNode topNode; // not null
+    protected final Map<String, ActionMapping> mappingMap; // not null, read-only
+    protected final int mappingVersion; // to determine rebuilding
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param mappingList The list of action mapping to be indexed. (NotNull)
+     * @param actionSuffix The suffix of action component name e.g. Action. (NotNull)
+     * @param mappingVersion The version of mappings in module configuration when building.
+     */
+    public ActionRoutingIndex(Collection<ActionMapping> mappingList, String actionSuffix, int mappingVersion) {
+        final MutableNode mutableTop = new MutableNode();
+        final Map<String, ActionMapping> mappingMap = new HashMap<String, ActionMapping>(mappingList.size());
+        for (ActionMapping mapping : mappingList) {
+            final String actionName = mapping.getActionName();
+            mappingMap.put(actionName, mapping);
+            if (!actionName.endsWith(actionSuffix)) { // cannot be routed by path
+                continue;
+            }
+            final String[] packageElements;
+            final String simpleName;
+            final int lastDelimiter = actionName.lastIndexOf('_');
+            if (lastDelimiter >= 0) { // e.g. sea_land_seaLandAction
+                packageElements = actionName.substring(0, lastDelimiter).split("_"); // [sea, land]
+                simpleName = actionName.substring(lastDelimiter + 1); // seaLandAction
+            } else { // e.g. seaLandAction
+                packageElements = new String[0];
+                simpleName = actionName;
+            }
+            final String classPrefix = simpleName.substring(0, simpleName.length() - actionSuffix.length()); // seaLand
+            if (classPrefix.isEmpty()) { // e.g. Action (no way, just in case)
+                continue;
+            }
+            MutableNode current = mutableTop;
+            for (int i = 0; i < classPrefix.length(); i++) {
+                current = current.prepareChild(classPrefix.charAt(i));
+            }
+            current.entryList.add(new RoutingEntry(mapping, packageElements));
+        }
+        this.topNode = mutableTop.freeze();
+        this.mappingMap = Collections.unmodifiableMap(mappingMap);
+        this.mappingVersion = mappingVersion;
+    }
+
+    // ===================================================================================
+    //                                                                        Find Mapping
+    //                                                                        ============
+    /**
+     * @param actionName The component name of action e.g. rootAction. (NotNull)
+     * @return The found mapping of the action. (NullAllowed: when not found)
+     */
+    public ActionMapping findMapping(String actionName) {
+        return mappingMap.get(actionName);
+    }
+
+    /**
+     * @return The top node of the trie, which has no entries. (NotNull)
+     */
+    public RoutingNode getTopNode() {
+        return topNode;
+    }
+
+    // ===================================================================================
+    //                                                                        Routing Node
+    //                                                                        ============
+    /**
+     * The immutable node of the routing trie.
+     */
+    public static class RoutingNode {
+
+        protected static final RoutingEntry[] EMPTY_ENTRIES = new RoutingEntry[0];
+
+        protected final char[] childKeys; // sorted for binary search
+        protected final RoutingNode[] children; // same order as keys
+        protected final RoutingEntry[] entries; // ordered by package depth, empty allowed
+
+        public RoutingNode(char[] childKeys, RoutingNode[] children, RoutingEntry[] entries) {
+            this.childKeys = childKeys;
+            this.children = children;
+            this.entries = entries;
+        }
+
+        /**
+         * Walk down by the path segment (element between slashes).
+         * @param segment The segment of request path e.g. land. (NotNull)
+         * @param capitalized Does it walk with the first character as upper case? (true if second or more segment)
+         * @return The node after the segment. (NullAllowed: when no action is under the path)
+         */
+        public RoutingNode walk(String segment, boolean capitalized) {
+            RoutingNode current = this;
+            final int length = segment.length();
+            for (int i = 0; i < length; i++) {
+                final char ch = segment.charAt(i);
+                current = current.findChild(capitalized && i == 0 ? Character.toUpperCase(ch) : ch);
+                if (current == null) {
+                    return null;
+                }
+            }
+            return current;
+        }
+
+        protected RoutingNode findChild(char key) {
+            int low = 0;
+            int high = childKeys.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final char middleKey = childKeys[middle];
+                if (middleKey < key) {
+                    low = middle + 1;
+                } else if (middleKey > key) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return The array of entries on the node, ordered by package depth. (NotNull, EmptyAllowed: read-only)
+         */
+        public RoutingEntry[] getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * The entry of action on the segment-end node.
+     */
+    public static class RoutingEntry {
+
+        protected final ActionMapping mapping; // not null
+        protected final String[] packageElements; // not null, empty allowed
+
+        public RoutingEntry(ActionMapping mapping, String[] packageElements) {
+            this.mapping = mapping;
+            this.packageElements = packageElements;
+        }
+
+        /**
+         * @param names The array of request path segments. (NotNull)
+         * @param segmentIndex The index of segment that the node is for.
+         * @return Does the package of the action match with the front segments?
+         */
+        public boolean matchesPackage(String[] names, int segmentIndex) {
+            if (packageElements.length > segmentIndex + 1) { // deeper package than path
+                return false;
+            }
+            for (int i = 0; i < packageElements.length; i++) {
+                if (!packageElements[i].equals(names[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public ActionMapping getMapping() {
+            return mapping;
+        }
+
+        public int getPackageDepth() {
+            return packageElements.length;
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                          Mutable Node
+    //                                          ------------
+    protected static class MutableNode {
+
+        protected final TreeMap<Character, MutableNode> childMap = new TreeMap<Character, MutableNode>();
+        protected final List<RoutingEntry> entryList = new ArrayList<RoutingEntry>(2);
+
+        public MutableNode prepareChild(char key) {
+            return childMap.computeIfAbsent(key, __ -> new MutableNode());
+        }
+
+        public RoutingNode freeze() {
+            final char[] childKeys = new char[childMap.size()];
+            final RoutingNode[] children = new RoutingNode[childMap.size()];
+            int index = 0;
+            for (Map.Entry<Character, MutableNode> entry : childMap.entrySet()) { // already sorted
+                childKeys[index] = entry.getKey();
+                children[index] = entry.getValue().freeze();
+                ++index;
+            }
+            final RoutingEntry[] entries;
+            if (entryList.isEmpty()) {
+                entries = RoutingNode.EMPTY_ENTRIES;
+            } else { // same order as component probing, e.g. seaLandAction, sea_seaLandAction, sea_land_seaLandAction
+                entryList.sort((o1, o2) -> Integer.compare(o1.getPackageDepth(), o2.getPackageDepth()));
+                entries = entryList.toArray(new RoutingEntry[entryList.size()]);
+            }
+            return new RoutingNode(childKeys, children, entries);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final String title = DfTypeUtil.toClassTitle(this);
+        final String hash = Integer.toHexString(hashCode());
+        return title + ":{mapping=" + mappingMap.size() + ", version=" + mappingVersion + "}@" + hash;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMappingVersion() {
+        return mappingVersion;
+    }
+}
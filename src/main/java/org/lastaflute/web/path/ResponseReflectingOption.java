@@ -32,6 +32,8 @@ public class ResponseReflectingOption {
     protected boolean htmlBeanValidatorSuppressed;
     protected boolean jsonBeanValidationErrorWarned;
     protected boolean jsonBeanValidatorSuppressed;
+    protected boolean htmlAutoETagEnabled;
+    protected boolean jsonAutoETagEnabled;
 
     // ===================================================================================
     //                                                                              Facade
@@ -56,6 +58,24 @@ public class ResponseReflectingOption {
         return this;
     }
 
+    /**
+     * Enable auto ETag of HTML directly as default, each response can suppress it.
+     * @return this. (NotNull)
+     */
+    public ResponseReflectingOption enableHtmlAutoETag() {
+        htmlAutoETagEnabled = true;
+        return this;
+    }
+
+    /**
+     * Enable auto ETag of (not streaming) JSON as default, each response can suppress it.
+     * @return this. (NotNull)
+     */
+    public ResponseReflectingOption enableJsonAutoETag() {
+        jsonAutoETagEnabled = true;
+        return this;
+    }
+
     // ===================================================================================
     //                                                                      Basic Override
     //                                                                      ==============
@@ -64,6 +84,7 @@ public class ResponseReflectingOption {
         final String title = DfTypeUtil.toClassTitle(this);
         return title + ":{" + htmlBeanValidationErrorWarned + ", " + htmlBeanValidatorSuppressed // html
                 + ", " + jsonBeanValidationErrorWarned + ", " + jsonBeanValidatorSuppressed // json
+                + ", " + htmlAutoETagEnabled + ", " + jsonAutoETagEnabled // ETag
                 + "}";
     }
 
@@ -85,4 +106,12 @@ public class ResponseReflectingOption {
     public boolean isJsonBeanValidatorSuppressed() {
         return jsonBeanValidatorSuppressed;
     }
+
+    public boolean isHtmlAutoETagEnabled() {
+        return htmlAutoETagEnabled;
+    }
+
+    public boolean isJsonAutoETagEnabled() {
+        return jsonAutoETagEnabled;
+    }
 }
@@ -80,6 +80,11 @@ public class HtmlResponse implements ActionResponse, Redirectable {
     protected Class<?>[] validatorGroups;
     protected boolean validatorSuppressed;
 
+    // -----------------------------------------------------
+    //                                                  ETag
+    //                                                  ----
+    protected Boolean autoETag; // null means by global option
+
     // -----------------------------------------------------
     //                                           View Object
     //                                           -----------
@@ -290,6 +295,23 @@ public class HtmlResponse implements ActionResponse, Redirectable {
         return this;
     }
 
+    // -----------------------------------------------------
+    //                                                  ETag
+    //                                                  ----
+    /**
+     * Set strong ETag hashed from the HTML to be written, and return 304 (not modified) without body
+     * if it matches If-None-Match of the request. <br>
+     * Only HTML directly is hashed because forwarded HTML is rendered into response stream,
+     * use checkNotModified() of response manager for it (and to skip the action).
+     * @param enabled Does it really use auto ETag? (false: suppress it even if global option enables it)
+     * @return this. (NotNull)
+     */
+    public HtmlResponse autoETag(boolean enabled) { // argument to flexibly switch by condition
+        assertDefinedState("autoETag");
+        autoETag = enabled;
+        return this;
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Control
     //                                     -----------------
@@ -503,6 +525,16 @@ public class HtmlResponse implements ActionResponse, Redirectable {
         });
     }
 
+    // -----------------------------------------------------
+    //                                                  ETag
+    //                                                  ----
+    public OptionalThing<Boolean> getAutoETag() { // empty means by global option
+        return OptionalThing.ofNullable(autoETag, () -> {
+            String msg = "Not found the auto ETag setting: " + HtmlResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
     // -----------------------------------------------------
     //                                             Validator
     //                                             ---------
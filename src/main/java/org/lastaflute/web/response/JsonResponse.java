@@ -16,6 +16,7 @@
 package org.lastaflute.web.response;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,10 +51,15 @@ public class JsonResponse<RESULT> implements ApiResponse {
     protected boolean returnAsEmptyBody;
     protected boolean returnAsJsonDirectly;
     protected String directJson;
+    protected boolean writtenAsStreaming;
+    protected boolean returnAsStreamingElements;
+    protected Iterable<?> streamingElements; // null allowed, Stream is also converted to iterable
+    protected AutoCloseable streamingCloser; // null allowed, e.g. Stream, cursor
     protected boolean undefined;
     protected ResponseHook afterTxCommitHook;
     protected Class<?>[] validatorGroups;
     protected boolean validatorSuppressed;
+    protected Boolean autoETag; // null means by global option
 
     // ===================================================================================
     //                                                                         Constructor
@@ -167,6 +173,85 @@ public class JsonResponse<RESULT> implements ApiResponse {
         return this;
     }
 
+    // -----------------------------------------------------
+    //                                             Streaming
+    //                                             ---------
+    /**
+     * Write the JSON result to response stream directly, without building whole JSON string. <br>
+     * It is for large result e.g. list API, JSONP and validation are available as normal.
+     * <pre>
+     * <span style="color: #70226C">return new</span> JsonResponse(result).asStreaming();
+     * </pre>
+     * @return this. (NotNull)
+     */
+    public JsonResponse<RESULT> asStreaming() {
+        assertDefinedState("asStreaming");
+        writtenAsStreaming = true;
+        return this;
+    }
+
+    /**
+     * Write the elements as JSON array to response stream one by one, without building list. <br>
+     * The elements are iterated when writing response (after action transaction),
+     * so the iterable should manage its own resources (e.g. connection) if it needs. <br>
+     * Validation (if not suppressed) is executed for each element just before writing it.
+     * <pre>
+     * <span style="color: #70226C">return</span> JsonResponse.asStreamingElements(seaIterable);
+     * </pre>
+     * @param <ELEMENT> The type of element.
+     * @param elements The iterable of elements, closed after writing if closeable. (NotNull)
+     * @return The new-created response for the elements. (NotNull)
+     */
+    @SuppressWarnings("unchecked")
+    public static <ELEMENT> JsonResponse<List<ELEMENT>> asStreamingElements(Iterable<ELEMENT> elements) { // user interface
+        final AutoCloseable closer = elements instanceof AutoCloseable ? (AutoCloseable) elements : null;
+        return (JsonResponse<List<ELEMENT>>) (JsonResponse<?>) new JsonResponse<Object>(DUMMY).ofStreamingElements(elements, closer);
+    }
+
+    /**
+     * Write the elements as JSON array to response stream one by one, without building list. <br>
+     * The stream is closed after writing, so you can use e.g. onClose() to release resources.
+     * @param <ELEMENT> The type of element.
+     * @param elements The stream of elements, closed after writing. (NotNull)
+     * @return The new-created response for the elements. (NotNull)
+     * @see #asStreamingElements(Iterable)
+     */
+    @SuppressWarnings("unchecked")
+    public static <ELEMENT> JsonResponse<List<ELEMENT>> asStreamingElements(Stream<ELEMENT> elements) { // user interface
+        assertStaticArgumentNotNull("elements", elements);
+        final Iterable<ELEMENT> iterable = () -> elements.iterator();
+        return (JsonResponse<List<ELEMENT>>) (JsonResponse<?>) new JsonResponse<Object>(DUMMY).ofStreamingElements(iterable, elements);
+    }
+
+    protected JsonResponse<RESULT> ofStreamingElements(Iterable<?> elements, AutoCloseable closer) { // internal use
+        assertArgumentNotNull("elements", elements);
+        writtenAsStreaming = true;
+        returnAsStreamingElements = true; // for quick determination
+        streamingElements = elements;
+        streamingCloser = closer;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                                  ETag
+    //                                                  ----
+    /**
+     * Set strong ETag hashed from the JSON to be written, and return 304 (not modified) without body
+     * if it matches If-None-Match of the request. <br>
+     * The JSON is built as usual so it saves only network, use checkNotModified() of response manager to skip the action.
+     * Streaming JSON is not hashed because its body is not built as whole.
+     * <pre>
+     * <span style="color: #70226C">return</span> asJson(result).<span style="color: #CC4747">autoETag</span>(true);
+     * </pre>
+     * @param enabled Does it really use auto ETag? (false: suppress it even if global option enables it)
+     * @return this. (NotNull)
+     */
+    public JsonResponse<RESULT> autoETag(boolean enabled) { // argument to flexibly switch by condition
+        assertDefinedState("autoETag");
+        autoETag = enabled;
+        return this;
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Control
     //                                     -----------------
@@ -229,6 +314,12 @@ public class JsonResponse<RESULT> implements ApiResponse {
         }
     }
 
+    protected static void assertStaticArgumentNotNull(String title, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("The argument '" + title + "' should not be null.");
+        }
+    }
+
     protected void assertDefinedState(String methodName) {
         if (undefined) {
             throw new IllegalStateException("undefined response: method=" + methodName + "() this=" + toString());
@@ -246,8 +337,9 @@ public class JsonResponse<RESULT> implements ApiResponse {
         final String forcedlyJSExp = forcedlyJavaScript ? ", JavaScript" : "";
         final String emptyExp = returnAsEmptyBody ? ", emptyBody" : "";
         final String directExp = returnAsJsonDirectly ? ", directly" : "";
+        final String streamingExp = writtenAsStreaming ? (returnAsStreamingElements ? ", streamingElements" : ", streaming") : "";
         final String undefinedExp = undefined ? ", undefined" : "";
-        return classTitle + ":{" + jsonExp + callbackExp + forcedlyJSExp + emptyExp + directExp + undefinedExp + "}";
+        return classTitle + ":{" + jsonExp + callbackExp + forcedlyJSExp + emptyExp + directExp + streamingExp + undefinedExp + "}";
     }
 
     // ===================================================================================
@@ -297,6 +389,31 @@ public class JsonResponse<RESULT> implements ApiResponse {
         });
     }
 
+    // -----------------------------------------------------
+    //                                             Streaming
+    //                                             ---------
+    public boolean isWrittenAsStreaming() {
+        return writtenAsStreaming;
+    }
+
+    public boolean isReturnAsStreamingElements() { // quick determination
+        return returnAsStreamingElements;
+    }
+
+    public OptionalThing<Iterable<?>> getStreamingElements() {
+        return OptionalThing.ofNullable(streamingElements, () -> {
+            String msg = "Not found the streaming elements: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
+    public OptionalThing<AutoCloseable> getStreamingCloser() {
+        return OptionalThing.ofNullable(streamingCloser, () -> {
+            String msg = "Not found the streaming closer: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Control
     //                                     -----------------
@@ -315,6 +432,16 @@ public class JsonResponse<RESULT> implements ApiResponse {
         });
     }
 
+    // -----------------------------------------------------
+    //                                                  ETag
+    //                                                  ----
+    public OptionalThing<Boolean> getAutoETag() { // empty means by global option
+        return OptionalThing.ofNullable(autoETag, () -> {
+            String msg = "Not found the auto ETag setting: " + JsonResponse.this.toString();
+            throw new IllegalStateException(msg);
+        });
+    }
+
     // -----------------------------------------------------
     //                                             Validator
     //                                             ---------
@@ -15,6 +15,7 @@
  */
 package org.lastaflute.web.response;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -51,6 +52,8 @@ public class StreamResponse implements ActionResponse {
     protected byte[] byteData;
     protected WritternStreamCall streamCall;
     protected WritternZipStreamCall zipStreamCall;
+    protected Integer zipStreamParallelism; // null allowed: sequential
+    protected Path file; // null allowed
     protected Integer contentLength;
     protected boolean undefined;
     protected boolean returnAsEmptyBody;
@@ -185,6 +188,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The zip stream call already exists, so cannot call data(): " + zipStreamCall;
             throw new IllegalStateException(msg);
         }
+        assertFileNotExists("data");
         this.byteData = data;
     }
 
@@ -234,6 +238,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The zip stream call already exists, so cannot call data(): " + zipStreamCall;
             throw new IllegalStateException(msg);
         }
+        assertFileNotExists("stream");
         streamCall = writtenStreamLambda;
     }
 
@@ -265,6 +270,7 @@ public class StreamResponse implements ActionResponse {
             String msg = "The stream call already exists, so cannot call data(): " + streamCall;
             throw new IllegalStateException(msg);
         }
+        assertFileNotExists("zipStreamChunked");
         this.zipStreamCall = oneArgLambda;
         setupZipStreamChunkedContentType();
     }
@@ -273,6 +279,67 @@ public class StreamResponse implements ActionResponse {
         contentTypeZip(); // forcedly
     }
 
+    /**
+     * Deflate the zip entries in parallel by worker threads, which are assembled in registered order. <br>
+     * The writers are called in the worker threads so they should be independent each other
+     * and should not use thread-bound resources e.g. transaction of the request.
+     * <pre>
+     * <span style="color: #70226C">return</span> asStream("sea.zip").zipStreamChunked(out <span style="color: #90226C; font-weight: bold"><span style="font-size: 120%">-</span>&gt;</span> {
+     *     ...
+     * }).<span style="color: #CC4747">zipStreamParallel</span>(4);
+     * </pre>
+     * @param parallelism The count of worker threads, one means sequential. (Positive)
+     * @return this. (NotNull)
+     */
+    public StreamResponse zipStreamParallel(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'parallelism' should be positive: " + parallelism);
+        }
+        this.zipStreamParallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Download the file with content-length, sent by container sendfile if Tomcat supports it (zero-copy). <br>
+     * Otherwise the file is copied to the response stream by buffer. <br>
+     * Range requests (206, also multi-range) and conditional requests by ETag and Last-Modified (304)
+     * are handled automatically, so resumable download is available.
+     * <pre>
+     * <span style="color: #70226C">return</span> asStream("sea.mp4").<span style="color: #CC4747">file</span>(Paths.get("/var/media/sea.mp4"));
+     * </pre>
+     * @param file The path of the file to be downloaded, which should exist when downloading. (NotNull)
+     * @return this. (NotNull)
+     */
+    public StreamResponse file(Path file) {
+        doFile(file);
+        return this;
+    }
+
+    protected void doFile(Path file) {
+        assertArgumentNotNull("file", file);
+        assertDefinedState("file");
+        if (byteData != null) {
+            String msg = "The byte data already exists, so cannot call file(): " + byteData;
+            throw new IllegalStateException(msg);
+        }
+        if (streamCall != null) {
+            String msg = "The stream call already exists, so cannot call file(): " + streamCall;
+            throw new IllegalStateException(msg);
+        }
+        if (zipStreamCall != null) {
+            String msg = "The zip stream call already exists, so cannot call file(): " + zipStreamCall;
+            throw new IllegalStateException(msg);
+        }
+        this.file = file;
+    }
+
+    protected void assertFileNotExists(String methodName) {
+        if (file != null) {
+            String msg = "The file already exists, so cannot call " + methodName + "(): " + file;
+            throw new IllegalStateException(msg);
+        }
+    }
+
     public byte[] getByteData() {
         return byteData;
     }
@@ -285,6 +352,14 @@ public class StreamResponse implements ActionResponse {
         return zipStreamCall;
     }
 
+    public Integer getZipStreamParallelism() {
+        return zipStreamParallelism;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
     public Integer getContentLength() {
         return contentLength;
     }
@@ -336,7 +411,7 @@ public class StreamResponse implements ActionResponse {
         for (Entry<String, String[]> entry : headerMap.entrySet()) {
             resource.header(entry.getKey(), entry.getValue());
         }
-        if (!returnAsEmptyBody && byteData == null && streamCall == null && zipStreamCall == null) {
+        if (!returnAsEmptyBody && byteData == null && streamCall == null && zipStreamCall == null && file == null) {
             throwStreamByteDataInputStreamNotFoundException();
         }
         if (byteData != null) {
@@ -351,6 +426,12 @@ public class StreamResponse implements ActionResponse {
         }
         if (zipStreamCall != null) {
             resource.zipStreamChunked(zipStreamCall);
+            if (zipStreamParallelism != null) {
+                resource.zipStreamParallel(zipStreamParallelism);
+            }
+        }
+        if (file != null) {
+            resource.file(file);
         }
         if (returnAsEmptyBody) {
             resource.asEmptyBody();
@@ -28,22 +28,32 @@ import org.lastaflute.db.jta.stage.NoneTransactionStage;
 import org.lastaflute.db.jta.stage.TransactionStage;
 import org.lastaflute.db.jta.stage.VestibuleTxProvider;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
+import org.lastaflute.web.ruts.NextJourney.AsyncJourneyProvider;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.ruts.multipart.MultipartRequestHandler;
 import org.lastaflute.web.ruts.process.ActionFormMapper;
 import org.lastaflute.web.ruts.process.ActionResponseReflector;
 import org.lastaflute.web.ruts.process.ActionRuntime;
 import org.lastaflute.web.ruts.process.actioncoins.ActionCoinsHelper;
+import org.lastaflute.web.ruts.process.async.AsyncExecuteHelper;
 import org.lastaflute.web.ruts.process.urlparam.RequestUrlParam;
 import org.lastaflute.web.ruts.renderer.HtmlRenderer;
 import org.lastaflute.web.ruts.renderer.HtmlRenderingProvider;
 import org.lastaflute.web.servlet.request.RequestManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author jflute
  */
 public class ActionRequestProcessor {
 
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(ActionRequestProcessor.class);
+
     // ===================================================================================
     //                                                                           Attribute
     //                                                                           =========
@@ -53,6 +63,7 @@ public class ActionRequestProcessor {
     protected ModuleConfig moduleConfig;
     protected ActionCoinsHelper actionCoinsHelper;
     protected ActionFormMapper actionFormMapper;
+    protected AsyncExecuteHelper asyncExecuteHelper;
 
     // -----------------------------------------------------
     //                                     Lazy-Loaded Cache
@@ -77,6 +88,7 @@ public class ActionRequestProcessor {
         this.moduleConfig = moduleConfig;
         this.actionCoinsHelper = createActionCoinHelper(moduleConfig);
         this.actionFormMapper = createActionFormPopulator(moduleConfig);
+        this.asyncExecuteHelper = createAsyncExecuteHelper(moduleConfig);
     }
 
     protected ActionCoinsHelper createActionCoinHelper(ModuleConfig moduleConfig) {
@@ -87,6 +99,10 @@ public class ActionRequestProcessor {
         return new ActionFormMapper(moduleConfig, getAssistantDirector(), getRequestManager());
     }
 
+    protected AsyncExecuteHelper createAsyncExecuteHelper(ModuleConfig moduleConfig) {
+        return new AsyncExecuteHelper(getAssistantDirector(), getRequestManager());
+    }
+
     // ===================================================================================
     //                                                                             Process
     //                                                                             =======
@@ -101,11 +117,22 @@ public class ActionRequestProcessor {
             fire(runtime); // #to_action
         } finally {
             if (!exists) {
+                finishMultipartHandler();
                 ThreadCacheContext.clear();
             }
         }
     }
 
+    protected void finishMultipartHandler() { // e.g. delete temporary files of uploaded files
+        for (Object handler : ThreadCacheContext.findMultipartHandlerList()) {
+            try {
+                ((MultipartRequestHandler) handler).finish();
+            } catch (RuntimeException continued) {
+                logger.info("Failed to finish the multipart handler: " + handler, continued);
+            }
+        }
+    }
+
     protected ActionRuntime createActionRuntime(ActionExecute execute, RequestUrlParam urlParam) {
         return new ActionRuntime(getRequestManager().getRequestPath(), execute, urlParam);
     }
@@ -191,7 +218,11 @@ public class ActionRequestProcessor {
     protected NextJourney performAction(VirtualAction action, OptionalThing<VirtualForm> form, ActionRuntime runtime)
             throws IOException, ServletException {
         try {
-            return action.execute(form); // #to_action
+            final NextJourney journey = action.execute(form); // #to_action
+            if (journey.isAsync()) { // e.g. CompletableFuture return, before clearing context to inherit it
+                return handleAsyncJourney(action, form, runtime, journey);
+            }
+            return journey;
         } catch (RuntimeException e) {
             return handleActionFailureException(action, form, runtime, e);
         } finally {
@@ -204,10 +235,53 @@ public class ActionRequestProcessor {
         throw new ServletException(cause);
     }
 
+    // -----------------------------------------------------
+    //                                  Asynchronous Journey
+    //                                  --------------------
+    protected NextJourney handleAsyncJourney(VirtualAction action, OptionalThing<VirtualForm> form, ActionRuntime runtime,
+            NextJourney journey) throws IOException, ServletException {
+        final AsyncJourneyProvider provider = journey.getAsyncJourneyProvider();
+        if (!asyncExecuteHelper.isAsyncAvailable(provider)) { // e.g. already completed, async-unsupported
+            return asyncExecuteHelper.resumeSynchronously(runtime, provider); // waiting for completion if needed
+        }
+        final boolean started;
+        try {
+            started = asyncExecuteHelper.startAsync(runtime, provider, (asyncResult, asyncCause) -> { // on the completion thread
+                try {
+                    final NextJourney resumed = resumeAsyncJourney(action, form, runtime, provider, asyncResult, asyncCause);
+                    toNext(runtime, resumed); // #to_action resumed
+                } finally {
+                    // the request thread does not finish them because startAsync() removes them from its thread cache
+                    finishMultipartHandler();
+                }
+            });
+        } catch (RuntimeException e) { // basically no way, the journey is not resumed on the completion thread
+            return resumeAsyncJourney(action, form, runtime, provider, null, e); // deferred finally e.g. hookFinally()
+        }
+        if (!started) { // e.g. a filter is not async-supported
+            return asyncExecuteHelper.resumeSynchronously(runtime, provider); // deferred finally is called in resume
+        }
+        return journey; // the request thread does nothing after here
+    }
+
+    protected NextJourney resumeAsyncJourney(VirtualAction action, OptionalThing<VirtualForm> form, ActionRuntime runtime,
+            AsyncJourneyProvider provider, Object asyncResult, Throwable asyncCause) throws IOException, ServletException {
+        try {
+            return provider.resume(asyncResult, asyncCause); // #to_action resumed
+        } catch (RuntimeException e) {
+            return handleActionFailureException(action, form, runtime, e);
+        } finally {
+            actionCoinsHelper.clearContextJustInCase();
+        }
+    }
+
     // ===================================================================================
     //                                                                             to Next
     //                                                                             =======
     protected void toNext(ActionRuntime runtime, NextJourney journey) throws IOException, ServletException {
+        if (journey.isAsync()) { // response is written on the completion thread
+            return;
+        }
         if (journey.hasJourneyProvider()) { // e.g. HTML/JSON response
             journey.getJourneyProvider().bonVoyage();
         }
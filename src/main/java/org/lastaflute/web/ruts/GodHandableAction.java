@@ -17,10 +17,13 @@ package org.lastaflute.web.ruts;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,6 +43,7 @@ import org.lastaflute.web.exception.ExecuteMethodAccessFailureException;
 import org.lastaflute.web.exception.ExecuteMethodArgumentMismatchException;
 import org.lastaflute.web.hook.ActionHook;
 import org.lastaflute.web.response.ActionResponse;
+import org.lastaflute.web.ruts.NextJourney.AsyncJourneyProvider;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.process.ActionResponseReflector;
 import org.lastaflute.web.ruts.process.ActionRuntime;
@@ -109,10 +113,15 @@ public class GodHandableAction implements VirtualAction {
     @Override
     public NextJourney execute(OptionalThing<VirtualForm> form) {
         final ActionHook hook = prepareActionHook();
+        boolean finallyDeferred = false; // true if asynchronous execute
         try {
             final ActionResponse before = processHookBefore(hook);
             if (before.isDefined()) { // e.g. login required
                 return reflect(before);
+            } else if (execute.isAsyncExecute()) { // e.g. CompletableFuture return
+                final NextJourney journey = asyncExecute(form, hook); // #to_action
+                finallyDeferred = true; // called when resumed
+                return journey;
             } else { // mainly here
                 return transactionalExecute(form, hook); // #to_action
             }
@@ -123,8 +132,10 @@ public class GodHandableAction implements VirtualAction {
             redCardableAssist.translateToHotdeployErrorIfPossible(e);
             throw e;
         } finally {
-            processHookFinally(hook);
-            prepareTransactionMemoriesIfExists();
+            if (!finallyDeferred) {
+                processHookFinally(hook);
+                prepareTransactionMemoriesIfExists();
+            }
         }
     }
 
@@ -193,6 +204,128 @@ public class GodHandableAction implements VirtualAction {
         result.getResponse().getAfterTxCommitHook().ifPresent(afterTx -> afterTx.hook());
     }
 
+    // -----------------------------------------------------
+    //                                  Asynchronous Execute
+    //                                  --------------------
+    // the transaction is split into invoking (until the future is returned) and reflecting (when completed)
+    // because transaction is bound to thread, and the process of the future is out of action transaction
+    protected NextJourney asyncExecute(OptionalThing<VirtualForm> form, ActionHook hook) {
+        final Object[] requestArgs = toRequestArgs(form);
+        final CompletableFuture<?> future = transactionalAsyncInvoke(requestArgs); // #to_action
+        return newAsyncJourney(new AsyncJourneyProvider() {
+
+            @Override
+            public CompletableFuture<?> getAsyncFuture() {
+                return future;
+            }
+
+            @Override
+            public NextJourney resume(Object asyncResult, Throwable asyncCause) {
+                return resumeAsyncExecute(hook, requestArgs, asyncResult, asyncCause);
+            }
+
+            @Override
+            public String toString() {
+                return "resumer:{" + buildActionDisp(runtime) + "}";
+            }
+        });
+    }
+
+    protected NextJourney newAsyncJourney(AsyncJourneyProvider provider) {
+        return new NextJourney(provider);
+    }
+
+    protected CompletableFuture<?> transactionalAsyncInvoke(Object[] requestArgs) {
+        return (CompletableFuture<?>) stage.selectable(tx -> {
+            final CompletableFuture<?> invoked = actuallyAsyncInvoke(requestArgs); // #to_action
+            if (runtime.hasValidationError()) { // e.g. validate() before the future
+                tx.rollbackOnly();
+            }
+            tx.returns(invoked);
+        }, getExecuteTransactionGenre()).get(); // because of not null
+    }
+
+    protected CompletableFuture<?> actuallyAsyncInvoke(Object[] requestArgs) {
+        showAction(runtime);
+        final Object result = invokeExecuteMethod(execute.getExecuteMethod(), requestArgs); // #to_action
+        redCardableAssist.assertExecuteReturnNotNull(requestArgs, result);
+        if (result instanceof ActionResponse) { // e.g. validation error
+            return CompletableFuture.completedFuture(result);
+        }
+        return (CompletableFuture<?>) result; // checked at boot
+    }
+
+    protected NextJourney resumeAsyncExecute(ActionHook hook, Object[] requestArgs, Object asyncResult, Throwable asyncCause) {
+        showResume(runtime);
+        try {
+            final ActionResponse response = toAsyncResponse(requestArgs, asyncResult, asyncCause);
+            runtime.manageActionResponse(response); // always set here because of main
+            return transactionalReflect(response);
+        } catch (RuntimeException e) {
+            final ActionResponse monologue = tellExceptionMonologue(hook, e);
+            return reflect(monologue);
+        } catch (Error e) {
+            redCardableAssist.translateToHotdeployErrorIfPossible(e);
+            throw e;
+        } finally {
+            processHookFinally(hook);
+            prepareTransactionMemoriesIfExists();
+        }
+    }
+
+    protected ActionResponse toAsyncResponse(Object[] requestArgs, Object asyncResult, Throwable asyncCause) {
+        if (asyncCause != null) {
+            final Throwable cause = unwrapAsyncCause(asyncCause);
+            if (cause instanceof ValidationErrorException) { // e.g. validate() in the future
+                return handleValidationErrorException((ValidationErrorException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // checked exception e.g. IOException
+            final String msg = setupMethodExceptionMessage("Found the exception in the asynchronous process.", requestArgs);
+            throw new ActionWrappedCheckedException(msg, cause);
+        }
+        redCardableAssist.assertAsyncResultNotNull(requestArgs, asyncResult);
+        redCardableAssist.assertExecuteMethodReturnTypeActionResponse(requestArgs, asyncResult);
+        return (ActionResponse) asyncResult;
+    }
+
+    protected Throwable unwrapAsyncCause(Throwable asyncCause) {
+        if (asyncCause instanceof CompletionException && asyncCause.getCause() != null) { // e.g. supplyAsync()
+            return asyncCause.getCause();
+        }
+        return asyncCause;
+    }
+
+    protected NextJourney transactionalReflect(ActionResponse response) { // on the completion thread
+        final ExecuteTransactionResult result = (ExecuteTransactionResult) stage.selectable(tx -> {
+            redCardableAssist.assertExecuteMethodResponseDefined(response);
+            final NextJourney journey = reflect(response);
+            final boolean rollbackOnly;
+            if (runtime.hasValidationError()) {
+                tx.rollbackOnly();
+                rollbackOnly = true;
+            } else {
+                rollbackOnly = false;
+            }
+            tx.returns(newExecuteTransactionResult(response, journey, rollbackOnly));
+        }, getExecuteTransactionGenre()).get(); // because of not null
+        if (!result.isRollbackOnly()) {
+            hookAfterTxCommitIfExists(result);
+        }
+        return result.getJourney();
+    }
+
+    protected void showResume(ActionRuntime runtime) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Resuming #action {} on {}", buildActionDisp(runtime), Thread.currentThread().getName());
+        }
+    }
+
     // -----------------------------------------------------
     //                                      Reflect Response
     //                                      ----------------
@@ -311,13 +444,26 @@ public class GodHandableAction implements VirtualAction {
         return response;
     }
 
-    protected Object[] toRequestArgs(OptionalThing<VirtualForm> optForm) {
-        final List<Object> paramList = new ArrayList<Object>(4);
-        execute.getUrlParamArgs().ifPresent(args -> {
-            paramList.addAll(runtime.getRequestUrlParam().getUrlParamValueMap().values());
-        });
-        optForm.ifPresent(form -> paramList.add(form.getRealForm()));
-        return !paramList.isEmpty() ? paramList.toArray(new Object[paramList.size()]) : EMPTY_ARRAY;
+    protected Object[] toRequestArgs(OptionalThing<VirtualForm> optForm) { // fixed size array without list
+        final Collection<Object> urlParamValues;
+        if (execute.getUrlParamArgs().isPresent()) {
+            urlParamValues = runtime.getRequestUrlParam().getUrlParamValueMap().values();
+        } else {
+            urlParamValues = Collections.emptyList();
+        }
+        final int argCount = urlParamValues.size() + (optForm.isPresent() ? 1 : 0);
+        if (argCount == 0) {
+            return EMPTY_ARRAY;
+        }
+        final Object[] requestArgs = new Object[argCount];
+        int index = 0;
+        for (Object value : urlParamValues) {
+            requestArgs[index++] = value;
+        }
+        if (optForm.isPresent()) {
+            requestArgs[index] = optForm.get().getRealForm();
+        }
+        return requestArgs;
     }
 
     protected void showAction(ActionRuntime runtime) {
@@ -332,7 +478,7 @@ public class GodHandableAction implements VirtualAction {
     protected Object invokeExecuteMethod(Method executeMethod, Object[] requestArgs) {
         Object result = null;
         try {
-            result = executeMethod.invoke(action, requestArgs); // #to_action just here
+            result = execute.getExecuteMethodInvoker().invoke(action, requestArgs); // #to_action just here
             redCardableAssist.checkValidatorCalled();
         } catch (InvocationTargetException e) { // e.g. exception in the method
             return handleExecuteMethodInvocationTargetException(executeMethod, requestArgs, e);
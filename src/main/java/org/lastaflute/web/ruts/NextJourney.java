@@ -16,6 +16,7 @@
 package org.lastaflute.web.ruts;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
 import org.dbflute.optional.OptionalThing;
 import org.lastaflute.web.servlet.request.Forwardable;
@@ -48,6 +49,11 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
     protected final boolean asIs; // when redirect
     protected final OptionalThing<Object> viewObject; // not null, empty allowed, for e.g. mixer2
 
+    // -----------------------------------------------------
+    //                                  Asynchronous Journey
+    //                                  --------------------
+    protected final AsyncJourneyProvider asyncJourneyProvider; // not null if asynchronous execute
+
     // ===================================================================================
     //                                                                         Constructor
     //                                                                         ===========
@@ -60,6 +66,7 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
         this.redirectTo = redirectTo;
         this.asIs = asIs;
         this.viewObject = viewObject;
+        this.asyncJourneyProvider = null;
     }
 
     public NextJourney(PlannedJourneyProvider journeyProvider) { // for e.g. JSON, Stream
@@ -68,6 +75,16 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
         this.redirectTo = false;
         this.asIs = false;
         this.viewObject = OptionalThing.empty();
+        this.asyncJourneyProvider = null;
+    }
+
+    public NextJourney(AsyncJourneyProvider asyncJourneyProvider) { // for e.g. CompletableFuture return
+        this.journeyProvider = null; // resolved when resumed
+        this.routingPath = null; // me too
+        this.redirectTo = false;
+        this.asIs = false;
+        this.viewObject = OptionalThing.empty();
+        this.asyncJourneyProvider = asyncJourneyProvider;
     }
 
     @FunctionalInterface
@@ -76,12 +93,33 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
         void bonVoyage();
     }
 
+    /**
+     * The provider of journey for asynchronous execute, which is resumed on the completion thread.
+     */
+    public static interface AsyncJourneyProvider {
+
+        /**
+         * @return The future returned by the execute method, completed on the thread of asynchronous process. (NotNull)
+         */
+        CompletableFuture<?> getAsyncFuture();
+
+        /**
+         * Resume the action by the result of completed future, reflecting its response. <br>
+         * This is called on the completion thread after the thread context of the request is inherited.
+         * @param asyncResult The result of the future, basically action response. (NullAllowed: when failure)
+         * @param asyncCause The exception of the future e.g. timeout. (NullAllowed: when success)
+         * @return The next journey of the resolved response e.g. JSON, HTML. (NotNull)
+         */
+        NextJourney resume(Object asyncResult, Throwable asyncCause);
+    }
+
     protected NextJourney() { // as undefined
         this.routingPath = null; // means no HTML
         this.redirectTo = false;
         this.asIs = false;
         this.viewObject = OptionalThing.empty();
         this.journeyProvider = null;
+        this.asyncJourneyProvider = null;
     }
 
     public static NextJourney undefined() {
@@ -97,6 +135,8 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
         sb.append("journey:{");
         if (isUndefined()) {
             sb.append("undefined");
+        } else if (isAsync()) {
+            sb.append("async:").append(asyncJourneyProvider);
         } else {
             sb.append(journeyProvider != null ? journeyProvider : null);
             if (hasViewRouting()) {
@@ -154,10 +194,25 @@ public class NextJourney implements Redirectable, Forwardable, Serializable {
         return viewObject;
     }
 
+    // -----------------------------------------------------
+    //                                  Asynchronous Journey
+    //                                  --------------------
+    public boolean isAsync() {
+        return asyncJourneyProvider != null;
+    }
+
+    public AsyncJourneyProvider getAsyncJourneyProvider() { // not null or exception
+        if (!isAsync()) {
+            String msg = "The action transition is not asynchronous so cannot call getAsyncJourneyProvider(): " + routingPath;
+            throw new IllegalStateException(msg);
+        }
+        return asyncJourneyProvider;
+    }
+
     // -----------------------------------------------------
     //                                     Undefined Journey
     //                                     -----------------
     public boolean isUndefined() {
-        return !hasJourneyProvider() && !hasViewRouting();
+        return !hasJourneyProvider() && !hasViewRouting() && !isAsync();
     }
 }
@@ -139,6 +139,36 @@ public class RedCardableAssist {
         throw new ExecuteMethodReturnNullException(msg);
     }
 
+    protected void assertAsyncResultNotNull(Object[] requestArgs, Object result) {
+        if (result == null) {
+            throwExecuteMethodAsyncResultNullException(requestArgs);
+        }
+    }
+
+    protected void throwExecuteMethodAsyncResultNullException(Object[] requestArgs) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("Not allowed to complete the future with null from the execute method.");
+        br.addItem("Advice");
+        br.addElement("The future of asynchronous execute should be completed with response instance.");
+        br.addElement("For example:");
+        br.addElement("  (x):");
+        br.addElement("    public CompletableFuture<JsonResponse<SeaBean>> index(...) {");
+        br.addElement("        return CompletableFuture.supplyAsync(() -> null); // *Bad");
+        br.addElement("    }");
+        br.addElement("  (o):");
+        br.addElement("    public CompletableFuture<JsonResponse<SeaBean>> index(...) {");
+        br.addElement("        return CompletableFuture.supplyAsync(() -> asJson(...)); // Good");
+        br.addElement("    }");
+        br.addItem("Action Execute");
+        br.addElement(execute);
+        br.addItem("Action Object");
+        br.addElement(action);
+        br.addItem("Request Arguments");
+        br.addElement(Arrays.asList(requestArgs));
+        final String msg = br.buildExceptionMessage();
+        throw new ExecuteMethodReturnNullException(msg);
+    }
+
     public void assertExecuteMethodReturnTypeActionResponse(Object[] requestArgs, Object result) {
         if (!(result instanceof ActionResponse)) {
             throwExecuteMethodReturnTypeNotResponseException(requestArgs, result);
@@ -59,9 +59,11 @@ public class ActionExecute implements Serializable {
     //                                                                           =========
     protected final ActionMapping actionMapping; // not null
     protected final Method executeMethod; // not null
+    protected final ExecuteMethodInvoker executeMethodInvoker; // not null
     protected final String mappingMethodName; // not null
     protected final OptionalThing<String> restfulHttpMethod; // not null, empty allowed
     protected final boolean indexMethod;
+    protected final boolean asyncExecute; // e.g. CompletableFuture return
     protected final TransactionGenre transactionGenre; // not null
     protected final boolean suppressValidatorCallCheck;
     protected final OptionalThing<Integer> sqlExecutionCountLimit; // not null, empty allowed
@@ -95,10 +97,12 @@ public class ActionExecute implements Serializable {
     public ActionExecute(ActionMapping actionMapping, Method executeMethod, ExecuteOption executeOption) {
         this.actionMapping = actionMapping;
         this.executeMethod = executeMethod;
+        this.executeMethodInvoker = newExecuteMethodInvoker(executeMethod);
         final MethodNameAnalyzer methodNameAnalyzer = newMethodNameAnalyzer();
         this.mappingMethodName = methodNameAnalyzer.analyzeMappingMethodName(executeMethod);
         this.restfulHttpMethod = methodNameAnalyzer.analyzeRestfulHttpMethod(executeMethod);
         this.indexMethod = this.mappingMethodName.equals("index");
+        this.asyncExecute = LaActionExecuteUtil.isAsyncExecuteMethod(executeMethod);
         this.transactionGenre = chooseTransactionGenre(executeOption);
         this.suppressValidatorCallCheck = executeOption.isSuppressValidatorCallCheck();
         this.sqlExecutionCountLimit = createOptionalSqlExecutionCountLimit(executeOption);
@@ -128,6 +132,13 @@ public class ActionExecute implements Serializable {
         checkExecuteMethod(executeArgAnalyzer);
     }
 
+    // -----------------------------------------------------
+    //                                               Invoker
+    //                                               -------
+    protected ExecuteMethodInvoker newExecuteMethodInvoker(Method executeMethod) {
+        return new ExecuteMethodInvoker(executeMethod);
+    }
+
     // -----------------------------------------------------
     //                                           Transaction
     //                                           -----------
@@ -249,11 +260,24 @@ public class ActionExecute implements Serializable {
     //                                      by URL Parameter
     //                                      ----------------
     public boolean determineTargetByUrlParameter(String paramPath) {
+        return matchUrlParameter(paramPath) != null;
+    }
+
+    /**
+     * Match the parameter path with this execute, keeping the extracted values to avoid matching again.
+     * @param paramPath The path of URL parameter, e.g. sea/mystic (NotNull, NotEmpty)
+     * @return The matched result of URL pattern. (NullAllowed: when not matched)
+     */
+    public UrlPatternMatched matchUrlParameter(String paramPath) {
         if (restfulHttpMethod.filter(httpMethod -> !matchesWithRequestedHttpMethod(httpMethod)).isPresent()) {
-            return false;
+            return null;
         }
         if (!isParameterEmpty(paramPath)) {
-            return handleOptionalParameterMapping(paramPath) || preparedUrlPattern.matcher(paramPath).find();
+            if (handleOptionalParameterMapping(paramPath)) { // values are analyzed later
+                return newUrlPatternMatched(paramPath, null);
+            }
+            final String[] values = preparedUrlPattern.matchParamPath(paramPath);
+            return values != null ? newUrlPatternMatched(paramPath, values) : null;
         } else {
             // should not be called if param is empty, old code is like this:
             //return "index".equals(urlPattern);
@@ -262,6 +286,10 @@ public class ActionExecute implements Serializable {
         }
     }
 
+    protected UrlPatternMatched newUrlPatternMatched(String paramPath, String[] values) {
+        return new UrlPatternMatched(this, paramPath, values);
+    }
+
     protected boolean matchesWithRequestedHttpMethod(String httpMethod) {
         return getRequestManager().isHttpMethod(httpMethod);
     }
@@ -340,7 +368,8 @@ public class ActionExecute implements Serializable {
     }
 
     protected boolean isReturnApiResponse() {
-        return ApiResponse.class.isAssignableFrom(getExecuteMethod().getReturnType());
+        final Class<?> responseType = LaActionExecuteUtil.findResponseReturnType(getExecuteMethod()); // unwrapped if future
+        return responseType != null && ApiResponse.class.isAssignableFrom(responseType);
     }
 
     protected boolean isImpelementApiAction() {
@@ -395,6 +424,13 @@ public class ActionExecute implements Serializable {
         return executeMethod;
     }
 
+    /**
+     * @return The precompiled invoker of the execute method. (NotNull)
+     */
+    public ExecuteMethodInvoker getExecuteMethodInvoker() {
+        return executeMethodInvoker;
+    }
+
     public String getMappingMethodName() {
         return mappingMethodName;
     }
@@ -407,6 +443,10 @@ public class ActionExecute implements Serializable {
         return indexMethod;
     }
 
+    public boolean isAsyncExecute() {
+        return asyncExecute;
+    }
+
     public TransactionGenre getTransactionGenre() {
         return transactionGenre;
     }
@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThing;
@@ -35,6 +36,7 @@ import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
 import org.lastaflute.web.exception.ActionFormCreateFailureException;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.VirtualForm.RealFormSupplier;
+import org.lastaflute.web.ruts.process.populate.FormBindingPlan;
 import org.lastaflute.web.util.LaActionExecuteUtil;
 import org.lastaflute.web.validation.ActionValidator;
 
@@ -53,6 +55,7 @@ public class ActionFormMeta {
     protected final OptionalThing<Consumer<Object>> formSetupper; // not null, empty allowed
     protected final Map<String, ActionFormProperty> propertyMap; // not null
     protected final boolean validatorAnnotated; // not null
+    protected volatile FormBindingPlan bindingPlan; // null allowed: until first mapping, created by mapper
 
     // ===================================================================================
     //                                                                         Constructor
@@ -249,4 +252,19 @@ public class ActionFormMeta {
     public boolean isValidatorAnnotated() {
         return validatorAnnotated;
     }
+
+    /**
+     * Prepare the binding plan for request parameter mapping, created once per form type (discarded with this meta). <br>
+     * It is created by the mapper to use its determination e.g. JSON parameter, native type.
+     * @param planCreator The creator of binding plan for the form type, called once basically. (NotNull)
+     * @return The prepared binding plan. (NotNull)
+     */
+    public FormBindingPlan prepareBindingPlan(Function<Class<?>, FormBindingPlan> planCreator) {
+        FormBindingPlan plan = bindingPlan;
+        if (plan == null) { // first mapping, no problem if created twice by concurrent requests
+            plan = planCreator.apply(formType);
+            bindingPlan = plan;
+        }
+        return plan;
+    }
 }
\ No newline at end of file
@@ -16,7 +16,13 @@
 package org.lastaflute.web.ruts.config;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -46,6 +52,7 @@ public class ActionMapping {
     protected final String actionName;
     protected final ActionAdjustmentProvider adjustmentProvider;
     protected final ArrayMap<String, ActionExecute> executeMap = new ArrayMap<String, ActionExecute>(); // array to get first
+    protected volatile ExecuteIndex executeIndex; // null allowed: lazy loaded, cleared when registered
 
     // ===================================================================================
     //                                                                         Constructor
@@ -63,6 +70,7 @@ public class ActionMapping {
     public void registerExecute(ActionExecute execute) {
         // plain name here, may contain restful http method e.g. get$index
         executeMap.put(execute.getExecuteMethod().getName(), execute);
+        executeIndex = null; // rebuilt when next finding
     }
 
     // ===================================================================================
@@ -77,9 +85,21 @@ public class ActionMapping {
     //                                                                        ============
     // optional unused for performance
     public ActionExecute findActionExecute(String paramPath) { // null allowed when not found
-        for (ActionExecute execute : executeMap.values()) {
-            if (execute.determineTargetByUrlParameter(paramPath)) {
-                return execute;
+        final UrlPatternMatched matched = findUrlPatternMatched(paramPath);
+        return matched != null ? matched.getExecute() : null;
+    }
+
+    /**
+     * Find the execute matched with the parameter path, keeping the matched values. <br>
+     * The executes are narrowed down by the first segment of the path, e.g. sea of sea/3, by the index.
+     * @param paramPath The path of URL parameter, e.g. sea/3 (NotNull, NotEmpty)
+     * @return The matched result of the found execute. (NullAllowed: when not found)
+     */
+    public UrlPatternMatched findUrlPatternMatched(String paramPath) {
+        for (ActionExecute execute : prepareExecuteIndex().findCandidateList(paramPath)) {
+            final UrlPatternMatched matched = execute.matchUrlParameter(paramPath);
+            if (matched != null) {
+                return matched;
             }
         }
         return null;
@@ -118,6 +138,84 @@ public class ActionMapping {
         return executeMap.get(method.getName()); // find plainly, key may contain restful HTTP method
     }
 
+    // -----------------------------------------------------
+    //                                         Execute Index
+    //                                         -------------
+    protected ExecuteIndex prepareExecuteIndex() {
+        ExecuteIndex index = executeIndex;
+        if (index == null) {
+            index = new ExecuteIndex(new ArrayList<ActionExecute>(executeMap.values()));
+            executeIndex = index; // no problem if several threads build
+        }
+        return index;
+    }
+
+    /**
+     * The index of executes keyed by literal first segment of URL pattern, e.g. sea of sea/{}. <br>
+     * Candidate lists keep the registration order so the found execute is same as linear scan.
+     */
+    protected static class ExecuteIndex {
+
+        protected final List<ActionExecute> allList; // not null, all executes in registration order
+        protected final List<ActionExecute> genericList; // not null, executes that may match with any first segment
+        protected final Map<String, List<ActionExecute>> keywordCandidateMap; // not null, including generic executes
+
+        public ExecuteIndex(List<ActionExecute> executeList) {
+            final List<ActionExecute> genericList = new ArrayList<ActionExecute>();
+            final Map<ActionExecute, Set<String>> keywordSetMap = new HashMap<ActionExecute, Set<String>>();
+            final Set<String> allKeywordSet = new LinkedHashSet<String>();
+            for (ActionExecute execute : executeList) {
+                final Set<String> keywordSet = extractFirstSegmentKeywordSet(execute);
+                if (keywordSet == null) {
+                    genericList.add(execute);
+                } else {
+                    keywordSetMap.put(execute, keywordSet);
+                    allKeywordSet.addAll(keywordSet);
+                }
+            }
+            final Map<String, List<ActionExecute>> keywordCandidateMap = new HashMap<String, List<ActionExecute>>();
+            for (String keyword : allKeywordSet) {
+                final List<ActionExecute> candidateList = new ArrayList<ActionExecute>();
+                for (ActionExecute execute : executeList) { // keep registration order
+                    final Set<String> keywordSet = keywordSetMap.get(execute);
+                    if (keywordSet == null || keywordSet.contains(keyword)) {
+                        candidateList.add(execute);
+                    }
+                }
+                keywordCandidateMap.put(keyword, Collections.unmodifiableList(candidateList));
+            }
+            this.allList = Collections.unmodifiableList(executeList);
+            this.genericList = Collections.unmodifiableList(genericList);
+            this.keywordCandidateMap = keywordCandidateMap;
+        }
+
+        protected Set<String> extractFirstSegmentKeywordSet(ActionExecute execute) { // null means generic
+            final String literalFirst = execute.getPreparedUrlPattern().getLiteralFirstSegment();
+            if (literalFirst == null) { // e.g. {}/sea or complex pattern
+                return null;
+            }
+            final Set<String> keywordSet = new LinkedHashSet<String>(2);
+            keywordSet.add(literalFirst);
+            if (execute.hasOptionalUrlParameter()) { // also matched by optional parameter mapping
+                if (execute.isIndexMethod()) { // e.g. index(String first, OptionalThing<String> second)
+                    return null;
+                }
+                keywordSet.add(execute.getMappingMethodName()); // e.g. sea/dockside
+            }
+            return keywordSet;
+        }
+
+        public List<ActionExecute> findCandidateList(String paramPath) {
+            if (PreparedUrlPattern.endsWithLineTerminator(paramPath)) { // '$' of regexp can match before it so no narrowing
+                return allList;
+            }
+            final int slashIndex = paramPath.indexOf('/');
+            final String firstSegment = slashIndex >= 0 ? paramPath.substring(0, slashIndex) : paramPath;
+            final List<ActionExecute> candidateList = keywordCandidateMap.get(firstSegment);
+            return candidateList != null ? candidateList : genericList;
+        }
+    }
+
     // ===================================================================================
     //                                                                  Forward Adjustment
     //                                                                  ==================
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.lastaflute.web.util.LaActionExecuteUtil;
+
+/**
+ * The invoker of action execute method, precompiled as method handle at boot. <br>
+ * The handle is adapted to (Object action, Object[] args)Object so fixed-arity arguments are spread without reflection.
+ * It keeps the same exception semantics as reflection: exception in the method is wrapped by InvocationTargetException,
+ * and arguments that reflection would reject are given to reflection itself (IllegalArgumentException as before).
+ * @author jflute
+ */
+public class ExecuteMethodInvoker {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Method executeMethod; // not null
+    protected final Class<?>[] parameterTypes; // not null, empty allowed
+    protected final Class<?>[] wrappedParameterTypes; // not null, primitive is converted to wrapper
+    protected final MethodHandle spreadHandle; // null allowed: when cannot be unreflected, uses reflection
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ExecuteMethodInvoker(Method executeMethod) {
+        this.executeMethod = executeMethod;
+        this.parameterTypes = executeMethod.getParameterTypes();
+        this.wrappedParameterTypes = MethodType.methodType(void.class, parameterTypes).wrap().parameterArray();
+        this.spreadHandle = createSpreadHandle(executeMethod, parameterTypes.length);
+    }
+
+    protected MethodHandle createSpreadHandle(Method executeMethod, int parameterCount) {
+        try {
+            final MethodHandle unreflected = MethodHandles.publicLookup().unreflect(executeMethod);
+            final MethodType genericType = MethodType.genericMethodType(parameterCount + 1); // action + arguments
+            return unreflected.asType(genericType).asSpreader(Object[].class, parameterCount);
+        } catch (IllegalAccessException | RuntimeException continued) { // e.g. non-public class, reflection can handle it
+            return null;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Invoke
+    //                                                                              ======
+    /**
+     * Invoke the execute method of the action.
+     * @param action The instance of action for the execute method. (NotNull)
+     * @param requestArgs The array of arguments for the method, same order as parameters. (NotNull, EmptyAllowed)
+     * @return The result of the execute method. (NullAllowed: if the method returns null)
+     * @throws InvocationTargetException When the method throws exception.
+     * @throws IllegalAccessException When the method cannot be accessed.
+     * @throws IllegalArgumentException When the arguments do not match with the method parameters.
+     */
+    public Object invoke(Object action, Object[] requestArgs)
+            throws InvocationTargetException, IllegalAccessException, IllegalArgumentException {
+        if (spreadHandle == null || !isInvokableArguments(action, requestArgs)) { // reflection handles it
+            return executeMethod.invoke(action, requestArgs);
+        }
+        try {
+            return spreadHandle.invokeExact(action, requestArgs);
+        } catch (Throwable e) { // arguments already checked so exception in the method
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    protected boolean isInvokableArguments(Object action, Object[] requestArgs) {
+        if (!executeMethod.getDeclaringClass().isInstance(action) || requestArgs.length != parameterTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            final Object arg = requestArgs[i];
+            if (parameterTypes[i].isPrimitive()) { // only exact wrapper, widening is left to reflection
+                if (arg == null || wrappedParameterTypes[i] != arg.getClass()) {
+                    return false;
+                }
+            } else if (arg != null && !parameterTypes[i].isInstance(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final String mode = spreadHandle != null ? "handle" : "reflection";
+        return "invoker:{" + LaActionExecuteUtil.buildSimpleMethodExp(executeMethod) + ", " + mode + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Method getExecuteMethod() {
+        return executeMethod;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    public boolean isMethodHandleInvoking() {
+        return spreadHandle != null;
+    }
+}
@@ -16,10 +16,12 @@
 package org.lastaflute.web.ruts.config;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dbflute.optional.OptionalThing;
 import org.dbflute.util.DfTypeUtil;
@@ -42,8 +44,9 @@ public class ModuleConfig implements Disposable, Serializable {
     //                                                                           Attribute
     //                                                                           =========
     protected final Map<String, ActionMapping> actionMappingMap = new HashMap<String, ActionMapping>();
-    protected final List<ActionMapping> actionMappingList = new ArrayList<ActionMapping>();
+    protected final List<ActionMapping> actionMappingList = new CopyOnWriteArrayList<ActionMapping>(); // iterated while lazy registration
     protected volatile boolean initialized;
+    protected final AtomicInteger mappingVersion = new AtomicInteger(); // incremented when mappings are changed, for e.g. routing index
 
     // ===================================================================================
     //                                                                         Constructor
@@ -90,6 +93,21 @@ public class ModuleConfig implements Disposable, Serializable {
     public void addActionMapping(ActionMapping mapping) {
         actionMappingMap.put(mapping.getActionName(), mapping);
         actionMappingList.add(mapping);
+        mappingVersion.incrementAndGet(); // in boot, hot-deploy or lazy registration of warm deploy
+    }
+
+    /**
+     * @return The read-only list of registered action mappings, safe to iterate while registration. (NotNull)
+     */
+    public List<ActionMapping> getActionMappingList() {
+        return Collections.unmodifiableList(actionMappingList);
+    }
+
+    /**
+     * @return The version of registered mappings, which is changed when mapping is added or disposed.
+     */
+    public int getMappingVersion() {
+        return mappingVersion.get();
     }
 
     // ===================================================================================
@@ -98,6 +116,7 @@ public class ModuleConfig implements Disposable, Serializable {
     public void dispose() {
         actionMappingMap.clear();
         actionMappingList.clear();
+        mappingVersion.incrementAndGet();
         initialized = false;
     }
 
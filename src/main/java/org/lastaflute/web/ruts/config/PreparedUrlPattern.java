@@ -16,9 +16,12 @@
 package org.lastaflute.web.ruts.config;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer;
 import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer.UrlPatternChosenBox;
 import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer.UrlPatternRegexpBox;
 
@@ -38,6 +41,7 @@ public class PreparedUrlPattern implements Serializable {
     protected final boolean specified; // true if urlPattern is defined by annotation
     protected final Pattern regexpPattern; // not null e.g. ^([^/]+)$ or ^([^/]+)/([^/]+)$ or ^sea/([^/]+)$
     protected final boolean methodNamePrefix; // true if urlPattern is [method]/...
+    protected final SegmentMatcher segmentMatcher; // null allowed if complex pattern, e.g. {}sea or sea.land/{}
 
     // ===================================================================================
     //                                                                         Constructor
@@ -53,6 +57,7 @@ public class PreparedUrlPattern implements Serializable {
         assertArgumentNotNull("resolvedUrlPattern of chosenBox", resolvedUrlPattern);
         assertArgumentNotNull("sourceUrlPattern of chosenBox", sourceUrlPattern);
         assertArgumentNotNull("regexpPattern of regexpBox", regexpPattern);
+        this.segmentMatcher = SegmentMatcher.analyze(regexpPattern.pattern());
     }
 
     // ===================================================================================
@@ -63,6 +68,248 @@ public class PreparedUrlPattern implements Serializable {
         return regexpPattern.matcher(paramPath);
     }
 
+    /**
+     * Match the parameter path with the URL pattern, and extract the parameter values. <br>
+     * Simple patterns are matched by segments without regular expression, same result as the regexp.
+     * @param paramPath The path of URL parameter, e.g. sea/mystic (NotNull)
+     * @return The array of matched parameter values (regexp groups). (NullAllowed: when not matched)
+     */
+    public String[] matchParamPath(String paramPath) {
+        assertArgumentNotNull("paramPath", paramPath);
+        if (segmentMatcher != null && !endsWithLineTerminator(paramPath)) { // '$' of regexp is delicate for it
+            return segmentMatcher.match(paramPath);
+        }
+        final Matcher matcher = regexpPattern.matcher(paramPath);
+        if (!matcher.find()) {
+            return null;
+        }
+        final String[] values = new String[matcher.groupCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = matcher.group(i + 1); // group 1 origin (0 provides all string)
+        }
+        return values;
+    }
+
+    /**
+     * @param paramPath The path of URL parameter. (NotNull)
+     * @return Does it end with line terminator? (then '$' of regexp can match before it)
+     */
+    public static boolean endsWithLineTerminator(String paramPath) {
+        if (paramPath.isEmpty()) {
+            return false;
+        }
+        final char last = paramPath.charAt(paramPath.length() - 1);
+        return last == '\n' || last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029';
+    }
+
+    /**
+     * Get the literal first segment of the pattern, e.g. sea if sea/{}, for index of executes.
+     * @return The literal string of first segment. (NullAllowed: when the first segment is parameter or complex pattern)
+     */
+    public String getLiteralFirstSegment() {
+        return segmentMatcher != null ? segmentMatcher.getLiteralFirstSegment() : null;
+    }
+
+    // ===================================================================================
+    //                                                                     Segment Matcher
+    //                                                                     ===============
+    /**
+     * The matcher of URL pattern by path segments (between slashes) without regular expression. <br>
+     * Only for simple pattern that each parameter is whole segment, e.g. {}/{}, sea/{}, {}/land/{}. <br>
+     * The number-type parameter follows the character class of its regexp on the running JDK,
+     * (only number characters on Java8, but any characters containing slash on Java9 or later),
+     * so it is allowed only at the last segment if it can contain slash.
+     */
+    public static class SegmentMatcher implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        protected static final String SAFE_LITERAL_MARKS = "-_@~%!,;:='&";
+        protected static final int BASIC_PARAMETER = 1;
+        protected static final int NUMBER_PARAMETER = 2;
+
+        /** Can number-type parameter contain any characters? (determined by actual regexp behavior) */
+        protected static final boolean numberAnyCharacter;
+
+        static {
+            final Pattern numberPattern = Pattern.compile("^" + UrlPatternAnalyzer.ELEMENT_NUMBER_PATTERN + "$");
+            numberAnyCharacter = numberPattern.matcher("sea/land").find();
+        }
+
+        protected final String[] literals; // not null, element is null if parameter segment
+        protected final int[] parameterTypes; // not null, same size as literals, zero if literal segment
+        protected final int parameterCount;
+
+        public SegmentMatcher(String[] literals, int[] parameterTypes) {
+            this.literals = literals;
+            this.parameterTypes = parameterTypes;
+            int count = 0;
+            for (int parameterType : parameterTypes) {
+                if (parameterType != 0) {
+                    ++count;
+                }
+            }
+            this.parameterCount = count;
+        }
+
+        /**
+         * @param regexp The expression of regexp built by URL pattern analyzer, e.g. ^sea/([^/]+)$ (NotNull)
+         * @return The segment matcher for the regexp. (NullAllowed: when complex pattern)
+         */
+        public static SegmentMatcher analyze(String regexp) {
+            if (regexp.length() < 2 || !regexp.startsWith("^") || !regexp.endsWith("$")) {
+                return null;
+            }
+            final String body = regexp.substring(1, regexp.length() - 1);
+            final String basicPattern = UrlPatternAnalyzer.ELEMENT_BASIC_PATTERN;
+            final String numberPattern = UrlPatternAnalyzer.ELEMENT_NUMBER_PATTERN;
+            final List<String> literalList = new ArrayList<String>();
+            final List<Integer> typeList = new ArrayList<Integer>();
+            final StringBuilder literalSb = new StringBuilder();
+            int parameterType = 0; // of current segment, zero if literal
+            final int length = body.length();
+            int index = 0;
+            while (index < length) {
+                final boolean basic = body.startsWith(basicPattern, index);
+                if (basic || body.startsWith(numberPattern, index)) {
+                    if (literalSb.length() > 0 || parameterType != 0) { // e.g. sea{} or {}{}
+                        return null;
+                    }
+                    index += basic ? basicPattern.length() : numberPattern.length();
+                    if (index < length && body.charAt(index) != '/') { // e.g. {}sea
+                        return null;
+                    }
+                    if (!basic && numberAnyCharacter && index < length) { // can contain slash so only last
+                        return null;
+                    }
+                    parameterType = basic ? BASIC_PARAMETER : NUMBER_PARAMETER;
+                    continue;
+                }
+                final char ch = body.charAt(index);
+                if (ch == '/') {
+                    if (!closeSegment(literalList, typeList, literalSb, parameterType)) {
+                        return null;
+                    }
+                    parameterType = 0;
+                } else if (parameterType != 0) { // no way, already checked
+                    return null;
+                } else if (ch == '\\') { // only escaped '$' is allowed
+                    if (index + 1 >= length || body.charAt(index + 1) != '$') {
+                        return null;
+                    }
+                    literalSb.append('$');
+                    ++index;
+                } else if (Character.isLetterOrDigit(ch) || SAFE_LITERAL_MARKS.indexOf(ch) >= 0) {
+                    literalSb.append(ch);
+                } else { // may be regexp meta character, e.g. sea.land
+                    return null;
+                }
+                ++index;
+            }
+            if (!closeSegment(literalList, typeList, literalSb, parameterType)) {
+                return null;
+            }
+            final int[] parameterTypes = new int[typeList.size()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = typeList.get(i);
+            }
+            return new SegmentMatcher(literalList.toArray(new String[literalList.size()]), parameterTypes);
+        }
+
+        protected static boolean closeSegment(List<String> literalList, List<Integer> typeList, StringBuilder literalSb,
+                int parameterType) {
+            if (parameterType != 0) {
+                literalList.add(null);
+            } else {
+                if (literalSb.length() == 0) { // e.g. sea//land or empty pattern
+                    return false;
+                }
+                literalList.add(literalSb.toString());
+                literalSb.setLength(0);
+            }
+            typeList.add(parameterType);
+            return true;
+        }
+
+        /**
+         * @param paramPath The path of URL parameter, e.g. sea/mystic (NotNull)
+         * @return The array of parameter values. (NullAllowed: when not matched)
+         */
+        public String[] match(String paramPath) {
+            final String[] values = new String[parameterCount];
+            final int pathLength = paramPath.length();
+            int valueIndex = 0;
+            int position = 0;
+            for (int i = 0; i < literals.length; i++) {
+                final String literal = literals[i];
+                final int parameterType = parameterTypes[i];
+                final boolean last = i == literals.length - 1;
+                if (position > pathLength) { // path is shorter than pattern
+                    return null;
+                }
+                if (parameterType == NUMBER_PARAMETER && numberAnyCharacter) { // rest of path (always last)
+                    if (position >= pathLength) {
+                        return null;
+                    }
+                    values[valueIndex++] = paramPath.substring(position);
+                    return values;
+                }
+                final int slashIndex = paramPath.indexOf('/', position);
+                final int end;
+                if (last) {
+                    if (slashIndex >= 0) { // path is longer than pattern
+                        return null;
+                    }
+                    end = pathLength;
+                } else {
+                    if (slashIndex < 0) { // path is shorter than pattern
+                        return null;
+                    }
+                    end = slashIndex;
+                }
+                if (literal != null) {
+                    if (end - position != literal.length() || !paramPath.startsWith(literal, position)) {
+                        return null;
+                    }
+                } else {
+                    if (end == position) { // empty parameter is not matched, same as [^/]+
+                        return null;
+                    }
+                    if (parameterType == NUMBER_PARAMETER && !isNumberCharacterOnly(paramPath, position, end)) {
+                        return null;
+                    }
+                    values[valueIndex++] = paramPath.substring(position, end);
+                }
+                position = end + 1;
+            }
+            return values;
+        }
+
+        protected boolean isNumberCharacterOnly(String paramPath, int begin, int end) { // same as [\-\.\d]
+            for (int i = begin; i < end; i++) {
+                final char ch = paramPath.charAt(i);
+                if (!(ch >= '0' && ch <= '9') && ch != '-' && ch != '.') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public String getLiteralFirstSegment() {
+            return literals.length > 0 ? literals[0] : null; // null if parameter
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < literals.length; i++) {
+                final String exp = parameterTypes[i] == NUMBER_PARAMETER ? "{number}" : "{}";
+                sb.append(i > 0 ? "/" : "").append(literals[i] != null ? literals[i] : exp);
+            }
+            return "segment:{" + sb + "}";
+        }
+    }
+
     // ===================================================================================
     //                                                                        Small Helper
     //                                                                        ============
@@ -110,4 +357,8 @@ public class PreparedUrlPattern implements Serializable {
     public boolean isMethodNamePrefix() {
         return methodNamePrefix;
     }
+
+    public SegmentMatcher getSegmentMatcher() { // null allowed
+        return segmentMatcher;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.config;
+
+import java.util.Arrays;
+
+/**
+ * The matched result of URL pattern for the request, kept from routing to URL parameter analyzing. <br>
+ * The values are extracted when routing so the analyzer does not need to match the pattern again.
+ * @author jflute
+ */
+public class UrlPatternMatched {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ActionExecute execute; // not null
+    protected final String paramPath; // not null, matched path
+    protected final String[] values; // null allowed when matched by optional parameter mapping
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public UrlPatternMatched(ActionExecute execute, String paramPath, String[] values) {
+        this.execute = execute;
+        this.paramPath = paramPath;
+        this.values = values;
+    }
+
+    // ===================================================================================
+    //                                                                       Determination
+    //                                                                       =============
+    /**
+     * @param execute The execute to be analyzed. (NotNull)
+     * @param paramPath The path of URL parameter to be analyzed. (NullAllowed)
+     * @return Can the values be reused for the execute and path? (false if e.g. optional parameter mapping)
+     */
+    public boolean isReusable(ActionExecute execute, String paramPath) {
+        return values != null && this.execute == execute && this.paramPath.equals(paramPath);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "matched:{" + paramPath + ", " + (values != null ? Arrays.asList(values) : null) + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public ActionExecute getExecute() {
+        return execute;
+    }
+
+    public String getParamPath() {
+        return paramPath;
+    }
+
+    public String[] getValues() { // null allowed, don't modify it
+        return values;
+    }
+}
@@ -94,7 +94,8 @@ public class ExecuteMethodChecker implements Serializable {
     }
 
     protected boolean isAllowedReturnType() {
-        return ActionResponse.class.isAssignableFrom(executeMethod.getReturnType());
+        final Class<?> responseType = LaActionExecuteUtil.findResponseReturnType(executeMethod); // unwrapped if future
+        return responseType != null && ActionResponse.class.isAssignableFrom(responseType);
     }
 
     protected void throwExecuteMethodReturnTypeNotResponseException() {
@@ -110,6 +111,10 @@ public class ExecuteMethodChecker implements Serializable {
         br.addElement("    public JsonResponse index(SeaForm form) { // Good");
         br.addElement("  (o):");
         br.addElement("    public StreamResponse index(SeaForm form) { // Good");
+        br.addElement("  (x):");
+        br.addElement("    public CompletableFuture index(SeaForm form) { // *Bad: needs response generic");
+        br.addElement("  (o):");
+        br.addElement("    public CompletableFuture<JsonResponse<SeaBean>> index(SeaForm form) { // Good: asynchronous");
         br.addItem("Execute Method");
         br.addElement(LaActionExecuteUtil.buildSimpleMethodExp(executeMethod));
         final String msg = br.buildExceptionMessage();
@@ -252,11 +257,11 @@ public class ExecuteMethodChecker implements Serializable {
     //                                                                 JSON Bean Validator
     //                                                                 ===================
     protected void checkJsonBeanValidator() {
-        final Class<?> returnType = executeMethod.getReturnType();
-        if (!JsonResponse.class.isAssignableFrom(returnType)) {
+        final Class<?> returnType = LaActionExecuteUtil.findResponseReturnType(executeMethod); // unwrapped if future
+        if (returnType == null || !JsonResponse.class.isAssignableFrom(returnType)) {
             return;
         }
-        final Type genericReturnType = executeMethod.getGenericReturnType();
+        final Type genericReturnType = LaActionExecuteUtil.findResponseGenericReturnType(executeMethod);
         if (genericReturnType == null || !(genericReturnType instanceof ParameterizedType)) { // just in case
             return;
         }
@@ -16,9 +16,7 @@
 package org.lastaflute.web.ruts.message.objective;
 
 import java.io.Serializable;
-import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -84,7 +82,15 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     //                                                                           =========
     protected boolean returnNull = true; // as default
     protected boolean escape = true; // as default
-    protected final Map<String, MessageFormat> formatMap = new HashMap<String, MessageFormat>();
+
+    /**
+     * The cache of precompiled message format, keyed by locale and message key. <br>
+     * The format is immutable so no lock in formatting. (NotNull, cleared when HotDeploy disposed)
+     */
+    protected final Map<Locale, Map<String, PrecompiledMessageFormat>> precompiledFormatMap = newConcurrentHashMap();
+
+    /** The max size of precompiled format cache per locale, formats over the size are not cached. */
+    protected int precompiledFormatLimitPerLocale = 2000; // as default
 
     /**
      * The cache of assistant director, which can be lazy-loaded when you get it.
@@ -197,21 +203,43 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     }
 
     protected String formatMessage(Locale locale, String key, Object args[]) {
-        MessageFormat format = null;
-        final String formatKey = messageKey(locale, key);
-        synchronized (formatMap) {
-            format = (MessageFormat) formatMap.get(formatKey);
-            if (format == null) {
-                final String formatString = getMessage(locale, key);
-                if (formatString == null) {
-                    return returnNull ? null : ("???" + formatKey + "???");
-                }
-                format = new MessageFormat(escape(formatString));
-                format.setLocale(locale);
-                formatMap.put(formatKey, format);
+        final PrecompiledMessageFormat format = findPrecompiledFormat(locale, key);
+        if (format == null) {
+            return returnNull ? null : ("???" + messageKey(locale, key) + "???");
+        }
+        return format.format(args); // immutable so no lock
+    }
+
+    protected PrecompiledMessageFormat findPrecompiledFormat(Locale locale, String key) { // null allowed if not found
+        final Map<String, PrecompiledMessageFormat> localeFormatMap = prepareLocaleFormatMap(locale);
+        PrecompiledMessageFormat format = localeFormatMap.get(key);
+        if (format != null) {
+            return format;
+        }
+        final String formatString = getMessage(locale, key);
+        if (formatString == null) {
+            return null; // not cached
+        }
+        format = newPrecompiledMessageFormat(escape(formatString), locale);
+        if (localeFormatMap.size() < precompiledFormatLimitPerLocale) { // to avoid unlimited memory
+            final PrecompiledMessageFormat existing = localeFormatMap.putIfAbsent(key, format);
+            if (existing != null) { // other thread already cached
+                format = existing;
             }
         }
-        return format.format(args);
+        return format;
+    }
+
+    protected Map<String, PrecompiledMessageFormat> prepareLocaleFormatMap(Locale locale) {
+        Map<String, PrecompiledMessageFormat> localeFormatMap = precompiledFormatMap.get(locale);
+        if (localeFormatMap == null) {
+            localeFormatMap = precompiledFormatMap.computeIfAbsent(locale, __ -> newConcurrentHashMap());
+        }
+        return localeFormatMap;
+    }
+
+    protected PrecompiledMessageFormat newPrecompiledMessageFormat(String pattern, Locale locale) {
+        return new PrecompiledMessageFormat(pattern, locale);
     }
 
     protected String doGetMessage(Locale locale, String key) {
@@ -634,7 +662,7 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
     @Override
     public void dispose() {
         bundleCacheMap.clear();
-        formatMap.clear();
+        clearPrecompiledFormat();
         initialized = false;
     }
 
@@ -739,6 +767,14 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
         }
     }
 
+    /**
+     * Clear the cache of precompiled message format, called when e.g. HotDeploy disposed. <br>
+     * You can also call it when message resources are reloaded.
+     */
+    public void clearPrecompiledFormat() {
+        precompiledFormatMap.clear();
+    }
+
     // ===================================================================================
     //                                                                        Small Helper
     //                                                                        ============
@@ -796,6 +832,14 @@ public class ObjectiveMessageResources implements MessageResources, Disposable,
         this.returnNull = returnNull;
     }
 
+    public int getPrecompiledFormatLimitPerLocale() {
+        return precompiledFormatLimitPerLocale;
+    }
+
+    public void setPrecompiledFormatLimitPerLocale(int precompiledFormatLimitPerLocale) {
+        this.precompiledFormatLimitPerLocale = precompiledFormatLimitPerLocale;
+    }
+
     public boolean isEscape() {
         return escape;
     }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.message.objective;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The immutable message format precompiled from message pattern, thread-safe. <br>
+ * Simple patterns that have only e.g. {0} are split into literal and argument segments,
+ * and formatted without MessageFormat instance. <br>
+ * Other patterns (that have e.g. {0,number}) are formatted by clone of prototype MessageFormat,
+ * because MessageFormat is not thread-safe.
+ * @author jflute
+ */
+public class PrecompiledMessageFormat {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String pattern; // not null
+    protected final Locale locale; // not null
+    protected final String[] literals; // null if complex, literals[i] is before arguments[i], last is rear
+    protected final int[] arguments; // null if complex
+    protected final MessageFormat prototype; // null if simple
+    protected final int estimatedLength; // for string builder
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param pattern The pattern of message format, already escaped. (NotNull)
+     * @param locale The locale for e.g. number format. (NotNull)
+     * @throws IllegalArgumentException When the pattern is invalid, same as MessageFormat.
+     */
+    public PrecompiledMessageFormat(String pattern, Locale locale) {
+        this.pattern = pattern;
+        this.locale = locale;
+        final List<String> literalList = new ArrayList<String>();
+        final List<Integer> argumentList = new ArrayList<Integer>();
+        if (analyzeSimplePattern(pattern, literalList, argumentList)) {
+            literals = literalList.toArray(new String[literalList.size()]);
+            arguments = new int[argumentList.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = argumentList.get(i);
+            }
+            prototype = null;
+        } else { // e.g. {0,number}, {0,choice,...}
+            literals = null;
+            arguments = null;
+            final MessageFormat format = new MessageFormat(pattern, locale); // may throw
+            prototype = format;
+        }
+        estimatedLength = pattern.length() + 16;
+    }
+
+    /**
+     * @param pattern The pattern of message format. (NotNull)
+     * @param literalList The list to be added literals. (NotNull)
+     * @param argumentList The list to be added argument indexes. (NotNull)
+     * @return Is it simple pattern? (false if it contains format type or invalid braces)
+     */
+    protected boolean analyzeSimplePattern(String pattern, List<String> literalList, List<Integer> argumentList) {
+        final StringBuilder literalSb = new StringBuilder(pattern.length());
+        boolean inQuote = false;
+        final int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            final char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') { // escaped quote
+                    literalSb.append('\'');
+                    ++i;
+                } else {
+                    inQuote = !inQuote;
+                }
+            } else if (inQuote) {
+                literalSb.append(ch);
+            } else if (ch == '{') {
+                final int closeIndex = pattern.indexOf('}', i + 1);
+                if (closeIndex < 0) { // unmatched braces, MessageFormat will throw
+                    return false;
+                }
+                final int argIndex = parseArgumentIndex(pattern, i + 1, closeIndex);
+                if (argIndex < 0) { // e.g. {0,number} or {sea}
+                    return false;
+                }
+                literalList.add(literalSb.toString());
+                literalSb.setLength(0);
+                argumentList.add(argIndex);
+                i = closeIndex;
+            } else { // also '}' is literal if unmatched, same as MessageFormat
+                literalSb.append(ch);
+            }
+        }
+        literalList.add(literalSb.toString()); // rear literal
+        return true;
+    }
+
+    protected int parseArgumentIndex(String pattern, int beginIndex, int endIndex) {
+        if (beginIndex >= endIndex || endIndex - beginIndex > 9) { // e.g. {} or too large
+            return -1;
+        }
+        int index = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            final char ch = pattern.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            index = index * 10 + (ch - '0');
+        }
+        return index;
+    }
+
+    // ===================================================================================
+    //                                                                              Format
+    //                                                                              ======
+    /**
+     * Format the message by the arguments, same result as MessageFormat.
+     * @param args The array of arguments. (NullAllowed: treated as empty)
+     * @return The formatted message. (NotNull)
+     */
+    public String format(Object[] args) {
+        if (prototype != null) { // complex pattern
+            return ((MessageFormat) prototype.clone()).format(args); // clone for thread-safe
+        }
+        if (arguments.length == 0) { // no argument, e.g. "sea is mystic"
+            return literals[0];
+        }
+        final StringBuilder sb = new StringBuilder(estimatedLength);
+        for (int i = 0; i < arguments.length; i++) {
+            sb.append(literals[i]);
+            final int argIndex = arguments[i];
+            if (args == null || argIndex >= args.length) { // same as MessageFormat
+                sb.append('{').append(argIndex).append('}');
+            } else {
+                sb.append(formatArgument(args[argIndex]));
+            }
+        }
+        sb.append(literals[arguments.length]);
+        return sb.toString();
+    }
+
+    protected String formatArgument(Object arg) { // same as MessageFormat's default
+        if (arg == null) {
+            return "null";
+        } else if (arg instanceof String) {
+            return (String) arg;
+        } else if (arg instanceof Number) {
+            return NumberFormat.getInstance(locale).format(arg); // new instance because not thread-safe
+        } else if (arg instanceof Date) {
+            return DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale).format(arg);
+        } else {
+            return arg.toString();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "precompiled:{" + pattern + ", " + locale + (prototype != null ? ", complex" : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public boolean isSimple() {
+        return prototype == null;
+    }
+}
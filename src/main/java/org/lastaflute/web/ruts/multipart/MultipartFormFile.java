@@ -17,6 +17,8 @@ package org.lastaflute.web.ruts.multipart;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * @author modified by jflute (originated in Struts)
@@ -34,4 +36,25 @@ public interface MultipartFormFile {
     String getFileName();
 
     void destroy();
+
+    // ===================================================================================
+    //                                                                           Streaming
+    //                                                                           =========
+    /**
+     * Get the length of the file data, which can be over int range for spooled (large) file.
+     * @return The length of file data as long. (NotMinus)
+     */
+    default long getFileLength() {
+        return getFileSize();
+    }
+
+    /**
+     * Open the channel to read the file data without loading all bytes on heap. <br>
+     * Spooled file returns file channel (you can use e.g. transferTo()), so close it after reading.
+     * @return The new-created channel of the file data. (NotNull)
+     * @throws IOException When it fails to open the channel.
+     */
+    default ReadableByteChannel openChannel() throws IOException {
+        return Channels.newChannel(getInputStream());
+    }
 }
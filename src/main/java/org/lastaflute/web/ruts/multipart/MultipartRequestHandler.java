@@ -15,6 +15,7 @@
  */
 package org.lastaflute.web.ruts.multipart;
 
+import java.io.IOException;
 import java.util.Map;
 
 import javax.servlet.ServletException;
@@ -39,12 +40,27 @@ public interface MultipartRequestHandler {
     // ===================================================================================
     //                                                                            Handling
     //                                                                            ========
-    void handleRequest(HttpServletRequest request) throws ServletException;
+    /**
+     * Handle the multipart request, parsing parameters and files.
+     * @param request The wrapped request of multipart. (NotNull)
+     * @throws ServletException When the request cannot be parsed e.g. illegal format.
+     * @throws IOException When reading the request fails as it is, e.g. client abort.
+     */
+    void handleRequest(HttpServletRequest request) throws ServletException, IOException;
 
     void rollback();
 
     void finish();
 
+    /**
+     * Does the framework call {@link #finish()} at the request end? <br>
+     * (default is false for compatible, your handler finishes itself)
+     * @return The determination, true if finished by the framework e.g. deleting temporary files.
+     */
+    default boolean isFinishedAtRequestEnd() {
+        return false;
+    }
+
     // ===================================================================================
     //                                                                            Accessor
     //                                                                            ========
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The streaming reader of multipart body, which reads each part by fixed-size buffer. <br>
+ * The part data is written to the output stream as soon as it is read,
+ * so whole body is never loaded on memory.
+ * @author jflute
+ */
+public class MultipartBodyReader {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final byte CR = '\r';
+    protected static final byte LF = '\n';
+    protected static final byte DASH = '-';
+    protected static final int DEFAULT_BUFFER_SIZE = 8192;
+    protected static final int MAX_HEADER_SIZE = 10 * 1024;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final InputStream ins; // not null
+    protected final byte[] delimiter; // not null, CRLF + dashes + boundary
+    protected final byte[] buffer; // not null
+    protected int head; // index of first unread byte
+    protected int tail; // index after last filled byte
+    protected boolean endOfStream;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public MultipartBodyReader(InputStream ins, String boundary) {
+        this.ins = ins;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(DEFAULT_BUFFER_SIZE, delimiter.length * 4)];
+        // treated as body started with CRLF so that first boundary is same as others
+        buffer[0] = CR;
+        buffer[1] = LF;
+        tail = 2;
+    }
+
+    // ===================================================================================
+    //                                                                           Read Part
+    //                                                                           =========
+    /**
+     * Skip the preamble before the first boundary.
+     * @return true if the first part exists. false if the body has no part.
+     * @throws IOException When it fails to read or the body is malformed.
+     */
+    public boolean skipPreamble() throws IOException {
+        return readPartBody(null);
+    }
+
+    /**
+     * Read the header lines of the current part, until empty line.
+     * @param charset The charset to decode header, e.g. for non-ASCII file name. (NotNull)
+     * @return The list of header lines, e.g. Content-Disposition: form-data; name="sea" (NotNull, EmptyAllowed)
+     * @throws IOException When it fails to read or the header is malformed.
+     */
+    public List<String> readHeaderLines(Charset charset) throws IOException {
+        final List<String> lineList = new ArrayList<String>(2);
+        final ByteArrayOutputStream lineOut = new ByteArrayOutputStream(128);
+        int total = 0;
+        while (true) {
+            if (!ensureReadable(1)) {
+                throw new IOException("Unexpected end of stream in part headers: " + lineList);
+            }
+            final byte current = buffer[head++];
+            if (++total > MAX_HEADER_SIZE) {
+                throw new IOException("Too large part headers: max=" + MAX_HEADER_SIZE + ", lines=" + lineList);
+            }
+            if (current == LF) { // also accepts bare LF
+                final byte[] lineBytes = lineOut.toByteArray();
+                int length = lineBytes.length;
+                if (length > 0 && lineBytes[length - 1] == CR) {
+                    --length;
+                }
+                if (length == 0) {
+                    return lineList;
+                }
+                lineList.add(new String(lineBytes, 0, length, charset));
+                lineOut.reset();
+            } else {
+                lineOut.write(current);
+            }
+        }
+    }
+
+    /**
+     * Read the body of the current part, writing data to the output stream until next boundary.
+     * @param out The output stream for the part data. (NullAllowed: means skipped)
+     * @return true if next part exists. false if it is the last part.
+     * @throws IOException When it fails to read or write, or the body is malformed.
+     */
+    public boolean readPartBody(OutputStream out) throws IOException {
+        while (true) {
+            final int found = indexOfDelimiter();
+            if (found >= 0) {
+                writeData(out, head, found - head);
+                head = found + delimiter.length;
+                return readDelimiterSuffix();
+            }
+            final int safeEnd = tail - (delimiter.length - 1); // rear bytes might be start of delimiter
+            if (safeEnd > head) {
+                writeData(out, head, safeEnd - head);
+                head = safeEnd;
+            }
+            if (endOfStream) {
+                throw new IOException("Unexpected end of stream in part body, not found the boundary.");
+            }
+            fill();
+        }
+    }
+
+    protected int indexOfDelimiter() {
+        final int last = tail - delimiter.length;
+        outer: for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    protected boolean readDelimiterSuffix() throws IOException {
+        if (!ensureReadable(2)) {
+            throw new IOException("Unexpected end of stream after the boundary.");
+        }
+        if (buffer[head] == DASH && buffer[head + 1] == DASH) { // close delimiter, epilogue is ignored
+            head += 2;
+            return false;
+        }
+        while (ensureReadable(1) && (buffer[head] == ' ' || buffer[head] == '\t')) { // transport padding
+            ++head;
+        }
+        if (ensureReadable(2) && buffer[head] == CR && buffer[head + 1] == LF) {
+            head += 2;
+            return true;
+        }
+        throw new IOException("Unexpected characters after the boundary.");
+    }
+
+    protected void writeData(OutputStream out, int offset, int length) throws IOException {
+        if (out != null && length > 0) {
+            out.write(buffer, offset, length);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Buffer
+    //                                                                              ======
+    protected boolean ensureReadable(int size) throws IOException {
+        while (tail - head < size && !endOfStream) {
+            fill();
+        }
+        return tail - head >= size;
+    }
+
+    protected void fill() throws IOException {
+        if (head > 0) { // compact
+            final int remaining = tail - head;
+            System.arraycopy(buffer, head, buffer, 0, remaining);
+            head = 0;
+            tail = remaining;
+        }
+        final int read = ins.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            tail += read;
+        }
+    }
+}
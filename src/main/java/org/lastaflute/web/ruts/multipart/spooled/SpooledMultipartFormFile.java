@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.web.ruts.multipart.MultipartFormFile;
+
+/**
+ * The multipart form file that has the data on memory or in spooled temporary file.
+ * @author jflute
+ */
+public class SpooledMultipartFormFile implements MultipartFormFile {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final String fileName; // not null, empty allowed
+    protected final String contentType; // null allowed
+    protected final long fileLength;
+    protected volatile byte[] memoryData; // null allowed: when spooled or destroyed
+    protected volatile File spooledFile; // null allowed: when on memory or destroyed
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public SpooledMultipartFormFile(String fileName, String contentType, byte[] memoryData) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.fileLength = memoryData.length;
+        this.memoryData = memoryData;
+        this.spooledFile = null;
+    }
+
+    public SpooledMultipartFormFile(String fileName, String contentType, File spooledFile, long fileLength) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.fileLength = fileLength;
+        this.memoryData = null;
+        this.spooledFile = spooledFile;
+    }
+
+    // ===================================================================================
+    //                                                                           File Data
+    //                                                                           =========
+    @Override
+    public byte[] getFileData() throws IOException {
+        final byte[] data = memoryData;
+        if (data != null) {
+            return data;
+        }
+        final File file = assertSpooledFileAlive();
+        if (fileLength > Integer.MAX_VALUE) {
+            throw new IOException("Too large file to get as byte array, use getInputStream() or openChannel(): " + this);
+        }
+        return Files.readAllBytes(file.toPath()); // only for byte[] users
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final byte[] data = memoryData;
+        if (data != null) {
+            return new ByteArrayInputStream(data);
+        }
+        return Files.newInputStream(assertSpooledFileAlive().toPath());
+    }
+
+    @Override
+    public ReadableByteChannel openChannel() throws IOException {
+        final byte[] data = memoryData;
+        if (data != null) {
+            return Channels.newChannel(new ByteArrayInputStream(data));
+        }
+        return FileChannel.open(assertSpooledFileAlive().toPath(), StandardOpenOption.READ);
+    }
+
+    protected File assertSpooledFileAlive() throws IOException {
+        final File file = spooledFile;
+        if (file == null) {
+            throw new IOException("Already destroyed the multipart form file: " + this);
+        }
+        return file;
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    @Override
+    public void destroy() {
+        memoryData = null;
+        final File file = spooledFile;
+        if (file != null) {
+            spooledFile = null;
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException ignored) { // e.g. still opened on Windows
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "spooledFile:{" + fileName + ", " + contentType + ", " + fileLength + (spooledFile != null ? ", spooled" : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public int getFileSize() {
+        return (int) Math.min(fileLength, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isSpooled() {
+        return spooledFile != null;
+    }
+
+    public OptionalThing<File> getSpooledFile() {
+        final File file = spooledFile;
+        return OptionalThing.ofNullable(file, () -> {
+            throw new IllegalStateException("Not spooled (or destroyed) file: " + this);
+        });
+    }
+}
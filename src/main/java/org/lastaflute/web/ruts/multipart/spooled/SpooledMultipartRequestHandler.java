@@ -0,0 +1,479 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbflute.util.Srl;
+import org.lastaflute.web.ruts.multipart.MultipartFormFile;
+import org.lastaflute.web.ruts.multipart.MultipartRequestHandler;
+import org.lastaflute.web.ruts.multipart.MultipartRequestWrapper;
+import org.lastaflute.web.ruts.multipart.exception.MultipartExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The built-in multipart handler that parses the request body by streaming. <br>
+ * Uploaded file larger than the spool threshold is written to temporary file (not on heap),
+ * and the temporary files are deleted by finish() at the request end.
+ * @author jflute
+ */
+public class SpooledMultipartRequestHandler implements MultipartRequestHandler {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(SpooledMultipartRequestHandler.class);
+    protected static final String TEMP_FILE_PREFIX = "lastaflute_upload_";
+    protected static final String TEMP_FILE_SUFFIX = ".tmp";
+    protected static final int WRITE_BUFFER_SIZE = 8192;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final int spoolThreshold;
+    protected final long maxRequestSize; // minus means no limit
+    protected final long maxFileSize; // minus means no limit
+    protected final File tempDirectory; // null allowed: means system temporary directory
+    protected final Map<String, Object> allElements = new LinkedHashMap<String, Object>();
+    protected final Map<String, MultipartFormFile> fileElements = new LinkedHashMap<String, MultipartFormFile>();
+    protected final Map<String, String[]> textElements = new LinkedHashMap<String, String[]>();
+    protected final List<File> tempFileList = new ArrayList<File>(); // to delete at finish
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public SpooledMultipartRequestHandler(int spoolThreshold, long maxRequestSize, long maxFileSize, File tempDirectory) {
+        this.spoolThreshold = spoolThreshold;
+        this.maxRequestSize = maxRequestSize;
+        this.maxFileSize = maxFileSize;
+        this.tempDirectory = tempDirectory;
+    }
+
+    // ===================================================================================
+    //                                                                            Handling
+    //                                                                            ========
+    @Override
+    public void handleRequest(HttpServletRequest request) throws ServletException, IOException {
+        final String boundary = extractBoundary(request.getContentType());
+        if (boundary == null) {
+            throw new ServletException("Not found the boundary in the content type: " + request.getContentType());
+        }
+        final long contentLength = request.getContentLengthLong();
+        if (maxRequestSize >= 0 && contentLength > maxRequestSize) { // no need to read
+            handleSizeLimitExceeded(request, "request", contentLength, maxRequestSize, null);
+            return;
+        }
+        final SizeLimitedInputStream ins = new SizeLimitedInputStream(request.getInputStream(), maxRequestSize);
+        try {
+            parseBody(request, newMultipartBodyReader(ins, boundary), prepareCharset(request));
+        } catch (SizeLimitExceededIOException e) {
+            rollback();
+            handleSizeLimitExceeded(request, e.getTarget(), e.getActual(), e.getPermitted(), e);
+        } catch (IOException | RuntimeException e) {
+            rollback();
+            final IOException readFailure = ins.getReadFailure();
+            if (readFailure != null) { // e.g. client abort in the middle of body, not illegal format
+                throw readFailure; // as it is
+            }
+            throw new ServletException("Failed to parse the multipart request: " + request.getRequestURI(), e);
+        }
+    }
+
+    protected String extractBoundary(String contentType) { // e.g. multipart/form-data; boundary=----xxx
+        if (contentType == null) {
+            return null;
+        }
+        final String boundary = parseHeaderParameterMap(contentType).get("boundary");
+        return boundary != null && !boundary.isEmpty() ? boundary : null;
+    }
+
+    protected Charset prepareCharset(HttpServletRequest request) {
+        final String encoding = request.getCharacterEncoding();
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (RuntimeException e) { // e.g. unsupported
+                logger.debug("Unsupported request encoding so use UTF-8: " + encoding);
+            }
+        }
+        return StandardCharsets.UTF_8; // mainly web-application uses UTF-8
+    }
+
+    protected MultipartBodyReader newMultipartBodyReader(InputStream ins, String boundary) {
+        return new MultipartBodyReader(ins, boundary);
+    }
+
+    protected void handleSizeLimitExceeded(HttpServletRequest request, String target, long actual, long permitted, Exception cause) {
+        final String msg = "Exceeded size of the multipart " + target + ": actual=" + actual + " permitted=" + permitted;
+        if (logger.isDebugEnabled()) {
+            logger.debug(msg);
+        }
+        request.setAttribute(MAX_LENGTH_EXCEEDED_KEY, new MultipartExceededException(msg, actual, permitted, cause));
+    }
+
+    // -----------------------------------------------------
+    //                                            Parse Body
+    //                                            ----------
+    protected void parseBody(HttpServletRequest request, MultipartBodyReader reader, Charset charset) throws IOException {
+        boolean hasNext = reader.skipPreamble();
+        while (hasNext) {
+            final Map<String, String> headerMap = extractHeaderMap(reader.readHeaderLines(charset));
+            final Map<String, String> dispositionMap = parseHeaderParameterMap(headerMap.getOrDefault("content-disposition", ""));
+            final String name = dispositionMap.get("name");
+            final String contentType = headerMap.get("content-type"); // null allowed
+            if (name == null) { // e.g. not form-data part
+                hasNext = reader.readPartBody(null);
+                continue;
+            }
+            final String fileName = extractFileName(dispositionMap, charset);
+            if (fileName != null) {
+                final SpoolingOutputStream out = newSpoolingOutputStream();
+                try {
+                    hasNext = reader.readPartBody(out);
+                } finally {
+                    out.close();
+                }
+                addFileElement(name, out.toFormFile(fileName, contentType));
+            } else {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                hasNext = reader.readPartBody(out);
+                addTextElement(request, name, new String(out.toByteArray(), findPartCharset(contentType, charset)));
+            }
+        }
+    }
+
+    protected Map<String, String> extractHeaderMap(List<String> headerLineList) {
+        final Map<String, String> headerMap = new LinkedHashMap<String, String>();
+        for (String line : headerLineList) {
+            final int colonIndex = line.indexOf(':');
+            if (colonIndex > 0) { // header names are case-insensitive
+                headerMap.put(line.substring(0, colonIndex).trim().toLowerCase(), line.substring(colonIndex + 1).trim());
+            }
+        }
+        return headerMap;
+    }
+
+    protected String extractFileName(Map<String, String> dispositionMap, Charset charset) {
+        String fileName = dispositionMap.get("filename");
+        final String extended = dispositionMap.get("filename*"); // e.g. UTF-8''%E6%B5%B7.txt (RFC 5987)
+        if (extended != null && extended.contains("''")) {
+            final String encoding = Srl.substringFirstFront(extended, "''");
+            try {
+                fileName = URLDecoder.decode(Srl.substringFirstRear(extended, "''"), encoding.isEmpty() ? charset.name() : encoding);
+            } catch (UnsupportedEncodingException | RuntimeException ignored) { // use plain file name
+            }
+        }
+        if (fileName == null) { // means text element
+            return null;
+        }
+        final int separatorIndex = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')); // for old browser
+        return separatorIndex >= 0 ? fileName.substring(separatorIndex + 1) : fileName;
+    }
+
+    protected Charset findPartCharset(String contentType, Charset defaultCharset) {
+        if (contentType != null) {
+            final String charset = parseHeaderParameterMap(contentType).get("charset");
+            if (charset != null) {
+                try {
+                    return Charset.forName(charset);
+                } catch (RuntimeException ignored) { // use default
+                }
+            }
+        }
+        return defaultCharset;
+    }
+
+    /**
+     * @param headerValue The value of header that has parameters, e.g. form-data; name="sea"; filename="land.txt" (NotNull)
+     * @return The map of parameters, key is lower case, quotes are removed. (NotNull, EmptyAllowed)
+     */
+    protected Map<String, String> parseHeaderParameterMap(String headerValue) {
+        final Map<String, String> parameterMap = new LinkedHashMap<String, String>();
+        final int length = headerValue.length();
+        int index = headerValue.indexOf(';');
+        while (index >= 0 && index < length) {
+            ++index; // skip semicolon
+            final int equalIndex = headerValue.indexOf('=', index);
+            if (equalIndex < 0) {
+                break;
+            }
+            final String key = headerValue.substring(index, equalIndex).trim().toLowerCase();
+            final StringBuilder valueSb = new StringBuilder();
+            int current = equalIndex + 1;
+            while (current < length && headerValue.charAt(current) == ' ') {
+                ++current;
+            }
+            if (current < length && headerValue.charAt(current) == '"') { // quoted
+                ++current;
+                while (current < length && headerValue.charAt(current) != '"') {
+                    final char ch = headerValue.charAt(current);
+                    if (ch == '\\' && current + 1 < length && headerValue.charAt(current + 1) == '"') { // escaped quote
+                        ++current;
+                    }
+                    valueSb.append(headerValue.charAt(current));
+                    ++current;
+                }
+                index = headerValue.indexOf(';', current);
+            } else {
+                final int semicolonIndex = headerValue.indexOf(';', current);
+                valueSb.append(headerValue.substring(current, semicolonIndex >= 0 ? semicolonIndex : length).trim());
+                index = semicolonIndex;
+            }
+            parameterMap.putIfAbsent(key, valueSb.toString());
+        }
+        return parameterMap;
+    }
+
+    // -----------------------------------------------------
+    //                                           Add Element
+    //                                           -----------
+    protected void addTextElement(HttpServletRequest request, String name, String value) {
+        final String[] existing = textElements.get(name);
+        final String[] values;
+        if (existing != null) {
+            values = new String[existing.length + 1];
+            System.arraycopy(existing, 0, values, 0, existing.length);
+            values[existing.length] = value;
+        } else {
+            values = new String[] { value };
+        }
+        textElements.put(name, values);
+        allElements.put(name, values);
+        if (request instanceof MultipartRequestWrapper) { // basically true
+            ((MultipartRequestWrapper) request).setParameter(name, value);
+        }
+    }
+
+    protected void addFileElement(String name, MultipartFormFile formFile) {
+        fileElements.put(name, formFile);
+        allElements.put(name, formFile);
+    }
+
+    // ===================================================================================
+    //                                                                           Temp File
+    //                                                                           =========
+    protected File createTempFile() throws IOException {
+        final File tempFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, tempDirectory);
+        tempFileList.add(tempFile); // registered before writing to delete it even if failure
+        return tempFile;
+    }
+
+    protected SpoolingOutputStream newSpoolingOutputStream() {
+        return new SpoolingOutputStream();
+    }
+
+    /**
+     * The output stream that keeps data on memory until threshold, and spools it to temporary file after that.
+     */
+    protected class SpoolingOutputStream extends OutputStream {
+
+        protected ByteArrayOutputStream memoryOut = new ByteArrayOutputStream(Math.min(spoolThreshold, WRITE_BUFFER_SIZE) + 1);
+        protected File spooledFile; // null allowed: until spooled
+        protected OutputStream fileOut; // null allowed: until spooled
+        protected long length;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int len) throws IOException {
+            length += len;
+            if (maxFileSize >= 0 && length > maxFileSize) {
+                throw new SizeLimitExceededIOException("file", length, maxFileSize);
+            }
+            if (fileOut == null && memoryOut.size() + len > spoolThreshold) {
+                spooledFile = createTempFile();
+                fileOut = new BufferedOutputStream(new FileOutputStream(spooledFile), WRITE_BUFFER_SIZE);
+                memoryOut.writeTo(fileOut);
+                memoryOut = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(bytes, offset, len);
+            } else {
+                memoryOut.write(bytes, offset, len);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        public SpooledMultipartFormFile toFormFile(String fileName, String contentType) {
+            if (spooledFile != null) {
+                return new SpooledMultipartFormFile(fileName, contentType, spooledFile, length);
+            } else {
+                return new SpooledMultipartFormFile(fileName, contentType, memoryOut.toByteArray());
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                          Size Limit
+    //                                                                          ==========
+    protected static class SizeLimitedInputStream extends FilterInputStream {
+
+        protected final long permitted; // minus means no limit
+        protected long count;
+        protected IOException readFailure; // null allowed, failure of the request stream itself
+
+        public SizeLimitedInputStream(InputStream ins, long permitted) {
+            super(ins);
+            this.permitted = permitted;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read;
+            try {
+                read = super.read();
+            } catch (IOException e) {
+                readFailure = e;
+                throw e;
+            }
+            if (read >= 0) {
+                countUp(1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int len) throws IOException {
+            final int read;
+            try {
+                read = super.read(bytes, offset, len);
+            } catch (IOException e) {
+                readFailure = e;
+                throw e;
+            }
+            if (read > 0) {
+                countUp(read);
+            }
+            return read;
+        }
+
+        protected void countUp(int read) throws IOException {
+            count += read;
+            if (permitted >= 0 && count > permitted) {
+                throw new SizeLimitExceededIOException("request", count, permitted);
+            }
+        }
+
+        public IOException getReadFailure() { // null allowed
+            return readFailure;
+        }
+    }
+
+    protected static class SizeLimitExceededIOException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final String target;
+        protected final long actual;
+        protected final long permitted;
+
+        public SizeLimitExceededIOException(String target, long actual, long permitted) {
+            super("Exceeded size of the multipart " + target + ": actual=" + actual + " permitted=" + permitted);
+            this.target = target;
+            this.actual = actual;
+            this.permitted = permitted;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public long getActual() {
+            return actual;
+        }
+
+        public long getPermitted() {
+            return permitted;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Finish
+    //                                                                              ======
+    @Override
+    public void rollback() {
+        for (MultipartFormFile formFile : fileElements.values()) {
+            formFile.destroy();
+        }
+        for (File tempFile : tempFileList) { // also files not completed (by exception)
+            if (tempFile.exists() && !tempFile.delete()) {
+                logger.debug("Cannot delete the temporary file so delete it on exit: {}", tempFile);
+                tempFile.deleteOnExit();
+            }
+        }
+        tempFileList.clear();
+        allElements.clear();
+        fileElements.clear();
+        textElements.clear();
+    }
+
+    @Override
+    public void finish() { // called at the request end
+        rollback();
+    }
+
+    @Override
+    public boolean isFinishedAtRequestEnd() { // temporary files should be deleted
+        return true;
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    @Override
+    public Map<String, Object> getAllElements() {
+        return Collections.unmodifiableMap(allElements);
+    }
+
+    @Override
+    public Map<String, MultipartFormFile> getFileElements() {
+        return Collections.unmodifiableMap(fileElements);
+    }
+
+    @Override
+    public Map<String, String[]> getTextElements() {
+        return Collections.unmodifiableMap(textElements);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.File;
+
+import org.lastaflute.web.ruts.multipart.MultipartRequestHandler;
+import org.lastaflute.web.ruts.multipart.MultipartResourceProvider;
+
+/**
+ * The provider of built-in multipart handler that spools large files to temporary files. <br>
+ * Uploaded file smaller than the threshold is kept on memory, and larger one is written to disk,
+ * so large uploads do not stay on heap. The temporary files are deleted at the request end.
+ * <pre>
+ * e.g. in your assistant director
+ *  direction.directMultipart(new SpooledMultipartResourceProvider().spoolThreshold(1024 * 1024).maxRequestSize(...));
+ * </pre>
+ * @author jflute
+ */
+public class SpooledMultipartResourceProvider implements MultipartResourceProvider {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    public static final int DEFAULT_SPOOL_THRESHOLD = 64 * 1024; // 64KB
+    public static final long DEFAULT_MAX_REQUEST_SIZE = 100L * 1024 * 1024; // 100MB
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected int spoolThreshold = DEFAULT_SPOOL_THRESHOLD;
+    protected long maxRequestSize = DEFAULT_MAX_REQUEST_SIZE; // minus means no limit
+    protected long maxFileSize = -1; // minus means no limit (except request size)
+    protected File tempDirectory; // null allowed: means system temporary directory
+
+    // ===================================================================================
+    //                                                                              Option
+    //                                                                              ======
+    /**
+     * @param spoolThreshold The size (bytes) to spool the file data to temporary file. (NotMinus: zero means always spooled)
+     * @return this. (NotNull)
+     */
+    public SpooledMultipartResourceProvider spoolThreshold(int spoolThreshold) {
+        if (spoolThreshold < 0) {
+            throw new IllegalArgumentException("The argument 'spoolThreshold' should not be minus: " + spoolThreshold);
+        }
+        this.spoolThreshold = spoolThreshold;
+        return this;
+    }
+
+    /**
+     * @param maxRequestSize The max size (bytes) of whole request body. (minus means no limit)
+     * @return this. (NotNull)
+     */
+    public SpooledMultipartResourceProvider maxRequestSize(long maxRequestSize) {
+        this.maxRequestSize = maxRequestSize;
+        return this;
+    }
+
+    /**
+     * @param maxFileSize The max size (bytes) of one uploaded file. (minus means no limit)
+     * @return this. (NotNull)
+     */
+    public SpooledMultipartResourceProvider maxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * @param tempDirectory The directory for temporary files of spooled data. (NotNull)
+     * @return this. (NotNull)
+     */
+    public SpooledMultipartResourceProvider tempDirectory(File tempDirectory) {
+        if (tempDirectory == null) {
+            throw new IllegalArgumentException("The argument 'tempDirectory' should not be null.");
+        }
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    // ===================================================================================
+    //                                                                             Provide
+    //                                                                             =======
+    @Override
+    public MultipartRequestHandler createHandler() {
+        return new SpooledMultipartRequestHandler(spoolThreshold, maxRequestSize, maxFileSize, tempDirectory);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "spooled:{threshold=" + spoolThreshold + ", maxRequest=" + maxRequestSize + ", maxFile=" + maxFileSize + ", tempDir="
+                + tempDirectory + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getSpoolThreshold() {
+        return spoolThreshold;
+    }
+
+    public long getMaxRequestSize() {
+        return maxRequestSize;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public File getTempDirectory() {
+        return tempDirectory;
+    }
+}
@@ -16,14 +16,12 @@
 package org.lastaflute.web.ruts.process;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -33,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.servlet.ServletException;
@@ -54,6 +53,7 @@ import org.lastaflute.core.message.UserMessages;
 import org.lastaflute.core.util.ContainerUtil;
 import org.lastaflute.core.util.LaClassificationUtil;
 import org.lastaflute.core.util.LaClassificationUtil.ClassificationUnknownCodeException;
+import org.lastaflute.di.DisposableUtil;
 import org.lastaflute.di.helper.beans.BeanDesc;
 import org.lastaflute.di.helper.beans.ParameterizedClassDesc;
 import org.lastaflute.di.helper.beans.PropertyDesc;
@@ -84,6 +84,10 @@ import org.lastaflute.web.ruts.multipart.MultipartResourceProvider;
 import org.lastaflute.web.ruts.process.debugchallenge.JsonDebugChallenge;
 import org.lastaflute.web.ruts.process.exception.ActionFormPopulateFailureException;
 import org.lastaflute.web.ruts.process.exception.RequestUndefinedParameterInFormException;
+import org.lastaflute.web.ruts.process.populate.FormBindingPlan;
+import org.lastaflute.web.ruts.process.populate.FormJsonBodyReader;
+import org.lastaflute.web.ruts.process.populate.FormPropertyBinding;
+import org.lastaflute.web.ruts.process.populate.FormPropertyBinding.FormNativeType;
 import org.lastaflute.web.ruts.process.populate.FormSimpleTextParameterFilter;
 import org.lastaflute.web.ruts.process.populate.FormSimpleTextParameterMeta;
 import org.lastaflute.web.ruts.process.populate.FormYourCollectionResource;
@@ -123,6 +127,8 @@ public class ActionFormMapper {
     protected final ModuleConfig moduleConfig;
     protected final FwAssistantDirector assistantDirector;
     protected final RequestManager requestManager;
+    protected final Map<Class<?>, FormBindingPlan> nestedBindingPlanMap = new ConcurrentHashMap<Class<?>, FormBindingPlan>();
+    protected volatile boolean bindingPlanDisposableRegistered; // to clear nested plans when hot deploy
 
     // ===================================================================================
     //                                                                         Constructor
@@ -149,6 +155,9 @@ public class ActionFormMapper {
             final MultipartRequestWrapper wrapper = newMultipartRequestWrapper(requestManager.getRequest());
             ContainerUtil.overrideExternalRequest(wrapper);
             multipartHandler = createMultipartRequestHandler();
+            if (multipartHandler.isFinishedAtRequestEnd()) { // e.g. spooled handler, delete temporary files
+                ThreadCacheContext.registerMultipartHandler(multipartHandler); // finished at request end
+            }
             multipartHandler.handleRequest(wrapper);
             if (MultipartRequestHandler.findExceededException(wrapper) != null) {
                 return; // you can confirm exceeded by the static find method
@@ -242,11 +251,11 @@ public class ActionFormMapper {
     //                                                                           =========
     protected boolean handleJsonBody(ActionRuntime runtime, VirtualForm virtualForm) throws IOException {
         if (isJsonBodyForm(virtualForm.getFormMeta().getFormType())) {
-            mappingJsonBody(runtime, virtualForm, prepareJsonFromRequestBody(virtualForm));
+            mappingJsonBody(runtime, virtualForm, prepareJsonBodyReader(virtualForm));
             return true;
         }
         if (isListJsonBodyForm(virtualForm)) {
-            mappingListJsonBody(runtime, virtualForm, prepareJsonFromRequestBody(virtualForm));
+            mappingListJsonBody(runtime, virtualForm, prepareJsonBodyReader(virtualForm));
             return true;
         }
         return false;
@@ -262,13 +271,14 @@ public class ActionFormMapper {
         }).orElse(false);
     }
 
-    protected String prepareJsonFromRequestBody(VirtualForm virtualForm) {
+    // -----------------------------------------------------
+    //                                           Body Reader
+    //                                           -----------
+    // body is parsed as stream (not read as string) to avoid large string for e.g. bulk API
+    // only front part is captured for debug display and debug challenge
+    protected FormJsonBodyReader prepareJsonBodyReader(VirtualForm virtualForm) {
         try {
-            final String body = requestManager.getRequestBody();
-            if (logger.isDebugEnabled()) {
-                logger.debug("#flow ...Parsing JSON from request body:{}", buildJsonBodyDebugDisplay(body));
-            }
-            return body;
+            return newFormJsonBodyReader(requestManager.getRequestBodyReader(), getJsonBodyCaptureLimit());
         } catch (RuntimeException e) {
             final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
             br.addNotice("Cannot read request body for JSON.");
@@ -283,33 +293,70 @@ public class ActionFormMapper {
         }
     }
 
+    protected FormJsonBodyReader newFormJsonBodyReader(Reader bodyReader, int captureLimit) {
+        return new FormJsonBodyReader(bodyReader, captureLimit);
+    }
+
+    protected int getJsonBodyCaptureLimit() { // enough size for debug challenge of basic body
+        return 65536;
+    }
+
+    protected void showJsonBodyDebugDisplay(FormJsonBodyReader bodyReader) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Parsing JSON from request body:{}", buildJsonBodyDebugDisplay(bodyReader.getCapturedText()));
+        }
+    }
+
     protected String buildJsonBodyDebugDisplay(String value) {
         // want to show all as parameter, but limit just in case to avoid large logging
         final String trimmed = value.trim();
         return !trimmed.isEmpty() ? "\n" + Srl.cut(trimmed, 800, "...") : " *empty body"; // might have rear LF
     }
 
+    protected void throwJsonBodyReadFailureIfExists(FormJsonBodyReader bodyReader) throws IOException {
+        final IOException readFailure = bodyReader.getReadFailure();
+        if (readFailure != null) { // e.g. client abort in the middle of body, wrapped by parser
+            throw readFailure; // as it is, it is not client's format mistake
+        }
+    }
+
+    protected String buildCapturedJsonBody(FormJsonBodyReader bodyReader) { // for exception message
+        bodyReader.captureRest(); // parser may stop at the middle of body
+        final String captured = bodyReader.getCapturedText();
+        if (bodyReader.isOverflowed()) {
+            return captured + "...(cut over " + bodyReader.getCaptureLimit() + " characters)";
+        }
+        return captured;
+    }
+
     // -----------------------------------------------------
     //                                             Bean JSON
     //                                             ---------
-    protected void mappingJsonBody(ActionRuntime runtime, VirtualForm virtualForm, String json) {
+    protected void mappingJsonBody(ActionRuntime runtime, VirtualForm virtualForm, FormJsonBodyReader bodyReader)
+            throws IOException {
         final JsonManager jsonManager = getJsonManager();
         try {
-            final Object fromJson = jsonManager.fromJson(json, virtualForm.getFormMeta().getFormType());
+            final Object fromJson = jsonManager.fromJson(bodyReader, virtualForm.getFormMeta().getFormType());
+            showJsonBodyDebugDisplay(bodyReader);
             acceptJsonRealForm(virtualForm, fromJson);
         } catch (RuntimeException e) {
-            throwJsonBodyParseFailureException(runtime, virtualForm, json, e);
+            throwJsonBodyReadFailureIfExists(bodyReader); // not parse failure
+            final String capturedJson = buildCapturedJsonBody(bodyReader);
+            showJsonBodyDebugDisplay(bodyReader);
+            throwJsonBodyParseFailureException(runtime, virtualForm, capturedJson, bodyReader.isCapturedWhole(), e);
         }
     }
 
-    protected void throwJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, RuntimeException e) {
+    protected void throwJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, boolean wholeJson,
+            RuntimeException e) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Cannot parse json on the request body.");
         sb.append(LF).append(LF).append("[JsonBody Parse Failure]");
         sb.append(LF).append(runtime);
         sb.append(LF).append(virtualForm);
         sb.append(LF).append(json);
-        final Map<String, Object> retryMap = retryJsonAsMapForDebug(json);
+        // debug challenge needs whole JSON, no challenge if large body
+        final Map<String, Object> retryMap = wholeJson ? retryJsonAsMapForDebug(json) : Collections.emptyMap();
         List<JsonDebugChallenge> challengeList = new ArrayList<JsonDebugChallenge>();
         if (!retryMap.isEmpty()) {
             sb.append(LF).append(buildDebugChallengeTitle());
@@ -340,25 +387,32 @@ public class ActionFormMapper {
     // -----------------------------------------------------
     //                                             List JSON
     //                                             ---------
-    protected void mappingListJsonBody(ActionRuntime runtime, VirtualForm virtualForm, String json) {
+    protected void mappingListJsonBody(ActionRuntime runtime, VirtualForm virtualForm, FormJsonBodyReader bodyReader)
+            throws IOException {
         try {
             final ActionFormMeta formMeta = virtualForm.getFormMeta();
             final ParameterizedType pt = formMeta.getListFormParameterParameterizedType().get(); // already checked
-            final List<Object> fromJsonList = getJsonManager().fromJsonParameteried(json, pt);
+            final List<Object> fromJsonList = getJsonManager().fromJsonParameteried(bodyReader, pt);
+            showJsonBodyDebugDisplay(bodyReader);
             acceptJsonRealForm(virtualForm, fromJsonList);
         } catch (RuntimeException e) {
-            throwListJsonBodyParseFailureException(runtime, virtualForm, json, e);
+            throwJsonBodyReadFailureIfExists(bodyReader); // not parse failure
+            final String capturedJson = buildCapturedJsonBody(bodyReader);
+            showJsonBodyDebugDisplay(bodyReader);
+            throwListJsonBodyParseFailureException(runtime, virtualForm, capturedJson, bodyReader.isCapturedWhole(), e);
         }
     }
 
-    protected void throwListJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, RuntimeException e) {
+    protected void throwListJsonBodyParseFailureException(ActionRuntime runtime, VirtualForm virtualForm, String json, boolean wholeJson,
+            RuntimeException e) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Cannot parse list json on the request body.");
         sb.append(LF).append(LF).append("[List JsonBody Parse Failure]");
         sb.append(LF).append(runtime);
         sb.append(LF).append(virtualForm);
         sb.append(LF).append(json);
-        final List<Map<String, Object>> retryList = retryJsonListAsMapForDebug(json);
+        // debug challenge needs whole JSON, no challenge if large body
+        final List<Map<String, Object>> retryList = wholeJson ? retryJsonListAsMapForDebug(json) : Collections.emptyList();
         final List<JsonDebugChallenge> challengeList = new ArrayList<JsonDebugChallenge>();
         if (!retryList.isEmpty()) {
             sb.append(LF).append(buildDebugChallengeTitle());
@@ -491,23 +545,70 @@ public class ActionFormMapper {
             setMapProperty(map, name, value, option, parentBean, parentName);
             return;
         }
-        final BeanDesc beanDesc = BeanDescFactory.getBeanDesc(bean.getClass());
-        if (!beanDesc.hasPropertyDesc(name)) {
-            handleUndefinedParameter(bean, name, value, option, beanDesc);
-            return;
-        }
-        final PropertyDesc pd = beanDesc.getPropertyDesc(name);
-        if (!pd.isWritable()) {
-            handleUndefinedParameter(bean, name, value, option, beanDesc);
+        final FormBindingPlan bindingPlan = findBindingPlan(virtualForm, bean);
+        final FormPropertyBinding binding = bindingPlan.findBinding(name); // null if undefined or not writable
+        if (binding == null) {
+            handleUndefinedParameter(bean, name, value, option, bindingPlan.getBeanDesc());
             return;
         }
         try {
-            mappingToProperty(virtualForm, bean, name, value, pathSb, option, pd);
+            mappingToProperty(virtualForm, bean, name, value, pathSb, option, binding);
         } catch (RuntimeException e) {
-            handleMappingFailureException(beanDesc, name, value, pathSb, pd, e);
+            handleMappingFailureException(bindingPlan.getBeanDesc(), name, value, pathSb, binding.getPropertyDesc(), e);
+        }
+    }
+
+    protected FormBindingPlan findBindingPlan(VirtualForm virtualForm, Object bean) {
+        final Class<?> beanType = bean.getClass();
+        final ActionFormMeta formMeta = virtualForm.getFormMeta();
+        if (formMeta != null && beanType.equals(formMeta.getFormType())) { // mainly here, held by form meta
+            return formMeta.prepareBindingPlan(tp -> newFormBindingPlan(tp));
+        }
+        final FormBindingPlan cached = nestedBindingPlanMap.get(beanType);
+        if (cached != null) {
+            return cached;
+        }
+        prepareBindingPlanDisposable();
+        return nestedBindingPlanMap.computeIfAbsent(beanType, tp -> newFormBindingPlan(tp)); // e.g. nested bean
+    }
+
+    protected void prepareBindingPlanDisposable() { // e.g. hot deploy, classes of nested beans are reloaded
+        if (bindingPlanDisposableRegistered) {
+            return;
+        }
+        synchronized (nestedBindingPlanMap) {
+            if (!bindingPlanDisposableRegistered) {
+                DisposableUtil.add(() -> disposeBindingPlan()); // removed from disposables after disposed
+                bindingPlanDisposableRegistered = true;
+            }
+        }
+    }
+
+    protected void disposeBindingPlan() {
+        synchronized (nestedBindingPlanMap) {
+            nestedBindingPlanMap.clear();
+            bindingPlanDisposableRegistered = false; // registered again when next cached
         }
     }
 
+    protected FormBindingPlan newFormBindingPlan(Class<?> beanType) {
+        return new FormBindingPlan(beanType, pd -> newFormPropertyBinding(pd));
+    }
+
+    /**
+     * Create the binding of the property, called once per property when the plan is built. <br>
+     * JSON parameter and native types are determined here by the overridable methods.
+     * @param pd The description of writable property. (NotNull)
+     * @return The new-created binding for the property. (NotNull)
+     */
+    protected FormPropertyBinding newFormPropertyBinding(PropertyDesc pd) {
+        final boolean jsonParameter = isJsonParameterProperty(pd);
+        final FormNativeType nativeType = determineNativeType(pd.getPropertyType());
+        final Class<?> elementType = pd.isParameterized() ? pd.getParameterizedClassDesc().getGenericFirstType() : null;
+        final FormNativeType elementNativeType = elementType != null ? determineNativeType(elementType) : null;
+        return new FormPropertyBinding(pd, jsonParameter, nativeType, elementType, elementNativeType);
+    }
+
     protected void handleUndefinedParameter(Object bean, String name, Object value, FormMappingOption option, BeanDesc beanDesc) {
         if (option.isUndefinedParameterError() && !option.getIndefinableParameterSet().contains(name)) {
             throwRequestUndefinedParameterInFormException(bean, name, value, option, beanDesc);
@@ -524,26 +625,27 @@ public class ActionFormMapper {
      * @param value The value of the request parameter (NullAllowed, EmptyAllowed)
      * @param pathSb The property path that has nested structure info e.g. sea.land.iksName (NotNull)
      * @param option The option of form mapping. (NotNull)
-     * @param pd The description for the property. (NotNull)
+     * @param binding The binding for the property, analyzed once per bean type. (NotNull)
      */
     protected void mappingToProperty(VirtualForm virtualForm, Object bean, String name, Object value, StringBuilder pathSb,
-            FormMappingOption option, PropertyDesc pd) {
-        final Class<?> propertyType = pd.getPropertyType();
+            FormMappingOption option, FormPropertyBinding binding) {
+        final PropertyDesc pd = binding.getPropertyDesc();
         final Object mappedValue;
-        if (propertyType.isArray()) { // fixedly String #for_now e.g. public String[] strArray; so use List<>
+        if (binding.isArrayProperty()) { // fixedly String #for_now e.g. public String[] strArray; so use List<>
+            final Class<?> propertyType = binding.getPropertyType();
             mappedValue = prepareStringArray(value, name, propertyType, option); // plain mapping to array, e.g. JSON not supported
-        } else if (List.class.isAssignableFrom(propertyType)) { // e.g. public List<...> anyList;
-            mappedValue = prepareObjectList(virtualForm, bean, name, value, pathSb, option, pd);
+        } else if (binding.isListProperty()) { // e.g. public List<...> anyList;
+            mappedValue = prepareObjectList(virtualForm, bean, name, value, pathSb, option, binding);
         } else { // not array or list, e.g. Your Collection, String, Object
-            final Object yourCollection = prepareYourCollection(virtualForm, bean, name, value, pathSb, option, pd);
+            final Object yourCollection = prepareYourCollection(virtualForm, bean, name, value, pathSb, option, binding);
             if (yourCollection != null) { // e.g. ImmutableList (Eclipse Collections)
                 mappedValue = yourCollection;
             } else { // simple object types
                 final Object scalar = prepareObjectScalar(value);
-                if (isJsonParameterProperty(pd)) { // e.g. JsonPrameter for Object
+                if (binding.isJsonParameter()) { // e.g. JsonPrameter for Object
                     mappedValue = parseJsonParameterAsObject(virtualForm, bean, name, adjustAsJsonString(scalar), pd);
                 } else { // e.g. String, Integer, LocalDate, CDef, MultipartFormFile, ...
-                    mappedValue = prepareNativeValue(virtualForm, bean, name, scalar, pd, pathSb, option);
+                    mappedValue = prepareNativeValue(virtualForm, bean, name, scalar, binding, pathSb, option);
                 }
             }
         }
@@ -567,25 +669,26 @@ public class ActionFormMapper {
     //                                         List Property
     //                                         -------------
     protected List<?> prepareObjectList(VirtualForm virtualForm, Object bean, String name, Object value, StringBuilder pathSb,
-            FormMappingOption option, PropertyDesc pd) {
+            FormMappingOption option, FormPropertyBinding binding) {
         final List<?> mappedValue;
-        if (isJsonParameterProperty(pd)) { // e.g. public List<SeaJsonBean> jsonList;
+        if (binding.isJsonParameter()) { // e.g. public List<SeaJsonBean> jsonList;
             final Object scalar = prepareObjectScalar(value);
-            mappedValue = parseJsonParameterAsList(virtualForm, bean, name, adjustAsJsonString(scalar), pd);
+            mappedValue = parseJsonParameterAsList(virtualForm, bean, name, adjustAsJsonString(scalar), binding.getPropertyDesc());
         } else { // e.g. List<String>, List<CDef.MemberStatus>
-            mappedValue = prepareSimpleElementList(virtualForm, bean, name, value, pd, pathSb, option);
+            mappedValue = prepareSimpleElementList(virtualForm, bean, name, value, binding, pathSb, option);
         }
         return mappedValue;
     }
 
     protected List<? extends Object> prepareSimpleElementList(VirtualForm virtualForm, Object bean, String name, Object value,
-            PropertyDesc pd, StringBuilder pathSb, FormMappingOption option) {
-        final Class<?> propertyType = pd.getPropertyType();
+            FormPropertyBinding binding, StringBuilder pathSb, FormMappingOption option) {
+        final Class<?> propertyType = binding.getPropertyType();
         final List<String> strList = prepareStringList(value, name, propertyType, option);
-        if (pd.isParameterized()) {
-            final Class<?> elementType = pd.getParameterizedClassDesc().getGenericFirstType();
+        final Class<?> elementType = binding.getElementType(); // null if not parameterized
+        if (elementType != null) {
+            final FormNativeType elementNativeType = binding.getElementNativeType();
             final List<Object> mappedList = strList.stream().map(exp -> { // already filtered
-                return convertToNativeIfPossible(bean, name, exp, elementType, option);
+                return convertToNative(bean, name, exp, elementType, elementNativeType, option);
             }).collect(Collectors.toList());
             return Collections.unmodifiableList(mappedList);
         }
@@ -614,17 +717,17 @@ public class ActionFormMapper {
     //                                      Your Collections
     //                                      ----------------
     protected Object prepareYourCollection(VirtualForm virtualForm, Object bean, String name, Object value, StringBuilder pathSb,
-            FormMappingOption option, PropertyDesc pd) {
+            FormMappingOption option, FormPropertyBinding binding) {
         final List<FormYourCollectionResource> resourceList = option.getYourCollectionResource();
         if (resourceList.isEmpty()) {
             return null; // no settings of your collections
         }
-        final Class<?> propertyType = pd.getPropertyType();
+        final Class<?> propertyType = binding.getPropertyType();
         for (FormYourCollectionResource resource : resourceList) {
             if (!propertyType.isAssignableFrom(resource.getYourType())) {
                 continue;
             }
-            final List<?> objectList = prepareObjectList(virtualForm, bean, name, value, pathSb, option, pd);
+            final List<?> objectList = prepareObjectList(virtualForm, bean, name, value, pathSb, option, binding);
             final Iterable<? extends Object> applied = resource.getYourCollectionCreator().apply(objectList);
             final Object mappedValue;
             if (applied instanceof List<?>) {
@@ -692,7 +795,7 @@ public class ActionFormMapper {
         }
     }
 
-    protected boolean isJsonParameterProperty(PropertyDesc pd) {
+    protected boolean isJsonParameterProperty(PropertyDesc pd) { // called when binding plan is built
         final Class<JsonParameter> annoType = JsonParameter.class;
         final Field field = pd.getField();
         if (field != null && field.getAnnotation(annoType) != null) {
@@ -890,16 +993,16 @@ public class ActionFormMapper {
     // -----------------------------------------------------
     //                                       Property Native
     //                                       ---------------
-    protected Object prepareNativeValue(VirtualForm virtualForm, Object bean, String name, Object exp, PropertyDesc pd,
+    protected Object prepareNativeValue(VirtualForm virtualForm, Object bean, String name, Object exp, FormPropertyBinding binding,
             StringBuilder pathSb, FormMappingOption option) {
-        final Class<?> propertyType = pd.getPropertyType();
+        final Class<?> propertyType = binding.getPropertyType();
         try {
             final Object filtered = filterIfSimpleText(exp, option, name, propertyType);
-            return convertToNativeIfPossible(bean, name, filtered, propertyType, option);
+            return convertToNative(bean, name, filtered, propertyType, binding.getNativeType(), option);
         } catch (RuntimeException e) {
             if (isTypeFailureException(e)) {
                 virtualForm.acceptTypeFailure(pathSb.toString(), exp); // to render failure value
-                handleTypeFailure(virtualForm, bean, name, exp, pd, propertyType, pathSb, e);
+                handleTypeFailure(virtualForm, bean, name, exp, binding.getPropertyDesc(), propertyType, pathSb, e);
                 return null;
             } else {
                 throw e;
@@ -908,51 +1011,60 @@ public class ActionFormMapper {
     }
 
     protected Object convertToNativeIfPossible(Object bean, String name, Object exp, Class<?> propertyType, FormMappingOption option) {
-        // not to depend on conversion logic in BeanDesc
-        final Object converted;
-        if (propertyType.isPrimitive()) {
-            if (propertyType.equals(boolean.class) && isCheckboxOn(exp)) {
-                converted = true;
-            } else {
-                converted = DfTypeUtil.toWrapper(exp, propertyType);
-            }
-        } else if (String.class.isAssignableFrom(propertyType)) {
+        return convertToNative(bean, name, exp, propertyType, determineNativeType(propertyType), option); // without binding
+    }
+
+    /**
+     * Determine the native type to choose converter, called when binding plan is built (not per value).
+     * @param propertyType The type of property (or element) for the parameter. (NotNull)
+     * @return The native type for the property type. (NotNull)
+     */
+    protected FormNativeType determineNativeType(Class<?> propertyType) {
+        return FormNativeType.of(propertyType);
+    }
+
+    protected Object convertToNative(Object bean, String name, Object exp, Class<?> propertyType, FormNativeType nativeType,
+            FormMappingOption option) {
+        // not to depend on conversion logic in BeanDesc, converter is chosen by native type analyzed once
+        switch (nativeType) {
+        case PRIMITIVE_BOOLEAN:
+            return isCheckboxOn(exp) ? Boolean.TRUE : DfTypeUtil.toWrapper(exp, propertyType);
+        case PRIMITIVE:
+            return DfTypeUtil.toWrapper(exp, propertyType);
+        case STRING:
             if (option.isKeepEmptyStringParameter()) {
-                converted = exp != null ? exp : ""; // empty string as default
+                return exp != null ? exp : ""; // empty string as default
             } else { // filter empty to null or plain
                 return exp instanceof String && ((String) exp).isEmpty() ? null : exp;
             }
-        } else if (Number.class.isAssignableFrom(propertyType)) {
-            converted = DfTypeUtil.toNumber(exp, propertyType);
-            // old date types are unsupported for LocalDate invitation
-            //} else if (Timestamp.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toTimestamp(exp);
-            //} else if (Time.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toTime(exp);
-            //} else if (java.util.Date.class.isAssignableFrom(propertyType)) {
-            //    filtered = DfTypeUtil.toDate(exp);
-        } else if (LocalDate.class.isAssignableFrom(propertyType)) { // #date_parade
-            converted = DfTypeUtil.toLocalDate(exp);
-        } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
-            converted = DfTypeUtil.toLocalDateTime(exp);
-        } else if (LocalTime.class.isAssignableFrom(propertyType)) {
-            converted = DfTypeUtil.toLocalTime(exp);
-        } else if (Boolean.class.isAssignableFrom(propertyType)) {
+        case NUMBER:
+            return DfTypeUtil.toNumber(exp, propertyType);
+        // old date types are unsupported for LocalDate invitation
+        //case TIMESTAMP:
+        //    return DfTypeUtil.toTimestamp(exp);
+        case LOCAL_DATE: // #date_parade
+            return DfTypeUtil.toLocalDate(exp);
+        case LOCAL_DATE_TIME:
+            return DfTypeUtil.toLocalDateTime(exp);
+        case LOCAL_TIME:
+            return DfTypeUtil.toLocalTime(exp);
+        case BOOLEAN:
             if (isCheckboxOn(exp)) {
-                converted = true;
+                return true;
             } else {
                 if (exp instanceof String && ((String) exp).isEmpty()) { // pinpoint patch
-                    converted = null; // toBoolean("") before DBFlute-1.1.3 throws exception so avoid it
+                    return null; // toBoolean("") before DBFlute-1.1.3 throws exception so avoid it
                 } else {
-                    converted = DfTypeUtil.toBoolean(exp);
+                    return DfTypeUtil.toBoolean(exp);
                 }
             }
-        } else if (isClassificationProperty(propertyType)) { // means CDef
-            converted = toVerifiedClassification(bean, name, exp, propertyType);
-        } else { // e.g. multipart form file or unsupported type
-            converted = exp;
+        case CLASSIFICATION: // means CDef, but determined below to use overridden determination
+        default: // e.g. multipart form file or unsupported type
+            if (isClassificationProperty(propertyType)) { // means CDef
+                return toVerifiedClassification(bean, name, exp, propertyType);
+            }
+            return exp;
         }
-        return converted;
     }
 
     protected boolean isCheckboxOn(Object exp) {
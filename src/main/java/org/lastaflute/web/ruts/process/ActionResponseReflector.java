@@ -15,10 +15,15 @@
  */
 package org.lastaflute.web.ruts.process;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Parameter;
 import java.util.function.Consumer;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.dbflute.optional.OptionalThing;
+import org.lastaflute.core.json.JsonManager;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.path.ActionAdjustmentProvider;
 import org.lastaflute.web.path.ResponseReflectingOption;
@@ -37,6 +42,7 @@ import org.lastaflute.web.ruts.process.validatebean.ResponseHtmlBeanValidator;
 import org.lastaflute.web.ruts.process.validatebean.ResponseJsonBeanValidator;
 import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.servlet.request.ResponseManager;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -132,7 +138,17 @@ public class ActionResponseReflector {
     //                                         HTML Directly
     //                                         -------------
     protected void writeHtmlDirectly(HtmlResponse response) {
-        requestManager.getResponseManager().write(response.getDirectHtml().get(), "text/html");
+        final ResponseManager responseManager = requestManager.getResponseManager();
+        final String html = response.getDirectHtml().get();
+        if (isHtmlAutoETagEnabled(response) && responseManager.checkNotModifiedByBody(html)) {
+            return; // 304 without body
+        }
+        responseManager.write(html, "text/html");
+    }
+
+    protected boolean isHtmlAutoETagEnabled(HtmlResponse response) {
+        final boolean enabled = response.getAutoETag().orElseGet(() -> adjustResponseReflecting().isHtmlAutoETagEnabled());
+        return enabled && isAutoETagAvailable(response);
     }
 
     // -----------------------------------------------------
@@ -227,7 +243,8 @@ public class ActionResponseReflector {
     //                                                                       JSON Response
     //                                                                       =============
     protected NextJourney handleJsonResponse(JsonResponse<?> response) {
-        if (!response.isReturnAsEmptyBody() && !response.isReturnAsJsonDirectly()) {
+        // streaming elements are validated one by one when writing
+        if (!response.isReturnAsEmptyBody() && !response.isReturnAsJsonDirectly() && !response.isReturnAsStreamingElements()) {
             validateJsonBeanIfNeeds(response.getJsonResult(), response); // not lazy to be in action transaction
         }
         // lazy because of same reason as HTML response (see the comment)
@@ -239,23 +256,107 @@ public class ActionResponseReflector {
             if (response.isReturnAsEmptyBody()) {
                 return;
             }
+            if (response.isWrittenAsStreaming() && !response.isReturnAsJsonDirectly()) {
+                writeJsonByStreaming(responseManager, response);
+                return;
+            }
             final String json;
             if (response.isReturnAsJsonDirectly()) {
                 json = response.getDirectJson().get();
             } else { // mainly here
                 json = requestManager.getJsonManager().toJson(response.getJsonResult());
             }
-            response.getCallback().ifPresent(callback -> {
-                final String script = callback + "(" + json + ")";
-                responseManager.writeAsJavaScript(script);
-            }).orElse(() -> {
-                /* responseManager might have debug logging so no logging here */
-                if (response.isForcedlyJavaScript()) {
-                    responseManager.writeAsJavaScript(json);
-                } else { /* as JSON (default) */
-                    responseManager.writeAsJson(json);
+            final OptionalThing<String> optCallback = response.getCallback();
+            final String body = optCallback.isPresent() ? optCallback.get() + "(" + json + ")" : json;
+            if (isJsonAutoETagEnabled(response) && responseManager.checkNotModifiedByBody(body)) {
+                return; // 304 without body
+            }
+            /* responseManager might have debug logging so no logging here */
+            if (optCallback.isPresent() || response.isForcedlyJavaScript()) {
+                responseManager.writeAsJavaScript(body);
+            } else { /* as JSON (default) */
+                responseManager.writeAsJson(body);
+            }
+        });
+    }
+
+    protected boolean isJsonAutoETagEnabled(JsonResponse<?> response) {
+        final boolean enabled = response.getAutoETag().orElseGet(() -> adjustResponseReflecting().isJsonAutoETagEnabled());
+        return enabled && isAutoETagAvailable(response);
+    }
+
+    // -----------------------------------------------------
+    //                                             Streaming
+    //                                             ---------
+    protected void writeJsonByStreaming(ResponseManager responseManager, JsonResponse<?> response) {
+        final OptionalThing<String> optCallback = response.getCallback();
+        final WritternTextCall jsonCall = writer -> {
+            if (optCallback.isPresent()) { // JSONP
+                writer.write(optCallback.get());
+                writer.write('(');
+            }
+            if (response.isReturnAsStreamingElements()) {
+                writeJsonStreamingElements(writer, response);
+            } else { // whole result (already validated)
+                requestManager.getJsonManager().toJson(response.getJsonResult(), writer);
+            }
+            if (optCallback.isPresent()) {
+                writer.write(')');
+            }
+        };
+        /* responseManager might have debug logging so no logging here */
+        if (optCallback.isPresent() || response.isForcedlyJavaScript()) {
+            responseManager.writeAsJavaScript(jsonCall);
+        } else { /* as JSON (default) */
+            responseManager.writeAsJson(jsonCall);
+        }
+    }
+
+    protected void writeJsonStreamingElements(Writer writer, JsonResponse<?> response) throws IOException {
+        final JsonManager jsonManager = requestManager.getJsonManager();
+        final Iterable<?> elements = response.getStreamingElements().get();
+        final ResponseJsonBeanValidator validator = prepareStreamingElementValidator(response); // null allowed
+        try {
+            writer.write('[');
+            boolean first = true;
+            for (Object element : elements) {
+                if (!first) {
+                    writer.write(',');
                 }
-            });
+                if (element != null) {
+                    if (validator != null) { // may be thrown after writing some elements
+                        validator.validate(element);
+                    }
+                    jsonManager.toJson(element, writer);
+                } else {
+                    writer.write("null");
+                }
+                first = false;
+            }
+            writer.write(']');
+        } finally {
+            closeStreamingElements(response);
+        }
+    }
+
+    protected ResponseJsonBeanValidator prepareStreamingElementValidator(JsonResponse<?> response) {
+        if (response.isValidatorSuppressed()) {
+            return null;
+        }
+        final ResponseReflectingOption option = adjustResponseReflecting();
+        if (option.isJsonBeanValidatorSuppressed()) {
+            return null;
+        }
+        return createJsonBeanValidator(response, option); // reused for all elements
+    }
+
+    protected void closeStreamingElements(JsonResponse<?> response) {
+        response.getStreamingCloser().ifPresent(closer -> {
+            try {
+                closer.close();
+            } catch (Exception e) {
+                logger.info("Failed to close the streaming elements: " + response, e);
+            }
         });
     }
 
@@ -353,6 +454,17 @@ public class ActionResponseReflector {
         response.getHttpStatus().ifPresent(status -> responseManager.setResponseStatus(status));
     }
 
+    protected boolean isAutoETagAvailable(ActionResponse response) { // only for normal response without explicit ETag
+        if (response.getHttpStatus().map(status -> status != HttpServletResponse.SC_OK).orElse(false)) {
+            return false;
+        }
+        if (response.getHeaderMap().containsKey(ResponseManager.HEADER_ETAG)) { // case insensitive map
+            return false;
+        }
+        // e.g. version ETag by checkNotModified() in action
+        return requestManager.getResponseManager().getResponse().getHeader(ResponseManager.HEADER_ETAG) == null;
+    }
+
     protected ResponseReflectingOption adjustResponseReflecting() { // not null
         final ResponseReflectingOption option = adjustmentProvider.adjustResponseReflecting();
         return option != null ? option : NULLOBJ_REFLECTING_OPTION;
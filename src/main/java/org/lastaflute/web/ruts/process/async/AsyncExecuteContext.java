@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process.async;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.dbflute.hook.AccessContext;
+import org.dbflute.hook.CallbackContext;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.core.magic.TransactionTimeContext;
+import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
+import org.lastaflute.di.core.ExternalContext;
+import org.slf4j.MDC;
+
+/**
+ * The thread context of request for asynchronous execute. <br>
+ * Captured on the request thread and inherited to the completion thread of future,
+ * and the completion thread is restored after the process (it may be pooled thread).
+ * @author jflute
+ */
+public class AsyncExecuteContext {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Map<String, Object> threadCacheMap; // null allowed
+    protected final Object externalRequest; // null allowed
+    protected final Object externalResponse; // null allowed
+    protected final Date transactionTime; // null allowed
+    protected final AccessContext preparedAccessContext; // null allowed
+    protected final AccessContext accessContext; // null allowed
+    protected final CallbackContext callbackContext; // null allowed
+    protected final Map<String, String> mdcMap; // null allowed
+    protected final ClassLoader contextClassLoader; // null allowed
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    protected AsyncExecuteContext() { // captures current thread
+        final boolean cacheExists = ThreadCacheContext.exists();
+        this.threadCacheMap = cacheExists ? new HashMap<String, Object>(ThreadCacheContext.getReadOnlyCacheMap()) : null;
+        final ExternalContext externalContext = ContainerUtil.retrieveExternalContext();
+        this.externalRequest = externalContext.getRequest();
+        this.externalResponse = externalContext.getResponse();
+        this.transactionTime = TransactionTimeContext.getTransactionTime();
+        this.preparedAccessContext = PreparedAccessContext.getAccessContextOnThread();
+        this.accessContext = AccessContext.getAccessContextOnThread();
+        this.callbackContext = CallbackContext.getCallbackContextOnThread();
+        this.mdcMap = MDC.getCopyOfContextMap();
+        this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    /**
+     * Capture the thread context of current thread, called on the request thread.
+     * @return The new-created context that has the current thread's state. (NotNull)
+     */
+    public static AsyncExecuteContext capture() {
+        return new AsyncExecuteContext();
+    }
+
+    // ===================================================================================
+    //                                                                             Inherit
+    //                                                                             =======
+    /**
+     * Inherit the context to current thread while the process, and restore the thread after that.
+     * @param process The process that needs the thread context of the request, e.g. resuming action. (NotNull)
+     */
+    public void inherit(Runnable process) {
+        final AsyncExecuteContext previous = capture(); // basically empty, but may be other request's thread
+        prepareThread();
+        try {
+            process.run();
+        } finally {
+            previous.prepareThread(); // restore
+        }
+    }
+
+    protected void prepareThread() {
+        if (threadCacheMap != null) {
+            ThreadCacheContext.initialize();
+            threadCacheMap.forEach((key, value) -> ThreadCacheContext.setObject(key, value));
+        } else {
+            ThreadCacheContext.clear();
+        }
+        final ExternalContext externalContext = ContainerUtil.retrieveExternalContext();
+        externalContext.setRequest(externalRequest); // null allowed
+        externalContext.setResponse(externalResponse);
+        TransactionTimeContext.perfectlyClear(); // only latest time is inherited (nested time is rare here)
+        if (transactionTime != null) {
+            TransactionTimeContext.setTransactionTime(transactionTime);
+        }
+        if (preparedAccessContext != null) {
+            PreparedAccessContext.setAccessContextOnThread(preparedAccessContext);
+        } else {
+            PreparedAccessContext.clearAccessContextOnThread();
+        }
+        if (accessContext != null) {
+            AccessContext.setAccessContextOnThread(accessContext);
+        } else {
+            AccessContext.clearAccessContextOnThread();
+        }
+        if (callbackContext != null) {
+            CallbackContext.setCallbackContextOnThread(callbackContext);
+        } else {
+            CallbackContext.clearCallbackContextOnThread();
+        }
+        if (mdcMap != null) {
+            MDC.setContextMap(mdcMap);
+        } else {
+            MDC.clear();
+        }
+        Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final Object cacheKeys = threadCacheMap != null ? threadCacheMap.keySet() : null;
+        return "asyncContext:{request=" + externalRequest + ", threadCache=" + cacheKeys + "}";
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process.async;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbflute.helper.message.ExceptionMessageBuilder;
+import org.lastaflute.core.direction.FwAssistantDirector;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.web.exception.AsyncExecuteTimeoutException;
+import org.lastaflute.web.path.ActionAdjustmentProvider;
+import org.lastaflute.web.ruts.NextJourney;
+import org.lastaflute.web.ruts.NextJourney.AsyncJourneyProvider;
+import org.lastaflute.web.ruts.process.ActionRuntime;
+import org.lastaflute.web.servlet.request.AsyncRequestCompletion;
+import org.lastaflute.web.servlet.request.RequestManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The helper of asynchronous execute, e.g. CompletableFuture return. <br>
+ * The request thread is released by asynchronous context of Servlet,
+ * and the response is written on the completion thread of the future with the inherited thread context.
+ * @author jflute
+ */
+public class AsyncExecuteHelper {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecuteHelper.class);
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final FwAssistantDirector assistantDirector;
+    protected final RequestManager requestManager;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public AsyncExecuteHelper(FwAssistantDirector assistantDirector, RequestManager requestManager) {
+        this.assistantDirector = assistantDirector;
+        this.requestManager = requestManager;
+    }
+
+    // ===================================================================================
+    //                                                                       Determination
+    //                                                                       =============
+    /**
+     * Can the journey be processed by asynchronous context? <br>
+     * If false, the journey should be resumed synchronously on the request thread.
+     * @param provider The provider of asynchronous journey. (NotNull)
+     * @return The determination, true or false.
+     */
+    public boolean isAsyncAvailable(AsyncJourneyProvider provider) {
+        if (provider.getAsyncFuture().isDone()) { // e.g. validation error, cached result
+            return false; // no need to release the request thread
+        }
+        final HttpServletRequest request = requestManager.getRequest();
+        if (!request.isAsyncSupported()) { // e.g. no async-supported in web.xml
+            showAsyncUnsupported(request);
+            return false;
+        }
+        return true;
+    }
+
+    protected void showAsyncUnsupported(HttpServletRequest request) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("...Waiting for the future synchronously because of async-unsupported request: {}", request);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                  Synchronous Resume
+    //                                                                  ==================
+    /**
+     * Resume the journey on the request thread, waiting for the completion of the future.
+     * @param runtime The runtime of action that has current various state. (NotNull)
+     * @param provider The provider of asynchronous journey. (NotNull)
+     * @return The resumed journey e.g. JSON, HTML. (NotNull)
+     */
+    public NextJourney resumeSynchronously(ActionRuntime runtime, AsyncJourneyProvider provider) {
+        final CompletableFuture<?> future = provider.getAsyncFuture();
+        final long timeout = provideAsyncTimeoutMillis(runtime);
+        Object asyncResult = null;
+        Throwable asyncCause = null;
+        try {
+            asyncResult = timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.join();
+        } catch (CompletionException | CancellationException e) { // from join()
+            asyncCause = e;
+        } catch (ExecutionException e) { // from get()
+            asyncCause = e.getCause() != null ? e.getCause() : e;
+        } catch (TimeoutException e) {
+            asyncCause = createAsyncExecuteTimeoutException(runtime, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // keep the status
+            asyncCause = e;
+        }
+        return provider.resume(asyncResult, asyncCause);
+    }
+
+    // ===================================================================================
+    //                                                                         Start Async
+    //                                                                         ===========
+    /**
+     * Start asynchronous context and release the request thread. <br>
+     * The arrival callback is called once on the completion thread of the future (or timeout thread)
+     * with the inherited thread context, and the asynchronous context is completed after that. <br>
+     * The multipart handlers of thread cache are moved to the completion thread only when started.
+     * @param runtime The runtime of action that has current various state. (NotNull)
+     * @param provider The provider of asynchronous journey. (NotNull)
+     * @param arrival The callback to resume the journey and write the response. (NotNull)
+     * @return true if started, false if the request cannot start asynchronous context (then resume it synchronously).
+     */
+    public boolean startAsync(ActionRuntime runtime, AsyncJourneyProvider provider, AsyncJourneyArrival arrival) {
+        final HttpServletRequest request = requestManager.getRequest();
+        final AsyncContext asyncContext;
+        try {
+            asyncContext = request.startAsync();
+        } catch (IllegalStateException e) { // e.g. a filter in the chain is not async-supported
+            showAsyncStartFailure(request, e);
+            return false; // nothing is moved to completion thread yet
+        }
+        try {
+            doStartAsync(runtime, provider, arrival, request, asyncContext);
+        } catch (RuntimeException e) { // basically no way, the arrival is not registered
+            completeAsyncContext(asyncContext);
+            throw e;
+        }
+        return true;
+    }
+
+    protected void doStartAsync(ActionRuntime runtime, AsyncJourneyProvider provider, AsyncJourneyArrival arrival,
+            HttpServletRequest request, AsyncContext asyncContext) {
+        final AsyncExecuteContext context = AsyncExecuteContext.capture(); // before clearing the request thread
+        final AsyncRequestCompletion completion = AsyncRequestCompletion.saveCompletion(request);
+        final long timeout = provideAsyncTimeoutMillis(runtime);
+        if (timeout >= 0) {
+            asyncContext.setTimeout(timeout);
+        }
+        final AtomicBoolean arrived = new AtomicBoolean(); // first arrival wins, e.g. completion or timeout
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException { // on container thread
+                if (arrived.compareAndSet(false, true)) {
+                    final AsyncExecuteTimeoutException cause = createAsyncExecuteTimeoutException(runtime, asyncContext.getTimeout());
+                    context.inherit(() -> arrive(runtime, arrival, asyncContext, completion, null, cause));
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) throws IOException { // e.g. client abort
+                if (arrived.compareAndSet(false, true)) {
+                    final Throwable thrown = event.getThrowable(); // basically not null
+                    final Throwable cause = thrown != null ? thrown : new IOException("Failed to process the asynchronous request.");
+                    context.inherit(() -> arrive(runtime, arrival, asyncContext, completion, null, cause));
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) throws IOException {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) throws IOException {
+            }
+        });
+        showAsyncStarted(runtime, provider);
+        // finished by the completion thread (captured in the context), so removed not to be finished by the request thread
+        ThreadCacheContext.removeObject(ThreadCacheContext.FW_MULTIPART_HANDLERS);
+        provider.getAsyncFuture().whenComplete((asyncResult, asyncCause) -> { // on the completion thread
+            if (arrived.compareAndSet(false, true)) {
+                context.inherit(() -> arrive(runtime, arrival, asyncContext, completion, asyncResult, asyncCause));
+            }
+        });
+    }
+
+    protected void showAsyncStartFailure(HttpServletRequest request, IllegalStateException cause) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("...Waiting for the future synchronously because of async start failure: {}, {}", request, cause.getMessage());
+        }
+    }
+
+    protected void showAsyncStarted(ActionRuntime runtime, AsyncJourneyProvider provider) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Releasing the request thread for asynchronous execute: {}", provider);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                               Arrival
+    //                                               -------
+    protected void arrive(ActionRuntime runtime, AsyncJourneyArrival arrival, AsyncContext asyncContext,
+            AsyncRequestCompletion completion, Object asyncResult, Throwable asyncCause) {
+        Throwable failureCause = null;
+        try {
+            arrival.arrive(asyncResult, asyncCause); // #to_action resumed
+        } catch (IOException | ServletException | RuntimeException | Error e) { // no throw for the completion thread
+            failureCause = e;
+        } finally {
+            try {
+                completion.finish(failureCause); // e.g. logging filter, response compression
+            } finally {
+                completeAsyncContext(asyncContext);
+            }
+        }
+    }
+
+    protected void completeAsyncContext(AsyncContext asyncContext) {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException continued) { // e.g. already completed by container error handling
+            logger.info("Failed to complete the asynchronous context: " + asyncContext, continued);
+        }
+    }
+
+    /**
+     * The callback of arrival of asynchronous journey, called on the completion thread.
+     */
+    @FunctionalInterface
+    public static interface AsyncJourneyArrival {
+
+        /**
+         * @param asyncResult The result of the future, basically action response. (NullAllowed: when failure)
+         * @param asyncCause The exception of the future e.g. timeout. (NullAllowed: when success)
+         * @throws IOException When the response writing fails about the IO.
+         * @throws ServletException When the response writing fails about the Servlet.
+         */
+        void arrive(Object asyncResult, Throwable asyncCause) throws IOException, ServletException;
+    }
+
+    // ===================================================================================
+    //                                                                             Timeout
+    //                                                                             =======
+    protected long provideAsyncTimeoutMillis(ActionRuntime runtime) {
+        final ActionAdjustmentProvider provider = assistantDirector.assistWebDirection().assistActionAdjustmentProvider();
+        return provider.provideAsyncExecuteTimeoutMillis(runtime);
+    }
+
+    protected AsyncExecuteTimeoutException createAsyncExecuteTimeoutException(ActionRuntime runtime, long timeout) {
+        final ExceptionMessageBuilder br = new ExceptionMessageBuilder();
+        br.addNotice("The future of asynchronous execute was not completed until the timeout.");
+        br.addItem("Advice");
+        br.addElement("Make sure your asynchronous process is not too slow or stopped,");
+        br.addElement("or adjust the timeout by ActionAdjustmentProvider if it needs.");
+        br.addItem("Action Execute");
+        br.addElement(runtime.getActionExecute());
+        br.addItem("Timeout Millis");
+        br.addElement(timeout);
+        final String msg = br.buildExceptionMessage();
+        return new AsyncExecuteTimeoutException(msg);
+    }
+}
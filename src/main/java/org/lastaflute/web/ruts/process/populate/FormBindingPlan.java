@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process.populate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.lastaflute.di.helper.beans.BeanDesc;
+import org.lastaflute.di.helper.beans.PropertyDesc;
+import org.lastaflute.di.helper.beans.factory.BeanDescFactory;
+
+/**
+ * The plan of binding request parameters to properties of the bean type, e.g. action form or its nested bean. <br>
+ * It is a table of property name to writable binding, so mapping a parameter is just a table lookup.
+ * @author jflute
+ */
+public class FormBindingPlan {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final int ALIAS_CACHE_LIMIT = 200; // request-driven names so limited
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Class<?> beanType; // not null
+    protected final BeanDesc beanDesc; // not null
+    protected final Map<String, FormPropertyBinding> bindingMap; // not null, read-only after construction
+    protected final Map<String, FormPropertyBinding> aliasBindingMap; // not null, e.g. case-insensitive name
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param beanType The type of bean that has properties for request parameters. (NotNull)
+     * @param bindingCreator The creator of binding for writable property, called once per property. (NotNull)
+     */
+    public FormBindingPlan(Class<?> beanType, FormPropertyBindingCreator bindingCreator) {
+        this.beanType = beanType;
+        this.beanDesc = BeanDescFactory.getBeanDesc(beanType);
+        this.bindingMap = Collections.unmodifiableMap(prepareBindingMap(beanDesc, bindingCreator));
+        this.aliasBindingMap = new ConcurrentHashMap<String, FormPropertyBinding>();
+    }
+
+    protected Map<String, FormPropertyBinding> prepareBindingMap(BeanDesc beanDesc, FormPropertyBindingCreator bindingCreator) {
+        final int propertyDescSize = beanDesc.getPropertyDescSize();
+        final Map<String, FormPropertyBinding> map = new HashMap<String, FormPropertyBinding>(propertyDescSize);
+        for (int i = 0; i < propertyDescSize; i++) {
+            final PropertyDesc pd = beanDesc.getPropertyDesc(i);
+            if (pd.isWritable()) {
+                map.put(pd.getPropertyName(), bindingCreator.create(pd));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The creator of binding for writable property, e.g. the mapper determines JSON parameter and native type.
+     */
+    @FunctionalInterface
+    public static interface FormPropertyBindingCreator {
+
+        /**
+         * @param pd The description of writable property. (NotNull)
+         * @return The new-created binding for the property. (NotNull)
+         */
+        FormPropertyBinding create(PropertyDesc pd);
+    }
+
+    // ===================================================================================
+    //                                                                        Find Binding
+    //                                                                        ============
+    /**
+     * @param propertyName The name of property for the parameter, simple name (no nested). (NotNull)
+     * @return The binding of the writable property. (NullAllowed: when undefined or not writable)
+     */
+    public FormPropertyBinding findBinding(String propertyName) {
+        final FormPropertyBinding binding = bindingMap.get(propertyName);
+        if (binding != null) { // mainly here
+            return binding;
+        }
+        return findAliasBinding(propertyName);
+    }
+
+    protected FormPropertyBinding findAliasBinding(String propertyName) {
+        final FormPropertyBinding cached = aliasBindingMap.get(propertyName);
+        if (cached != null) {
+            return cached;
+        }
+        // bean description may find it by e.g. case-insensitive name, the binding is shared with the property name
+        if (beanDesc.hasPropertyDesc(propertyName)) {
+            final PropertyDesc pd = beanDesc.getPropertyDesc(propertyName);
+            final FormPropertyBinding found = bindingMap.get(pd.getPropertyName()); // null if not writable
+            if (found != null && aliasBindingMap.size() < ALIAS_CACHE_LIMIT) { // not to be large by various names
+                aliasBindingMap.put(propertyName, found);
+            }
+            return found;
+        }
+        return null;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "bindingPlan:{" + beanType.getSimpleName() + ", " + bindingMap.keySet() + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Class<?> getBeanType() {
+        return beanType;
+    }
+
+    public BeanDesc getBeanDesc() {
+        return beanDesc;
+    }
+}
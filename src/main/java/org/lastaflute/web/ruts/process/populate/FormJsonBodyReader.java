@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process.populate;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The reader of JSON body for streaming parse, capturing only the front part of the body. <br>
+ * The captured text is used for e.g. debug logging and debug challenge of parse failure.
+ * @author jflute
+ */
+public class FormJsonBodyReader extends Reader {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Reader bodyReader; // not null
+    protected final int captureLimit; // max length of captured text
+    protected final StringBuilder capturedSb;
+    protected boolean overflowed; // true if the body is longer than the limit
+    protected boolean endOfBody; // true if already read to the end
+    protected IOException readFailure; // null allowed, e.g. client abort while reading
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public FormJsonBodyReader(Reader bodyReader, int captureLimit) {
+        this.bodyReader = bodyReader;
+        this.captureLimit = captureLimit;
+        this.capturedSb = new StringBuilder(Math.min(captureLimit, 1024));
+    }
+
+    // ===================================================================================
+    //                                                                                Read
+    //                                                                                ====
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        final int readSize;
+        try {
+            readSize = bodyReader.read(cbuf, off, len);
+        } catch (IOException e) { // kept to be distinguished from parse failure (parser may wrap it)
+            readFailure = e;
+            throw e;
+        }
+        if (readSize > 0) {
+            capture(cbuf, off, readSize);
+        } else if (readSize < 0) {
+            endOfBody = true;
+        }
+        return readSize;
+    }
+
+    protected void capture(char[] cbuf, int off, int readSize) {
+        if (overflowed) {
+            return;
+        }
+        final int remaining = captureLimit - capturedSb.length();
+        if (readSize > remaining) {
+            capturedSb.append(cbuf, off, remaining);
+            overflowed = true;
+        } else {
+            capturedSb.append(cbuf, off, readSize);
+        }
+    }
+
+    /**
+     * Read the rest of body (until the capture limit) to capture it. <br>
+     * Called when e.g. parse failure, the parser may stop at the middle of body.
+     */
+    public void captureRest() {
+        final char[] buffer = new char[1024];
+        try {
+            while (!endOfBody && !overflowed) {
+                read(buffer, 0, buffer.length);
+            }
+        } catch (IOException ignored) { // only for debug so ignore it
+            overflowed = true; // treated as incomplete
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        bodyReader.close();
+    }
+
+    // ===================================================================================
+    //                                                                            Captured
+    //                                                                            ========
+    /**
+     * @return The captured text of the body, cut if over the limit. (NotNull, EmptyAllowed)
+     */
+    public String getCapturedText() {
+        return capturedSb.toString();
+    }
+
+    /**
+     * @return Is the captured text whole body? (false if over the limit or not read to the end yet)
+     */
+    public boolean isCapturedWhole() {
+        return endOfBody && !overflowed;
+    }
+
+    /**
+     * @return Is the body longer than the capture limit?
+     */
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    public int getCaptureLimit() {
+        return captureLimit;
+    }
+
+    /**
+     * @return The I/O failure of reading the body e.g. client abort. (NullAllowed: when no failure)
+     */
+    public IOException getReadFailure() {
+        return readFailure;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.ruts.process.populate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.lastaflute.core.util.LaClassificationUtil;
+import org.lastaflute.di.helper.beans.PropertyDesc;
+
+/**
+ * The binding of one writable property for request parameter, analyzed once per bean type. <br>
+ * It has the shape of property (array, list, JSON parameter) and the native types to choose converter,
+ * determined by the overridable methods of the mapper when the plan is built.
+ * @author jflute
+ */
+public class FormPropertyBinding {
+
+    // ===================================================================================
+    //                                                                         Native Type
+    //                                                                         ===========
+    /**
+     * The type of native conversion from request parameter, same order as judgement of converter.
+     */
+    public enum FormNativeType {
+
+        PRIMITIVE_BOOLEAN, PRIMITIVE, STRING, NUMBER, LOCAL_DATE, LOCAL_DATE_TIME, LOCAL_TIME, BOOLEAN, CLASSIFICATION, OTHER;
+
+        /**
+         * @param propertyType The type of property (or element) for the parameter. (NotNull)
+         * @return The native type for the property type. (NotNull)
+         */
+        public static FormNativeType of(Class<?> propertyType) {
+            if (propertyType.isPrimitive()) {
+                return boolean.class.equals(propertyType) ? PRIMITIVE_BOOLEAN : PRIMITIVE;
+            } else if (String.class.isAssignableFrom(propertyType)) {
+                return STRING;
+            } else if (Number.class.isAssignableFrom(propertyType)) {
+                return NUMBER;
+            } else if (LocalDate.class.isAssignableFrom(propertyType)) {
+                return LOCAL_DATE;
+            } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
+                return LOCAL_DATE_TIME;
+            } else if (LocalTime.class.isAssignableFrom(propertyType)) {
+                return LOCAL_TIME;
+            } else if (Boolean.class.isAssignableFrom(propertyType)) {
+                return BOOLEAN;
+            } else if (LaClassificationUtil.isCls(propertyType)) { // as hint, mapper determines it again (overridable)
+                return CLASSIFICATION;
+            } else { // e.g. multipart form file or unsupported type
+                return OTHER;
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final PropertyDesc propertyDesc; // not null
+    protected final Class<?> propertyType; // not null
+    protected final boolean arrayProperty; // e.g. String[]
+    protected final boolean listProperty; // e.g. List<String>
+    protected final boolean jsonParameter; // e.g. @JsonParameter
+    protected final FormNativeType nativeType; // not null, for scalar property
+    protected final Class<?> elementType; // null allowed: when not parameterized, e.g. String of List<String>
+    protected final FormNativeType elementNativeType; // null allowed: when no element type
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param propertyDesc The description of writable property. (NotNull)
+     * @param jsonParameter Is the property JSON parameter? (determined by mapper)
+     * @param nativeType The native type of the property for scalar value. (NotNull)
+     * @param elementType The type of element if parameterized e.g. List. (NullAllowed)
+     * @param elementNativeType The native type of the element. (NullAllowed: when no element type)
+     */
+    public FormPropertyBinding(PropertyDesc propertyDesc, boolean jsonParameter, FormNativeType nativeType, Class<?> elementType,
+            FormNativeType elementNativeType) {
+        this.propertyDesc = propertyDesc;
+        this.propertyType = propertyDesc.getPropertyType();
+        this.arrayProperty = propertyType.isArray();
+        this.listProperty = List.class.isAssignableFrom(propertyType);
+        this.jsonParameter = jsonParameter;
+        this.nativeType = nativeType;
+        this.elementType = elementType;
+        this.elementNativeType = elementNativeType;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        final String jsonExp = jsonParameter ? ", json" : "";
+        return "binding:{" + propertyType.getSimpleName() + " " + propertyDesc.getPropertyName() + ", " + nativeType + jsonExp + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public PropertyDesc getPropertyDesc() {
+        return propertyDesc;
+    }
+
+    public String getPropertyName() {
+        return propertyDesc.getPropertyName();
+    }
+
+    public Class<?> getPropertyType() {
+        return propertyType;
+    }
+
+    public boolean isArrayProperty() {
+        return arrayProperty;
+    }
+
+    public boolean isListProperty() {
+        return listProperty;
+    }
+
+    public boolean isJsonParameter() {
+        return jsonParameter;
+    }
+
+    public FormNativeType getNativeType() {
+        return nativeType;
+    }
+
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    public FormNativeType getElementNativeType() {
+        return elementNativeType;
+    }
+}
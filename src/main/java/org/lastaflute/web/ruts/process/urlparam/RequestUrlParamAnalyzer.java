@@ -26,7 +26,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
 
 import org.dbflute.helper.message.ExceptionMessageBuilder;
 import org.dbflute.optional.OptionalThing;
@@ -37,10 +36,12 @@ import org.dbflute.util.Srl;
 import org.lastaflute.core.message.UserMessages;
 import org.lastaflute.core.util.LaClassificationUtil;
 import org.lastaflute.core.util.LaClassificationUtil.ClassificationUnknownCodeException;
+import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.exception.Forced404NotFoundException;
 import org.lastaflute.web.exception.UrlParamArgsDifferentCountException;
 import org.lastaflute.web.exception.UrlParamOptionalParameterEmptyAccessException;
 import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.UrlPatternMatched;
 import org.lastaflute.web.servlet.request.RequestManager;
 import org.lastaflute.web.util.LaActionExecuteUtil;
 
@@ -141,10 +142,10 @@ public class RequestUrlParamAnalyzer {
 
     protected List<String> prepareParamList(ActionExecute execute, String paramPath, List<Class<?>> urlParamTypeList) {
         final List<String> paramList = new ArrayList<String>(urlParamTypeList.size());
-        final Matcher matcher = execute.getPreparedUrlPattern().matcher(adjustParamPathPrefix(execute, paramPath));
-        if (matcher.find()) {
+        final String[] matchedValues = findMatchedValues(execute, adjustParamPathPrefix(execute, paramPath));
+        if (matchedValues != null) {
             for (int i = 0; i < urlParamTypeList.size(); i++) {
-                paramList.add(matcher.group(i + 1)); // group 1 origin (0 provides all string)
+                paramList.add(matchedValues[i]); // same as regexp groups
             }
         } else { // e.g. optional parameter and actually no set it
             final List<String> elementList = Srl.splitList(paramPath, "/"); // if contains pure slash, %2F here
@@ -159,6 +160,18 @@ public class RequestUrlParamAnalyzer {
         return paramList;
     }
 
+    protected String[] findMatchedValues(ActionExecute execute, String adjustedPath) { // null allowed if not matched
+        final UrlPatternMatched matched = findUrlPatternMatched();
+        if (matched != null && matched.isReusable(execute, adjustedPath)) { // already matched when routing
+            return matched.getValues();
+        }
+        return execute.getPreparedUrlPattern().matchParamPath(adjustedPath);
+    }
+
+    protected UrlPatternMatched findUrlPatternMatched() { // null allowed
+        return requestManager.getAttribute(LastaWebKey.URL_PATTERN_MATCHED_KEY, UrlPatternMatched.class).orElse(null);
+    }
+
     protected String adjustParamPathPrefix(ActionExecute execute, String paramPath) {
         if (execute.isIndexMethod()) {
             return paramPath;
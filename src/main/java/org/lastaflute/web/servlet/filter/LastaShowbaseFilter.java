@@ -172,6 +172,7 @@ public class LastaShowbaseFilter implements Filter {
     public void destroy() {
         destroyEmbeddedFilter();
         destroyFilterHook();
+        destroyAccessLogHandler();
     }
 
     // -----------------------------------------------------
@@ -190,6 +191,16 @@ public class LastaShowbaseFilter implements Filter {
         assistOutsideHookList().forEach(hook -> hook.destroy());
     }
 
+    // -----------------------------------------------------
+    //                                    Access Log Handler
+    //                                    ------------------
+    protected void destroyAccessLogHandler() {
+        final AccessLogHandler handler = assistWebDirection().assistAccessLogHandler();
+        if (handler != null) { // e.g. stop background writer
+            handler.destroy();
+        }
+    }
+
     // ===================================================================================
     //                                                                           Component
     //                                                                           =========
@@ -45,6 +45,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.lastaflute.web.servlet.request.AsyncRequestCompletion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -246,19 +247,29 @@ public class RequestLoggingFilter implements Filter {
             existsServerError = true;
             cause = e;
         } finally {
-            try {
-                handleAccessLog(request, response, cause, before);
-            } finally {
-                clearMark();
-                clearHandler();
-                if (logger.isDebugEnabled()) {
-                    if (existsServerError) {
-                        attention(request, response);
-                    } else {
-                        // only when success request because error logging contains request info
-                        final Long after = System.currentTimeMillis();
-                        after(request, response, before, after, specifiedErrorTitle);
-                    }
+            final AsyncRequestCompletion completion = cause == null ? AsyncRequestCompletion.findCompletion(request) : null;
+            if (completion != null) { // e.g. CompletableFuture execute, response is not written yet
+                deferAsyncFinishing(request, response, before, completion);
+            } else { // mainly here
+                finishRequest(request, response, cause, before, specifiedErrorTitle, existsServerError);
+            }
+        }
+    }
+
+    protected void finishRequest(HttpServletRequest request, HttpServletResponse response, Throwable cause, Long before,
+            String specifiedErrorTitle, boolean existsServerError) {
+        try {
+            handleAccessLog(request, response, cause, before);
+        } finally {
+            clearMark();
+            clearHandler();
+            if (logger.isDebugEnabled()) {
+                if (existsServerError) {
+                    attention(request, response);
+                } else {
+                    // only when success request because error logging contains request info
+                    final Long after = System.currentTimeMillis();
+                    after(request, response, before, after, specifiedErrorTitle);
                 }
             }
         }
@@ -318,6 +329,71 @@ public class RequestLoggingFilter implements Filter {
         }
     }
 
+    // -----------------------------------------------------
+    //                                  Asynchronous Request
+    //                                  --------------------
+    protected void deferAsyncFinishing(HttpServletRequest request, HttpServletResponse response, Long before,
+            AsyncRequestCompletion completion) {
+        final RequestClientErrorHandler clientErrorHandler = clientErrorHandlerLocal.get(); // inherited to completion thread
+        final RequestServerErrorHandler serverErrorHandler = serverErrorHandlerLocal.get();
+        final RequestAccessLogHandler accessLogHandler = accessLogHandlerLocal.get();
+        clearMark(); // request thread is released here
+        clearHandler();
+        completion.deferFinishing(asyncCause -> { // on the completion thread
+            final String previousBegun = begunLocal.get(); // basically null, may be other request's thread
+            final RequestClientErrorHandler previousClientErrorHandler = clientErrorHandlerLocal.get();
+            final RequestServerErrorHandler previousServerErrorHandler = serverErrorHandlerLocal.get();
+            final RequestAccessLogHandler previousAccessLogHandler = accessLogHandlerLocal.get();
+            try {
+                markBegun();
+                clientErrorHandlerLocal.set(clientErrorHandler);
+                serverErrorHandlerLocal.set(serverErrorHandler);
+                accessLogHandlerLocal.set(accessLogHandler);
+                finishAsyncRequest(request, response, before, asyncCause);
+            } finally {
+                begunLocal.set(previousBegun);
+                clientErrorHandlerLocal.set(previousClientErrorHandler);
+                serverErrorHandlerLocal.set(previousServerErrorHandler);
+                accessLogHandlerLocal.set(previousAccessLogHandler);
+            }
+        });
+    }
+
+    protected void finishAsyncRequest(HttpServletRequest request, HttpServletResponse response, Long before, Throwable asyncCause) {
+        String specifiedErrorTitle = null;
+        boolean existsServerError = false;
+        Throwable cause = null;
+        try {
+            if (asyncCause != null) { // same handling as synchronous request
+                final Throwable realCause = unwrapAsyncCause(asyncCause);
+                if (realCause instanceof RequestClientErrorException) {
+                    specifiedErrorTitle = handleClientError(request, response, (RequestClientErrorException) realCause);
+                } else {
+                    sendInternalServerError(request, response, realCause);
+                    logError(request, response, "*Asynchronous exception occurred.", before, realCause);
+                    existsServerError = true;
+                }
+                cause = realCause;
+            }
+        } catch (IOException e) { // e.g. client abort when sending error
+            logError(request, response, "*IOException occurred in asynchronous request.", before, e);
+            existsServerError = true;
+            cause = e;
+        } finally {
+            finishRequest(request, response, cause, before, specifiedErrorTitle, existsServerError);
+        }
+    }
+
+    protected Throwable unwrapAsyncCause(Throwable asyncCause) {
+        if (asyncCause instanceof ServletException) {
+            final Throwable rootCause = ((ServletException) asyncCause).getRootCause();
+            if (rootCause != null) {
+                return rootCause;
+            }
+        }
+        return asyncCause;
+    }
+
     // -----------------------------------------------------
     //                                                Before
     //                                                ------
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+/**
+ * The formatter of access log line, called by the writer thread.
+ * @author jflute
+ */
+@FunctionalInterface
+public interface AccessLogFormatter {
+
+    /**
+     * Format the snapshot as one line (without line separator).
+     * @param snapshot The snapshot of access log. (NotNull)
+     * @param sb The builder to append the line, reused by writer. (NotNull)
+     */
+    void format(AccessLogSnapshot snapshot, StringBuilder sb);
+}
@@ -23,4 +23,10 @@ package org.lastaflute.web.servlet.filter.accesslog;
 public interface AccessLogHandler {
 
     void handle(AccessLogResource resource);
+
+    /**
+     * Destroy the handler when the filter is destroyed, e.g. stop background writer.
+     */
+    default void destroy() {
+    }
 }
@@ -59,4 +59,12 @@ public class AccessLogResource {
     public long getBefore() {
         return before;
     }
+
+    /**
+     * Take the immutable snapshot of the resource to handle it out of the request thread.
+     * @return The new-created snapshot. (NotNull)
+     */
+    public AccessLogSnapshot snapshot() {
+        return new AccessLogSnapshot(this, System.currentTimeMillis());
+    }
 }
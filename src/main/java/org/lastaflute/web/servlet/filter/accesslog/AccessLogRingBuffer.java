@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The bounded lock-free ring buffer for multiple producers (request threads) and single consumer (writer). <br>
+ * Each slot has its own sequence so producers claim slots by CAS without lock,
+ * and offer() just fails when full (the caller decides overflow policy).
+ * @param <ENTRY> The type of entry.
+ * @author jflute
+ */
+public class AccessLogRingBuffer<ENTRY> {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final int capacity; // power of two
+    protected final int mask;
+    protected final AtomicReferenceArray<ENTRY> entries;
+    protected final AtomicLongArray sequences; // slot is writable when sequence == position
+    protected final AtomicLong tail = new AtomicLong(); // next position to offer
+    protected final AtomicLong head = new AtomicLong(); // next position to poll, updated by single consumer
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    /**
+     * @param requestedCapacity The requested capacity, rounded up to power of two. (Positive)
+     */
+    public AccessLogRingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("The argument 'requestedCapacity' should be 1 to 2^30: " + requestedCapacity);
+        }
+        this.capacity = requestedCapacity == 1 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.entries = new AtomicReferenceArray<ENTRY>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                               Offer
+    //                                                                               =====
+    /**
+     * @param entry The entry to be offered. (NotNull)
+     * @return true if offered, false if the buffer is full.
+     */
+    public boolean offer(ENTRY entry) {
+        if (entry == null) {
+            throw new IllegalArgumentException("The argument 'entry' should not be null.");
+        }
+        long position = tail.get();
+        while (true) {
+            final int index = (int) (position & mask);
+            final long diff = sequences.get(index) - position;
+            if (diff == 0L) { // writable slot
+                if (tail.compareAndSet(position, position + 1)) {
+                    entries.lazySet(index, entry);
+                    sequences.set(index, position + 1); // publish to consumer
+                    return true;
+                }
+                position = tail.get(); // lost race
+            } else if (diff < 0L) { // not consumed yet
+                return false;
+            } else { // other producer already took it
+                position = tail.get();
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                                Poll
+    //                                                                                ====
+    /**
+     * Only one consumer thread can call this.
+     * @return The oldest entry. (NullAllowed: when empty)
+     */
+    public ENTRY poll() {
+        final long position = head.get();
+        final int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) { // not published yet
+            return null;
+        }
+        final ENTRY entry = entries.get(index);
+        entries.lazySet(index, null);
+        head.lazySet(position + 1);
+        sequences.set(index, position + capacity); // writable in next round
+        return entry;
+    }
+
+    /**
+     * Only one consumer thread can call this.
+     * @param entryList The list to add polled entries. (NotNull)
+     * @param max The max count to drain.
+     * @return The count of drained entries.
+     */
+    public int drainTo(List<ENTRY> entryList, int max) {
+        int count = 0;
+        while (count < max) {
+            final ENTRY entry = poll();
+            if (entry == null) {
+                break;
+            }
+            entryList.add(entry);
+            ++count;
+        }
+        return count;
+    }
+
+    // ===================================================================================
+    //                                                                              Status
+    //                                                                              ======
+    public int size() { // approximate while concurrent offer
+        final long size = tail.get() - head.get();
+        return (int) Math.max(0L, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The log file rotated by size, e.g. access.log, access.log.1 (newest backup), access.log.2, ... <br>
+ * This is not thread-safe so only the writer thread should use it.
+ * @author jflute
+ */
+public class AccessLogRotatingFile implements Closeable {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Path logFile; // not null
+    protected final long rotateFileSize; // positive
+    protected final int backupCount; // zero means no backup
+    protected FileChannel channel; // null allowed: lazy opened
+    protected long currentSize;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public AccessLogRotatingFile(Path logFile, long rotateFileSize, int backupCount) {
+        if (logFile == null) {
+            throw new IllegalArgumentException("The argument 'logFile' should not be null.");
+        }
+        this.logFile = logFile;
+        this.rotateFileSize = rotateFileSize;
+        this.backupCount = backupCount;
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    /**
+     * @param buffer The buffer of bytes to be written, which is flipped. (NotNull)
+     * @throws IOException When it fails to write or rotate.
+     */
+    public void write(ByteBuffer buffer) throws IOException {
+        ensureOpened();
+        if (currentSize > 0L && currentSize + buffer.remaining() > rotateFileSize) {
+            rotate();
+        }
+        while (buffer.hasRemaining()) {
+            currentSize += channel.write(buffer);
+        }
+    }
+
+    protected void ensureOpened() throws IOException {
+        if (channel == null) {
+            final Path parent = logFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            currentSize = channel.size();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Rotate
+    //                                                                              ======
+    protected void rotate() throws IOException {
+        close();
+        if (backupCount > 0) {
+            for (int i = backupCount - 1; i >= 1; i--) {
+                final Path src = toBackupFile(i);
+                if (Files.exists(src)) {
+                    Files.move(src, toBackupFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(logFile, toBackupFile(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(logFile);
+        }
+        ensureOpened();
+    }
+
+    protected Path toBackupFile(int number) {
+        return logFile.resolveSibling(logFile.getFileName() + "." + number);
+    }
+
+    // ===================================================================================
+    //                                                                               Close
+    //                                                                               =====
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+                currentSize = 0L;
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    public long getCurrentSize() {
+        return currentSize;
+    }
+}
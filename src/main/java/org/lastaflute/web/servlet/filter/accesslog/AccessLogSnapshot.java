@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The immutable snapshot of access log, which can be handled after the request ends. <br>
+ * It keeps only plain values extracted from the request and response.
+ * @author jflute
+ */
+public class AccessLogSnapshot {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final long beforeMillis;
+    protected final long afterMillis;
+    protected final String method; // null allowed (basically not null)
+    protected final String requestUri; // null allowed (basically not null)
+    protected final String queryString; // null allowed
+    protected final int status;
+    protected final String remoteAddr; // null allowed
+    protected final String userAgent; // null allowed
+    protected final String causeType; // null allowed: when no failure
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public AccessLogSnapshot(AccessLogResource resource, long afterMillis) {
+        final HttpServletRequest request = resource.getRequest();
+        final HttpServletResponse response = resource.getResponse();
+        final Throwable cause = resource.getCause();
+        this.beforeMillis = resource.getBefore();
+        this.afterMillis = afterMillis;
+        this.method = request.getMethod();
+        this.requestUri = request.getRequestURI();
+        this.queryString = request.getQueryString();
+        this.status = response.getStatus();
+        this.remoteAddr = request.getRemoteAddr();
+        this.userAgent = request.getHeader("User-Agent");
+        this.causeType = cause != null ? cause.getClass().getName() : null;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "snapshot:{" + method + " " + requestUri + (queryString != null ? "?" + queryString : "") + ", " + status + ", "
+                + getElapsedMillis() + "ms" + (causeType != null ? ", " + causeType : "") + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public long getBeforeMillis() {
+        return beforeMillis;
+    }
+
+    public long getAfterMillis() {
+        return afterMillis;
+    }
+
+    public long getElapsedMillis() {
+        return afterMillis - beforeMillis;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getRequestUri() {
+        return requestUri;
+    }
+
+    public String getQueryString() {
+        return queryString;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public String getCauseType() {
+        return causeType;
+    }
+}
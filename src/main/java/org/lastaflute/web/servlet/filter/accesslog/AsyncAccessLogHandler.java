@@ -0,0 +1,357 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lastaflute.web.servlet.filter.accesslog.AsyncAccessLogOption.AccessLogOverflowPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The access log handler writing to rotating file by background thread. <br>
+ * The request thread only takes immutable snapshot and offers it to lock-free ring buffer,
+ * so response latency does not depend on log I/O.
+ * <pre>
+ * direction.directAccessLog(new AsyncAccessLogHandler("/var/log/app/access.log",
+ *         new AsyncAccessLogOption().bufferCapacity(16384).waitOnOverflow(5L)));
+ * </pre>
+ * @author jflute
+ */
+public class AsyncAccessLogHandler implements AccessLogHandler {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAccessLogHandler.class);
+    protected static final DateTimeFormatter TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    protected static final char LF = '\n';
+    protected static final int LINE_SIZE_ESTIMATE = 160; // chars per line
+    protected static final long OVERFLOW_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50L);
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final AsyncAccessLogOption option; // not null
+    protected final AccessLogRingBuffer<AccessLogSnapshot> ringBuffer; // not null
+    protected final AccessLogRotatingFile rotatingFile; // not null, used by writer thread only
+    protected final AccessLogFormatter formatter; // not null
+    protected final AtomicBoolean started = new AtomicBoolean();
+    protected volatile boolean running = true; // false after destroy() begins, then new entries are dropped
+    protected volatile boolean writerRunning = true; // false after request threads in handle() are gone
+    protected volatile Thread writerThread; // null allowed: before start
+    protected final AtomicInteger handlingCount = new AtomicInteger(); // request threads in handle()
+
+    // -----------------------------------------------------
+    //                                          Writer Local
+    //                                          ------------
+    protected StringBuilder lineBuilder; // used by writer thread only
+    protected final CharsetEncoder encoder; // pre-created, used by writer thread only
+    protected final ByteBuffer byteBuffer; // pre-sized, used by writer thread only
+
+    // -----------------------------------------------------
+    //                                               Counter
+    //                                               -------
+    protected final LongAdder acceptedCount = new LongAdder();
+    protected final LongAdder droppedCount = new LongAdder();
+    protected final LongAdder writtenCount = new LongAdder();
+    protected final LongAdder failedCount = new LongAdder();
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public AsyncAccessLogHandler(String logFilePath) {
+        this(logFilePath, new AsyncAccessLogOption());
+    }
+
+    public AsyncAccessLogHandler(String logFilePath, AsyncAccessLogOption option) {
+        if (logFilePath == null) {
+            throw new IllegalArgumentException("The argument 'logFilePath' should not be null.");
+        }
+        if (option == null) {
+            throw new IllegalArgumentException("The argument 'option' should not be null.");
+        }
+        this.option = option;
+        this.ringBuffer = new AccessLogRingBuffer<AccessLogSnapshot>(option.getBufferCapacity());
+        this.rotatingFile = createRotatingFile(Paths.get(logFilePath), option);
+        final AccessLogFormatter specified = option.getFormatter();
+        this.formatter = specified != null ? specified : (snapshot, sb) -> formatDefault(snapshot, sb);
+        this.lineBuilder = newLineBuilder();
+        this.encoder = option.getEncoding()
+                .newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.byteBuffer = ByteBuffer.allocate(option.getEncodingBufferSize());
+    }
+
+    protected AccessLogRotatingFile createRotatingFile(Path logFile, AsyncAccessLogOption option) {
+        return new AccessLogRotatingFile(logFile, option.getRotateFileSize(), option.getRotateBackupCount());
+    }
+
+    protected StringBuilder newLineBuilder() {
+        return new StringBuilder(option.getBatchSize() * LINE_SIZE_ESTIMATE);
+    }
+
+    // ===================================================================================
+    //                                                                              Handle
+    //                                                                              ======
+    @Override
+    public void handle(AccessLogResource resource) {
+        final AccessLogSnapshot snapshot = resource.snapshot(); // in request thread
+        handlingCount.incrementAndGet(); // before checking running, destroy() waits for this
+        try {
+            if (!running) { // after destroy
+                droppedCount.increment();
+                return;
+            }
+            ensureWriterStarted();
+            if (ringBuffer.offer(snapshot) || offerOnOverflow(snapshot)) {
+                acceptedCount.increment();
+            } else {
+                droppedCount.increment();
+            }
+        } finally {
+            handlingCount.decrementAndGet();
+        }
+    }
+
+    protected boolean offerOnOverflow(AccessLogSnapshot snapshot) {
+        if (option.getOverflowPolicy() != AccessLogOverflowPolicy.WAIT) {
+            return false;
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(option.getOverflowWaitMillis());
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(OVERFLOW_PARK_NANOS);
+            if (ringBuffer.offer(snapshot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===================================================================================
+    //                                                                       Writer Thread
+    //                                                                       =============
+    protected void ensureWriterStarted() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            final Thread thread = new Thread(() -> writeLoop(), buildWriterThreadName());
+            thread.setDaemon(true); // not to block shutdown
+            writerThread = thread;
+            thread.start();
+        }
+    }
+
+    protected String buildWriterThreadName() {
+        return "lasta_access_log_writer";
+    }
+
+    protected void writeLoop() {
+        final List<AccessLogSnapshot> batchList = new ArrayList<AccessLogSnapshot>(option.getBatchSize());
+        final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(option.getFlushIntervalMillis());
+        try {
+            while (writerRunning || !ringBuffer.isEmpty()) {
+                ringBuffer.drainTo(batchList, option.getBatchSize());
+                if (batchList.isEmpty()) {
+                    if (writerRunning) {
+                        LockSupport.parkNanos(this, intervalNanos);
+                    }
+                    continue;
+                }
+                writeBatch(batchList);
+                batchList.clear();
+            }
+        } finally {
+            closeRotatingFile();
+        }
+    }
+
+    protected void writeBatch(List<AccessLogSnapshot> batchList) {
+        try {
+            lineBuilder.setLength(0);
+            for (AccessLogSnapshot snapshot : batchList) {
+                formatter.format(snapshot, lineBuilder);
+                lineBuilder.append(LF);
+            }
+            encodeAndWrite(lineBuilder);
+            writtenCount.add(batchList.size());
+        } catch (IOException | RuntimeException e) { // writer thread continues
+            failedCount.add(batchList.size());
+            byteBuffer.clear();
+            logger.warn("Failed to write access log: " + rotatingFile.getLogFile() + ", count=" + batchList.size(), e);
+        }
+        if (lineBuilder.capacity() > newLineBuilderLimit()) { // not to keep huge buffer by long lines
+            lineBuilder = newLineBuilder();
+        }
+    }
+
+    protected int newLineBuilderLimit() {
+        return option.getBatchSize() * LINE_SIZE_ESTIMATE * 4;
+    }
+
+    protected void encodeAndWrite(CharSequence text) throws IOException {
+        final CharBuffer in = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            final CoderResult result = encoder.encode(in, byteBuffer, true);
+            if (result.isOverflow()) {
+                flushByteBuffer();
+                continue;
+            }
+            if (result.isError()) { // basically no way because of replace action
+                result.throwException();
+            }
+            break;
+        }
+        while (encoder.flush(byteBuffer).isOverflow()) {
+            flushByteBuffer();
+        }
+        flushByteBuffer();
+    }
+
+    protected void flushByteBuffer() throws IOException {
+        byteBuffer.flip();
+        try {
+            if (byteBuffer.hasRemaining()) {
+                rotatingFile.write(byteBuffer);
+            }
+        } finally {
+            byteBuffer.clear();
+        }
+    }
+
+    protected void closeRotatingFile() {
+        try {
+            rotatingFile.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the access log: " + rotatingFile.getLogFile(), e);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Default Format
+    //                                                                      ==============
+    // e.g. 2026-10-17 12:34:56.789 127.0.0.1 GET /sea/land?piari=1 200 12ms "Mozilla/5.0 ..."
+    protected void formatDefault(AccessLogSnapshot snapshot, StringBuilder sb) {
+        TIMESTAMP_FORMATTER.formatTo(Instant.ofEpochMilli(snapshot.getBeforeMillis()), sb);
+        sb.append(' ').append(orHyphen(snapshot.getRemoteAddr()));
+        sb.append(' ').append(orHyphen(snapshot.getMethod()));
+        sb.append(' ').append(orHyphen(snapshot.getRequestUri()));
+        final String queryString = snapshot.getQueryString();
+        if (queryString != null) {
+            sb.append('?').append(queryString);
+        }
+        sb.append(' ').append(snapshot.getStatus());
+        sb.append(' ').append(snapshot.getElapsedMillis()).append("ms");
+        sb.append(" \"").append(orHyphen(snapshot.getUserAgent())).append('"');
+        final String causeType = snapshot.getCauseType();
+        if (causeType != null) {
+            sb.append(' ').append(causeType);
+        }
+    }
+
+    protected String orHyphen(String value) {
+        return value != null ? value : "-";
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    /**
+     * Stop the writer thread after writing remaining entries (waiting for a while). <br>
+     * The writer stops after request threads in handle() are gone, so accepted entries are not lost.
+     */
+    @Override
+    public void destroy() {
+        running = false; // new entries are dropped
+        awaitHandlingDone();
+        writerRunning = false;
+        final Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(getDestroyWaitMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.info("...Destroying async access log: " + toString());
+    }
+
+    protected void awaitHandlingDone() { // e.g. request thread offering on overflow
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getDestroyWaitMillis());
+        while (handlingCount.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(OVERFLOW_PARK_NANOS);
+        }
+    }
+
+    protected long getDestroyWaitMillis() {
+        return 3000L;
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "asyncAccessLog:{" + rotatingFile.getLogFile() + ", accepted=" + getAcceptedCount() + ", dropped=" + getDroppedCount()
+                + ", written=" + getWrittenCount() + ", failed=" + getFailedCount() + ", " + option + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getBufferedCount() {
+        return ringBuffer.size();
+    }
+
+    public AsyncAccessLogOption getOption() {
+        return option;
+    }
+}
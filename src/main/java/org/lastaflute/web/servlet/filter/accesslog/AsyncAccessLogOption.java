@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The option of asynchronous access log.
+ * @author jflute
+ */
+public class AsyncAccessLogOption {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    public enum AccessLogOverflowPolicy {
+
+        /** Discard the entry immediately when the buffer is full, counted as dropped. (default) */
+        DISCARD,
+
+        /** Wait for free space with timeout in the request thread, and discard it if timeout. */
+        WAIT
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected int bufferCapacity = 8192; // rounded up to power of two
+    protected int batchSize = 512;
+    protected long flushIntervalMillis = 100L;
+    protected long rotateFileSize = 100L * 1024L * 1024L; // 100MB
+    protected int rotateBackupCount = 5;
+    protected int encodingBufferSize = 64 * 1024; // bytes
+    protected Charset encoding = StandardCharsets.UTF_8;
+    protected AccessLogOverflowPolicy overflowPolicy = AccessLogOverflowPolicy.DISCARD;
+    protected long overflowWaitMillis; // only for wait policy
+    protected AccessLogFormatter formatter; // null allowed: as default format
+
+    // ===================================================================================
+    //                                                                      Option Setting
+    //                                                                      ==============
+    // -----------------------------------------------------
+    //                                                Buffer
+    //                                                ------
+    public AsyncAccessLogOption bufferCapacity(int bufferCapacity) {
+        assertPositive("bufferCapacity", bufferCapacity);
+        this.bufferCapacity = bufferCapacity;
+        return this;
+    }
+
+    public AsyncAccessLogOption batchSize(int batchSize) {
+        assertPositive("batchSize", batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public AsyncAccessLogOption flushIntervalMillis(long flushIntervalMillis) {
+        assertPositive("flushIntervalMillis", flushIntervalMillis);
+        this.flushIntervalMillis = flushIntervalMillis;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                                Rotate
+    //                                                ------
+    public AsyncAccessLogOption rotateFileSize(long rotateFileSize) {
+        assertPositive("rotateFileSize", rotateFileSize);
+        this.rotateFileSize = rotateFileSize;
+        return this;
+    }
+
+    public AsyncAccessLogOption rotateBackupCount(int rotateBackupCount) {
+        if (rotateBackupCount < 0) {
+            throw new IllegalArgumentException("The argument 'rotateBackupCount' should not be minus: " + rotateBackupCount);
+        }
+        this.rotateBackupCount = rotateBackupCount;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                              Encoding
+    //                                              --------
+    public AsyncAccessLogOption encoding(Charset encoding) {
+        if (encoding == null) {
+            throw new IllegalArgumentException("The argument 'encoding' should not be null.");
+        }
+        this.encoding = encoding;
+        return this;
+    }
+
+    public AsyncAccessLogOption encodingBufferSize(int encodingBufferSize) {
+        assertPositive("encodingBufferSize", encodingBufferSize);
+        this.encodingBufferSize = encodingBufferSize;
+        return this;
+    }
+
+    public AsyncAccessLogOption formatBy(AccessLogFormatter formatter) {
+        if (formatter == null) {
+            throw new IllegalArgumentException("The argument 'formatter' should not be null.");
+        }
+        this.formatter = formatter;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                              Overflow
+    //                                              --------
+    public AsyncAccessLogOption discardOnOverflow() {
+        overflowPolicy = AccessLogOverflowPolicy.DISCARD;
+        overflowWaitMillis = 0L;
+        return this;
+    }
+
+    public AsyncAccessLogOption waitOnOverflow(long waitMillis) {
+        assertPositive("waitMillis", waitMillis);
+        overflowPolicy = AccessLogOverflowPolicy.WAIT;
+        overflowWaitMillis = waitMillis;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                         Assist Helper
+    //                                         -------------
+    protected void assertPositive(String name, long value) {
+        if (value <= 0L) {
+            throw new IllegalArgumentException("The argument '" + name + "' should be positive: " + value);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "option:{buffer=" + bufferCapacity + ", batch=" + batchSize + ", interval=" + flushIntervalMillis + "ms, rotate="
+                + rotateFileSize + "/" + rotateBackupCount + ", " + encoding + ", " + overflowPolicy + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public long getRotateFileSize() {
+        return rotateFileSize;
+    }
+
+    public int getRotateBackupCount() {
+        return rotateBackupCount;
+    }
+
+    public int getEncodingBufferSize() {
+        return encodingBufferSize;
+    }
+
+    public Charset getEncoding() {
+        return encoding;
+    }
+
+    public AccessLogOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getOverflowWaitMillis() {
+        return overflowWaitMillis;
+    }
+
+    public AccessLogFormatter getFormatter() {
+        return formatter;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionOption.CompressionEncoding;
+
+/**
+ * The pool of deflaters and byte buffers for response compression. <br>
+ * Deflater has native memory so reusing it avoids both allocation and finalization cost per response.
+ * @author jflute
+ */
+public class CompressionResourcePool {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final int compressionLevel;
+    protected final int bufferSize;
+    protected final ArrayBlockingQueue<Deflater> gzipDeflaterPool; // nowrap deflaters
+    protected final ArrayBlockingQueue<Deflater> deflateDeflaterPool; // zlib deflaters
+    protected final ArrayBlockingQueue<byte[]> bufferPool;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public CompressionResourcePool(ResponseCompressionOption option) {
+        this.compressionLevel = option.getCompressionLevel();
+        this.bufferSize = option.getBufferSize();
+        this.gzipDeflaterPool = new ArrayBlockingQueue<Deflater>(option.getPoolSize());
+        this.deflateDeflaterPool = new ArrayBlockingQueue<Deflater>(option.getPoolSize());
+        this.bufferPool = new ArrayBlockingQueue<byte[]>(option.getPoolSize());
+    }
+
+    // ===================================================================================
+    //                                                                            Deflater
+    //                                                                            ========
+    public Deflater borrowDeflater(CompressionEncoding encoding) {
+        final Deflater pooled = findDeflaterPool(encoding).poll();
+        return pooled != null ? pooled : new Deflater(compressionLevel, encoding.isNowrap());
+    }
+
+    public void returnDeflater(CompressionEncoding encoding, Deflater deflater) {
+        deflater.reset();
+        if (!findDeflaterPool(encoding).offer(deflater)) { // full
+            deflater.end(); // release native memory now
+        }
+    }
+
+    protected ArrayBlockingQueue<Deflater> findDeflaterPool(CompressionEncoding encoding) {
+        return encoding.isNowrap() ? gzipDeflaterPool : deflateDeflaterPool;
+    }
+
+    // ===================================================================================
+    //                                                                              Buffer
+    //                                                                              ======
+    public byte[] borrowBuffer() {
+        final byte[] pooled = bufferPool.poll();
+        return pooled != null ? pooled : new byte[bufferSize];
+    }
+
+    public void returnBuffer(byte[] buffer) {
+        bufferPool.offer(buffer); // ignored if full
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    public void destroy() {
+        endDeflaters(gzipDeflaterPool);
+        endDeflaters(deflateDeflaterPool);
+        bufferPool.clear();
+    }
+
+    protected void endDeflaters(ArrayBlockingQueue<Deflater> deflaterPool) {
+        Deflater deflater;
+        while ((deflater = deflaterPool.poll()) != null) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.compress;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionOption.CompressionEncoding;
+
+/**
+ * The response wrapper to compress the body by the negotiated encoding. <br>
+ * Content-Length set by application is kept until the decision, because compressed length is different.
+ * @author jflute
+ */
+public class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final String CONTENT_LENGTH = "Content-Length";
+    protected static final String CONTENT_ENCODING = "Content-Encoding";
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final CompressionEncoding encoding;
+    protected final ResponseCompressionOption option;
+    protected final CompressionResourcePool resourcePool;
+    protected CompressionServletOutputStream compressionStream; // lazy loaded
+    protected PrintWriter compressionWriter; // lazy loaded, only when getWriter()
+    protected boolean outputStreamUsed; // for exclusive check with writer
+    protected long capturedContentLength = -1L; // minus means unknown
+    protected boolean headerDecided; // content length is no longer captured if true
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public CompressionResponseWrapper(HttpServletResponse response, CompressionEncoding encoding, ResponseCompressionOption option,
+            CompressionResourcePool resourcePool) {
+        super(response);
+        this.encoding = encoding;
+        this.option = option;
+        this.resourcePool = resourcePool;
+    }
+
+    // ===================================================================================
+    //                                                                       Output Stream
+    //                                                                       =============
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (compressionWriter != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response: " + this);
+        }
+        outputStreamUsed = true;
+        return prepareCompressionStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStreamUsed) {
+            throw new IllegalStateException("getOutputStream() has already been called for this response: " + this);
+        }
+        if (compressionWriter == null) {
+            compressionWriter = new PrintWriter(new OutputStreamWriter(prepareCompressionStream(), getCharacterEncoding()));
+        }
+        return compressionWriter;
+    }
+
+    protected CompressionServletOutputStream prepareCompressionStream() {
+        if (compressionStream == null) {
+            compressionStream = newCompressionServletOutputStream();
+        }
+        return compressionStream;
+    }
+
+    protected CompressionServletOutputStream newCompressionServletOutputStream() {
+        return new CompressionServletOutputStream(this, resourcePool, encoding, option.getMinCompressionSize());
+    }
+
+    public ServletOutputStream getOriginalOutputStream() throws IOException { // called by compression stream
+        return getResponse().getOutputStream();
+    }
+
+    // ===================================================================================
+    //                                                                      Content Length
+    //                                                                      ==============
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (headerDecided) {
+            if (!isCompressed()) {
+                super.setContentLengthLong(len);
+            } // compressed length is unknown so ignored
+        } else {
+            capturedContentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            captureContentLengthHeader(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            captureContentLengthHeader(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    protected void captureContentLengthHeader(String value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            setContentLengthLong(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of Content-Length header: " + value, e);
+        }
+    }
+
+    public long getCapturedContentLength() { // called by compression stream
+        return capturedContentLength;
+    }
+
+    // ===================================================================================
+    //                                                                     Response Header
+    //                                                                     ===============
+    /**
+     * Determine whether the response can be compressed or not by its status and headers. <br>
+     * Vary header is added if the content type is compressible, even if it may be small.
+     * @return The determination, true or false.
+     */
+    public boolean isCompressionAvailable() { // called by compression stream
+        final int status = getStatus();
+        if (status < HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_PARTIAL_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        if (getHeader("Content-Range") != null || getHeader(CONTENT_ENCODING) != null) { // e.g. range download, pre-compressed
+            return false;
+        }
+        if (!option.isCompressibleContentType(getContentType())) { // e.g. zip, jpeg download
+            return false;
+        }
+        prepareVaryHeader();
+        return true;
+    }
+
+    protected void prepareVaryHeader() {
+        final String vary = getHeader("Vary");
+        if (vary == null) {
+            super.setHeader("Vary", "Accept-Encoding");
+        } else if (!vary.contains("*") && !vary.toLowerCase().contains("accept-encoding")) {
+            super.setHeader("Vary", vary + ", Accept-Encoding");
+        }
+    }
+
+    public void prepareCompressedHeader() { // called by compression stream
+        headerDecided = true;
+        super.setHeader(CONTENT_ENCODING, encoding.getHeaderValue());
+        final String eTag = getHeader("ETag");
+        if (eTag != null && !eTag.startsWith("W/")) { // compressed body is not byte-identical
+            super.setHeader("ETag", "W/" + eTag);
+        }
+    }
+
+    public void preparePassingHeader(long stagedLength) { // called by compression stream
+        headerDecided = true;
+        final long contentLength = stagedLength >= 0L ? stagedLength : capturedContentLength;
+        if (contentLength >= 0L) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    protected boolean isCompressed() {
+        return encoding.getHeaderValue().equals(getHeader(CONTENT_ENCODING));
+    }
+
+    // ===================================================================================
+    //                                                                         Flush/Reset
+    //                                                                         ===========
+    @Override
+    public void flushBuffer() throws IOException {
+        if (compressionWriter != null) {
+            compressionWriter.flush();
+        }
+        if (compressionStream != null) {
+            compressionStream.prepareCommit(); // headers should be decided before commit
+            compressionStream.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer(); // exception if committed
+        if (compressionStream != null) {
+            compressionStream.resetState();
+        }
+        headerDecided = false;
+    }
+
+    @Override
+    public void reset() {
+        super.reset(); // exception if committed, headers are also cleared
+        if (compressionStream != null) {
+            compressionStream.resetState();
+        }
+        headerDecided = false;
+        capturedContentLength = -1L;
+    }
+
+    // ===================================================================================
+    //                                                                      Finish/Release
+    //                                                                      ==============
+    /**
+     * Finish the compression after the application writes the body. <br>
+     * The captured content length is restored if the body was not written at all.
+     * @throws IOException When it fails to write the data.
+     */
+    public void finishResponse() throws IOException {
+        if (compressionWriter != null) {
+            compressionWriter.flush();
+        }
+        if (compressionStream != null) {
+            compressionStream.finish();
+        } else if (!headerDecided && capturedContentLength >= 0L) {
+            super.setContentLengthLong(capturedContentLength);
+        }
+    }
+
+    public void releaseResponse() { // always called, e.g. when application exception
+        if (compressionStream != null) {
+            compressionStream.release();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "compressionResponse:{" + encoding + ", " + compressionStream + "}";
+    }
+}
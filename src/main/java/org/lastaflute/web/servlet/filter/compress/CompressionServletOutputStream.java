@@ -0,0 +1,342 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.compress;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionOption.CompressionEncoding;
+
+/**
+ * The output stream compressing written bytes into the original response stream. <br>
+ * Whether it compresses or not is decided at the first writing by response headers,
+ * and small data of unknown length is staged until it reaches minimum compression size.
+ * @author jflute
+ */
+public class CompressionServletOutputStream extends ServletOutputStream {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected enum CompressionState {
+        UNDECIDED, STAGING, COMPRESSING, PASSING, FINISHED
+    }
+
+    protected static final byte[] GZIP_HEADER = new byte[] { // fixed 10 bytes header
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final CompressionResponseWrapper wrapper;
+    protected final CompressionResourcePool resourcePool;
+    protected final CompressionEncoding encoding;
+    protected final int minCompressionSize;
+    protected final byte[] singleByte = new byte[1];
+    protected ServletOutputStream originalStream; // lazy loaded
+    protected CompressionState state = CompressionState.UNDECIDED;
+    protected byte[] stagingBuffer; // borrowed while staging
+    protected int stagedLength;
+    protected Deflater deflater; // borrowed while compressing
+    protected byte[] deflatedBuffer; // borrowed while compressing
+    protected CRC32 crc; // only for gzip
+    protected long inputLength;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public CompressionServletOutputStream(CompressionResponseWrapper wrapper, CompressionResourcePool resourcePool,
+            CompressionEncoding encoding, int minCompressionSize) {
+        this.wrapper = wrapper;
+        this.resourcePool = resourcePool;
+        this.encoding = encoding;
+        this.minCompressionSize = minCompressionSize;
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        assertNotFinished();
+        if (len == 0) {
+            return;
+        }
+        if (state == CompressionState.UNDECIDED) {
+            decideCompression();
+        }
+        if (state == CompressionState.STAGING) {
+            if (stagedLength + len < minCompressionSize) { // still small
+                System.arraycopy(b, off, stagingBuffer, stagedLength, len);
+                stagedLength += len;
+                return;
+            }
+            beginCompression(); // enough size, staged data is compressed first
+        }
+        if (state == CompressionState.COMPRESSING) {
+            deflateInput(b, off, len);
+        } else { // passing
+            prepareOriginalStream().write(b, off, len);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                              Decision
+    //                                              --------
+    protected void decideCompression() throws IOException {
+        if (!wrapper.isCompressionAvailable()) { // e.g. partial content, already compressed type
+            beginPassing();
+            return;
+        }
+        final long contentLength = wrapper.getCapturedContentLength();
+        if (contentLength >= 0L) { // e.g. download with length
+            if (contentLength < minCompressionSize) {
+                beginPassing();
+            } else {
+                beginCompression();
+            }
+        } else { // e.g. streaming JSON, rendered HTML
+            stagingBuffer = resourcePool.borrowBuffer();
+            state = CompressionState.STAGING;
+        }
+    }
+
+    protected void beginCompression() throws IOException {
+        wrapper.prepareCompressedHeader();
+        deflater = resourcePool.borrowDeflater(encoding);
+        deflatedBuffer = resourcePool.borrowBuffer();
+        if (encoding == CompressionEncoding.GZIP) {
+            crc = new CRC32();
+            prepareOriginalStream().write(GZIP_HEADER);
+        }
+        state = CompressionState.COMPRESSING;
+        if (stagingBuffer != null) {
+            deflateInput(stagingBuffer, 0, stagedLength);
+            releaseStagingBuffer();
+        }
+    }
+
+    protected void beginPassing() throws IOException {
+        final boolean staged = stagingBuffer != null;
+        wrapper.preparePassingHeader(staged ? stagedLength : -1L); // staged data is whole body here
+        state = CompressionState.PASSING;
+        if (staged) {
+            if (stagedLength > 0) {
+                prepareOriginalStream().write(stagingBuffer, 0, stagedLength);
+            }
+            releaseStagingBuffer();
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                               Deflate
+    //                                               -------
+    protected void deflateInput(byte[] b, int off, int len) throws IOException {
+        deflater.setInput(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+        inputLength += len;
+        while (!deflater.needsInput()) { // the input array is not kept after returning
+            writeDeflated(Deflater.NO_FLUSH);
+        }
+    }
+
+    protected int writeDeflated(int flushMode) throws IOException {
+        final int deflatedLength = deflater.deflate(deflatedBuffer, 0, deflatedBuffer.length, flushMode);
+        if (deflatedLength > 0) {
+            prepareOriginalStream().write(deflatedBuffer, 0, deflatedLength);
+        }
+        return deflatedLength;
+    }
+
+    // ===================================================================================
+    //                                                                               Flush
+    //                                                                               =====
+    /**
+     * Flush the compressed data so far as sync-flush block. <br>
+     * Staged small data is kept because it is not compressed or not yet.
+     * @throws IOException When it fails to write the data.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (state == CompressionState.COMPRESSING) {
+            while (writeDeflated(Deflater.SYNC_FLUSH) == deflatedBuffer.length) { // until all pending output
+            }
+            prepareOriginalStream().flush();
+        } else if (state == CompressionState.PASSING) {
+            prepareOriginalStream().flush();
+        }
+    }
+
+    /**
+     * Decide compression if staging because the response will be committed by the flush.
+     * @throws IOException When it fails to write the data.
+     */
+    public void prepareCommit() throws IOException {
+        if (state == CompressionState.STAGING) {
+            beginCompression(); // unknown length with explicit flush, might be long-running
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Finish/Close
+    //                                                                        ============
+    /**
+     * Finish the compression and write the trailer, the original stream is not closed. <br>
+     * Borrowed resources are returned to the pool.
+     * @throws IOException When it fails to write the data.
+     */
+    public void finish() throws IOException {
+        if (state == CompressionState.FINISHED) {
+            return;
+        }
+        try {
+            if (state == CompressionState.UNDECIDED || state == CompressionState.STAGING) {
+                beginPassing(); // small data or empty body
+            } else if (state == CompressionState.COMPRESSING) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    writeDeflated(Deflater.NO_FLUSH);
+                }
+                if (crc != null) {
+                    writeGzipTrailer();
+                }
+            }
+        } finally {
+            state = CompressionState.FINISHED;
+            release();
+        }
+    }
+
+    protected void writeGzipTrailer() throws IOException {
+        final byte[] trailer = new byte[8]; // little endian
+        writeIntLittleEndian(trailer, 0, crc.getValue());
+        writeIntLittleEndian(trailer, 4, inputLength); // modulo 2^32 as gzip defines
+        prepareOriginalStream().write(trailer);
+    }
+
+    protected void writeIntLittleEndian(byte[] bytes, int offset, long value) {
+        bytes[offset] = (byte) (value & 0xff);
+        bytes[offset + 1] = (byte) ((value >> 8) & 0xff);
+        bytes[offset + 2] = (byte) ((value >> 16) & 0xff);
+        bytes[offset + 3] = (byte) ((value >> 24) & 0xff);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (state == CompressionState.FINISHED) {
+            return;
+        }
+        finish();
+        prepareOriginalStream().close();
+    }
+
+    // ===================================================================================
+    //                                                                      Resource/Reset
+    //                                                                      ==============
+    /**
+     * Return the borrowed resources to the pool, the stream cannot compress after this. <br>
+     * It can be called several times, e.g. finally clause after finish.
+     */
+    public void release() {
+        releaseStagingBuffer();
+        if (deflater != null) {
+            final Deflater released = deflater;
+            deflater = null;
+            resourcePool.returnDeflater(encoding, released);
+        }
+        if (deflatedBuffer != null) {
+            final byte[] released = deflatedBuffer;
+            deflatedBuffer = null;
+            resourcePool.returnBuffer(released);
+        }
+    }
+
+    protected void releaseStagingBuffer() {
+        if (stagingBuffer != null) {
+            final byte[] released = stagingBuffer;
+            stagingBuffer = null;
+            stagedLength = 0;
+            resourcePool.returnBuffer(released);
+        }
+    }
+
+    /**
+     * Reset the state for reset of response buffer, called after the original reset succeeds.
+     */
+    public void resetState() {
+        release();
+        crc = null;
+        inputLength = 0L;
+        state = CompressionState.UNDECIDED;
+    }
+
+    // ===================================================================================
+    //                                                                     Original Stream
+    //                                                                     ===============
+    protected ServletOutputStream prepareOriginalStream() throws IOException {
+        if (originalStream == null) {
+            originalStream = wrapper.getOriginalOutputStream();
+        }
+        return originalStream;
+    }
+
+    protected void assertNotFinished() throws IOException {
+        if (state == CompressionState.FINISHED) {
+            throw new IOException("The compression stream is already finished: " + encoding);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Non-Blocking
+    //                                                                        ============
+    @Override
+    public boolean isReady() {
+        try {
+            return prepareOriginalStream().isReady();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to get the original stream: " + wrapper, e);
+        }
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+        try {
+            prepareOriginalStream().setWriteListener(writeListener);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to get the original stream: " + wrapper, e);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "compression:{" + encoding + ", " + state + ", input=" + inputLength + "}";
+    }
+}
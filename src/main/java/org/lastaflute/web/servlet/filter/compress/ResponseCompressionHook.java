@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.compress;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.lastaflute.core.util.ContainerUtil;
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionOption.CompressionEncoding;
+import org.lastaflute.web.servlet.filter.hook.FilterHookChain;
+import org.lastaflute.web.servlet.filter.hook.FilterHookSimply;
+import org.lastaflute.web.servlet.request.AsyncRequestCompletion;
+
+/**
+ * The filter hook to compress response body by gzip or deflate as Accept-Encoding. <br>
+ * Deflaters and buffers are pooled, and small or already-compressed responses are written as they are.
+ * <pre>
+ * e.g. in your web direction
+ *  direction.directCompression(new ResponseCompressionHook(new ResponseCompressionOption().minCompressionSize(2048)));
+ * </pre>
+ * @author jflute
+ */
+public class ResponseCompressionHook extends FilterHookSimply {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final ResponseCompressionOption option;
+    protected final CompressionResourcePool resourcePool;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ResponseCompressionHook() {
+        this(new ResponseCompressionOption());
+    }
+
+    public ResponseCompressionHook(ResponseCompressionOption option) {
+        if (option == null) {
+            throw new IllegalArgumentException("The argument 'option' should not be null.");
+        }
+        this.option = option;
+        this.resourcePool = newCompressionResourcePool(option);
+    }
+
+    protected CompressionResourcePool newCompressionResourcePool(ResponseCompressionOption option) {
+        return new CompressionResourcePool(option);
+    }
+
+    // ===================================================================================
+    //                                                                                Hook
+    //                                                                                ====
+    @Override
+    public void hook(HttpServletRequest request, HttpServletResponse response, FilterHookChain chain) throws IOException, ServletException {
+        final CompressionEncoding encoding = isCompressionTarget(request, response) ? negotiateEncoding(request) : null;
+        if (encoding == null) {
+            chain.doNext(request, response);
+            return;
+        }
+        final CompressionResponseWrapper wrapper = newCompressionResponseWrapper(response, encoding);
+        final Object previousResponse = ContainerUtil.retrieveExternalContext().getResponse();
+        ContainerUtil.overrideExternalResponse(wrapper); // for response manager
+        boolean deferred = false;
+        try {
+            chain.doNext(request, wrapper);
+            final AsyncRequestCompletion completion = AsyncRequestCompletion.findCompletion(request);
+            if (completion != null) { // e.g. CompletableFuture execute, response is not written yet
+                completion.deferFinishing(cause -> finishAsyncResponse(wrapper, cause));
+                deferred = true;
+            } else { // mainly here
+                wrapper.finishResponse();
+            }
+        } finally {
+            if (!deferred) {
+                wrapper.releaseResponse();
+            }
+            ContainerUtil.overrideExternalResponse((HttpServletResponse) previousResponse);
+        }
+    }
+
+    protected void finishAsyncResponse(CompressionResponseWrapper wrapper, Throwable cause) { // on the completion thread
+        try {
+            if (cause == null) { // not finished if exception, same as synchronous request
+                wrapper.finishResponse();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to finish the compression response: " + wrapper, e);
+        } finally {
+            wrapper.releaseResponse();
+        }
+    }
+
+    protected boolean isCompressionTarget(HttpServletRequest request, HttpServletResponse response) {
+        return !"HEAD".equalsIgnoreCase(request.getMethod()) && !response.isCommitted();
+    }
+
+    protected CompressionResponseWrapper newCompressionResponseWrapper(HttpServletResponse response, CompressionEncoding encoding) {
+        return new CompressionResponseWrapper(response, encoding, option, resourcePool);
+    }
+
+    // ===================================================================================
+    //                                                                         Negotiation
+    //                                                                         ===========
+    protected CompressionEncoding negotiateEncoding(HttpServletRequest request) {
+        return negotiateEncoding(request.getHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Negotiate the encoding by quality values, gzip is preferred if same quality.
+     * @param acceptEncoding The value of Accept-Encoding header, e.g. "gzip, deflate;q=0.5". (NullAllowed)
+     * @return The negotiated encoding. (NullAllowed: not acceptable)
+     */
+    protected CompressionEncoding negotiateEncoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double gzipQuality = -1.0; // minus means not specified
+        double deflateQuality = -1.0;
+        double wildcardQuality = -1.0;
+        for (String element : acceptEncoding.split(",")) {
+            final int paramIndex = element.indexOf(';');
+            final String coding = (paramIndex >= 0 ? element.substring(0, paramIndex) : element).trim().toLowerCase();
+            final double quality = paramIndex >= 0 ? parseQuality(element.substring(paramIndex + 1)) : 1.0;
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzipQuality = quality;
+            } else if ("deflate".equals(coding)) {
+                deflateQuality = quality;
+            } else if ("*".equals(coding)) {
+                wildcardQuality = quality;
+            }
+        }
+        final double gzip = gzipQuality >= 0.0 ? gzipQuality : wildcardQuality;
+        final double deflate = option.isDeflateEnabled() ? (deflateQuality >= 0.0 ? deflateQuality : wildcardQuality) : 0.0;
+        if (gzip > 0.0 && gzip >= deflate) {
+            return CompressionEncoding.GZIP;
+        } else if (deflate > 0.0) {
+            return CompressionEncoding.DEFLATE;
+        } else {
+            return null;
+        }
+    }
+
+    protected double parseQuality(String params) {
+        for (String param : params.split(";")) {
+            final String trimmed = param.trim();
+            if (trimmed.startsWith("q=") || trimmed.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim());
+                } catch (NumberFormatException ignored) {
+                    return 0.0; // treated as not acceptable
+                }
+            }
+        }
+        return 1.0;
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    @Override
+    public void destroy() {
+        resourcePool.destroy();
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public ResponseCompressionOption getOption() {
+        return option;
+    }
+}
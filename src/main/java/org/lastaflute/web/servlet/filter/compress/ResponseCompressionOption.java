@@ -0,0 +1,258 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.filter.compress;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * The option of response compression.
+ * @author jflute
+ */
+public class ResponseCompressionOption {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    public enum CompressionEncoding {
+
+        /** gzip format: raw deflate with gzip header and CRC32 trailer. (preferred) */
+        GZIP("gzip", true),
+
+        /** deflate format: zlib wrapped deflate, as HTTP defines. */
+        DEFLATE("deflate", false);
+
+        private final String headerValue;
+        private final boolean nowrap; // for Deflater
+
+        private CompressionEncoding(String headerValue, boolean nowrap) {
+            this.headerValue = headerValue;
+            this.nowrap = nowrap;
+        }
+
+        public String getHeaderValue() {
+            return headerValue;
+        }
+
+        public boolean isNowrap() {
+            return nowrap;
+        }
+    }
+
+    protected static final Set<String> DEFAULT_COMPRESSIBLE_TYPE_SET;
+    static {
+        final Set<String> typeSet = new LinkedHashSet<String>();
+        typeSet.add("text/*"); // e.g. html, plain, css, csv
+        typeSet.add("application/json");
+        typeSet.add("application/javascript");
+        typeSet.add("application/xml");
+        typeSet.add("application/xhtml+xml");
+        typeSet.add("image/svg+xml");
+        DEFAULT_COMPRESSIBLE_TYPE_SET = Collections.unmodifiableSet(typeSet);
+    }
+
+    protected static final Set<String> DEFAULT_UNCOMPRESSIBLE_TYPE_SET; // already compressed
+    static {
+        final Set<String> typeSet = new LinkedHashSet<String>();
+        typeSet.add("application/zip");
+        typeSet.add("application/gzip");
+        typeSet.add("application/x-gzip");
+        typeSet.add("application/x-7z-compressed");
+        typeSet.add("application/x-rar-compressed");
+        typeSet.add("application/pdf");
+        typeSet.add("image/jpeg");
+        typeSet.add("image/png");
+        typeSet.add("image/gif");
+        typeSet.add("image/webp");
+        typeSet.add("audio/*");
+        typeSet.add("video/*");
+        DEFAULT_UNCOMPRESSIBLE_TYPE_SET = Collections.unmodifiableSet(typeSet);
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected int minCompressionSize = 1024; // bytes, smaller responses are not worth it
+    protected int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    protected int bufferSize = 8192; // bytes, at least min compression size
+    protected int poolSize = 64; // per pooled resource, over-size ones are just discarded
+    protected boolean deflateEnabled = true; // gzip is always enabled
+    protected final Set<String> compressibleTypeSet = new LinkedHashSet<String>(DEFAULT_COMPRESSIBLE_TYPE_SET);
+    protected final Set<String> uncompressibleTypeSet = new LinkedHashSet<String>(DEFAULT_UNCOMPRESSIBLE_TYPE_SET);
+
+    // ===================================================================================
+    //                                                                      Option Setting
+    //                                                                      ==============
+    // -----------------------------------------------------
+    //                                           Compression
+    //                                           -----------
+    public ResponseCompressionOption minCompressionSize(int minCompressionSize) {
+        if (minCompressionSize < 0) {
+            throw new IllegalArgumentException("The argument 'minCompressionSize' should not be minus: " + minCompressionSize);
+        }
+        this.minCompressionSize = minCompressionSize;
+        return this;
+    }
+
+    public ResponseCompressionOption compressionLevel(int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("The argument 'compressionLevel' should be -1 or 0-9: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    public ResponseCompressionOption gzipOnly() { // e.g. for old clients misunderstanding deflate
+        deflateEnabled = false;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                          Content Type
+    //                                          ------------
+    /**
+     * Add the content types to be compressed, e.g. "application/x-ndjson" or "font/*".
+     * @param contentTypes The array of MIME type, sub type can be '*'. (NotNull)
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption compressibleContentType(String... contentTypes) {
+        assertContentTypes(contentTypes);
+        for (String contentType : contentTypes) {
+            final String mimeType = extractMimeType(contentType);
+            compressibleTypeSet.add(mimeType);
+            uncompressibleTypeSet.remove(mimeType);
+        }
+        return this;
+    }
+
+    /**
+     * Add the content types not to be compressed, e.g. already compressed data.
+     * @param contentTypes The array of MIME type, sub type can be '*'. (NotNull)
+     * @return this. (NotNull)
+     */
+    public ResponseCompressionOption uncompressibleContentType(String... contentTypes) {
+        assertContentTypes(contentTypes);
+        for (String contentType : contentTypes) {
+            uncompressibleTypeSet.add(extractMimeType(contentType));
+        }
+        return this;
+    }
+
+    protected void assertContentTypes(String[] contentTypes) {
+        if (contentTypes == null || contentTypes.length == 0) {
+            throw new IllegalArgumentException("The argument 'contentTypes' should not be null or empty.");
+        }
+        for (String contentType : contentTypes) {
+            if (contentType == null || contentType.trim().isEmpty()) {
+                throw new IllegalArgumentException("The element of 'contentTypes' should not be null or empty.");
+            }
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                              Resource
+    //                                              --------
+    public ResponseCompressionOption bufferSize(int bufferSize) {
+        assertPositive("bufferSize", bufferSize);
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    public ResponseCompressionOption poolSize(int poolSize) {
+        assertPositive("poolSize", poolSize);
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    // -----------------------------------------------------
+    //                                         Assist Helper
+    //                                         -------------
+    protected void assertPositive(String name, long value) {
+        if (value <= 0L) {
+            throw new IllegalArgumentException("The argument '" + name + "' should be positive: " + value);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                       Determination
+    //                                                                       =============
+    /**
+     * @param contentType The content type of response, may have parameters e.g. charset. (NullAllowed: not compressible)
+     * @return The determination, true or false.
+     */
+    public boolean isCompressibleContentType(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return false;
+        }
+        final String mimeType = extractMimeType(contentType);
+        if (containsMimeType(uncompressibleTypeSet, mimeType)) {
+            return false;
+        }
+        if (containsMimeType(compressibleTypeSet, mimeType)) {
+            return true;
+        }
+        return mimeType.endsWith("+json") || mimeType.endsWith("+xml"); // e.g. application/problem+json
+    }
+
+    protected boolean containsMimeType(Set<String> typeSet, String mimeType) {
+        if (typeSet.contains(mimeType)) {
+            return true;
+        }
+        final int slashIndex = mimeType.indexOf('/');
+        return slashIndex > 0 && typeSet.contains(mimeType.substring(0, slashIndex) + "/*");
+    }
+
+    protected String extractMimeType(String contentType) {
+        final int paramIndex = contentType.indexOf(';');
+        final String mimeType = paramIndex >= 0 ? contentType.substring(0, paramIndex) : contentType;
+        return mimeType.trim().toLowerCase();
+    }
+
+    // ===================================================================================
+    //                                                                      Basic Override
+    //                                                                      ==============
+    @Override
+    public String toString() {
+        return "option:{min=" + minCompressionSize + ", level=" + compressionLevel + ", buffer=" + bufferSize + ", pool=" + poolSize
+                + ", deflate=" + deflateEnabled + "}";
+    }
+
+    // ===================================================================================
+    //                                                                            Accessor
+    //                                                                            ========
+    public int getMinCompressionSize() {
+        return minCompressionSize;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getBufferSize() {
+        return Math.max(bufferSize, minCompressionSize); // staged data should be in one buffer
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public boolean isDeflateEnabled() {
+        return deflateEnabled;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletRequest;
+
+import org.lastaflute.web.LastaWebKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The completion of asynchronous request, saved in request attribute when e.g. CompletableFuture execute. <br>
+ * Filters having processes after the chain (e.g. request logging) should defer them by this
+ * because the chain returns before the response is written in asynchronous request.
+ * <pre>
+ * chain.doFilter(request, response);
+ * final AsyncRequestCompletion completion = AsyncRequestCompletion.findCompletion(request);
+ * if (completion != null) { // asynchronous request
+ *     completion.deferFinishing(cause -&gt; { // called on the completion thread
+ *         ... // e.g. logging
+ *     });
+ * }
+ * </pre>
+ * The deferred finishings are called in registered order (inner filter first) just before the completion.
+ * @author jflute
+ */
+public class AsyncRequestCompletion {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    private static final Logger logger = LoggerFactory.getLogger(AsyncRequestCompletion.class);
+    protected static final String COMPLETION_KEY = LastaWebKey.ASYNC_REQUEST_COMPLETION_KEY;
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final List<AsyncFinishing> finishingList = new ArrayList<AsyncFinishing>(4); // guarded by this
+    protected boolean finished; // guarded by this
+    protected Throwable finishedCause; // null allowed, guarded by this
+
+    // ===================================================================================
+    //                                                                        Request Save
+    //                                                                        ============
+    /**
+     * Save new-created completion to the request, called when the request is started as asynchronous.
+     * @param request The request started as asynchronous. (NotNull)
+     * @return The new-created completion saved in the request. (NotNull)
+     */
+    public static AsyncRequestCompletion saveCompletion(ServletRequest request) {
+        final AsyncRequestCompletion completion = new AsyncRequestCompletion();
+        request.setAttribute(COMPLETION_KEY, completion);
+        return completion;
+    }
+
+    /**
+     * @param request The request that may be started as asynchronous. (NotNull)
+     * @return The completion saved in the request. (NullAllowed: when synchronous request)
+     */
+    public static AsyncRequestCompletion findCompletion(ServletRequest request) {
+        // not use isAsyncStarted() because it may be false if already completed by very fast future
+        return (AsyncRequestCompletion) request.getAttribute(COMPLETION_KEY);
+    }
+
+    // ===================================================================================
+    //                                                                    Deferred Process
+    //                                                                    ================
+    /**
+     * Defer the finishing process until the asynchronous request is completed. <br>
+     * If already completed (e.g. very fast future), the finishing is called immediately on the current thread.
+     * @param finishing The callback of finishing process, called only once. (NotNull)
+     */
+    public void deferFinishing(AsyncFinishing finishing) {
+        if (finishing == null) {
+            throw new IllegalArgumentException("The argument 'finishing' should not be null.");
+        }
+        final Throwable cause;
+        synchronized (this) {
+            if (!finished) { // mainly here
+                finishingList.add(finishing);
+                return;
+            }
+            cause = finishedCause;
+        }
+        callFinishing(finishing, cause); // outside lock, already finished
+    }
+
+    /**
+     * Finish the asynchronous request, calling the deferred finishings in registered order. <br>
+     * This is called on the completion thread before the asynchronous context is completed.
+     * @param cause The exception of the asynchronous process. (NullAllowed: when success)
+     */
+    public void finish(Throwable cause) {
+        final List<AsyncFinishing> deferredList;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            finishedCause = cause;
+            deferredList = new ArrayList<AsyncFinishing>(finishingList);
+            finishingList.clear();
+        }
+        for (AsyncFinishing finishing : deferredList) {
+            callFinishing(finishing, cause);
+        }
+    }
+
+    protected void callFinishing(AsyncFinishing finishing, Throwable cause) {
+        try {
+            finishing.finish(cause);
+        } catch (RuntimeException continued) { // to call other finishings
+            logger.info("Failed to call the finishing of asynchronous request: " + finishing, continued);
+        }
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * The callback of finishing process for asynchronous request.
+     */
+    @FunctionalInterface
+    public static interface AsyncFinishing {
+
+        /**
+         * @param cause The exception of the asynchronous process. (NullAllowed: when success)
+         */
+        void finish(Throwable cause);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.lastaflute.web.servlet.request;
 
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -121,6 +123,15 @@ public interface RequestManager extends ScopedAttributeHolder {
      */
     String getRequestBody();
 
+    /**
+     * Get the reader of request body, for e.g. streaming parse of large JSON. <br>
+     * The body can be read only once so you cannot use it with {@link #getRequestBody()}.
+     * @return The reader of request body. (NotNull)
+     */
+    default Reader getRequestBodyReader() { // for compatible, override it to stream
+        return new StringReader(getRequestBody());
+    }
+
     // ===================================================================================
     //                                                                       Path Handling
     //                                                                       =============
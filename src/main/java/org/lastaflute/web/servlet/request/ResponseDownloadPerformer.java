@@ -15,23 +15,38 @@
  */
 package org.lastaflute.web.servlet.request;
 
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.lastaflute.web.exception.ResponseClientAbortIOException;
 import org.lastaflute.web.exception.ResponseDownloadFailureException;
+import org.lastaflute.web.servlet.request.stream.ParallelZipStreamAssembler;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
 import org.lastaflute.web.servlet.request.stream.WritternZipStreamCall;
 import org.lastaflute.web.servlet.request.stream.WritternZipStreamWriter;
+import org.lastaflute.web.servlet.request.stream.ZipEntryNonClosingOutputStream;
+import org.lastaflute.web.util.LaResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +60,12 @@ public class ResponseDownloadPerformer {
     //                                                                          ==========
     private static final Logger logger = LoggerFactory.getLogger(ResponseDownloadPerformer.class);
     protected static final String LF = "\n";
+    protected static final String CRLF = "\r\n";
+    protected static final int RANGE_COUNT_LIMIT = 16; // more ranges are ignored (whole file) for safety
+    protected static final String TOMCAT_SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    protected static final String TOMCAT_SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    protected static final String TOMCAT_SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    protected static final String TOMCAT_SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     // ===================================================================================
     //                                                                           Byte Data
@@ -104,13 +125,18 @@ public class ResponseDownloadPerformer {
     //                                                                          Zip Stream
     //                                                                          ==========
     public void downloadZipStreamCall(ResponseDownloadResource resource, HttpServletResponse response) {
+        final Integer parallelism = resource.getZipStreamParallelism();
+        if (parallelism != null && parallelism > 1) {
+            downloadZipStreamParallel(resource, response, parallelism);
+            return;
+        }
         try (ZipOutputStream zipOus = new ZipOutputStream(response.getOutputStream(), getZipOutputCharset(resource))) {
             final Map<String, WritternZipStreamWriter> zipWriterMap = createZipWriterMap(resource);
+            final OutputStream entryOus = new ZipEntryNonClosingOutputStream(zipOus); // writers cannot close zip
             zipWriterMap.forEach((fileName, writer) -> {
-                try (ByteArrayOutputStream byteOus = new ByteArrayOutputStream()) {
-                    writer.write(byteOus);
+                try {
                     zipOus.putNextEntry(new ZipEntry(fileName));
-                    byteOus.writeTo(zipOus);
+                    writer.write(entryOus); // directly, not to keep whole entry on heap
                 } catch (IOException e) {
                     handleDownloadIOException(resource, fileName, e);
                 } finally {
@@ -126,6 +152,22 @@ public class ResponseDownloadPerformer {
         }
     }
 
+    protected void downloadZipStreamParallel(ResponseDownloadResource resource, HttpServletResponse response, int parallelism) {
+        try (OutputStream out = response.getOutputStream()) {
+            final Map<String, WritternZipStreamWriter> zipWriterMap = createZipWriterMap(resource);
+            final ParallelZipStreamAssembler assembler = createParallelZipStreamAssembler(resource, parallelism);
+            assembler.assemble(out, zipWriterMap, (fileName, e) -> {
+                handleDownloadIOException(resource, fileName, e);
+            });
+        } catch (IOException e) {
+            handleDownloadIOException(resource, e);
+        }
+    }
+
+    protected ParallelZipStreamAssembler createParallelZipStreamAssembler(ResponseDownloadResource resource, int parallelism) {
+        return new ParallelZipStreamAssembler(getZipOutputCharset(resource), parallelism);
+    }
+
     protected Charset getZipOutputCharset(ResponseDownloadResource resource) {
         return Charset.forName(resource.getZipStreamCall().zipStreamEncoding());
     }
@@ -144,6 +186,301 @@ public class ResponseDownloadPerformer {
         return writerMap;
     }
 
+    // ===================================================================================
+    //                                                                       File Transfer
+    //                                                                       =============
+    public void downloadFile(ResponseDownloadResource resource, HttpServletRequest request, HttpServletResponse response) {
+        final Path file = resource.getFile();
+        if (file == null) {
+            String msg = "The file is required: " + resource;
+            throw new IllegalArgumentException(msg);
+        }
+        try {
+            final long length = Files.size(file);
+            final long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000L * 1000L; // HTTP date is by seconds
+            final String eTag = prepareFileETag(response, length, lastModified);
+            response.setHeader("Accept-Ranges", "bytes");
+            if (response.getHeader("Last-Modified") == null) {
+                response.setDateHeader("Last-Modified", lastModified);
+            }
+            if (isNotModified(request, eTag, lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            final List<DownloadByteRange> rangeList = prepareByteRangeList(request, eTag, lastModified, length);
+            if (rangeList == null) { // whole file
+                response.setContentLengthLong(length);
+                if (!isHeadRequest(request)) {
+                    transferFileRange(request, response, file, new DownloadByteRange(0L, length - 1L));
+                }
+            } else if (rangeList.isEmpty()) { // unsatisfiable
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + length);
+            } else if (rangeList.size() == 1) {
+                final DownloadByteRange range = rangeList.get(0);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", range.toContentRange(length));
+                response.setContentLengthLong(range.getLength());
+                transferFileRange(request, response, file, range);
+            } else {
+                transferMultipleRanges(resource, response, file, rangeList, length);
+            }
+        } catch (RuntimeException e) {
+            throw new ResponseDownloadFailureException("Failed to download the file: " + resource, e);
+        } catch (IOException e) {
+            handleDownloadIOException(resource, e);
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                           Conditional
+    //                                           -----------
+    protected String prepareFileETag(HttpServletResponse response, long length, long lastModified) {
+        final String specified = response.getHeader("ETag"); // e.g. by header() of response
+        if (specified != null) {
+            return specified;
+        }
+        final String eTag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+        response.setHeader("ETag", eTag);
+        return eTag;
+    }
+
+    protected boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+        if (!isGetRequest(request) && !isHeadRequest(request)) {
+            return false;
+        }
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) { // prior to If-Modified-Since
+            return matchesETag(ifNoneMatch, eTag);
+        }
+        final long ifModifiedSince = findDateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0L && lastModified <= ifModifiedSince;
+    }
+
+    protected boolean matchesETag(String headerValue, String eTag) { // weak comparison
+        return LaResponseUtil.matchesIfNoneMatch(headerValue, eTag);
+    }
+
+    protected long findDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name); // minus one if no header
+        } catch (IllegalArgumentException ignored) { // invalid format is ignored as no header
+            return -1L;
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                                 Range
+    //                                                 -----
+    /**
+     * @param request The request for the file. (NotNull)
+     * @param eTag The entity tag of the file. (NotNull)
+     * @param lastModified The last-modified time of the file as millisecond.
+     * @param length The length of the file.
+     * @return The list of ranges to be sent. (NullAllowed: whole file, EmptyAllowed: unsatisfiable)
+     */
+    protected List<DownloadByteRange> prepareByteRangeList(HttpServletRequest request, String eTag, long lastModified, long length) {
+        final String rangeHeader = request.getHeader("Range");
+        if (rangeHeader == null || length == 0L || !isGetRequest(request)) {
+            return null;
+        }
+        final String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !isIfRangeMatched(request, ifRange.trim(), eTag, lastModified)) {
+            return null; // changed so whole file
+        }
+        return parseByteRanges(rangeHeader, length);
+    }
+
+    protected boolean isIfRangeMatched(HttpServletRequest request, String ifRange, String eTag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) { // entity tag, strong comparison
+            return !eTag.startsWith("W/") && ifRange.equals(eTag);
+        }
+        return findDateHeader(request, "If-Range") == lastModified;
+    }
+
+    /**
+     * Parse the value of Range header, e.g. "bytes=0-499", "bytes=500-", "bytes=-500", "bytes=0-0,-1".
+     * @param rangeHeader The value of Range header. (NotNull)
+     * @param length The length of the file. (Positive)
+     * @return The list of satisfiable ranges. (NullAllowed: invalid so whole file, EmptyAllowed: unsatisfiable)
+     */
+    protected List<DownloadByteRange> parseByteRanges(String rangeHeader, long length) {
+        final String trimmed = rangeHeader.trim();
+        if (!trimmed.startsWith("bytes=")) {
+            return null;
+        }
+        final String[] specs = trimmed.substring("bytes=".length()).split(",");
+        if (specs.length > RANGE_COUNT_LIMIT) {
+            return null;
+        }
+        final List<DownloadByteRange> rangeList = new ArrayList<DownloadByteRange>(specs.length);
+        for (String spec : specs) {
+            final int dashIndex = spec.indexOf('-');
+            if (dashIndex < 0) {
+                return null;
+            }
+            final String first = spec.substring(0, dashIndex).trim();
+            final String last = spec.substring(dashIndex + 1).trim();
+            try {
+                if (first.isEmpty()) { // suffix range
+                    if (last.isEmpty()) {
+                        return null;
+                    }
+                    final long suffix = Long.parseLong(last);
+                    if (suffix < 0L) {
+                        return null;
+                    }
+                    if (suffix > 0L) {
+                        rangeList.add(new DownloadByteRange(Math.max(0L, length - suffix), length - 1L));
+                    }
+                } else {
+                    final long start = Long.parseLong(first);
+                    final long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (start < 0L || end < start) {
+                        return null;
+                    }
+                    if (start < length) { // satisfiable
+                        rangeList.add(new DownloadByteRange(start, Math.min(end, length - 1L)));
+                    }
+                }
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return rangeList;
+    }
+
+    /**
+     * The range of bytes in the file, both inclusive.
+     */
+    public static class DownloadByteRange {
+
+        protected final long start;
+        protected final long end;
+
+        public DownloadByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public String toContentRange(long length) {
+            return "bytes " + start + "-" + end + "/" + length;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getLength() {
+            return end - start + 1L;
+        }
+
+        @Override
+        public String toString() {
+            return start + "-" + end;
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                              Transfer
+    //                                              --------
+    protected void transferFileRange(HttpServletRequest request, HttpServletResponse response, Path file, DownloadByteRange range)
+            throws IOException {
+        if (range.getLength() <= 0L) {
+            return;
+        }
+        if (isContainerSendfileAvailable(request, response)) { // container sends it after request
+            request.setAttribute(TOMCAT_SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(TOMCAT_SENDFILE_START, range.getStart());
+            request.setAttribute(TOMCAT_SENDFILE_END, range.getEnd() + 1L); // exclusive
+            return;
+        }
+        final OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transferFileChannel(channel, range, out);
+        }
+        flushDownloadStream(out);
+    }
+
+    protected boolean isContainerSendfileAvailable(HttpServletRequest request, HttpServletResponse response) {
+        // wrapped response may convert the body (e.g. compression) so it cannot be bypassed
+        return Boolean.TRUE.equals(request.getAttribute(TOMCAT_SENDFILE_SUPPORT)) && !(response instanceof HttpServletResponseWrapper);
+    }
+
+    protected void transferMultipleRanges(ResponseDownloadResource resource, HttpServletResponse response, Path file,
+            List<DownloadByteRange> rangeList, long length) throws IOException {
+        final String boundary = "LASTA_BYTERANGES_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        final String partContentType = resource.getContentType();
+        final List<byte[]> partHeaderList = new ArrayList<byte[]>(rangeList.size());
+        long contentLength = 0L;
+        for (DownloadByteRange range : rangeList) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(CRLF).append("--").append(boundary);
+            if (partContentType != null) {
+                sb.append(CRLF).append("Content-Type: ").append(partContentType);
+            }
+            sb.append(CRLF).append("Content-Range: ").append(range.toContentRange(length));
+            sb.append(CRLF).append(CRLF);
+            final byte[] partHeader = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+            partHeaderList.add(partHeader);
+            contentLength += partHeader.length + range.getLength();
+        }
+        final byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.ISO_8859_1);
+        contentLength += closing.length;
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        final OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < rangeList.size(); i++) {
+                writeDownloadBytes(out, partHeaderList.get(i));
+                transferFileChannel(channel, rangeList.get(i), out);
+            }
+            writeDownloadBytes(out, closing);
+        }
+        flushDownloadStream(out);
+    }
+
+    protected void transferFileChannel(FileChannel channel, DownloadByteRange range, OutputStream out) throws IOException {
+        // not zero-copy: servlet output stream is not socket channel so transferTo() copies via buffer
+        // (zero-copy is only by container sendfile, see transferFileRange())
+        final WritableByteChannel target = Channels.newChannel(out);
+        long position = range.getStart();
+        long remaining = range.getLength();
+        try {
+            while (remaining > 0L) {
+                final long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0L && position >= channel.size()) { // truncated while downloading
+                    throw new EOFException("The file was truncated while downloading: position=" + position);
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } catch (IOException e) {
+            throwDownloadIOException(e);
+        }
+    }
+
+    protected void writeDownloadBytes(OutputStream out, byte[] bytes) throws IOException {
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throwDownloadIOException(e);
+        }
+    }
+
+    protected boolean isGetRequest(HttpServletRequest request) {
+        return "GET".equalsIgnoreCase(request.getMethod());
+    }
+
+    protected boolean isHeadRequest(HttpServletRequest request) {
+        return "HEAD".equalsIgnoreCase(request.getMethod());
+    }
+
     // ===================================================================================
     //                                                                        Stream Logic
     //                                                                        ============
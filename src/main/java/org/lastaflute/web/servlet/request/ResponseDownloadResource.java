@@ -15,6 +15,7 @@
  */
 package org.lastaflute.web.servlet.request;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 import org.dbflute.helper.StringKeyMap;
@@ -35,6 +36,8 @@ public class ResponseDownloadResource {
     protected byte[] byteData;
     protected WritternStreamCall streamCall;
     protected WritternZipStreamCall zipStreamCall;
+    protected Integer zipStreamParallelism; // null allowed: sequential
+    protected Path file; // null allowed
     protected Integer contentLength;
     protected boolean returnAsEmptyBody;
 
@@ -124,6 +127,9 @@ public class ResponseDownloadResource {
         if (zipStreamCall != null) {
             throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
         }
+        if (file != null) {
+            throw new IllegalStateException("The file already exists: " + file);
+        }
         this.byteData = data;
     }
 
@@ -146,6 +152,9 @@ public class ResponseDownloadResource {
         if (zipStreamCall != null) {
             throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
         }
+        if (file != null) {
+            throw new IllegalStateException("The file already exists: " + file);
+        }
         this.streamCall = streamCall;
     }
 
@@ -162,9 +171,44 @@ public class ResponseDownloadResource {
         if (streamCall != null) {
             throw new IllegalStateException("The streamCall already exists: " + streamCall);
         }
+        if (file != null) {
+            throw new IllegalStateException("The file already exists: " + file);
+        }
         this.zipStreamCall = zipStreamCall;
     }
 
+    /**
+     * Deflate the zip entries in parallel by worker threads, assembled in registered order.
+     * @param parallelism The count of worker threads, one means sequential. (Positive)
+     * @return this. (NotNull)
+     */
+    public ResponseDownloadResource zipStreamParallel(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'parallelism' should be positive: " + parallelism);
+        }
+        this.zipStreamParallelism = parallelism;
+        return this;
+    }
+
+    public ResponseDownloadResource file(Path file) {
+        doFile(file);
+        return this;
+    }
+
+    protected void doFile(Path file) {
+        assertArgumentNotNull("file", file);
+        if (byteData != null) {
+            throw new IllegalStateException("The byte data already exists: " + byteData);
+        }
+        if (streamCall != null) {
+            throw new IllegalStateException("The streamCall already exists: " + streamCall);
+        }
+        if (zipStreamCall != null) {
+            throw new IllegalStateException("The zipStreamCall already exists: " + zipStreamCall);
+        }
+        this.file = file;
+    }
+
     public boolean hasByteData() {
         return byteData != null;
     }
@@ -189,6 +233,18 @@ public class ResponseDownloadResource {
         return zipStreamCall;
     }
 
+    public Integer getZipStreamParallelism() {
+        return zipStreamParallelism;
+    }
+
+    public boolean hasFile() {
+        return file != null;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
     public Integer getContentLength() {
         return contentLength;
     }
@@ -16,6 +16,7 @@
 package org.lastaflute.web.servlet.request;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -23,6 +24,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.dbflute.optional.OptionalThing;
 import org.lastaflute.core.message.UserMessages;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 
 /**
  * The manager of response. (response facade)
@@ -37,6 +39,7 @@ public interface ResponseManager {
     String HEADER_PRAGMA = "Pragma";
     String HEADER_CACHE_CONTROL = "Cache-Control";
     String HEADER_EXPIRES = "Expires";
+    String HEADER_ETAG = "ETag";
 
     // ===================================================================================
     //                                                                      Basic Handling
@@ -117,6 +120,45 @@ public interface ResponseManager {
      */
     void writeAsXml(String xmlStr, String encoding);
 
+    /**
+     * Write text to the response by streaming, without building whole text. <br>
+     * The writer in the callback is buffered by pooled buffer.
+     * @param textCall The callback to write text to the writer. (NotNull)
+     * @param contentType The content type of the response. (NotNull)
+     */
+    default void write(WritternTextCall textCall, String contentType) { // for compatible, override it to stream
+        write(buildTextForDefault(textCall), contentType);
+    }
+
+    /**
+     * @param jsonCall The callback to write JSON to the writer. (NotNull)
+     */
+    default void writeAsJson(WritternTextCall jsonCall) { // for compatible, override it to stream
+        writeAsJson(buildTextForDefault(jsonCall));
+    }
+
+    /**
+     * @param scriptCall The callback to write script to the writer. (NotNull)
+     */
+    default void writeAsJavaScript(WritternTextCall scriptCall) { // for compatible, override it to stream
+        writeAsJavaScript(buildTextForDefault(scriptCall));
+    }
+
+    /**
+     * Build whole text by the callback, only for default methods.
+     * @param textCall The callback to write text to the writer. (NotNull)
+     * @return The built text. (NotNull, EmptyAllowed)
+     */
+    default String buildTextForDefault(WritternTextCall textCall) {
+        final StringWriter writer = new StringWriter();
+        try {
+            textCall.callback(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write the text by the callback: " + textCall, e);
+        }
+        return writer.toString();
+    }
+
     // ===================================================================================
     //                                                                   Download Response
     //                                                                   =================
@@ -193,6 +235,37 @@ public interface ResponseManager {
      */
     void setResponseStatus(int sc);
 
+    // ===================================================================================
+    //                                                                Conditional Response
+    //                                                                ====================
+    /**
+     * Set ETag made from the version to response header, and set 304 (not modified) status
+     * if it matches If-None-Match of the request. <br>
+     * It is for skipping action logic by cheap version before building result.
+     * <pre>
+     * <span style="color: #70226C">if</span> (<span style="color: #0000C0">responseManager</span>.<span style="color: #CC4747">checkNotModified</span>("product-" + productId + "-" + versionNo)) {
+     *     <span style="color: #70226C">return</span> JsonResponse.asEmptyBody(); <span style="color: #3F7E5E">// 304 without body</span>
+     * }
+     * <span style="color: #3F7E5E">// build the result as usual, the ETag is sent with it</span>
+     * </pre>
+     * @param version The cheap version expression of the resource, e.g. version no, update date. (NotNull)
+     * @return The determination, true if not modified. (then 304 status is already set)
+     */
+    default boolean checkNotModified(String version) { // for compatible, override it to support conditional response
+        return false; // always modified, no ETag
+    }
+
+    /**
+     * Set strong ETag hashed from the body to response header, and set 304 (not modified) status
+     * if it matches If-None-Match of the request. <br>
+     * The body should not be written if true. (used by auto ETag of action response)
+     * @param body The whole body text to be written. (NotNull)
+     * @return The determination, true if not modified. (then 304 status is already set)
+     */
+    default boolean checkNotModifiedByBody(String body) { // for compatible, override it to support conditional response
+        return false; // always written, no ETag
+    }
+
     // ===================================================================================
     //                                                                        Client Error
     //                                                                        ============
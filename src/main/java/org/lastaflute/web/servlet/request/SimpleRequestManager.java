@@ -17,6 +17,7 @@ package org.lastaflute.web.servlet.request;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -241,6 +242,11 @@ public class SimpleRequestManager implements RequestManager {
         }
     }
 
+    @Override
+    public Reader getRequestBodyReader() {
+        return prepareRequestBodyReader();
+    }
+
     protected BufferedReader prepareRequestBodyReader() {
         final HttpServletRequest request = getRequest();
         final BufferedReader reader;
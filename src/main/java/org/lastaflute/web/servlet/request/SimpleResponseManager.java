@@ -18,6 +18,7 @@ package org.lastaflute.web.servlet.request;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -36,7 +37,9 @@ import org.lastaflute.web.exception.Forced400BadRequestException;
 import org.lastaflute.web.exception.Forced403ForbiddenException;
 import org.lastaflute.web.exception.Forced404NotFoundException;
 import org.lastaflute.web.path.ActionPathResolver;
+import org.lastaflute.web.servlet.request.stream.PooledBufferedWriter;
 import org.lastaflute.web.servlet.request.stream.WritternStreamCall;
+import org.lastaflute.web.servlet.request.stream.WritternTextCall;
 import org.lastaflute.web.util.LaRequestUtil;
 import org.lastaflute.web.util.LaResponseUtil;
 import org.slf4j.Logger;
@@ -208,6 +211,35 @@ public class SimpleResponseManager implements ResponseManager {
         write(xmlStr, contentType, encoding);
     }
 
+    @Override
+    public void write(WritternTextCall textCall, String contentType) {
+        assertArgumentNotNull("textCall", textCall);
+        assertArgumentNotNull("contentType", contentType);
+        doWrite(textCall, contentType, null);
+    }
+
+    @Override
+    public void writeAsJson(WritternTextCall jsonCall) {
+        assertArgumentNotNull("jsonCall", jsonCall);
+        final String contentType = "application/json";
+        showWritingStreamingResponse(contentType);
+        write(jsonCall, contentType);
+    }
+
+    @Override
+    public void writeAsJavaScript(WritternTextCall scriptCall) {
+        assertArgumentNotNull("scriptCall", scriptCall);
+        final String contentType = "application/javascript";
+        showWritingStreamingResponse(contentType);
+        write(scriptCall, contentType);
+    }
+
+    protected void showWritingStreamingResponse(String contentType) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("#flow ...Writing response as {} by streaming", contentType);
+        }
+    }
+
     protected void showWritingResponse(String value, String contentType) {
         if (logger.isDebugEnabled()) {
             // to suppress noisy big data (no need all data for debug: also you can see it by response)
@@ -255,6 +287,64 @@ public class SimpleResponseManager implements ResponseManager {
         }
     }
 
+    protected void doWrite(WritternTextCall textCall, String contentType, String encoding) {
+        if (encoding == null) {
+            encoding = LaRequestUtil.getRequest().getCharacterEncoding();
+            if (encoding == null) {
+                encoding = "UTF-8";
+            }
+        }
+        doWriteByStreaming(getResponse(), textCall, contentType, encoding);
+    }
+
+    protected void doWriteByStreaming(HttpServletResponse response, WritternTextCall textCall, String contentType, String encoding) {
+        response.setContentType(contentType + "; charset=" + encoding);
+        Writer out = null;
+        boolean completed = false;
+        try {
+            // no whole text in memory, written with pooled buffer
+            out = newResponseStreamingWriter(response, encoding);
+            textCall.callback(out);
+            out.close(); // flush and close only when completed
+            completed = true;
+        } catch (IOException e) {
+            String msg = "Failed to write the text by streaming: contentType=" + contentType + ", encoding=" + encoding;
+            throw new IllegalStateException(msg, e);
+        } finally {
+            if (!completed) { // e.g. serialization or element validation failure in the middle of stream
+                handleStreamingFailure(response, out);
+            }
+        }
+    }
+
+    protected void handleStreamingFailure(HttpServletResponse response, Writer out) {
+        if (out instanceof PooledBufferedWriter) {
+            ((PooledBufferedWriter) out).discard(); // neither flushed nor closed, not to finish the body
+        }
+        if (!response.isCommitted()) {
+            response.resetBuffer(); // so the thrown exception can be handled as error response
+        } else { // too late to reset
+            abortCommittedStreaming(response);
+        }
+    }
+
+    /**
+     * Abort the response committed before the failure in the middle of streaming. <br>
+     * The body is not finished (not flushed, not closed) and the exception is thrown to the container,
+     * which closes the connection for error of committed response (e.g. Tomcat),
+     * so that the client does not receive truncated text looking well-formed as success.
+     * @param response The committed response. (NotNull)
+     */
+    protected void abortCommittedStreaming(HttpServletResponse response) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("...Aborting the committed response by failure in the middle of streaming: status=" + response.getStatus());
+        }
+    }
+
+    protected Writer newResponseStreamingWriter(HttpServletResponse response, String encoding) throws IOException {
+        return new PooledBufferedWriter(new OutputStreamWriter(response.getOutputStream(), encoding));
+    }
+
     // ===================================================================================
     //                                                                   Download Response
     //                                                                   =================
@@ -305,6 +395,8 @@ public class SimpleResponseManager implements ResponseManager {
             doDownloadStreamCall(resource, response);
         } else if (resource.hasZipStreamCall()) {
             doDownloadZipStreamCall(resource, response);
+        } else if (resource.hasFile()) {
+            doDownloadFile(resource, response);
         } else {
             throw new IllegalStateException("Unknown download resource: " + resource);
         }
@@ -354,6 +446,11 @@ public class SimpleResponseManager implements ResponseManager {
         createResponseDownloadPerformer().downloadZipStreamCall(resource, response);
     }
 
+    protected void doDownloadFile(ResponseDownloadResource resource, HttpServletResponse response) {
+        final HttpServletRequest request = getRequestManager().getRequest(); // for range and conditional headers
+        createResponseDownloadPerformer().downloadFile(resource, request, response);
+    }
+
     protected ResponseDownloadPerformer createResponseDownloadPerformer() {
         return new ResponseDownloadPerformer();
     }
@@ -387,6 +484,91 @@ public class SimpleResponseManager implements ResponseManager {
         getResponse().setStatus(sc);
     }
 
+    // ===================================================================================
+    //                                                                Conditional Response
+    //                                                                ====================
+    @Override
+    public boolean checkNotModified(String version) {
+        assertArgumentNotNull("version", version);
+        return doCheckNotModified(buildVersionETag(version));
+    }
+
+    @Override
+    public boolean checkNotModifiedByBody(String body) {
+        assertArgumentNotNull("body", body);
+        return doCheckNotModified(buildBodyETag(body));
+    }
+
+    protected boolean doCheckNotModified(String eTag) {
+        final HttpServletRequest request = getRequestManager().getRequest();
+        final String method = request.getMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) { // e.g. update request is not cached
+            return false;
+        }
+        final HttpServletResponse response = getResponse();
+        response.setHeader(HEADER_ETAG, eTag);
+        final String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && matchesETag(ifNoneMatch, eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    protected String buildVersionETag(String version) {
+        if (isETagCharacters(version)) {
+            return "\"" + version + "\""; // as it is for debug
+        }
+        return "\"" + Long.toHexString(hashETagText(version)) + "\""; // e.g. space, quote
+    }
+
+    protected boolean isETagCharacters(String version) {
+        if (version.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < version.length(); i++) {
+            final char ch = version.charAt(i);
+            if (ch <= 0x20 || ch == '"' || ch >= 0x7f) { // visible ASCII except double quote
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected String buildBodyETag(String body) {
+        return "\"" + Long.toHexString(hashETagText(body)) + "-" + Integer.toHexString(body.length()) + "\"";
+    }
+
+    /**
+     * Hash the text by fast non-cryptographic 64-bit hash, four chars are mixed at once. <br>
+     * It is only for ETag so it should not be used for security.
+     * @param text The text to be hashed. (NotNull)
+     * @return The hash value of the text.
+     */
+    protected long hashETagText(String text) {
+        final int length = text.length();
+        long hash = 0x9E3779B97F4A7C15L ^ length;
+        int index = 0;
+        for (; index + 4 <= length; index += 4) {
+            final long block = text.charAt(index) | ((long) text.charAt(index + 1) << 16) //
+                    | ((long) text.charAt(index + 2) << 32) | ((long) text.charAt(index + 3) << 48);
+            hash = Long.rotateLeft(hash ^ (block * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+        }
+        for (; index < length; index++) {
+            hash = Long.rotateLeft(hash ^ (text.charAt(index) * 0x165667B19E3779F9L), 23) * 0xC2B2AE3D27D4EB4FL;
+        }
+        hash ^= hash >>> 33; // finalizer of MurmurHash3 for avalanche
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    protected boolean matchesETag(String ifNoneMatch, String eTag) { // weak comparison for If-None-Match
+        return LaResponseUtil.matchesIfNoneMatch(ifNoneMatch, eTag);
+    }
+
     // ===================================================================================
     //                                                                        Client Error
     //                                                                        ============
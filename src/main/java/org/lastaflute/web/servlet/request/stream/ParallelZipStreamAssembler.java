@@ -0,0 +1,468 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.stream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The assembler of zip stream whose entries are deflated in parallel by worker threads. <br>
+ * Each entry is deflated into temporary file (not on heap) and they are written in registered order
+ * with zip headers, so the result is the same format as ZipOutputStream (without zip64 extension).
+ * @author jflute
+ */
+public class ParallelZipStreamAssembler {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    protected static final int ENTRY_COUNT_LIMIT = 0xFFFF;
+    protected static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    protected static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    protected static final int END_OF_CENTRAL_SIGNATURE = 0x06054b50;
+    protected static final int VERSION_DEFLATED = 20;
+    protected static final int METHOD_DEFLATED = 8;
+    protected static final int FLAG_UTF8 = 0x0800;
+    protected static final int BUFFER_SIZE = 8192;
+    protected static final AtomicInteger workerNumber = new AtomicInteger();
+
+    /**
+     * The handler of I/O failure of entry, which may throw or continue (e.g. client abort).
+     */
+    @FunctionalInterface
+    public static interface ZipEntryIOExceptionHandler {
+
+        void handle(String fileName, IOException cause);
+    }
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Charset charset; // not null
+    protected final int parallelism; // positive
+    protected final int dosTime; // time of entries, same as ZipEntry default
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public ParallelZipStreamAssembler(Charset charset, int parallelism) {
+        if (charset == null) {
+            throw new IllegalArgumentException("The argument 'charset' should not be null.");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The argument 'parallelism' should be positive: " + parallelism);
+        }
+        this.charset = charset;
+        this.parallelism = parallelism;
+        this.dosTime = toDosTime(LocalDateTime.now());
+    }
+
+    protected int toDosTime(LocalDateTime time) {
+        final int year = time.getYear();
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16 | time.getHour() << 11
+                | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    // ===================================================================================
+    //                                                                            Assemble
+    //                                                                            ========
+    /**
+     * @param out The output stream of the zip, not closed here. (NotNull)
+     * @param writerMap The ordered map of writers keyed by file name. (NotNull, NotEmpty)
+     * @param entryHandler The handler of entry I/O failure. (NotNull)
+     * @throws IOException When it fails to write the zip.
+     */
+    public void assemble(OutputStream out, Map<String, WritternZipStreamWriter> writerMap, ZipEntryIOExceptionHandler entryHandler)
+            throws IOException {
+        if (writerMap.size() > ENTRY_COUNT_LIMIT) {
+            throw new IOException("Too many entries for parallel zip (use sequential): " + writerMap.size());
+        }
+        final ExecutorService service = getWorkerService();
+        final List<Entry<String, WritternZipStreamWriter>> entryList =
+                new ArrayList<Entry<String, WritternZipStreamWriter>>(writerMap.entrySet());
+        final List<Future<DeflatedZipEntry>> futureList = new ArrayList<Future<DeflatedZipEntry>>(entryList.size());
+        final ZipTempFileTracker tracker = new ZipTempFileTracker();
+        try {
+            final ZipCountingOutputStream zipOut = new ZipCountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            final List<ZipCentralRecord> recordList = new ArrayList<ZipCentralRecord>(entryList.size());
+            for (int index = 0; index < entryList.size(); index++) {
+                final int aheadLimit = Math.min(entryList.size(), index + parallelism); // deflated ahead by parallelism
+                while (futureList.size() < aheadLimit) {
+                    final Entry<String, WritternZipStreamWriter> entry = entryList.get(futureList.size());
+                    futureList.add(service.submit(() -> deflateEntry(entry.getKey(), entry.getValue(), tracker)));
+                }
+                final String fileName = entryList.get(index).getKey();
+                final DeflatedZipEntry deflated;
+                try {
+                    deflated = waitForDeflated(futureList.get(index));
+                } catch (IOException e) {
+                    entryHandler.handle(fileName, e);
+                    continue;
+                }
+                try {
+                    recordList.add(writeLocalEntry(zipOut, deflated));
+                } catch (IOException e) {
+                    entryHandler.handle(fileName, e);
+                } finally {
+                    deflated.deleteTempFile();
+                }
+            }
+            writeCentralDirectory(zipOut, recordList);
+            zipOut.flush();
+        } finally {
+            cancelFutures(futureList);
+            tracker.close(); // also temp files of cancelled or abandoned entries
+        }
+    }
+
+    /**
+     * Get the executor service for deflating entries. <br>
+     * It is shared by all assemblers and bounded (the caller runs it if full),
+     * and each assembly uses its parallelism as the count of entries deflated ahead.
+     * @return The executor service of workers, not shut down by assembler. (NotNull)
+     */
+    protected ExecutorService getWorkerService() {
+        return SharedWorkerServiceHolder.service;
+    }
+
+    protected static class SharedWorkerServiceHolder { // lazy loading
+
+        protected static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+        protected static final int QUEUE_CAPACITY = THREAD_COUNT * 16;
+        protected static final ExecutorService service = createSharedWorkerService();
+
+        protected static ExecutorService createSharedWorkerService() {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY), runnable -> {
+                        final Thread thread = new Thread(runnable, "lasta_zip_deflater_" + workerNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy()); // backpressure to request thread
+            executor.allowCoreThreadTimeOut(true); // no idle threads
+            return executor;
+        }
+    }
+
+    protected DeflatedZipEntry waitForDeflated(Future<DeflatedZipEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for deflating zip entry.");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Failed to deflate the zip entry.", cause);
+            }
+        }
+    }
+
+    protected void cancelFutures(List<Future<DeflatedZipEntry>> futureList) {
+        for (Future<DeflatedZipEntry> future : futureList) {
+            future.cancel(true); // no problem if already done, temp files are deleted by tracker
+        }
+    }
+
+    /**
+     * The tracker of temporary files in one assembly to delete them all at the end,
+     * even if the entry is cancelled or abandoned (e.g. client abort).
+     */
+    protected static class ZipTempFileTracker {
+
+        protected final Set<Path> tempFileSet = ConcurrentHashMap.newKeySet();
+        protected volatile boolean closed;
+
+        public void register(Path tempFile) {
+            tempFileSet.add(tempFile);
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public void close() {
+            closed = true; // deflating tasks after this delete their own files
+            for (Path tempFile : tempFileSet) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) { // temp directory may be cleaned by OS
+                }
+            }
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             Deflate
+    //                                                                             =======
+    protected DeflatedZipEntry deflateEntry(String fileName, WritternZipStreamWriter writer, ZipTempFileTracker tracker)
+            throws IOException {
+        final Path tempFile = Files.createTempFile("lasta_zip_", ".deflated");
+        tracker.register(tempFile); // before checking closed
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true); // raw deflate for zip
+        boolean success = false;
+        try {
+            final ZipRawOutputStream rawOus;
+            try (OutputStream fileOus = new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE)) {
+                final DeflaterOutputStream deflaterOus = new DeflaterOutputStream(fileOus, deflater, BUFFER_SIZE);
+                rawOus = new ZipRawOutputStream(deflaterOus);
+                writer.write(rawOus);
+                deflaterOus.finish();
+            }
+            if (tracker.isClosed() || Thread.currentThread().isInterrupted()) { // cancelled, so the result is not used
+                throw new InterruptedIOException("Cancelled deflating zip entry: " + fileName);
+            }
+            final DeflatedZipEntry entry =
+                    new DeflatedZipEntry(fileName, rawOus.getCrc(), rawOus.getSize(), deflater.getBytesWritten(), tempFile);
+            success = true;
+            return entry;
+        } finally {
+            deflater.end();
+            if (!success) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * The stream of raw (before deflating) data calculating CRC and size, which does not close the deflater.
+     */
+    protected static class ZipRawOutputStream extends OutputStream {
+
+        protected final OutputStream deflaterOus;
+        protected final CRC32 crc = new CRC32();
+        protected long size;
+
+        public ZipRawOutputStream(OutputStream deflaterOus) {
+            this.deflaterOus = deflaterOus;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            deflaterOus.write(b);
+            crc.update(b);
+            ++size;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            deflaterOus.write(b, off, len);
+            crc.update(b, off, len);
+            size += len;
+        }
+
+        @Override
+        public void close() { // finished by assembler
+        }
+
+        public long getCrc() {
+            return crc.getValue();
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The entry deflated in temporary file.
+     */
+    protected static class DeflatedZipEntry {
+
+        protected final String fileName;
+        protected final long crc;
+        protected final long size;
+        protected final long compressedSize;
+        protected final Path tempFile;
+
+        public DeflatedZipEntry(String fileName, long crc, long size, long compressedSize, Path tempFile) {
+            this.fileName = fileName;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.tempFile = tempFile;
+        }
+
+        public void deleteTempFile() throws IOException {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                        Write Header
+    //                                                                        ============
+    protected ZipCentralRecord writeLocalEntry(ZipCountingOutputStream zipOut, DeflatedZipEntry deflated) throws IOException {
+        final long offset = zipOut.getCount();
+        assertZip32(deflated.fileName, offset, deflated.size, deflated.compressedSize);
+        final byte[] nameBytes = deflated.fileName.getBytes(charset);
+        final ZipCentralRecord record = new ZipCentralRecord(nameBytes, deflated.crc, deflated.size, deflated.compressedSize, offset);
+        writeInt(zipOut, LOCAL_HEADER_SIGNATURE);
+        writeShort(zipOut, VERSION_DEFLATED);
+        writeCommonHeader(zipOut, record);
+        writeShort(zipOut, 0); // extra field length
+        zipOut.write(nameBytes);
+        try (InputStream ins = Files.newInputStream(deflated.tempFile)) {
+            final byte[] buf = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = ins.read(buf, 0, buf.length)) != -1) {
+                zipOut.write(buf, 0, n);
+            }
+        }
+        return record;
+    }
+
+    protected void writeCentralDirectory(ZipCountingOutputStream zipOut, List<ZipCentralRecord> recordList) throws IOException {
+        final long centralOffset = zipOut.getCount();
+        for (ZipCentralRecord record : recordList) {
+            writeInt(zipOut, CENTRAL_HEADER_SIGNATURE);
+            writeShort(zipOut, VERSION_DEFLATED); // version made by
+            writeShort(zipOut, VERSION_DEFLATED); // version needed to extract
+            writeCommonHeader(zipOut, record);
+            writeShort(zipOut, 0); // extra field length
+            writeShort(zipOut, 0); // comment length
+            writeShort(zipOut, 0); // disk number start
+            writeShort(zipOut, 0); // internal attributes
+            writeInt(zipOut, 0); // external attributes
+            writeInt(zipOut, (int) record.offset);
+            zipOut.write(record.nameBytes);
+        }
+        final long centralSize = zipOut.getCount() - centralOffset;
+        assertZip32("(central directory)", centralOffset, centralSize, 0L);
+        writeInt(zipOut, END_OF_CENTRAL_SIGNATURE);
+        writeShort(zipOut, 0); // number of this disk
+        writeShort(zipOut, 0); // disk of central directory
+        writeShort(zipOut, recordList.size());
+        writeShort(zipOut, recordList.size());
+        writeInt(zipOut, (int) centralSize);
+        writeInt(zipOut, (int) centralOffset);
+        writeShort(zipOut, 0); // comment length
+    }
+
+    // general purpose flag, method, time, date, crc, sizes, name length
+    protected void writeCommonHeader(OutputStream zipOut, ZipCentralRecord record) throws IOException {
+        writeShort(zipOut, StandardCharsets.UTF_8.equals(charset) ? FLAG_UTF8 : 0);
+        writeShort(zipOut, METHOD_DEFLATED);
+        writeInt(zipOut, dosTime);
+        writeInt(zipOut, (int) record.crc);
+        writeInt(zipOut, (int) record.compressedSize);
+        writeInt(zipOut, (int) record.size);
+        writeShort(zipOut, record.nameBytes.length);
+    }
+
+    protected void assertZip32(String fileName, long offset, long size, long compressedSize) throws IOException {
+        if (offset >= ZIP32_LIMIT || size >= ZIP32_LIMIT || compressedSize >= ZIP32_LIMIT) {
+            String msg = "Too large for parallel zip (use sequential): " + fileName + ", offset=" + offset + ", size=" + size;
+            throw new IOException(msg);
+        }
+    }
+
+    protected void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    protected void writeInt(OutputStream out, int value) throws IOException {
+        writeShort(out, value & 0xFFFF);
+        writeShort(out, (value >>> 16) & 0xFFFF);
+    }
+
+    /**
+     * The record of central directory.
+     */
+    protected static class ZipCentralRecord {
+
+        protected final byte[] nameBytes;
+        protected final long crc;
+        protected final long size;
+        protected final long compressedSize;
+        protected final long offset;
+
+        public ZipCentralRecord(byte[] nameBytes, long crc, long size, long compressedSize, long offset) {
+            this.nameBytes = nameBytes;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * The stream counting written bytes for offsets in the zip.
+     */
+    protected static class ZipCountingOutputStream extends OutputStream {
+
+        protected final OutputStream out;
+        protected long count;
+
+        public ZipCountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
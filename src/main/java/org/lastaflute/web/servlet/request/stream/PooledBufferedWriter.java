@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.stream;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * The buffered writer whose char buffer is borrowed from pool, for streaming response. <br>
+ * The buffer is returned to the pool when closed, so the writer cannot be used after close.
+ * @author jflute
+ */
+public class PooledBufferedWriter extends Writer {
+
+    // ===================================================================================
+    //                                                                          Definition
+    //                                                                          ==========
+    protected static final int BUFFER_SIZE = 8192;
+    protected static final int POOL_SIZE = 64; // over-size buffers are just garbage
+    protected static final ArrayBlockingQueue<char[]> bufferPool = new ArrayBlockingQueue<char[]>(POOL_SIZE);
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    protected final Writer destination; // not null
+    protected char[] buffer; // null after close
+    protected int position;
+
+    // ===================================================================================
+    //                                                                         Constructor
+    //                                                                         ===========
+    public PooledBufferedWriter(Writer destination) {
+        this.destination = destination;
+        this.buffer = borrowBuffer();
+    }
+
+    protected static char[] borrowBuffer() {
+        final char[] pooled = bufferPool.poll();
+        return pooled != null ? pooled : new char[BUFFER_SIZE];
+    }
+
+    protected static void returnBuffer(char[] buffer) {
+        bufferPool.offer(buffer); // ignored if full
+    }
+
+    // ===================================================================================
+    //                                                                               Write
+    //                                                                               =====
+    @Override
+    public void write(int c) throws IOException {
+        assertOpened();
+        if (position >= buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        assertOpened();
+        if (len >= buffer.length) { // large data, directly
+            flushBuffer();
+            destination.write(cbuf, off, len);
+            return;
+        }
+        if (len > buffer.length - position) {
+            flushBuffer();
+        }
+        System.arraycopy(cbuf, off, buffer, position, len);
+        position += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        assertOpened();
+        int current = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int copySize = Math.min(buffer.length - position, remaining);
+            str.getChars(current, current + copySize, buffer, position);
+            position += copySize;
+            current += copySize;
+            remaining -= copySize;
+            if (position >= buffer.length) {
+                flushBuffer();
+            }
+        }
+    }
+
+    protected void flushBuffer() throws IOException {
+        if (position > 0) {
+            destination.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Flush/Close
+    //                                                                         ===========
+    @Override
+    public void flush() throws IOException {
+        assertOpened();
+        flushBuffer();
+        destination.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) { // already closed
+            return;
+        }
+        try {
+            flushBuffer();
+            destination.close();
+        } finally {
+            final char[] closed = buffer;
+            buffer = null;
+            returnBuffer(closed);
+        }
+    }
+
+    /**
+     * Discard the buffered characters without flushing and closing the destination, e.g. when failure. <br>
+     * The buffer is returned to the pool, so the writer cannot be used after discard.
+     */
+    public void discard() {
+        if (buffer == null) { // already closed or discarded
+            return;
+        }
+        final char[] discarded = buffer;
+        buffer = null;
+        position = 0;
+        returnBuffer(discarded);
+    }
+
+    protected void assertOpened() throws IOException {
+        if (buffer == null) {
+            throw new IOException("The writer is already closed: " + destination);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.stream;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The callback to write text to response by streaming e.g. large JSON.
+ * @author jflute
+ */
+@FunctionalInterface
+public interface WritternTextCall {
+
+    /**
+     * @param writer The writer to response, buffered and not needed to close. (NotNull)
+     * @throws IOException When the writing failed.
+     */
+    void callback(Writer writer) throws IOException;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.servlet.request.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The output stream for zip entry that does not close the zip stream, flushing only. <br>
+ * Application writers may close the given stream (e.g. by try-with-resources of writer)
+ * but the zip stream should be continued to next entries.
+ * @author jflute
+ */
+public class ZipEntryNonClosingOutputStream extends OutputStream {
+
+    protected final OutputStream zipStream; // not null
+
+    public ZipEntryNonClosingOutputStream(OutputStream zipStream) {
+        this.zipStream = zipStream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        zipStream.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        zipStream.write(b, off, len); // directly, not byte by byte
+    }
+
+    @Override
+    public void flush() throws IOException {
+        zipStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush(); // not close the zip stream
+    }
+}
@@ -45,6 +45,32 @@ public class DoubleSubmitTokenMap implements Serializable { // to avoid map gene
         return tokenMap.remove(groupType);
     }
 
+    /**
+     * Does the saved token match with the specified token? (without removing)
+     * @param groupType The group type of the token. (NotNull)
+     * @param token The token to be compared, e.g. requested token. (NullAllowed: returns false)
+     * @return The determination, true if matched.
+     */
+    public boolean matches(Class<?> groupType, String token) {
+        return token != null && token.equals(tokenMap.get(groupType));
+    }
+
+    /**
+     * Remove the token of the group type and compare it with the specified token, atomically. <br>
+     * The saved token is removed even if unmatched, and only one thread can consume the token.
+     * @param groupType The group type of the token. (NotNull)
+     * @param token The token to be compared, e.g. requested token. (NullAllowed: returns false)
+     * @return The determination, true if the removed token matched.
+     */
+    public boolean consume(Class<?> groupType, String token) {
+        final String removed = tokenMap.remove(groupType); // atomic so removed only once
+        return removed != null && removed.equals(token);
+    }
+
+    public boolean has(Class<?> groupType) {
+        return tokenMap.containsKey(groupType);
+    }
+
     public boolean isEmpty() {
         return tokenMap.isEmpty();
     }
@@ -17,7 +17,9 @@ package org.lastaflute.web.token;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -52,6 +54,7 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     protected static final String ERRORS_APP_DOUBLE_SUBMIT_REQUEST = "errors.app.double.submit.request";
     protected static final Object DOUBLE_SUBMITTED_OBJ = new Object();
     protected static final Object SINGLE_SUBMITTED_OBJ = new Object();
+    protected static final int SESSION_LOCK_STRIPES = 64; // power of two
 
     // ===================================================================================
     //                                                                           Attribute
@@ -69,8 +72,29 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     /** Does it allow to call verifyToken() before validate()? */
     protected boolean allowsVerifyTokenBeforeValidation;
 
-    /** The time of previous process to keep for unique token */
-    protected long previousTimeMillis;
+    /** The time of previous process to keep for unique token, updated atomically */
+    protected final AtomicLong previousTimeMillis = new AtomicLong();
+
+    /** The random for salt of token, thread-safe so shared. (NotNull) */
+    protected final SecureRandom tokenRandom = new SecureRandom();
+
+    /** The prototype of message digest, cloned per generation, never updated itself. (NullAllowed: lazy loaded) */
+    protected volatile MessageDigest digestPrototype;
+
+    /**
+     * The locks for token map of session, striped by session ID. <br>
+     * Only session-attribute operations (create/put/remove) are locked per session,
+     * so requests of different users are not blocked each other. (NotNull)
+     */
+    protected final Object[] sessionLocks = createSessionLocks();
+
+    protected Object[] createSessionLocks() {
+        final Object[] locks = new Object[SESSION_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
 
     // ===================================================================================
     //                                                                          Initialize
@@ -106,22 +130,28 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     //                                                 Save
     //                                                ------
     @Override
-    public synchronized String saveToken(Class<?> groupType) {
+    public String saveToken(Class<?> groupType) {
         if (groupType == null) {
             throw new IllegalArgumentException("The argument 'groupType' should not be null.");
         }
         checkDoubleSubmitPreconditionExists(groupType);
-        final DoubleSubmitTokenMap tokenMap = getSessionTokenMap().orElseGet(() -> {
-            final DoubleSubmitTokenMap firstMap = new DoubleSubmitTokenMap();
-            requestManager.getSessionManager().setAttribute(getTransactionTokenKey(), firstMap);
-            return firstMap;
-        });
-        final String generated = generateToken(groupType);
+        final String generated = generateToken(groupType); // outside lock
         showSavingToken(groupType, generated);
-        tokenMap.put(groupType, generated);
+        synchronized (prepareSessionLock()) { // to keep the same map in the session
+            final DoubleSubmitTokenMap tokenMap = getSessionTokenMap().orElseGet(() -> {
+                final DoubleSubmitTokenMap firstMap = new DoubleSubmitTokenMap();
+                saveTokenMapToSession(firstMap);
+                return firstMap;
+            });
+            tokenMap.put(groupType, generated);
+        }
         return generated;
     }
 
+    protected void saveTokenMapToSession(DoubleSubmitTokenMap tokenMap) {
+        requestManager.getSessionManager().setAttribute(getTransactionTokenKey(), tokenMap);
+    }
+
     protected void checkDoubleSubmitPreconditionExists(Class<?> groupType) {
         final Locale userLocale = requestManager.getUserLocale();
         if (!messageManager.findMessage(userLocale, getDoubleSubmitMessageKey()).isPresent()) {
@@ -163,7 +193,7 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     //                                              Generate
     //                                              --------
     @Override
-    public synchronized String generateToken(Class<?> groupType) {
+    public String generateToken(Class<?> groupType) {
         assertArgumentNotNull("groupType", groupType);
         final byte[] sessionIdBytes = prepareSessionIdBytes();
         final byte[] currentBytes = prepareCurrentBytes();
@@ -172,13 +202,27 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     }
 
     protected String buildHex(byte[] sessionIdBytes, byte[] currentBytes, byte[] groupTypeBytes) {
-        final MessageDigest md = getMessageDigest();
+        final MessageDigest md = prepareMessageDigest();
         md.update(sessionIdBytes);
         md.update(currentBytes);
         md.update(groupTypeBytes);
+        md.update(prepareSaltBytes());
         return toHex(md.digest());
     }
 
+    protected MessageDigest prepareMessageDigest() { // not thread-safe instance
+        MessageDigest prototype = digestPrototype;
+        if (prototype == null) {
+            prototype = getMessageDigest();
+            digestPrototype = prototype; // no problem if several threads set
+        }
+        try {
+            return (MessageDigest) prototype.clone(); // lighter than provider lookup
+        } catch (CloneNotSupportedException ignored) { // basically no way, e.g. MD5 is cloneable
+            return getMessageDigest();
+        }
+    }
+
     protected MessageDigest getMessageDigest() {
         final String algorithm = "MD5"; // enough
         try {
@@ -201,14 +245,18 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
         return requestManager.getSessionManager().getSessionId().getBytes();
     }
 
-    protected byte[] prepareCurrentBytes() {
-        long currentTimeMillis = System.currentTimeMillis();
-        if (currentTimeMillis == previousTimeMillis) {
-            currentTimeMillis++;
-        }
-        previousTimeMillis = currentTimeMillis;
-        byte[] currentBytes = Long.valueOf(currentTimeMillis).toString().getBytes();
-        return currentBytes;
+    protected byte[] prepareCurrentBytes() { // unique in the manager even if concurrent
+        final long currentTimeMillis = System.currentTimeMillis();
+        final long uniqueTimeMillis = previousTimeMillis.updateAndGet(previous -> {
+            return currentTimeMillis > previous ? currentTimeMillis : previous + 1;
+        });
+        return Long.toString(uniqueTimeMillis).getBytes();
+    }
+
+    protected byte[] prepareSaltBytes() { // to make token unpredictable
+        final byte[] salt = new byte[8];
+        tokenRandom.nextBytes(salt);
+        return salt;
     }
 
     protected byte[] prepareGroupTypeBytes(Class<?> groupType) {
@@ -219,23 +267,29 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     //                                                                 Token Determination
     //                                                                 ===================
     @Override
-    public synchronized boolean determineToken(Class<?> groupType) {
+    public boolean determineToken(Class<?> groupType) {
         return doDetermineTokenValid(groupType, false);
     }
 
     @Override
-    public synchronized boolean determineTokenWithReset(Class<?> groupType) {
+    public boolean determineTokenWithReset(Class<?> groupType) {
         return doDetermineTokenValid(groupType, true);
     }
 
     protected boolean doDetermineTokenValid(Class<?> groupType, boolean reset) {
         return (boolean) getSessionTokenMap().map(tokenMap -> {
-            return tokenMap.get(groupType).map(saved -> {
-                if (reset) {
-                    resetToken(groupType);
+            final String requested = getRequestedToken().orElse(null);
+            if (reset) {
+                if (!tokenMap.has(groupType)) { // no saved token
+                    return false;
                 }
-                return getRequestedToken().map(token -> token.equals(saved)).orElse(false);
-            }).orElse(false);
+                showRemovingToken(groupType, tokenMap);
+                final boolean consumed = tokenMap.consume(groupType, requested); // atomic, only one thread can consume
+                removeTokenMapIfEmpty(tokenMap);
+                return consumed;
+            } else {
+                return tokenMap.matches(groupType, requested);
+            }
         }).orElse(false);
     }
 
@@ -360,21 +414,29 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
     //                                                                       Token Closing
     //                                                                       =============
     @Override
-    public synchronized void resetToken(Class<?> groupType) {
+    public void resetToken(Class<?> groupType) {
         getSessionTokenMap().ifPresent(tokenMap -> {
             showRemovingToken(groupType, tokenMap);
             tokenMap.remove(groupType);
-            if (tokenMap.isEmpty()) {
-                removeTokenFromSession();
-            }
+            removeTokenMapIfEmpty(tokenMap);
         }).orElse(() -> {
             removeTokenFromSession();
         });
     }
 
+    protected void removeTokenMapIfEmpty(DoubleSubmitTokenMap tokenMap) {
+        if (tokenMap.isEmpty()) {
+            synchronized (prepareSessionLock()) { // saving token may put it at the same time
+                if (tokenMap.isEmpty()) {
+                    removeTokenFromSession();
+                }
+            }
+        }
+    }
+
     protected void showRemovingToken(Class<?> groupType, DoubleSubmitTokenMap tokenMap) {
         if (logger.isDebugEnabled()) {
-            final String token = tokenMap.get(groupType).orElse(null); // just in case
+            final String token = tokenMap.get(groupType).orElse(null); // may be removed by other thread
             logger.debug("...Removing double-submit token: group={}, token={}", groupType.getSimpleName(), token);
         }
     }
@@ -406,6 +468,19 @@ public class SimpleDoubleSubmitManager implements DoubleSubmitManager {
         return requestManager.getAttribute(getFirstSubmittedKey(), Object.class).isPresent();
     }
 
+    // -----------------------------------------------------
+    //                                          Session Lock
+    //                                          ------------
+    protected Object prepareSessionLock() {
+        final String sessionId = getSessionLockKey();
+        final int hash = sessionId != null ? sessionId.hashCode() : 0;
+        return sessionLocks[(hash ^ (hash >>> 16)) & (sessionLocks.length - 1)];
+    }
+
+    protected String getSessionLockKey() {
+        return requestManager.getSessionManager().getSessionId();
+    }
+
     // ===================================================================================
     //                                                                        Key Provider
     //                                                                        ============
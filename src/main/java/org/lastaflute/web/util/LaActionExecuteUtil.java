@@ -18,10 +18,13 @@ package org.lastaflute.web.util;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -30,6 +33,7 @@ import org.dbflute.util.DfReflectionUtil;
 import org.lastaflute.web.LastaWebKey;
 import org.lastaflute.web.ruts.config.ActionExecute;
 import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.UrlPatternMatched;
 
 /**
  * @author modified by jflute (originated in Seasar)
@@ -40,6 +44,7 @@ public class LaActionExecuteUtil {
     //                                                                          Definition
     //                                                                          ==========
     protected static final String KEY = LastaWebKey.ACTION_EXECUTE_KEY;
+    protected static final String MATCHED_KEY = LastaWebKey.URL_PATTERN_MATCHED_KEY;
 
     // ===================================================================================
     //                                                             Access to ExecuteConfig
@@ -65,6 +70,25 @@ public class LaActionExecuteUtil {
         LaRequestUtil.getRequest().setAttribute(KEY, execute);
     }
 
+    // ===================================================================================
+    //                                                                 URL Pattern Matched
+    //                                                                 ===================
+    /**
+     * @return The optional matched result of URL pattern saved when routing. (NotNull, EmptyAllowed)
+     */
+    public static OptionalThing<UrlPatternMatched> findUrlPatternMatched() {
+        final Object matched = LaRequestUtil.getRequest().getAttribute(MATCHED_KEY);
+        return OptionalThing.ofNullable((UrlPatternMatched) matched, () -> {
+            throw new IllegalStateException("Not found the URL pattern matched for the request: key=" + MATCHED_KEY);
+        });
+    }
+
+    public static void setUrlPatternMatched(UrlPatternMatched matched) {
+        LaRequestUtil.getOptionalRequest().ifPresent(request -> { // may be called out of request e.g. routing debug
+            request.setAttribute(MATCHED_KEY, matched);
+        });
+    }
+
     // ===================================================================================
     //                                                                  Find ActionExecute
     //                                                                  ==================
@@ -72,6 +96,10 @@ public class LaActionExecuteUtil {
         return findActionMapping(actionName).map(mapping -> mapping.findActionExecute(paramPath));
     }
 
+    public static OptionalThing<UrlPatternMatched> findUrlPatternMatched(String actionName, String paramPath) {
+        return findActionMapping(actionName).map(mapping -> mapping.findUrlPatternMatched(paramPath));
+    }
+
     public static OptionalThing<ActionExecute> findActionExecute(String actionName, HttpServletRequest request) {
         return findActionMapping(actionName).map(mapping -> mapping.findActionExecute(request));
     }
@@ -80,6 +108,63 @@ public class LaActionExecuteUtil {
         return LaModuleConfigUtil.getModuleConfig().findActionMapping(actionName);
     }
 
+    // ===================================================================================
+    //                                                                Asynchronous Execute
+    //                                                                ====================
+    /**
+     * Is the execute method asynchronous? e.g. CompletableFuture&lt;JsonResponse&lt;SeaBean&gt;&gt; return type
+     * @param executeMethod The execute method of action. (NotNull)
+     * @return The determination, true or false.
+     */
+    public static boolean isAsyncExecuteMethod(Method executeMethod) {
+        return CompletableFuture.class.isAssignableFrom(executeMethod.getReturnType());
+    }
+
+    /**
+     * Find the response type of the execute method, unwrapped from future if asynchronous.
+     * @param executeMethod The execute method of action. (NotNull)
+     * @return The type of response e.g. JsonResponse.class. (NullAllowed: when unknown e.g. raw future)
+     */
+    public static Class<?> findResponseReturnType(Method executeMethod) {
+        if (!isAsyncExecuteMethod(executeMethod)) { // mainly here
+            return executeMethod.getReturnType();
+        }
+        final Type responseType = findResponseGenericReturnType(executeMethod);
+        if (responseType instanceof Class<?>) { // e.g. CompletableFuture<HtmlResponse>
+            return (Class<?>) responseType;
+        } else if (responseType instanceof ParameterizedType) { // e.g. CompletableFuture<JsonResponse<SeaBean>>
+            final Type rawType = ((ParameterizedType) responseType).getRawType();
+            return rawType instanceof Class<?> ? (Class<?>) rawType : null;
+        } else { // e.g. raw type, type variable
+            return null;
+        }
+    }
+
+    /**
+     * Find the generic response type of the execute method, unwrapped from future if asynchronous.
+     * @param executeMethod The execute method of action. (NotNull)
+     * @return The generic type of response e.g. JsonResponse&lt;SeaBean&gt;. (NullAllowed: when unknown e.g. raw future)
+     */
+    public static Type findResponseGenericReturnType(Method executeMethod) {
+        final Type genericReturnType = executeMethod.getGenericReturnType();
+        if (!isAsyncExecuteMethod(executeMethod)) { // mainly here
+            return genericReturnType;
+        }
+        if (!(genericReturnType instanceof ParameterizedType)) { // e.g. raw CompletableFuture
+            return null;
+        }
+        final Type[] argTypes = ((ParameterizedType) genericReturnType).getActualTypeArguments();
+        if (argTypes.length == 0) { // just in case
+            return null;
+        }
+        final Type argType = argTypes[0];
+        if (argType instanceof WildcardType) { // e.g. CompletableFuture<? extends ActionResponse>
+            final Type[] upperBounds = ((WildcardType) argType).getUpperBounds();
+            return upperBounds.length > 0 ? upperBounds[0] : null;
+        }
+        return argType;
+    }
+
     // ===================================================================================
     //                                                                         Debug Parts
     //                                                                         ===========
@@ -100,7 +185,12 @@ public class LaActionExecuteUtil {
             sb.append("private ");
         }
         final Class<?> returnType = executeMethod.getReturnType();
-        sb.append(returnType.getSimpleName()).append(" ");
+        sb.append(returnType.getSimpleName());
+        if (isAsyncExecuteMethod(executeMethod)) { // e.g. CompletableFuture<JsonResponse>
+            final Class<?> responseType = findResponseReturnType(executeMethod);
+            sb.append("<").append(responseType != null ? responseType.getSimpleName() : "?").append(">");
+        }
+        sb.append(" ");
         sb.append(executeMethod.getDeclaringClass().getSimpleName());
         sb.append("@").append(executeMethod.getName());
     }
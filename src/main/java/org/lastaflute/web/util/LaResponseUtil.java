@@ -38,4 +38,28 @@ public final class LaResponseUtil {
         }
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Does the If-None-Match header match with the entity tag? (weak comparison) <br>
+     * e.g. "sea" matches with "land", W/"sea" and also *
+     * @param ifNoneMatch The value of If-None-Match header, comma-separated entity tags. (NotNull)
+     * @param eTag The entity tag of the current resource, e.g. "sea" or W/"sea". (NotNull)
+     * @return The determination, true or false.
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String eTag) {
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+        final String opaque = removeWeakPrefix(eTag);
+        for (String element : ifNoneMatch.split(",")) {
+            if (removeWeakPrefix(element.trim()).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String removeWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag; // e.g. weakened by compression filter
+    }
+}
@@ -40,9 +40,11 @@ import java.util.stream.Stream;
 
 import javax.validation.Configuration;
 import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
 import javax.validation.Valid;
 import javax.validation.Validation;
 import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
 import javax.validation.bootstrap.GenericBootstrap;
 import javax.validation.constraints.NotNull;
 import javax.validation.groups.Default;
@@ -135,6 +137,12 @@ public class ActionValidator<MESSAGES extends UserMessages> {
         typeMessageMap = Collections.unmodifiableMap(readyMap);
     }
 
+    // -----------------------------------------------------
+    //                                      Validator Engine
+    //                                      ----------------
+    /** The engine shared by validators, factories are cached per validator type. (NotNull) */
+    protected static final ActionValidatorEngine sharedValidatorEngine = new ActionValidatorEngine();
+
     // -----------------------------------------------------
     //                                               Various
     //                                               -------
@@ -148,6 +156,7 @@ public class ActionValidator<MESSAGES extends UserMessages> {
     protected final UserMessagesCreator<MESSAGES> userMessagesCreator;
     protected final VaErrorHook apiFailureHook;
     protected final Class<?>[] runtimeGroups; // not null
+    protected MessageInterpolator cachedInterpolator; // null allowed: lazy loaded, per validator for its bundle hook
 
     // ===================================================================================
     //                                                                         Constructor
@@ -278,30 +287,75 @@ public class ActionValidator<MESSAGES extends UserMessages> {
     //                                    Validator Settings
     //                                    ------------------
     protected Validator comeOnHibernateValidator() {
+        // factory is shared because building it analyzes bean metadata (heavy)
+        // and message interpolation needs provided locale so it is set per call
+        final ValidatorFactory factory = prepareValidatorFactory();
+        return factory.usingContext().messageInterpolator(prepareMessageInterpolator()).getValidator();
+    }
+
+    protected ValidatorFactory prepareValidatorFactory() { // keyed by validator type to use overridden building
+        return getValidatorEngine().prepareFactory(getClass(), () -> buildValidatorFactory());
+    }
+
+    protected ActionValidatorEngine getValidatorEngine() {
+        return sharedValidatorEngine;
+    }
+
+    protected ValidatorFactory buildValidatorFactory() { // called only once per validator type in the container
         final Configuration<?> configure = newGenericBootstrap().configure();
-        configure.messageInterpolator(newResourceBundleMessageInterpolator());
-        return configure.buildValidatorFactory().getValidator();
+        return configure.buildValidatorFactory();
     }
 
     protected GenericBootstrap newGenericBootstrap() {
         return Validation.byDefaultProvider();
     }
 
+    protected MessageInterpolator prepareMessageInterpolator() {
+        // not shared with other validators, the locator refers to this validator's resource bundle hook
+        if (cachedInterpolator == null) { // validator is not shared between threads
+            cachedInterpolator = newProvidedLocaleMessageInterpolator(newResourceBundleMessageInterpolator());
+        }
+        return cachedInterpolator;
+    }
+
     protected ResourceBundleMessageInterpolator newResourceBundleMessageInterpolator() {
         return new ResourceBundleMessageInterpolator(newResourceBundleLocator());
     }
 
+    protected MessageInterpolator newProvidedLocaleMessageInterpolator(MessageInterpolator shared) {
+        return new ProvidedLocaleMessageInterpolator(shared, messageLocaleProvider);
+    }
+
+    protected static class ProvidedLocaleMessageInterpolator implements MessageInterpolator {
+
+        protected final MessageInterpolator shared;
+        protected final MessageLocaleProvider messageLocaleProvider;
+
+        public ProvidedLocaleMessageInterpolator(MessageInterpolator shared, MessageLocaleProvider messageLocaleProvider) {
+            this.shared = shared;
+            this.messageLocaleProvider = messageLocaleProvider;
+        }
+
+        @Override
+        public String interpolate(String messageTemplate, Context context) {
+            return shared.interpolate(messageTemplate, context, messageLocaleProvider.provide());
+        }
+
+        @Override
+        public String interpolate(String messageTemplate, Context context, Locale locale) {
+            // not used default locale managed in Hibernate validator,
+            // all messages use provided locale (e.g. request locale)
+            return shared.interpolate(messageTemplate, context, messageLocaleProvider.provide());
+        }
+    }
+
     // -----------------------------------------------------
     //                                       Resource Bundle
     //                                       ---------------
     protected ResourceBundleLocator newResourceBundleLocator() {
-        return ignoredLocale -> {
-            // not used default locacle managed in Hibernate validator,
-            // all messages use provided locale (e.g. request locale)
-            // to match with other message's locale
-            final Locale provided = messageLocaleProvider.provide();
-            return newHookedResourceBundle(provided);
-        };
+        // the locale is always provided locale (e.g. request locale) by the interpolator
+        // to match with other message's locale
+        return providedLocale -> newHookedResourceBundle(providedLocale);
     }
 
     protected ResourceBundle newHookedResourceBundle(Locale locale) {
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.validation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.validation.ValidatorFactory;
+
+import org.lastaflute.di.DisposableUtil;
+
+/**
+ * The engine of hibernate validator shared in the container. <br>
+ * Building validator factory is heavy (bean metadata is analyzed in the factory),
+ * so the factory is kept until the container is disposed (e.g. hot deploy). <br>
+ * The factory is cached per type of its builder, so validators that override the building have their own factory. <br>
+ * Message interpolation is not shared here because it depends on each validator's resource bundle hook,
+ * so it is set per validator by validator context.
+ * @author jflute
+ */
+public class ActionValidatorEngine {
+
+    // ===================================================================================
+    //                                                                           Attribute
+    //                                                                           =========
+    /** The map of cached factory keyed by builder type. (NotNull, EmptyAllowed: lazy loaded, cleared when disposed) */
+    protected final Map<Class<?>, ValidatorFactory> factoryMap = new ConcurrentHashMap<Class<?>, ValidatorFactory>();
+
+    // ===================================================================================
+    //                                                                   Validator Factory
+    //                                                                   =================
+    /**
+     * Prepare the validator factory, built only once per builder type in the container.
+     * @param builderType The type of builder, e.g. class of validator that builds the factory. (NotNull)
+     * @param factoryBuilder The builder of validator factory, called only when not cached yet. (NotNull)
+     * @return The shared validator factory for the builder type. (NotNull)
+     */
+    public ValidatorFactory prepareFactory(Class<?> builderType, Supplier<ValidatorFactory> factoryBuilder) {
+        ValidatorFactory factory = factoryMap.get(builderType);
+        if (factory != null) {
+            return factory;
+        }
+        synchronized (factoryMap) {
+            factory = factoryMap.get(builderType);
+            if (factory == null) {
+                factory = factoryBuilder.get();
+                if (factory == null) {
+                    throw new IllegalStateException("The factoryBuilder returned null: " + builderType);
+                }
+                if (factoryMap.isEmpty()) { // first factory after boot or dispose
+                    DisposableUtil.add(() -> dispose()); // e.g. hot deploy, classes of forms are reloaded
+                }
+                factoryMap.put(builderType, factory);
+            }
+            return factory;
+        }
+    }
+
+    // ===================================================================================
+    //                                                                             Dispose
+    //                                                                             =======
+    public void dispose() {
+        synchronized (factoryMap) {
+            for (ValidatorFactory factory : factoryMap.values()) {
+                factory.close();
+            }
+            factoryMap.clear();
+        }
+    }
+}
@@ -25,6 +25,8 @@ import org.dbflute.utflute.core.PlainTestCase;
 import org.dbflute.utflute.core.cannonball.CannonballCar;
 import org.dbflute.utflute.core.cannonball.CannonballOption;
 import org.dbflute.utflute.core.cannonball.CannonballRun;
+import org.lastaflute.core.json.annotation.JsonDatePattern;
+import org.lastaflute.core.json.exception.JsonPropertyDateTimeParseFailureException;
 import org.lastaflute.core.json.exception.JsonPropertyNumberParseFailureException;
 import org.lastaflute.unit.mock.db.MockCDef;
 
@@ -67,6 +69,46 @@ public class GsonJsonEngineTest extends PlainTestCase {
         assertEquals(toString(fromJson.morningCallTime, "HH:mm:ss.SSS"), "23:15:47.731");
     }
 
+    public void test_java8time_datePattern_toJson_fromJson() throws Exception {
+        // ## Arrange ##
+        GsonJsonEngine engine = new GsonJsonEngine(builder -> {}, op -> {});
+        MockPatternDate mockDate = new MockPatternDate();
+        mockDate.slashDate = toLocalDate("2015/05/18");
+        mockDate.isoDate = toLocalDate("2015/12/15");
+
+        // ## Act ##
+        String json = engine.toJson(mockDate);
+
+        // ## Assert ##
+        log(json);
+        assertContainsAll(json, "2015/05/18", "2015-12-15");
+
+        // ## Act ##
+        MockPatternDate fromJson = engine.fromJson(json, MockPatternDate.class);
+
+        // ## Assert ##
+        log(fromJson);
+        assertEquals(LocalDate.of(2015, 5, 18), fromJson.slashDate);
+        assertEquals(LocalDate.of(2015, 12, 15), fromJson.isoDate);
+    }
+
+    public void test_java8time_localDate_fromJson_parseFailure() throws Exception {
+        // ## Arrange ##
+        GsonJsonEngine engine = new GsonJsonEngine(builder -> {}, op -> {});
+        String[] illegals = { "2015-02-30", "2015-5-18", "2015/05/18", "2015-05-1x" };
+        for (String illegal : illegals) {
+            String json = "{\"isoDate\": \"" + illegal + "\"}";
+            try {
+                // ## Act ##
+                engine.fromJson(json, MockPatternDate.class);
+                // ## Assert ##
+                fail();
+            } catch (JsonPropertyDateTimeParseFailureException e) { // same as formatter's failure even if quick parsing
+                log(e.getMessage());
+            }
+        }
+    }
+
     // ===================================================================================
     //                                                                             Boolean
     //                                                                             =======
@@ -538,6 +580,38 @@ public class GsonJsonEngineTest extends PlainTestCase {
         assertContains(json, "\"stringList\":[\"over\",\"mystic\"]");
     }
 
+    // ===================================================================================
+    //                                                                        Field Access
+    //                                                                        ============
+    public void test_fieldAccessByHandle_toJson_fromJson() throws Exception {
+        // ## Arrange ##
+        GsonJsonEngine reflectionEngine = new GsonJsonEngine(builder -> {}, op -> {});
+        GsonJsonEngine handleEngine = new GsonJsonEngine(builder -> {}, op -> op.asFieldAccessByHandle());
+        MockUser mockUser = new MockUser();
+        mockUser.id = 2;
+        mockUser.name = "land";
+        mockUser.status = new MockUserStatus("active");
+        mockUser.birthdate = toLocalDate("2015/05/18");
+        mockUser.validFlg = MockCDef.Flg.True;
+        mockUser.primitiveFlg = true;
+        mockUser.stringList = Arrays.asList("sea", "piari");
+
+        // ## Act ##
+        String json = handleEngine.toJson(mockUser);
+
+        // ## Assert ##
+        log(json);
+        assertEquals(reflectionEngine.toJson(mockUser), json);
+
+        // ## Act ##
+        MockUser fromJson = handleEngine.fromJson("{\"unknown\": 1, " + json.substring(1), MockUser.class);
+
+        // ## Assert ##
+        log(fromJson);
+        assertEquals(mockUser.toString(), fromJson.toString());
+        assertEquals(json, reflectionEngine.toJson(fromJson));
+    }
+
     // ===================================================================================
     //                                                                         Thread Safe
     //                                                                         ===========
@@ -592,6 +666,17 @@ public class GsonJsonEngineTest extends PlainTestCase {
         }
     }
 
+    public static class MockPatternDate {
+        @JsonDatePattern("yyyy/MM/dd")
+        public LocalDate slashDate;
+        public LocalDate isoDate;
+
+        @Override
+        public String toString() {
+            return "{" + slashDate + ", " + isoDate + "}";
+        }
+    }
+
     public static class MockUserStatus {
         public String status;
 
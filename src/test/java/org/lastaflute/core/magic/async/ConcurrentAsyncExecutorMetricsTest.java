@@ -0,0 +1,67 @@
+package org.lastaflute.core.magic.async;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.magic.async.ConcurrentAsyncExecutorMetrics.ConcurrentAsyncLatencyHistogram;
+
+/**
+ * @author jflute
+ */
+public class ConcurrentAsyncExecutorMetricsTest extends PlainTestCase {
+
+    public void test_histogram_bucket() {
+        // ## Arrange ##
+        ConcurrentAsyncLatencyHistogram histogram = new ConcurrentAsyncLatencyHistogram();
+
+        // ## Act ##
+        for (long millis : new long[] { 0L, 1L, 2L, 3L, 5L, 100L, 3000000L }) {
+            histogram.record(millis * 1000000L);
+        }
+        histogram.record(-1L); // as zero
+
+        // ## Assert ##
+        log(histogram);
+        long[] counts = histogram.getBucketCounts();
+        assertEquals(2L, counts[0]); // under 1ms
+        assertEquals(1L, counts[1]); // 1ms
+        assertEquals(2L, counts[2]); // 2ms, 3ms
+        assertEquals(1L, counts[3]); // 5ms
+        assertEquals(1L, counts[7]); // 100ms
+        assertEquals(1L, counts[ConcurrentAsyncLatencyHistogram.BUCKET_SIZE - 1]); // overflow
+        assertEquals(8L, histogram.getCount());
+        assertEquals(4L, histogram.getPercentileUpperMillis(50.0));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileUpperMillis(99.0));
+        assertEquals(3000000L, histogram.getMaxMillis());
+    }
+
+    public void test_liveCount() throws Exception {
+        // ## Arrange ##
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(3));
+        ConcurrentAsyncExecutorMetrics metrics = new ConcurrentAsyncExecutorMetrics("primary", executor);
+        Object lock = new Object();
+        try {
+            synchronized (lock) {
+                // ## Act ##
+                executor.execute(() -> {
+                    synchronized (lock) {}
+                });
+                executor.execute(() -> {});
+                executor.execute(() -> {});
+                while (executor.getActiveCount() == 0) {
+                    Thread.sleep(10L);
+                }
+
+                // ## Assert ##
+                log(metrics);
+                assertEquals(1, metrics.getActiveCount());
+                assertEquals(2, metrics.getQueuedCount());
+                assertEquals(1, metrics.getPoolSize());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.lastaflute.core.magic.async;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class ConcurrentAsyncVirtualThreadExecutorTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                         Concurrency
+    //                                                                         ===========
+    public void test_execute_concurrencyLimited() throws Exception {
+        // ## Arrange ##
+        // platform threads as thread per task to test the semaphore in any runtime
+        ConcurrentAsyncVirtualThreadExecutor executor = new ConcurrentAsyncVirtualThreadExecutor(Executors.newCachedThreadPool(), 2);
+        AtomicInteger runningCount = new AtomicInteger();
+        AtomicInteger maxRunningCount = new AtomicInteger();
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            // ## Act ##
+            for (int i = 0; i < 5; i++) {
+                final String mark = "task" + i;
+                executor.execute(() -> {
+                    maxRunningCount.accumulateAndGet(runningCount.incrementAndGet(), Math::max);
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    runningCount.decrementAndGet();
+                    markList.add(mark);
+                });
+            }
+            awaitCount(() -> executor.getActiveCount() == 2 && executor.getWaitingCount() == 3);
+
+            // ## Assert ##
+            log(executor);
+            assertEquals(2, executor.getActiveCount());
+            assertEquals(3, executor.getWaitingCount());
+            assertEquals(2, runningCount.get());
+            blocker.countDown();
+            awaitCount(() -> markList.size() == 5);
+            log(executor, markList);
+            assertEquals(5, markList.size());
+            assertEquals(2, maxRunningCount.get()); // not over the concurrency
+            assertEquals(0, executor.getActiveCount());
+            assertEquals(0, executor.getWaitingCount());
+        } finally {
+            blocker.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    public void test_execute_shutdownNow_waitingNotRun() throws Exception {
+        // ## Arrange ##
+        ConcurrentAsyncVirtualThreadExecutor executor = new ConcurrentAsyncVirtualThreadExecutor(Executors.newCachedThreadPool(), 1);
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) { // by shutdown now
+            }
+            markList.add("first");
+        });
+        executor.execute(() -> markList.add("second")); // waits for permit
+        awaitCount(() -> executor.getActiveCount() == 1 && executor.getWaitingCount() == 1);
+
+        // ## Act ##
+        executor.shutdownNow();
+
+        // ## Assert ##
+        assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+        log(executor, markList);
+        assertEquals(newArrayList("first"), markList); // waiting one is not run
+        assertEquals(0, executor.getWaitingCount());
+        assertTrue(executor.isShutdown());
+    }
+
+    public void test_execute_shutdownNow_droppedTaskHandled() throws Exception {
+        // ## Arrange ##
+        List<Runnable> droppedList = Collections.synchronizedList(new ArrayList<Runnable>());
+        ConcurrentAsyncVirtualThreadExecutor executor =
+                new ConcurrentAsyncVirtualThreadExecutor(Executors.newCachedThreadPool(), 1, dropped -> droppedList.add(dropped));
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) { // by shutdown now
+            }
+        });
+        Runnable waiting = () -> {};
+        executor.execute(waiting); // waits for permit
+        awaitCount(() -> executor.getActiveCount() == 1 && executor.getWaitingCount() == 1);
+
+        // ## Act ##
+        executor.shutdownNow();
+
+        // ## Assert ##
+        assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+        log(droppedList);
+        assertEquals(1, droppedList.size()); // running one is not dropped
+        assertTrue(droppedList.get(0) == waiting); // e.g. to complete its future
+    }
+
+    public void test_constructor_illegalConcurrency() {
+        try {
+            new ConcurrentAsyncVirtualThreadExecutor(Executors.newCachedThreadPool(), 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            log(e.getMessage());
+        }
+    }
+
+    // ===================================================================================
+    //                                                                      Virtual Thread
+    //                                                                      ==============
+    public void test_createVirtualThreadPerTaskExecutorIfPossible() throws Exception {
+        // ## Arrange ##
+        boolean supported = isVirtualThreadSupported();
+        log("java.version: {}, supported: {}", System.getProperty("java.version"), supported);
+
+        // ## Act ##
+        ExecutorService virtualExecutor = ConcurrentAsyncVirtualThreadExecutor.createVirtualThreadPerTaskExecutorIfPossible();
+
+        // ## Assert ##
+        if (!supported) { // e.g. Java8
+            assertNull(virtualExecutor);
+            return;
+        }
+        assertNotNull(virtualExecutor);
+        try {
+            Method isVirtual = Thread.class.getMethod("isVirtual");
+            assertTrue((Boolean) virtualExecutor.submit(() -> isVirtual.invoke(Thread.currentThread())).get());
+        } finally {
+            virtualExecutor.shutdownNow();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) { // e.g. Java8
+            return false;
+        }
+        final String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version) >= 21; // preview before it
+    }
+
+    protected void awaitCount(CountCondition condition) throws InterruptedException {
+        final long limit = System.currentTimeMillis() + 5000L;
+        while (!condition.satisfies() && System.currentTimeMillis() < limit) {
+            Thread.sleep(10L);
+        }
+    }
+
+    protected static interface CountCondition {
+        boolean satisfies();
+    }
+
+    protected List<String> newArrayList(String... elements) {
+        final List<String> list = new ArrayList<String>();
+        Collections.addAll(list, elements);
+        return list;
+    }
+}
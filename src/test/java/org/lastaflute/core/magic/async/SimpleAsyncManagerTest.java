@@ -0,0 +1,738 @@
+package org.lastaflute.core.magic.async;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import org.dbflute.hook.AccessContext;
+import org.dbflute.hook.CallbackContext;
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.direction.FwCoreDirection;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.core.magic.async.exception.ConcurrentAsyncParallelFailureException;
+import org.lastaflute.core.magic.async.exception.ConcurrentAsyncRejectedException;
+import org.lastaflute.core.mail.PostedMailCounter;
+import org.lastaflute.core.mail.RequestedMailCount;
+import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
+import org.lastaflute.db.dbflute.callbackcontext.traceablesql.RequestedSqlCount;
+import org.lastaflute.db.dbflute.callbackcontext.traceablesql.RomanticTraceableSqlStringFilter;
+
+/**
+ * @author jflute
+ */
+public class SimpleAsyncManagerTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                     Rejected Policy
+    //                                                                     ===============
+    public void test_rejected_callerRuns() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAsCallerRuns());
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+            String callerThread = Thread.currentThread().getName();
+
+            // ## Act ##
+            manager.async(() -> markList.add("third:" + Thread.currentThread().getName()));
+
+            // ## Assert ##
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            log(markList, metrics);
+            assertEquals(Collections.singletonList("third:" + callerThread), markList); // already done in caller
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(1L, metrics.getCallerRunsCount());
+            assertEquals(3L, metrics.getExecutedCount());
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_rejected_callerRuns_callerContextSurvived() throws Exception {
+        // ## Arrange ##
+        ContextualMockAsyncManager manager = new ContextualMockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAsCallerRuns());
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        AccessContext callerAccessContext = new AccessContext();
+        callerAccessContext.setAccessUser("mystic");
+        CallbackContext callerCallbackContext = new CallbackContext();
+        try {
+            fillBusy(manager, markList, blocker);
+            ThreadCacheContext.initialize();
+            ThreadCacheContext.setObject("sea", "land");
+            PreparedAccessContext.setAccessContextOnThread(callerAccessContext);
+            CallbackContext.setCallbackContextOnThread(callerCallbackContext);
+            VARIOUS_CONTEXT.set("piari");
+            manager.callerTransaction = "bonvo";
+
+            // ## Act ##
+            manager.async(() -> {
+                markList.add("third:" + ThreadCacheContext.getObject("sea") + ":" + VARIOUS_CONTEXT.get());
+                markList.add("tx:" + manager.callerTransaction);
+            });
+
+            // ## Assert ##
+            log(markList);
+            assertEquals(newArrayList("third:land:piari", "tx:null"), markList); // inherited, transaction suspended
+            assertEquals(1L, manager.getSecondaryExecutorMetrics().getCallerRunsCount());
+            assertEquals("land", ThreadCacheContext.getObject("sea"));
+            assertSame(callerAccessContext, PreparedAccessContext.getAccessContextOnThread());
+            assertSame(callerCallbackContext, CallbackContext.getCallbackContextOnThread());
+            assertEquals("piari", VARIOUS_CONTEXT.get());
+            assertEquals("bonvo", manager.callerTransaction); // resumed
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+            ThreadCacheContext.clear();
+            PreparedAccessContext.clearAccessContextOnThread();
+            CallbackContext.clearCallbackContextOnThread();
+            VARIOUS_CONTEXT.remove();
+        }
+    }
+
+    public void test_rejected_discardOldest() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAsDiscardOldest());
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+
+            // ## Act ##
+            manager.async(() -> markList.add("third"));
+            blocker.countDown();
+
+            // ## Assert ##
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            awaitCompleted(metrics, 2L);
+            log(markList, metrics);
+            assertEquals(newArrayList("first", "third"), markList); // second is discarded
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(1L, metrics.getDiscardedCount());
+            assertEquals(3L, metrics.getExecutedCount()); // discarded one was accepted once
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_rejected_failFast() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAsFailFast());
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.async(() -> markList.add("third"));
+                fail();
+            } catch (ConcurrentAsyncRejectedException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "FAIL_FAST");
+            }
+            blocker.countDown();
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            awaitCompleted(metrics, 2L);
+            log(markList, metrics);
+            assertEquals(newArrayList("first", "second"), markList);
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(2L, metrics.getExecutedCount()); // rejected one is not counted
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_rejected_timedOffer_offered() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAfterOffering(5000L));
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+            new Thread(() -> {
+                sleep(100L);
+                blocker.countDown(); // the queue becomes empty
+            }).start();
+
+            // ## Act ##
+            manager.async(() -> markList.add("third")); // waits for the queue
+
+            // ## Assert ##
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            awaitCompleted(metrics, 3L);
+            log(markList, metrics);
+            assertEquals(newArrayList("first", "second", "third"), markList);
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(3L, metrics.getExecutedCount());
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_rejected_timedOffer_timeout() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAfterOffering(100L));
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+            long before = System.currentTimeMillis();
+
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.async(() -> markList.add("third"));
+                fail();
+            } catch (ConcurrentAsyncRejectedException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "TIMED_OFFER");
+            }
+            assertTrue(System.currentTimeMillis() - before >= 100L);
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(2L, metrics.getExecutedCount());
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_rejected_waitingQueue() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption()); // as default
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            fillBusy(manager, markList, blocker);
+
+            // ## Act ##
+            manager.async(() -> markList.add("third")); // registered to waiting queue
+            blocker.countDown();
+
+            // ## Assert ##
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            awaitCompleted(metrics, 3L);
+            log(markList, metrics);
+            assertEquals(newArrayList("first", "second", "third"), markList);
+            assertEquals(1L, metrics.getRejectedCount());
+            assertEquals(3L, metrics.getExecutedCount());
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                              Future
+    //                                                                              ======
+    public void test_future_basic() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            CompletableFuture<String> future = manager.future(() -> "sea");
+
+            // ## Assert ##
+            assertEquals("sea", future.join());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_future_failure() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            CompletableFuture<String> future = manager.future(() -> {
+                throw new IllegalStateException("land");
+            });
+
+            // ## Assert ##
+            try {
+                future.join();
+                fail();
+            } catch (CompletionException e) {
+                log(e.getCause());
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+                assertEquals("land", e.getCause().getMessage());
+            }
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_future_discardedOldest() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, 1, new ConcurrentAsyncOption().rejectAsDiscardOldest());
+        List<String> markList = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            manager.async(() -> { // running
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            while (metrics.getActiveCount() == 0) {
+                Thread.sleep(10L);
+            }
+            CompletableFuture<String> oldest = manager.future(() -> "oldest"); // in the queue
+
+            // ## Act ##
+            manager.async(() -> markList.add("newest")); // discards the oldest
+
+            // ## Assert ##
+            try {
+                oldest.join(); // not hang
+                fail();
+            } catch (CompletionException e) {
+                log(e.getCause().getMessage());
+                assertEquals(ConcurrentAsyncRejectedException.class, e.getCause().getClass());
+                assertContains(e.getCause().getMessage(), "DISCARD_OLDEST");
+            }
+            blocker.countDown();
+            awaitCompleted(metrics, 2L);
+            assertEquals(newArrayList("newest"), markList);
+            assertEquals(1L, metrics.getDiscardedCount());
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_future_discardedWithoutQueue() throws Exception {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, null, new ConcurrentAsyncOption().rejectAsDiscardOldest());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            manager.async(() -> { // running
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+            while (metrics.getActiveCount() == 0) {
+                Thread.sleep(10L);
+            }
+
+            // ## Act ##
+            CompletableFuture<String> future = manager.future(() -> "sea"); // discarded because no queue
+
+            // ## Assert ##
+            try {
+                future.join(); // not hang
+                fail();
+            } catch (CompletionException e) {
+                log(e.getCause().getMessage());
+                assertEquals(ConcurrentAsyncRejectedException.class, e.getCause().getClass());
+            }
+            assertEquals(1L, metrics.getDiscardedCount());
+            assertEquals(1L, metrics.getExecutedCount()); // discarded one is not counted
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    public void test_future_counter() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        ThreadCacheContext.initialize(); // as request
+        try {
+            // ## Act ##
+            List<CompletableFuture<String>> futureList = new ArrayList<CompletableFuture<String>>();
+            for (int i = 0; i < 2; i++) {
+                futureList.add(manager.future(() -> {
+                    CallbackContext.setSqlStringFilterOnThread(new MockSqlCounter(3)); // as executed SQLs
+                    ThreadCacheContext.registerMailCounter(new PostedMailCounter().incrementPosting()); // as posted mail
+                    return "sea";
+                }));
+            }
+            futureList.forEach(future -> future.join());
+
+            // ## Assert ##
+            ConcurrentAsyncFutureCounter futureCounter = ThreadCacheContext.findAsyncFutureCounter();
+            log(futureCounter);
+            assertEquals(2, futureCounter.getCountOfFuture());
+            assertEquals(0, futureCounter.getCountOfFailure());
+            assertEquals(6, futureCounter.getTotalCountOfSql());
+            assertEquals(2, futureCounter.getCountOfPosting());
+            RequestedSqlCount sqlCount = new RequestedSqlCount(new MockSqlCounter(1), futureCounter); // plus caller's count
+            assertEquals(7, sqlCount.getTotalCountOfSql());
+            assertEquals(7, sqlCount.getCountOfSelectCB());
+            RequestedMailCount mailCount = new RequestedMailCount(new PostedMailCounter().incrementPosting(), futureCounter);
+            assertEquals(3, mailCount.getCountOfPosting());
+        } finally {
+            ThreadCacheContext.clear();
+            manager.shutdown();
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                          Parallel All
+    //                                          ------------
+    public void test_parallelAll_success() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(3, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            List<String> resultList = manager.parallelAll(Arrays.asList(() -> {
+                sleep(100L);
+                return "sea";
+            }, () -> "land", () -> {
+                sleep(50L);
+                return "piari";
+            }), 3000L);
+
+            // ## Assert ##
+            assertEquals(Arrays.asList("sea", "land", "piari"), resultList); // same order as calls
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_parallelAll_failure() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(3, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.parallelAll(Arrays.asList(() -> "sea", () -> {
+                    throw new IllegalStateException("land");
+                }, () -> {
+                    throw new IllegalArgumentException("piari");
+                }), 3000L);
+                fail();
+            } catch (ConcurrentAsyncParallelFailureException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "1: java.lang.IllegalStateException: land");
+                assertContains(e.getMessage(), "2: java.lang.IllegalArgumentException: piari");
+                assertEquals(IllegalStateException.class, e.getCause().getClass()); // first failure
+                assertEquals(1, e.getSuppressed().length);
+                assertEquals(IllegalArgumentException.class, e.getSuppressed()[0].getClass());
+            }
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_parallelAll_rejectedPartway() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(1, null, new ConcurrentAsyncOption().rejectAsFailFast());
+        ThreadCacheContext.initialize(); // as request
+        try {
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.parallelAll(Arrays.asList(() -> {
+                    sleep(100L);
+                    return "sea";
+                }, () -> "land"), 3000L); // second is rejected because of no thread and no queue
+                fail();
+            } catch (ConcurrentAsyncParallelFailureException e) { // not rejected exception directly
+                log(e.getMessage());
+                assertContains(e.getMessage(), "1: " + ConcurrentAsyncRejectedException.class.getName());
+                assertEquals(ConcurrentAsyncRejectedException.class, e.getCause().getClass());
+            }
+            ConcurrentAsyncFutureCounter futureCounter = ThreadCacheContext.findAsyncFutureCounter();
+            log(futureCounter);
+            assertEquals(2, futureCounter.getCountOfFuture());
+            assertEquals(1, futureCounter.getCountOfFailure());
+            RequestedSqlCount sqlCount = new RequestedSqlCount(new MockSqlCounter(0), futureCounter);
+            log(sqlCount);
+            assertEquals(2, sqlCount.getCountOfAsyncFuture());
+            assertEquals(1, sqlCount.getCountOfAsyncFailure());
+            assertContains(sqlCount.toString(), "asyncFailure=1");
+        } finally {
+            ThreadCacheContext.clear();
+            manager.shutdown();
+        }
+    }
+
+    public void test_parallelAll_timeout() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.parallelAll(Arrays.asList(() -> "sea", () -> {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return "land";
+                }), 100L);
+                fail();
+            } catch (ConcurrentAsyncParallelFailureException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "1: " + TimeoutException.class.getName());
+                assertEquals(TimeoutException.class, e.getCause().getClass());
+            }
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    // -----------------------------------------------------
+    //                                          Parallel Any
+    //                                          ------------
+    public void test_parallelAny_success() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(3, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            String result = manager.parallelAny(Arrays.asList(() -> {
+                throw new IllegalStateException("sea");
+            }, () -> {
+                sleep(50L);
+                return "land";
+            }, () -> {
+                sleep(3000L);
+                return "piari";
+            }), 3000L);
+
+            // ## Assert ##
+            assertEquals("land", result); // first success, failure is ignored
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_parallelAny_allFailure() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        try {
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.parallelAny(Arrays.asList(() -> {
+                    throw new IllegalStateException("sea");
+                }, () -> {
+                    throw new IllegalArgumentException("land");
+                }), 3000L);
+                fail();
+            } catch (ConcurrentAsyncParallelFailureException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "0: java.lang.IllegalStateException: sea");
+                assertContains(e.getMessage(), "1: java.lang.IllegalArgumentException: land");
+                assertEquals(1, e.getSuppressed().length);
+            }
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void test_parallelAny_timeout() {
+        // ## Arrange ##
+        MockAsyncManager manager = new MockAsyncManager(2, null, new ConcurrentAsyncOption());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            // ## Act ##
+            // ## Assert ##
+            try {
+                manager.parallelAny(Arrays.asList(() -> {
+                    throw new IllegalStateException("sea");
+                }, () -> {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return "land";
+                }), 100L);
+                fail();
+            } catch (ConcurrentAsyncParallelFailureException e) {
+                log(e.getMessage());
+                assertContains(e.getMessage(), "0: java.lang.IllegalStateException: sea");
+                assertContains(e.getMessage(), "1: " + TimeoutException.class.getName());
+            }
+        } finally {
+            blocker.countDown();
+            manager.shutdown();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected void fillBusy(MockAsyncManager manager, List<String> markList, CountDownLatch blocker) throws InterruptedException {
+        manager.async(() -> { // running
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            markList.add("first");
+        });
+        manager.async(() -> markList.add("second")); // in the queue
+        ConcurrentAsyncExecutorMetrics metrics = manager.getSecondaryExecutorMetrics();
+        while (metrics.getActiveCount() == 0 || metrics.getQueuedCount() == 0) {
+            Thread.sleep(10L);
+        }
+    }
+
+    protected void awaitCompleted(ConcurrentAsyncExecutorMetrics metrics, long expectedCount) throws InterruptedException {
+        final long limit = System.currentTimeMillis() + 5000L;
+        while (metrics.getCompletedCount() < expectedCount && System.currentTimeMillis() < limit) {
+            Thread.sleep(10L);
+        }
+    }
+
+    protected List<String> newArrayList(String... elements) {
+        final List<String> list = new ArrayList<String>();
+        Collections.addAll(list, elements);
+        return list;
+    }
+
+    protected static class MockSqlCounter extends RomanticTraceableSqlStringFilter {
+
+        protected final int countOfSelectCB;
+
+        public MockSqlCounter(int countOfSelectCB) {
+            super(findDummyActionMethod(), () -> null);
+            this.countOfSelectCB = countOfSelectCB;
+        }
+
+        protected static Method findDummyActionMethod() {
+            try {
+                return Object.class.getMethod("toString");
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getCountOfSelectCB() {
+            return countOfSelectCB;
+        }
+    }
+
+    protected static final ThreadLocal<String> VARIOUS_CONTEXT = new ThreadLocal<String>();
+
+    protected static class ContextualMockAsyncManager extends MockAsyncManager {
+
+        protected volatile String callerTransaction; // as transaction on caller thread, null allowed
+
+        public ContextualMockAsyncManager(Integer maxPoolSize, Integer queueCapacity, ConcurrentAsyncOption defaultOption) {
+            super(maxPoolSize, queueCapacity, defaultOption);
+        }
+
+        @Override
+        protected Map<String, Object> findCallerVariousContextMap() {
+            final String various = VARIOUS_CONTEXT.get();
+            return various != null ? Collections.singletonMap("various", various) : null;
+        }
+
+        @Override
+        protected Object prepareVariousContext(ConcurrentAsyncCall call, Map<String, Object> variousContextMap) {
+            if (variousContextMap != null) {
+                VARIOUS_CONTEXT.set((String) variousContextMap.get("various"));
+            }
+            return null;
+        }
+
+        @Override
+        protected void clearVariousContext(ConcurrentAsyncCall call, Map<String, Object> callerVariousContextMap,
+                Object variousPreparedObj) {
+            VARIOUS_CONTEXT.remove();
+        }
+
+        @Override
+        protected TransactionManager findCallerTransactionManager() {
+            return (TransactionManager) Proxy.newProxyInstance(TransactionManager.class.getClassLoader(),
+                    new Class<?>[] { TransactionManager.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("getTransaction")) {
+                            return callerTransaction != null ? createMockTransaction(callerTransaction) : null;
+                        } else if (method.getName().equals("suspend")) {
+                            final Transaction suspended = createMockTransaction(callerTransaction);
+                            callerTransaction = null;
+                            return suspended;
+                        } else if (method.getName().equals("resume")) {
+                            callerTransaction = ((Transaction) args[0]).toString();
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        protected Transaction createMockTransaction(String name) {
+            return (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(), new Class<?>[] { Transaction.class },
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("toString")) {
+                            return name;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    protected static class MockAsyncManager extends SimpleAsyncManager {
+
+        protected final ConcurrentAsyncExecutorProvider provider;
+
+        public MockAsyncManager(Integer maxPoolSize, Integer queueCapacity, ConcurrentAsyncOption defaultOption) {
+            provider = new ConcurrentAsyncExecutorProvider() {
+                public ConcurrentAsyncOption provideDefaultOption() {
+                    return defaultOption;
+                }
+
+                public Integer provideMaxPoolSize() {
+                    return maxPoolSize;
+                }
+
+                public Integer provideQueueCapacity() {
+                    return queueCapacity;
+                }
+            };
+            initialize();
+        }
+
+        @Override
+        protected FwCoreDirection assistCoreDirection() {
+            final FwCoreDirection direction = new FwCoreDirection();
+            direction.directAsync(provider);
+            return direction;
+        }
+
+        @Override
+        protected void handleAsyncCallbackException(ConcurrentAsyncCall call, long before, Throwable cause) {
+            // no exception translator here, and the exception is confirmed by each test
+        }
+
+        public void shutdown() {
+            primaryExecutorService.shutdownNow();
+            secondaryExecutorService.shutdownNow();
+            if (waitingQueueExecutorService != null) {
+                waitingQueueExecutorService.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.lastaflute.core.template;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class SimpleTemplateManagerTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                   Compiled Template
+    //                                                                   =================
+    public void test_parse_compiledTemplate_hit() {
+        // ## Arrange ##
+        MockTemplateManager manager = new MockTemplateManager();
+        manager.registerTemplate("sea.dfmail", "Hello, /*IF pmb.mystic*/mystic/*END*/land");
+
+        // ## Act ##
+        String first = manager.parse("sea.dfmail", newVariableMap(true));
+        String second = manager.parse("sea.dfmail", newVariableMap(false));
+
+        // ## Assert ##
+        log(first, second);
+        assertEquals("Hello, mysticland", first);
+        assertEquals("Hello, land", second); // evaluated by current variables
+        assertEquals(1, manager.getReadCount("sea.dfmail")); // second is cache hit
+    }
+
+    public void test_parse_compiledTemplate_evictedByLeastRecentlyUsed() {
+        // ## Arrange ##
+        MockTemplateManager manager = new MockTemplateManager(); // limit 2
+        manager.registerTemplate("sea.dfmail", "sea");
+        manager.registerTemplate("land.dfmail", "land");
+        manager.registerTemplate("piari.dfmail", "piari");
+
+        // ## Act ##
+        manager.parse("sea.dfmail", newVariableMap(true));
+        manager.parse("land.dfmail", newVariableMap(true));
+        manager.parse("sea.dfmail", newVariableMap(true)); // land is eldest
+        manager.parse("piari.dfmail", newVariableMap(true)); // evicts land
+        manager.parse("sea.dfmail", newVariableMap(true));
+        manager.parse("land.dfmail", newVariableMap(true));
+
+        // ## Assert ##
+        log(manager.compiledTemplateMap.keySet());
+        assertEquals(1, manager.getReadCount("sea.dfmail"));
+        assertEquals(2, manager.getReadCount("land.dfmail")); // read again after eviction
+        assertEquals(1, manager.getReadCount("piari.dfmail"));
+        assertEquals(2, manager.compiledTemplateMap.size());
+    }
+
+    public void test_parse_compiledTemplate_clearedByHotDeploy() {
+        // ## Arrange ##
+        MockTemplateManager manager = new MockTemplateManager();
+        manager.registerTemplate("sea.dfmail", "sea");
+        assertEquals("sea", manager.parse("sea.dfmail", newVariableMap(true)));
+        manager.registerTemplate("sea.dfmail", "modified sea");
+
+        // ## Act ##
+        manager.requestHotDeploy(); // e.g. request ending of HotDeploy
+        String reloaded = manager.parse("sea.dfmail", newVariableMap(true));
+
+        // ## Assert ##
+        assertEquals("modified sea", reloaded);
+        assertEquals(2, manager.getReadCount("sea.dfmail"));
+        assertFalse(manager.hotDeployRequested);
+    }
+
+    public void test_clearCompiledTemplate_basic() {
+        // ## Arrange ##
+        MockTemplateManager manager = new MockTemplateManager();
+        manager.registerTemplate("sea.dfmail", "sea");
+        manager.parse("sea.dfmail", newVariableMap(true));
+
+        // ## Act ##
+        manager.clearCompiledTemplate();
+        manager.parse("sea.dfmail", newVariableMap(true));
+
+        // ## Assert ##
+        assertEquals(2, manager.getReadCount("sea.dfmail"));
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected Map<String, Object> newVariableMap(boolean mystic) {
+        Map<String, Object> variableMap = new HashMap<String, Object>();
+        variableMap.put("mystic", mystic);
+        return variableMap;
+    }
+
+    protected static class MockTemplateManager extends SimpleTemplateManager {
+
+        protected final Map<String, String> templateMap = new LinkedHashMap<String, String>();
+        protected final Map<String, Integer> readCountMap = new HashMap<String, Integer>();
+
+        public void registerTemplate(String templatePath, String body) {
+            templateMap.put(templatePath, "/*\n [" + templatePath + "]\n*/\n>>>\n" + body);
+        }
+
+        public int getReadCount(String templatePath) {
+            final Integer count = readCountMap.get(templatePath);
+            return count != null ? count : 0;
+        }
+
+        @Override
+        protected int getCompiledTemplateCacheLimit() {
+            return 2;
+        }
+
+        @Override
+        protected String readText(String templatePath) {
+            readCountMap.put(templatePath, getReadCount(templatePath) + 1);
+            return templateMap.get(templatePath);
+        }
+    }
+}
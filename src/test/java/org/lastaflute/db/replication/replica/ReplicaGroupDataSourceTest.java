@@ -0,0 +1,263 @@
+package org.lastaflute.db.replication.replica;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class ReplicaGroupDataSourceTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                            Selector
+    //                                                                            ========
+    public void test_weightedRoundRobin_distribution() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        MockDataSource land = new MockDataSource("land");
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource();
+        group.registerReplica("sea", sea, 3).registerReplica("land", land, 1);
+
+        // ## Act ##
+        for (int i = 0; i < 8; i++) {
+            group.getConnection().close();
+        }
+
+        // ## Assert ##
+        log(group);
+        assertEquals(6, sea.getProvidedCount());
+        assertEquals(2, land.getProvidedCount());
+        assertEquals(0, group.getMemberList().get(0).getOutstandingCount());
+    }
+
+    public void test_leastOutstanding_selectIdle() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        MockDataSource land = new MockDataSource("land");
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().asLeastOutstanding();
+        group.registerReplica("sea", sea).registerReplica("land", land);
+
+        // ## Act ##
+        List<Connection> connectionList = new ArrayList<Connection>();
+        for (int i = 0; i < 4; i++) {
+            connectionList.add(group.getConnection()); // not closed
+        }
+
+        // ## Assert ##
+        log(group);
+        assertEquals(2, sea.getProvidedCount());
+        assertEquals(2, land.getProvidedCount());
+        connectionList.get(0).close();
+        connectionList.get(0).close(); // counted only once
+        ReplicaMember released = group.getMemberList().get(0).getOutstandingCount() == 1 ? group.getMemberList().get(0)
+                : group.getMemberList().get(1);
+        assertEquals(1, released.getOutstandingCount());
+        group.getConnection();
+        assertEquals(2, released.getOutstandingCount());
+    }
+
+    // ===================================================================================
+    //                                                                          Quarantine
+    //                                                                          ==========
+    public void test_quarantine_failingReplica() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        MockDataSource land = new MockDataSource("land");
+        land.failing = true;
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().quarantineMillis(60000L);
+        group.registerReplica("sea", sea).registerReplica("land", land);
+
+        // ## Act ##
+        for (int i = 0; i < 4; i++) {
+            group.getConnection().close();
+        }
+
+        // ## Assert ##
+        log(group);
+        assertEquals(4, sea.getProvidedCount());
+        assertEquals(1, land.getRequestedCount()); // quarantined after first failure
+        ReplicaMember landMember = group.getMemberList().get(1);
+        assertTrue(landMember.isQuarantined(System.currentTimeMillis()));
+        assertEquals(1, landMember.getFailureCount());
+        assertEquals(0, landMember.getOutstandingCount());
+    }
+
+    public void test_quarantine_recovered() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        sea.failing = true;
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().quarantineMillis(0L); // tried again soon
+        group.registerReplica("sea", sea).fallbackTo(new MockDataSource("master"));
+        group.getConnection().close(); // fallback
+
+        // ## Act ##
+        sea.failing = false;
+        group.getConnection().close();
+
+        // ## Assert ##
+        ReplicaMember seaMember = group.getMemberList().get(0);
+        assertEquals(0, seaMember.getFailureCount());
+        assertEquals(0L, seaMember.getQuarantinedUntil());
+        assertEquals(1, sea.getProvidedCount());
+    }
+
+    public void test_quarantine_notConnectionFailure() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        MockDataSource land = new MockDataSource("land");
+        land.busy = true; // e.g. pool timeout
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().quarantineMillis(60000L);
+        group.registerReplica("sea", sea).registerReplica("land", land);
+
+        // ## Act ##
+        for (int i = 0; i < 4; i++) {
+            group.getConnection().close();
+        }
+
+        // ## Assert ##
+        log(group);
+        assertEquals(4, sea.getProvidedCount());
+        assertEquals(2, land.getRequestedCount()); // tried again because of no quarantine
+        ReplicaMember landMember = group.getMemberList().get(1);
+        assertFalse(landMember.isQuarantined(System.currentTimeMillis()));
+        assertEquals(0, landMember.getOutstandingCount());
+    }
+
+    // ===================================================================================
+    //                                                                  Replica Connection
+    //                                                                  ==================
+    public void test_replicaConnection_unwrap() throws SQLException {
+        // ## Arrange ##
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().registerReplica("sea", new MockDataSource("sea"));
+        Connection connection = group.getConnection();
+
+        // ## Act ##
+        Connection unwrapped = connection.unwrap(Connection.class);
+
+        // ## Assert ##
+        assertSame(connection, unwrapped);
+        assertTrue(connection.isWrapperFor(Connection.class));
+        unwrapped.close();
+        assertEquals(0, group.getMemberList().get(0).getOutstandingCount());
+    }
+
+    // ===================================================================================
+    //                                                                            Fallback
+    //                                                                            ========
+    public void test_fallback_allReplicaFailure() throws SQLException {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        MockDataSource land = new MockDataSource("land");
+        MockDataSource master = new MockDataSource("master");
+        sea.failing = true;
+        land.failing = true;
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource();
+        group.registerReplica("sea", sea).registerReplica("land", land).fallbackTo(master);
+
+        // ## Act ##
+        group.getConnection().close();
+        group.getConnection().close(); // both quarantined
+
+        // ## Assert ##
+        assertEquals(2, master.getProvidedCount());
+        assertEquals(1, sea.getRequestedCount());
+        assertEquals(1, land.getRequestedCount());
+    }
+
+    public void test_fallback_noFallback() {
+        // ## Arrange ##
+        MockDataSource sea = new MockDataSource("sea");
+        sea.failing = true;
+        ReplicaGroupDataSource group = new ReplicaGroupDataSource().registerReplica("sea", sea);
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            group.getConnection();
+            fail();
+        } catch (SQLException e) {
+            log(e.getMessage());
+            assertNotNull(e.getCause());
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Mock Helper
+    //                                                                         ===========
+    protected static class MockDataSource implements DataSource {
+
+        protected final String name;
+        protected boolean failing;
+        protected boolean busy;
+        protected int requestedCount;
+        protected int providedCount;
+
+        public MockDataSource(String name) {
+            this.name = name;
+        }
+
+        public Connection getConnection() throws SQLException {
+            ++requestedCount;
+            if (failing) {
+                throw new SQLException("Cannot connect: " + name, "08001");
+            }
+            if (busy) {
+                throw new SQLException("Connection is not available: " + name);
+            }
+            ++providedCount;
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if ("toString".equals(method.getName())) {
+                            return name;
+                        }
+                        return null;
+                    });
+        }
+
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        public void setLoginTimeout(int seconds) {
+        }
+
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        public java.util.logging.Logger getParentLogger() {
+            return null;
+        }
+
+        public <T> T unwrap(Class<T> iface) {
+            return null;
+        }
+
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+
+        public int getRequestedCount() {
+            return requestedCount;
+        }
+
+        public int getProvidedCount() {
+            return providedCount;
+        }
+    }
+}
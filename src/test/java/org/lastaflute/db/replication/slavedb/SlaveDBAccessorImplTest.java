@@ -0,0 +1,147 @@
+package org.lastaflute.db.replication.slavedb;
+
+import javax.sql.DataSource;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.db.replication.selectable.SelectableDataSourceHolder;
+
+/**
+ * @author jflute
+ */
+public class SlaveDBAccessorImplTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                    Read Your Writes
+    //                                                                    ================
+    public void test_accessFixedly_readYourWrites_disabledAsDefault() {
+        ThreadCacheContext.initialize();
+        try {
+            // ## Arrange ##
+            MockSlaveDBAccessor accessor = new MockSlaveDBAccessor(false, null);
+            accessor.slaveDBWriteHistory.markWritten("maihamadb");
+
+            // ## Act ##
+            String key = accessor.accessFixedly(() -> accessor.currentKey());
+
+            // ## Assert ##
+            assertEquals(SlaveDBAccessor.SLAVE_DB, key);
+            assertFalse(accessor.slaveDBWriteHistory.isRecordingEnabled()); // no recording cost
+            assertFalse(accessor.slaveDBWriteHistory.isWrittenOnThread(null));
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    public void test_accessFixedly_readYourWrites_writtenOnThread() {
+        ThreadCacheContext.initialize();
+        try {
+            // ## Arrange ##
+            MockSlaveDBAccessor accessor = new MockSlaveDBAccessor(true, null);
+            assertEquals(SlaveDBAccessor.SLAVE_DB, accessor.accessFixedly(() -> accessor.currentKey()));
+            accessor.slaveDBWriteHistory.markWritten("maihamadb");
+
+            // ## Act ##
+            String key = accessor.accessFixedly(() -> accessor.currentKey());
+
+            // ## Assert ##
+            assertEquals(SlaveDBAccessor.MASTER_DB, key);
+            assertEquals(SlaveDBAccessor.MASTER_DB, accessor.currentKey()); // restored
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    public void test_accessFixedly_readYourWrites_writtenToOtherSchema() {
+        ThreadCacheContext.initialize();
+        try {
+            // ## Arrange ##
+            MockSlaveDBAccessor accessor = new MockSlaveDBAccessor(true, "resortlinedb");
+            accessor.slaveDBWriteHistory.markWritten("maihamadb");
+
+            // ## Act ##
+            String key = accessor.accessFixedly(() -> accessor.currentKey());
+
+            // ## Assert ##
+            assertEquals(SlaveDBAccessor.SLAVE_DB, key); // not stale for this schema
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    public void test_accessFixedly_readYourWrites_writtenByWriterWithinWindow() {
+        SlaveDBWriteHistoryTest.prepareWriterThread("sea", true);
+        try {
+            // ## Arrange ##
+            MockSlaveDBAccessor accessor = new MockSlaveDBAccessor(true, "maihamadb");
+            accessor.slaveDBWriteHistory.markWritten("maihamadb"); // e.g. previous request
+            ThreadCacheContext.initialize(); // next request of the same user
+            ThreadCacheContext.registerUserBean("sea");
+            accessor.windowMillis = 3000L;
+
+            // ## Act ##
+            String key = accessor.accessFixedly(() -> accessor.currentKey());
+
+            // ## Assert ##
+            assertEquals(SlaveDBAccessor.MASTER_DB, key);
+            accessor.windowMillis = 0L; // only in thread
+            assertEquals(SlaveDBAccessor.SLAVE_DB, accessor.accessFixedly(() -> accessor.currentKey()));
+        } finally {
+            SlaveDBWriteHistoryTest.clearWriterThread();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Mock Helper
+    //                                                                         ===========
+    protected static class MockSlaveDBAccessor extends SlaveDBAccessorImpl {
+
+        protected final boolean readYourWritesEnabled;
+        protected final String schemaKey;
+        protected long windowMillis;
+
+        public MockSlaveDBAccessor(boolean readYourWritesEnabled, String schemaKey) {
+            this.readYourWritesEnabled = readYourWritesEnabled;
+            this.schemaKey = schemaKey;
+            this.selectableDataSourceHolder = new MockSelectableDataSourceHolder();
+            this.slaveDBWriteHistory = new SlaveDBWriteHistory();
+            initialize(); // enables recording if read-your-writes
+        }
+
+        public String currentKey() {
+            return selectableDataSourceHolder.getCurrentSelectableDataSourceKey();
+        }
+
+        @Override
+        protected boolean isReadYourWritesEnabled() {
+            return readYourWritesEnabled;
+        }
+
+        @Override
+        protected String myReadYourWritesSchemaKey() {
+            return schemaKey;
+        }
+
+        @Override
+        protected long getReadYourWritesWindowMillis() {
+            return windowMillis;
+        }
+    }
+
+    protected static class MockSelectableDataSourceHolder implements SelectableDataSourceHolder {
+
+        protected String currentKey = SlaveDBAccessor.MASTER_DB;
+
+        public void switchSelectableDataSourceKey(String key) {
+            currentKey = key;
+        }
+
+        public String getCurrentSelectableDataSourceKey() {
+            return currentKey;
+        }
+
+        public DataSource getSelectedDataSource() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.lastaflute.db.replication.slavedb;
+
+import java.lang.reflect.Proxy;
+
+import org.dbflute.bhv.core.BehaviorCommandMeta;
+import org.dbflute.dbmeta.DBMeta;
+import org.dbflute.hook.AccessContext;
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.db.dbflute.accesscontext.PreparedAccessContext;
+
+/**
+ * @author jflute
+ */
+public class SlaveDBWriteHistoryTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                           On Thread
+    //                                                                           =========
+    public void test_markWrittenIfUpdate_onThread_bySchema() {
+        SlaveDBWriteHistory history = createEnabledHistory();
+        ThreadCacheContext.initialize();
+        try {
+            // ## Arrange ##
+            assertFalse(history.isWrittenOnThread(null));
+
+            // ## Act ##
+            history.markWrittenIfUpdate(mockCommandMeta("maihamadb", true)); // select
+            assertFalse(history.isWrittenOnThread(null));
+            history.markWrittenIfUpdate(mockCommandMeta("maihamadb", false));
+
+            // ## Assert ##
+            assertTrue(history.isWrittenOnThread("maihamadb"));
+            assertTrue(history.isWrittenOnThread(null)); // any schema
+            assertFalse(history.isWrittenOnThread("resortlinedb")); // other schema
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    public void test_markWritten_onThread_unknownSchema() {
+        SlaveDBWriteHistory history = createEnabledHistory();
+        ThreadCacheContext.initialize();
+        try {
+            // ## Act ##
+            history.markWrittenIfUpdate(mockCommandMeta(null, false)); // no DB meta
+
+            // ## Assert ##
+            assertTrue(history.isWrittenOnThread("maihamadb")); // treated as all schemas
+            assertTrue(history.isWrittenOnThread(null));
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                           By Writer
+    //                                                                           =========
+    public void test_markWritten_byWriter_userAndSchema() {
+        SlaveDBWriteHistory history = createEnabledHistory();
+        prepareWriterThread("sea", true);
+        try {
+            // ## Act ##
+            history.markWritten("maihamadb");
+
+            // ## Assert ##
+            assertTrue(history.isWrittenWithin("sea", "maihamadb", 3000L));
+            assertTrue(history.isWrittenWithin("sea", null, 3000L)); // any schema
+            assertFalse(history.isWrittenWithin("sea", "resortlinedb", 3000L)); // other schema
+            assertFalse(history.isWrittenWithin("land", "maihamadb", 3000L)); // other user
+            assertFalse(history.isWrittenWithin("sea", "maihamadb", 0L)); // out of window
+        } finally {
+            clearWriterThread();
+        }
+    }
+
+    public void test_markWritten_byWriter_fixedUserSkipped() {
+        SlaveDBWriteHistory history = createEnabledHistory();
+        prepareWriterThread("batch", false); // no login user e.g. batch, guest
+        try {
+            // ## Act ##
+            history.markWritten("maihamadb");
+
+            // ## Assert ##
+            assertNull(history.findWriterKeyOnThread());
+            assertFalse(history.isWrittenWithin("batch", "maihamadb", 3000L));
+            assertTrue(history.isWrittenOnThread("maihamadb")); // thread mark is still available
+        } finally {
+            clearWriterThread();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                           Recording
+    //                                                                           =========
+    public void test_markWritten_recordingDisabled() {
+        SlaveDBWriteHistory history = new SlaveDBWriteHistory(); // not enabled by accessor
+        prepareWriterThread("sea", true);
+        try {
+            // ## Act ##
+            history.markWrittenIfUpdate(mockCommandMeta("maihamadb", false));
+            history.markWritten("maihamadb");
+
+            // ## Assert ##
+            assertFalse(history.isRecordingEnabled());
+            assertFalse(history.isWrittenOnThread(null));
+            assertFalse(history.isWrittenWithin("sea", null, 3000L));
+            assertTrue(history.writtenMillisMap.isEmpty());
+        } finally {
+            clearWriterThread();
+        }
+    }
+
+    public void test_markWritten_historyPerInstance() {
+        SlaveDBWriteHistory history = createEnabledHistory();
+        SlaveDBWriteHistory other = createEnabledHistory(); // e.g. after hot deploy
+        prepareWriterThread("sea", true);
+        try {
+            // ## Act ##
+            history.markWritten("maihamadb");
+
+            // ## Assert ##
+            assertTrue(history.isWrittenWithin("sea", "maihamadb", 3000L));
+            assertFalse(other.isWrittenWithin("sea", "maihamadb", 3000L)); // not shared
+        } finally {
+            clearWriterThread();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected static SlaveDBWriteHistory createEnabledHistory() {
+        final SlaveDBWriteHistory history = new SlaveDBWriteHistory();
+        history.enableRecording();
+        return history;
+    }
+
+    protected static void prepareWriterThread(String accessUser, boolean login) {
+        ThreadCacheContext.initialize();
+        if (login) {
+            ThreadCacheContext.registerUserBean(accessUser);
+        }
+        final AccessContext context = new AccessContext();
+        context.setAccessUser(accessUser);
+        PreparedAccessContext.setAccessContextOnThread(context);
+    }
+
+    protected static void clearWriterThread() {
+        PreparedAccessContext.clearAccessContextOnThread();
+        ThreadCacheContext.clear();
+    }
+
+    protected static BehaviorCommandMeta mockCommandMeta(String projectName, boolean select) {
+        final ClassLoader loader = SlaveDBWriteHistoryTest.class.getClassLoader();
+        final DBMeta dbmeta = projectName != null ? (DBMeta) Proxy.newProxyInstance(loader, new Class<?>[] { DBMeta.class },
+                (proxy, method, args) -> "getProjectName".equals(method.getName()) ? projectName : null) : null;
+        return (BehaviorCommandMeta) Proxy.newProxyInstance(loader, new Class<?>[] { BehaviorCommandMeta.class },
+                (proxy, method, args) -> {
+                    final String methodName = method.getName();
+                    if ("isSelect".equals(methodName)) {
+                        return select;
+                    } else if ("getDBMeta".equals(methodName)) {
+                        return dbmeta;
+                    } else if ("isProcedure".equals(methodName) || "isOutsideSql".equals(methodName)) {
+                        return false;
+                    }
+                    return null;
+                });
+    }
+}
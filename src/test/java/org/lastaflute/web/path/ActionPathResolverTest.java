@@ -0,0 +1,210 @@
+package org.lastaflute.web.path;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lastaflute.di.core.ComponentDef;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.Execute;
+import org.lastaflute.web.response.HtmlResponse;
+import org.lastaflute.web.ruts.config.ActionExecute;
+import org.lastaflute.web.ruts.config.ActionMapping;
+import org.lastaflute.web.ruts.config.ExecuteOption;
+import org.lastaflute.web.ruts.config.ModuleConfig;
+import org.lastaflute.web.ruts.config.UrlPatternMatched;
+
+/**
+ * @author jflute
+ */
+public class ActionPathResolverTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                       Routing Index
+    //                                                                       =============
+    public void test_doHandleActionPath_index_exact() throws Exception {
+        // ## Arrange ##
+        MockActionPathResolver resolver = new MockActionPathResolver(prepareModuleConfig());
+        List<String> handledList = new ArrayList<String>();
+
+        // ## Act ##
+        boolean handled = resolver.doHandleActionPath("/sea/land/", createRecordingHandler(handledList));
+
+        // ## Assert ##
+        assertTrue(handled);
+        assertEquals(1, handledList.size());
+        assertEquals("sea_seaLandAction::null", handledList.get(0));
+        assertTrue(resolver.probedPathList.isEmpty());
+        assertTrue(resolver.matchedList.isEmpty());
+    }
+
+    public void test_doHandleActionPath_index_urlPattern() throws Exception {
+        // ## Arrange ##
+        MockActionPathResolver resolver = new MockActionPathResolver(prepareModuleConfig());
+        List<String> handledList = new ArrayList<String>();
+
+        // ## Act ##
+        boolean handled = resolver.doHandleActionPath("/sea/3/", createRecordingHandler(handledList));
+
+        // ## Assert ##
+        assertTrue(handled);
+        assertEquals(1, handledList.size());
+        assertEquals("seaAction:3:index", handledList.get(0));
+        assertEquals(1, resolver.matchedList.size());
+        UrlPatternMatched matched = resolver.matchedList.get(0);
+        assertEquals("3", matched.getParamPath());
+        assertTrue(resolver.probedPathList.isEmpty());
+    }
+
+    public void test_doHandleActionPath_index_notFound() throws Exception {
+        // ## Arrange ##
+        MockActionPathResolver resolver = new MockActionPathResolver(prepareModuleConfig());
+        List<String> handledList = new ArrayList<String>();
+        ActionFoundPathHandler handler = createRecordingHandler(handledList);
+
+        // ## Act ##
+        // ## Assert ##
+        assertFalse(resolver.doHandleActionPath("/mystic/", handler)); // no action
+        assertFalse(resolver.doHandleActionPath("/sea/land/dockside/", handler)); // no URL pattern
+        assertFalse(resolver.doHandleActionPath("/Sea/land/", handler)); // upper case
+        assertTrue(handledList.isEmpty());
+        assertTrue(resolver.probedPathList.isEmpty()); // not hot deploy
+    }
+
+    public void test_doHandleActionPath_index_notFound_probingFallback() throws Exception {
+        // ## Arrange ##
+        MockActionPathResolver resolver = new MockActionPathResolver(prepareModuleConfig());
+        resolver.probingFallback = true; // e.g. hot deploy
+        List<String> handledList = new ArrayList<String>();
+        ActionFoundPathHandler handler = createRecordingHandler(handledList);
+
+        // ## Act ##
+        assertTrue(resolver.doHandleActionPath("/sea/land/", handler)); // registered
+        assertFalse(resolver.doHandleActionPath("/mystic/", handler)); // not registered yet
+
+        // ## Assert ##
+        assertEquals(1, handledList.size());
+        assertEquals(1, resolver.probedPathList.size());
+        assertEquals("/mystic/", resolver.probedPathList.get(0));
+    }
+
+    public void test_prepareRoutingIndex_rebuiltByHotdeploy() throws Exception {
+        // ## Arrange ##
+        ModuleConfig moduleConfig = prepareModuleConfig();
+        MockActionPathResolver resolver = new MockActionPathResolver(moduleConfig);
+        List<String> handledList = new ArrayList<String>();
+        ActionFoundPathHandler handler = createRecordingHandler(handledList);
+        ActionRoutingIndex firstIndex = resolver.prepareRoutingIndex();
+        assertSame(firstIndex, resolver.prepareRoutingIndex()); // no change
+        assertTrue(resolver.doHandleActionPath("/sea/land/", handler));
+
+        // ## Act ##
+        moduleConfig.dispose(); // e.g. hot deploy reloading
+        ActionRoutingIndex disposedIndex = resolver.prepareRoutingIndex();
+        boolean disposedHandled = resolver.doHandleActionPath("/sea/land/", handler);
+        moduleConfig.addActionMapping(createMapping("mysticAction", MockSeaLandAction.class)); // lazy-loaded again
+        ActionRoutingIndex reloadedIndex = resolver.prepareRoutingIndex();
+        boolean reloadedHandled = resolver.doHandleActionPath("/mystic/", handler);
+
+        // ## Assert ##
+        assertNotSame(firstIndex, disposedIndex);
+        assertFalse(disposedHandled);
+        assertNotSame(disposedIndex, reloadedIndex);
+        assertEquals(moduleConfig.getMappingVersion(), reloadedIndex.getMappingVersion());
+        assertTrue(reloadedHandled);
+        assertEquals(2, handledList.size());
+        assertEquals("mysticAction::null", handledList.get(1));
+    }
+
+    // ===================================================================================
+    //                                                                        Mock Helper
+    //                                                                        ===========
+    protected ModuleConfig prepareModuleConfig() {
+        ModuleConfig moduleConfig = new ModuleConfig();
+        moduleConfig.addActionMapping(createMapping("seaAction", MockSeaAction.class));
+        moduleConfig.addActionMapping(createMapping("sea_seaLandAction", MockSeaLandAction.class));
+        return moduleConfig;
+    }
+
+    protected ActionMapping createMapping(String actionName, Class<?> actionType) {
+        ComponentDef actionDef = (ComponentDef) Proxy.newProxyInstance(ComponentDef.class.getClassLoader(),
+                new Class<?>[] { ComponentDef.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getComponentClass")) {
+                        return actionType;
+                    } else if (method.getName().equals("getComponentName")) {
+                        return actionName;
+                    }
+                    return null;
+                });
+        ActionMapping mapping = new ActionMapping(actionDef, actionName, null);
+        for (Method method : actionType.getMethods()) {
+            if (method.getAnnotation(Execute.class) != null) {
+                mapping.registerExecute(new ActionExecute(mapping, method, new ExecuteOption(null, false, false, -1)));
+            }
+        }
+        return mapping;
+    }
+
+    protected ActionFoundPathHandler createRecordingHandler(List<String> handledList) {
+        return (requestPath, actionName, paramPath, methodByParam) -> {
+            String methodExp = methodByParam != null ? methodByParam.getExecuteMethod().getName() : null;
+            handledList.add(actionName + ":" + paramPath + ":" + methodExp);
+            return true;
+        };
+    }
+
+    protected static class MockActionPathResolver extends ActionPathResolver {
+
+        protected final ModuleConfig moduleConfig;
+        protected boolean probingFallback;
+        protected final List<String> probedPathList = new ArrayList<String>();
+        protected final List<UrlPatternMatched> matchedList = new ArrayList<UrlPatternMatched>();
+
+        public MockActionPathResolver(ModuleConfig moduleConfig) {
+            this.moduleConfig = moduleConfig;
+        }
+
+        @Override
+        protected ModuleConfig getModuleConfig() {
+            return moduleConfig;
+        }
+
+        @Override
+        protected ActionRoutingIndex createRoutingIndex(ModuleConfig moduleConfig, int mappingVersion) {
+            return new ActionRoutingIndex(moduleConfig.getActionMappingList(), "Action", mappingVersion);
+        }
+
+        @Override
+        protected boolean isProbingFallbackEnabled() {
+            return probingFallback;
+        }
+
+        @Override
+        protected boolean doHandleActionPathByProbing(String requestPath, ActionFoundPathHandler handler) throws Exception {
+            probedPathList.add(requestPath);
+            return false;
+        }
+
+        @Override
+        protected void saveUrlPatternMatched(UrlPatternMatched matched) {
+            matchedList.add(matched);
+        }
+    }
+
+    public static class MockSeaAction {
+
+        @Execute
+        public HtmlResponse index(int seaId) {
+            return HtmlResponse.asEmptyBody();
+        }
+    }
+
+    public static class MockSeaLandAction {
+
+        @Execute
+        public HtmlResponse index() {
+            return HtmlResponse.asEmptyBody();
+        }
+    }
+}
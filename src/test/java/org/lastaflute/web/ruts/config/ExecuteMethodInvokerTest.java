@@ -0,0 +1,80 @@
+package org.lastaflute.web.ruts.config;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class ExecuteMethodInvokerTest extends UnitLastaFluteTestCase {
+
+    public void test_invoke_basic() throws Exception {
+        // ## Arrange ##
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(findMethod("index"));
+        log(invoker);
+
+        // ## Act ##
+        Object result = invoker.invoke(new MockAction(), new Object[] { 1, "sea", null });
+
+        // ## Assert ##
+        assertTrue(invoker.isMethodHandleInvoking());
+        assertEquals("1:sea:null", result);
+    }
+
+    public void test_invoke_argumentMismatch() throws Exception {
+        // ## Arrange ##
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(findMethod("index"));
+
+        // ## Act ##
+        // ## Assert ##
+        assertArgumentMismatch(invoker, new Object[] { null, "sea", null });
+        assertArgumentMismatch(invoker, new Object[] { 1, 2, null });
+        assertArgumentMismatch(invoker, new Object[] { 1, "sea" });
+    }
+
+    public void test_invoke_exception() throws Exception {
+        // ## Arrange ##
+        ExecuteMethodInvoker invoker = new ExecuteMethodInvoker(findMethod("land"));
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            invoker.invoke(new MockAction(), new Object[] {});
+            fail();
+        } catch (InvocationTargetException e) {
+            assertEquals(IOException.class, e.getTargetException().getClass());
+        }
+    }
+
+    private void assertArgumentMismatch(ExecuteMethodInvoker invoker, Object[] requestArgs) throws Exception {
+        try {
+            invoker.invoke(new MockAction(), requestArgs);
+            fail();
+        } catch (IllegalArgumentException e) {
+            log(e.getMessage());
+        }
+    }
+
+    private Method findMethod(String name) {
+        for (Method method : MockAction.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalStateException("Not found the method: " + name);
+    }
+
+    public static class MockAction {
+
+        public String index(int first, String second, Object form) {
+            return first + ":" + second + ":" + form;
+        }
+
+        public String land() throws IOException {
+            throw new IOException("land");
+        }
+    }
+}
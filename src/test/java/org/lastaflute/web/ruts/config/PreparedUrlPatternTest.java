@@ -0,0 +1,84 @@
+package org.lastaflute.web.ruts.config;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.ruts.config.PreparedUrlPattern.SegmentMatcher;
+import org.lastaflute.web.ruts.config.analyzer.UrlPatternAnalyzer;
+
+/**
+ * @author jflute
+ */
+public class PreparedUrlPatternTest extends UnitLastaFluteTestCase {
+
+    private static final String BASIC = UrlPatternAnalyzer.ELEMENT_BASIC_PATTERN;
+    private static final String NUMBER = UrlPatternAnalyzer.ELEMENT_NUMBER_PATTERN;
+
+    // ===================================================================================
+    //                                                                             Analyze
+    //                                                                             =======
+    public void test_SegmentMatcher_analyze_simple() {
+        assertNotNull(SegmentMatcher.analyze("^" + BASIC + "$"));
+        assertNotNull(SegmentMatcher.analyze("^" + BASIC + "/" + BASIC + "$"));
+        assertNotNull(SegmentMatcher.analyze("^sea/" + BASIC + "$"));
+        assertNotNull(SegmentMatcher.analyze("^" + BASIC + "/land/" + BASIC + "$"));
+        assertNotNull(SegmentMatcher.analyze("^sea/" + NUMBER + "$"));
+        assertNotNull(SegmentMatcher.analyze("^sea\\$land/" + BASIC + "$"));
+        assertEquals("sea", SegmentMatcher.analyze("^sea/" + BASIC + "$").getLiteralFirstSegment());
+        assertNull(SegmentMatcher.analyze("^" + BASIC + "/land$").getLiteralFirstSegment());
+    }
+
+    public void test_SegmentMatcher_analyze_complex() {
+        assertNull(SegmentMatcher.analyze("^" + BASIC + "sea$"));
+        assertNull(SegmentMatcher.analyze("^sea" + BASIC + "$"));
+        assertNull(SegmentMatcher.analyze("^sea.land/" + BASIC + "$"));
+        assertNull(SegmentMatcher.analyze("^sea//" + BASIC + "$"));
+        assertNull(SegmentMatcher.analyze("sea/" + BASIC));
+    }
+
+    // ===================================================================================
+    //                                                                               Match
+    //                                                                               =====
+    public void test_SegmentMatcher_match_sameAsRegexp() {
+        // ## Arrange ##
+        String[] regexps = { "^" + BASIC + "$", "^" + BASIC + "/" + BASIC + "$", "^sea/" + BASIC + "$",
+                "^" + BASIC + "/land/" + BASIC + "$", "^sea/" + NUMBER + "$", "^" + NUMBER + "$", "^sea$",
+                "^sea\\$land/" + BASIC + "$", "^" + NUMBER + "/" + BASIC + "$", "^sea/" + BASIC + "/" + NUMBER + "$" };
+        String[] paths = { "", "sea", "land", "sea/", "/sea", "sea/land", "sea/land/", "sea//land", "sea/land/piari", "sea/1",
+                "sea/1.2", "sea/-1", "sea/1/2", "sea/1a", "1", "12/3", "1/sea", "1/land/2", "sea/land/3", "sea$land/1",
+                "sea$land/", "mystic/land/bonvo" };
+
+        // ## Act ##
+        // ## Assert ##
+        for (String regexp : regexps) {
+            SegmentMatcher segmentMatcher = SegmentMatcher.analyze(regexp);
+            log(regexp + " => " + segmentMatcher);
+            if (segmentMatcher == null) {
+                continue;
+            }
+            Pattern pattern = Pattern.compile(regexp);
+            for (String path : paths) {
+                String[] expected = null;
+                Matcher matcher = pattern.matcher(path);
+                if (matcher.find()) {
+                    expected = new String[matcher.groupCount()];
+                    for (int i = 0; i < expected.length; i++) {
+                        expected[i] = matcher.group(i + 1);
+                    }
+                }
+                String[] actual = segmentMatcher.match(path);
+                assertTrue(regexp + " [" + path + "]: " + Arrays.toString(expected) + ", " + Arrays.toString(actual),
+                        Arrays.equals(expected, actual));
+            }
+        }
+    }
+
+    public void test_endsWithLineTerminator() {
+        assertTrue(PreparedUrlPattern.endsWithLineTerminator("sea\n"));
+        assertTrue(PreparedUrlPattern.endsWithLineTerminator("sea\r"));
+        assertFalse(PreparedUrlPattern.endsWithLineTerminator("sea"));
+        assertFalse(PreparedUrlPattern.endsWithLineTerminator(""));
+    }
+}
@@ -0,0 +1,43 @@
+package org.lastaflute.web.ruts.message.objective;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class PrecompiledMessageFormatTest extends UnitLastaFluteTestCase {
+
+    public void test_format_simple() {
+        assertSameAsMessageFormat("sea is mystic", new Object[] {});
+        assertSameAsMessageFormat("{0} is {1}", new Object[] { "sea", "mystic" });
+        assertSameAsMessageFormat("land {1} and {0}, {0}", new Object[] { "oneman", "minio" });
+        assertSameAsMessageFormat("piari {0} count", new Object[] { 12345 });
+        assertSameAsMessageFormat("bonvo {0}", new Object[] { null });
+        assertSameAsMessageFormat("dstore {2}", new Object[] { "sea" });
+        assertSameAsMessageFormat("amba {0}", null);
+        assertTrue(new PrecompiledMessageFormat("{0} is {1}", Locale.ENGLISH).isSimple());
+    }
+
+    public void test_format_quote() {
+        assertSameAsMessageFormat("sea''s {0}", new Object[] { "mystic" });
+        assertSameAsMessageFormat("'{0}' is {0}", new Object[] { "land" });
+        assertSameAsMessageFormat("unmatched } brace {0}", new Object[] { "piari" });
+    }
+
+    public void test_format_complex() {
+        assertSameAsMessageFormat("sea {0,number,#.##}", new Object[] { 1.2345 });
+        assertSameAsMessageFormat("land {0,choice,0#none|1#one|1<many}", new Object[] { 2 });
+        assertFalse(new PrecompiledMessageFormat("sea {0,number}", Locale.ENGLISH).isSimple());
+    }
+
+    protected void assertSameAsMessageFormat(String pattern, Object[] args) {
+        Locale locale = Locale.ENGLISH;
+        String expected = new MessageFormat(pattern, locale).format(args);
+        String actual = new PrecompiledMessageFormat(pattern, locale).format(args);
+        log(pattern, expected, actual);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,98 @@
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class MultipartBodyReaderTest extends UnitLastaFluteTestCase {
+
+    private static final String BOUNDARY = "----LastaBoundary7MA4YWxk";
+
+    public void test_read_basic() throws Exception {
+        // ## Arrange ##
+        String body = "preamble\r\n" //
+                + "--" + BOUNDARY + "\r\n" //
+                + "Content-Disposition: form-data; name=\"sea\"\r\n" //
+                + "\r\n" //
+                + "mystic\r\n" //
+                + "--" + BOUNDARY + "\r\n" //
+                + "Content-Disposition: form-data; name=\"land\"; filename=\"oneman.txt\"\r\n" //
+                + "Content-Type: text/plain\r\n" //
+                + "\r\n" //
+                + "piari\r\n--" + BOUNDARY.substring(0, 10) + "\r\nbonvo\r\n" //
+                + "--" + BOUNDARY + "--\r\n" //
+                + "epilogue";
+        MultipartBodyReader reader = new MultipartBodyReader(newSlowInputStream(body), BOUNDARY);
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(reader.skipPreamble());
+        List<String> firstHeaderList = reader.readHeaderLines(StandardCharsets.UTF_8);
+        assertEquals(1, firstHeaderList.size());
+        assertEquals("Content-Disposition: form-data; name=\"sea\"", firstHeaderList.get(0));
+        ByteArrayOutputStream firstOut = new ByteArrayOutputStream();
+        assertTrue(reader.readPartBody(firstOut));
+        assertEquals("mystic", firstOut.toString("UTF-8"));
+
+        List<String> secondHeaderList = reader.readHeaderLines(StandardCharsets.UTF_8);
+        assertEquals(2, secondHeaderList.size());
+        ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+        assertFalse(reader.readPartBody(secondOut));
+        assertEquals("piari\r\n--" + BOUNDARY.substring(0, 10) + "\r\nbonvo", secondOut.toString("UTF-8"));
+    }
+
+    public void test_read_large() throws Exception {
+        // ## Arrange ##
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append(i % 10 == 0 ? "\r\n-" : "x");
+        }
+        String data = sb.toString();
+        String body = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"sea\"\r\n\r\n" + data + "\r\n--" + BOUNDARY + "--";
+        MultipartBodyReader reader = new MultipartBodyReader(newSlowInputStream(body), BOUNDARY);
+
+        // ## Act ##
+        assertTrue(reader.skipPreamble());
+        reader.readHeaderLines(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean hasNext = reader.readPartBody(out);
+
+        // ## Assert ##
+        assertFalse(hasNext);
+        assertEquals(data, out.toString("UTF-8"));
+    }
+
+    public void test_read_noCloseBoundary() throws Exception {
+        // ## Arrange ##
+        String body = "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"sea\"\r\n\r\nmystic";
+        MultipartBodyReader reader = new MultipartBodyReader(newSlowInputStream(body), BOUNDARY);
+        assertTrue(reader.skipPreamble());
+        reader.readHeaderLines(StandardCharsets.UTF_8);
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            reader.readPartBody(new ByteArrayOutputStream());
+            fail();
+        } catch (IOException e) {
+            log(e.getMessage());
+        }
+    }
+
+    private InputStream newSlowInputStream(String body) { // to test buffer boundary
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+    }
+}
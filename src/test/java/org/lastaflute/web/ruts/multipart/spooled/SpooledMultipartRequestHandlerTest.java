@@ -0,0 +1,122 @@
+package org.lastaflute.web.ruts.multipart.spooled;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class SpooledMultipartRequestHandlerTest extends UnitLastaFluteTestCase {
+
+    private static final String BOUNDARY = "----LastaBoundary7MA4YWxk";
+    private static final String FRONT_BODY = "--" + BOUNDARY + "\r\n" //
+            + "Content-Disposition: form-data; name=\"sea\"\r\n" //
+            + "\r\n" //
+            + "mys";
+
+    public void test_handleRequest_basic() throws Exception {
+        // ## Arrange ##
+        String body = FRONT_BODY + "tic\r\n--" + BOUNDARY + "--\r\n";
+        SpooledMultipartRequestHandler handler = createHandler();
+
+        // ## Act ##
+        handler.handleRequest(createRequest(newInputStream(body, null)));
+
+        // ## Assert ##
+        assertEquals("mystic", handler.getTextElements().get("sea")[0]);
+    }
+
+    public void test_handleRequest_clientAbort() throws Exception {
+        // ## Arrange ##
+        IOException abort = new IOException("Connection reset by peer");
+        SpooledMultipartRequestHandler handler = createHandler();
+
+        // ## Act ##
+        try {
+            handler.handleRequest(createRequest(newInputStream(FRONT_BODY, abort)));
+            // ## Assert ##
+            fail();
+        } catch (IOException e) {
+            assertSame(abort, e); // as it is, not parse failure
+        }
+    }
+
+    public void test_handleRequest_illegalFormat() throws Exception {
+        // ## Arrange ##
+        SpooledMultipartRequestHandler handler = createHandler();
+
+        // ## Act ##
+        try {
+            handler.handleRequest(createRequest(newInputStream(FRONT_BODY, null))); // unexpected end
+            // ## Assert ##
+            fail();
+        } catch (ServletException e) {
+            log(e.getMessage());
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected SpooledMultipartRequestHandler createHandler() {
+        return new SpooledMultipartRequestHandler(1024, -1L, -1L, null);
+    }
+
+    protected HttpServletRequest createRequest(InputStream ins) {
+        ServletInputStream servletIns = new ServletInputStream() {
+            public int read() throws IOException {
+                return ins.read();
+            }
+
+            public boolean isFinished() {
+                return false;
+            }
+
+            public boolean isReady() {
+                return true;
+            }
+
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+                    final String methodName = method.getName();
+                    if (methodName.equals("getContentType")) {
+                        return "multipart/form-data; boundary=" + BOUNDARY;
+                    } else if (methodName.equals("getContentLengthLong")) {
+                        return -1L;
+                    } else if (methodName.equals("getInputStream")) {
+                        return servletIns;
+                    } else if (methodName.equals("getRequestURI")) {
+                        return "/sea/";
+                    }
+                    return null;
+                });
+    }
+
+    protected InputStream newInputStream(String body, IOException failureAtEnd) { // null allowed: normal end
+        ByteArrayInputStream bodyIns = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                final int read = bodyIns.read();
+                if (read < 0 && failureAtEnd != null) { // e.g. client abort in the middle of body
+                    throw failureAtEnd;
+                }
+                return read;
+            }
+        };
+    }
+}
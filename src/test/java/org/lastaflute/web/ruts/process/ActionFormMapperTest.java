@@ -1,11 +1,20 @@
 package org.lastaflute.web.ruts.process;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
+import org.lastaflute.di.helper.beans.PropertyDesc;
 import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.web.api.JsonParameter;
 import org.lastaflute.web.path.FormMappingOption;
 import org.lastaflute.web.ruts.VirtualForm;
 import org.lastaflute.web.ruts.config.ActionFormMeta;
+import org.lastaflute.web.ruts.process.populate.FormBindingPlan;
+import org.lastaflute.web.ruts.process.populate.FormPropertyBinding;
+import org.lastaflute.web.ruts.process.populate.FormPropertyBinding.FormNativeType;
 
 /**
  * @author jflute
@@ -30,6 +39,101 @@ public class ActionFormMapperTest extends UnitLastaFluteTestCase {
         assertSame(value, actual);
     }
 
+    public void test_setProperty_bindingPlan_nativeType() throws Exception {
+        // ## Arrange ##
+        DeterminationCountingMapper mapper = new DeterminationCountingMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", (ActionFormMeta) null); // dummy
+        SeaForm seaForm = new SeaForm();
+        FormMappingOption option = new FormMappingOption();
+
+        // ## Act ##
+        mapper.setProperty(virtualForm, seaForm, "dockside", new String[] { "over" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "hangar", new String[] { "" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "mysticId", new String[] { "123" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "bonvoDate", new String[] { "2017-09-18" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "showbase", new String[] { "on" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "amphi", new String[] { "false" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "undefined", new String[] { "ignored" }, null, option, null, null);
+
+        // ## Assert ##
+        assertEquals("over", seaForm.dockside);
+        assertNull(seaForm.hangar);
+        assertEquals(Integer.valueOf(123), seaForm.mysticId);
+        assertEquals(LocalDate.of(2017, 9, 18), seaForm.bonvoDate);
+        assertTrue(seaForm.showbase);
+        assertEquals(Boolean.FALSE, seaForm.amphi);
+        log(mapper.jsonDeterminedList, mapper.nativeDeterminedList);
+        assertEquals(1, countOf(mapper.jsonDeterminedList, "mysticId")); // when plan is built
+        assertEquals(1, countOf(mapper.nativeDeterminedList, LocalDate.class));
+    }
+
+    public void test_setProperty_bindingPlan_determinedOnce() throws Exception {
+        // ## Arrange ##
+        DeterminationCountingMapper mapper = new DeterminationCountingMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", (ActionFormMeta) null); // dummy
+        FormMappingOption option = new FormMappingOption();
+        mapper.setProperty(virtualForm, new SeaForm(), "mysticId", new String[] { "1" }, null, option, null, null); // build plan
+        int jsonDeterminedCount = mapper.jsonDeterminedList.size();
+        int nativeDeterminedCount = mapper.nativeDeterminedList.size();
+        SeaForm seaForm = new SeaForm();
+
+        // ## Act ##
+        for (int i = 0; i < 3; i++) {
+            mapper.setProperty(virtualForm, seaForm, "mysticId", new String[] { "123" }, null, option, null, null);
+            mapper.setProperty(virtualForm, seaForm, "idList", new String[] { "1", "2" }, null, option, null, null);
+            mapper.setProperty(virtualForm, seaForm, "nameArray", new String[] { "sea", "land" }, null, option, null, null);
+            mapper.setProperty(virtualForm, seaForm, "landBean", new String[] { "{}" }, null, option, null, null);
+            mapper.setProperty(virtualForm, seaForm, "landList", new String[] { "[]" }, null, option, null, null);
+        }
+
+        // ## Assert ##
+        assertEquals(Integer.valueOf(123), seaForm.mysticId);
+        assertEquals(Arrays.asList(1, 2), seaForm.idList); // element converted by cached element native type
+        assertEquals(Arrays.asList("sea", "land"), Arrays.asList(seaForm.nameArray));
+        assertEquals(jsonDeterminedCount, mapper.jsonDeterminedList.size()); // cached binding is used
+        assertEquals(nativeDeterminedCount, mapper.nativeDeterminedList.size());
+    }
+
+    public void test_setProperty_bindingPlan_jsonParameter() throws Exception {
+        // ## Arrange ##
+        DeterminationCountingMapper mapper = new DeterminationCountingMapper();
+        VirtualForm virtualForm = new VirtualForm(() -> "", (ActionFormMeta) null); // dummy
+        SeaForm seaForm = new SeaForm();
+        FormMappingOption option = new FormMappingOption();
+
+        // ## Act ##
+        mapper.setProperty(virtualForm, seaForm, "landBean", new String[] { "{\"oneman\":\"mystic\"}" }, null, option, null, null);
+        mapper.setProperty(virtualForm, seaForm, "landList", new String[] { "[{\"oneman\":\"bonvo\"}]" }, null, option, null, null);
+
+        // ## Assert ##
+        log(mapper.parsedJsonList);
+        assertEquals("{\"oneman\":\"mystic\"}", seaForm.landBean.oneman);
+        assertEquals(1, seaForm.landList.size());
+        assertEquals("[{\"oneman\":\"bonvo\"}]", seaForm.landList.get(0).oneman);
+        assertEquals(Arrays.asList("landBean", "landList"), mapper.parsedJsonList);
+        assertEquals(1, countOf(mapper.jsonDeterminedList, "landBean"));
+        assertEquals(1, countOf(mapper.jsonDeterminedList, "landList"));
+    }
+
+    public void test_setProperty_bindingPlan_aliasCached() throws Exception {
+        // ## Arrange ##
+        DeterminationCountingMapper mapper = new DeterminationCountingMapper();
+        FormBindingPlan plan = mapper.newFormBindingPlan(SeaForm.class);
+        int jsonDeterminedCount = mapper.jsonDeterminedList.size();
+
+        // ## Act ##
+        FormPropertyBinding binding = plan.findBinding("mysticId");
+        FormPropertyBinding alias = plan.findBinding("MYSTICID"); // case-insensitive
+        FormPropertyBinding cached = plan.findBinding("MYSTICID");
+
+        // ## Assert ##
+        assertNotNull(binding);
+        assertSame(binding, alias); // shared with the property name
+        assertSame(binding, cached);
+        assertNull(plan.findBinding("undefined"));
+        assertEquals(jsonDeterminedCount, mapper.jsonDeterminedList.size()); // no new binding
+    }
+
     // ===================================================================================
     //                                                                    setMapProperty()
     //                                                                    ================
@@ -97,6 +201,22 @@ public class ActionFormMapperTest extends UnitLastaFluteTestCase {
     public static class SeaForm {
         public Map<String, String[]> landMap;
         public Map<String, String> iksMap;
+        public String dockside;
+        public String hangar;
+        public Integer mysticId;
+        public LocalDate bonvoDate;
+        public boolean showbase;
+        public Boolean amphi;
+        public List<Integer> idList;
+        public String[] nameArray;
+        @JsonParameter
+        public LandBean landBean;
+        @JsonParameter
+        public List<LandBean> landList;
+    }
+
+    public static class LandBean {
+        public String oneman;
     }
 
     // ===================================================================================
@@ -105,4 +225,49 @@ public class ActionFormMapperTest extends UnitLastaFluteTestCase {
     protected ActionFormMapper createMapper() {
         return new ActionFormMapper(null, null, null);
     }
+
+    protected int countOf(List<?> list, Object target) {
+        return (int) list.stream().filter(el -> el.equals(target)).count();
+    }
+
+    protected static class DeterminationCountingMapper extends ActionFormMapper {
+
+        protected final List<String> jsonDeterminedList = new ArrayList<String>(); // property names
+        protected final List<Class<?>> nativeDeterminedList = new ArrayList<Class<?>>(); // property (or element) types
+        protected final List<String> parsedJsonList = new ArrayList<String>(); // property names
+
+        public DeterminationCountingMapper() {
+            super(null, null, null);
+        }
+
+        @Override
+        protected boolean isJsonParameterProperty(PropertyDesc pd) {
+            jsonDeterminedList.add(pd.getPropertyName());
+            return super.isJsonParameterProperty(pd);
+        }
+
+        @Override
+        protected FormNativeType determineNativeType(Class<?> propertyType) {
+            nativeDeterminedList.add(propertyType);
+            return super.determineNativeType(propertyType);
+        }
+
+        @Override
+        protected Object parseJsonParameterAsObject(VirtualForm virtualForm, Object bean, String name, String json, PropertyDesc pd) {
+            parsedJsonList.add(name);
+            return newLandBean(json); // without JSON manager
+        }
+
+        @Override
+        protected List<?> parseJsonParameterAsList(VirtualForm virtualForm, Object bean, String name, String json, PropertyDesc pd) {
+            parsedJsonList.add(name);
+            return Arrays.asList(newLandBean(json));
+        }
+
+        protected LandBean newLandBean(String json) {
+            LandBean bean = new LandBean();
+            bean.oneman = json;
+            return bean;
+        }
+    }
 }
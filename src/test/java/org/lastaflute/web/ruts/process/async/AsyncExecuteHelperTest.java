@@ -0,0 +1,190 @@
+package org.lastaflute.web.ruts.process.async;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.core.magic.ThreadCacheContext;
+import org.lastaflute.web.exception.AsyncExecuteTimeoutException;
+import org.lastaflute.web.ruts.NextJourney;
+import org.lastaflute.web.ruts.NextJourney.AsyncJourneyProvider;
+import org.lastaflute.web.ruts.process.ActionRuntime;
+import org.lastaflute.web.servlet.request.RequestManager;
+
+/**
+ * @author jflute
+ */
+public class AsyncExecuteHelperTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                       Determination
+    //                                                                       =============
+    public void test_isAsyncAvailable_alreadyDone() {
+        // ## Arrange ##
+        MockRequest request = new MockRequest(true);
+        AsyncExecuteHelper helper = new MockAsyncExecuteHelper(request, 0L);
+        MockJourneyProvider provider = new MockJourneyProvider(CompletableFuture.completedFuture("sea"));
+
+        // ## Act ##
+        boolean available = helper.isAsyncAvailable(provider);
+        helper.resumeSynchronously(createRuntime(), provider);
+
+        // ## Assert ##
+        assertFalse(available);
+        assertEquals(0, request.startAsyncCount); // request is not asked
+        assertEquals("sea", provider.asyncResult);
+        assertNull(provider.asyncCause);
+    }
+
+    public void test_isAsyncAvailable_asyncUnsupported() {
+        // ## Arrange ##
+        MockRequest request = new MockRequest(false);
+        AsyncExecuteHelper helper = new MockAsyncExecuteHelper(request, 0L);
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        MockJourneyProvider provider = new MockJourneyProvider(future);
+
+        // ## Act ##
+        boolean available = helper.isAsyncAvailable(provider);
+        new Thread(() -> future.complete("land")).start();
+        helper.resumeSynchronously(createRuntime(), provider); // waits for completion
+
+        // ## Assert ##
+        assertFalse(available);
+        assertEquals(0, request.startAsyncCount);
+        assertEquals("land", provider.asyncResult);
+        assertNull(provider.asyncCause);
+    }
+
+    // ===================================================================================
+    //                                                                  Synchronous Resume
+    //                                                                  ==================
+    public void test_resumeSynchronously_timeout() {
+        // ## Arrange ##
+        AsyncExecuteHelper helper = new MockAsyncExecuteHelper(new MockRequest(false), 10L);
+        MockJourneyProvider provider = new MockJourneyProvider(new CompletableFuture<Object>()); // never completed
+
+        // ## Act ##
+        helper.resumeSynchronously(createRuntime(), provider);
+
+        // ## Assert ##
+        log(provider.asyncCause);
+        assertNull(provider.asyncResult);
+        assertNotNull(provider.asyncCause);
+        assertTrue(provider.asyncCause instanceof AsyncExecuteTimeoutException);
+    }
+
+    // ===================================================================================
+    //                                                                         Start Async
+    //                                                                         ===========
+    public void test_startAsync_failure_keepMultipartHandler() {
+        // ## Arrange ##
+        MockRequest request = new MockRequest(true); // but startAsync() fails e.g. by a filter
+        AsyncExecuteHelper helper = new MockAsyncExecuteHelper(request, 0L);
+        MockJourneyProvider provider = new MockJourneyProvider(new CompletableFuture<Object>());
+        List<Object> arrivedList = new ArrayList<Object>();
+        ThreadCacheContext.initialize();
+        try {
+            ThreadCacheContext.registerMultipartHandler("sea");
+
+            // ## Act ##
+            boolean started = helper.startAsync(createRuntime(), provider, (asyncResult, asyncCause) -> {
+                arrivedList.add(asyncResult);
+            });
+
+            // ## Assert ##
+            assertFalse(started);
+            assertEquals(1, request.startAsyncCount);
+            assertTrue(arrivedList.isEmpty());
+            List<Object> handlerList = ThreadCacheContext.getObject(ThreadCacheContext.FW_MULTIPART_HANDLERS);
+            assertNotNull(handlerList); // still finished by the request thread
+            assertEquals(1, handlerList.size());
+        } finally {
+            ThreadCacheContext.clear();
+        }
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected ActionRuntime createRuntime() {
+        return new ActionRuntime("/sea/", null, null);
+    }
+
+    protected static class MockAsyncExecuteHelper extends AsyncExecuteHelper {
+
+        protected final long timeoutMillis;
+
+        public MockAsyncExecuteHelper(MockRequest request, long timeoutMillis) {
+            super(null, createRequestManager(request));
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        protected long provideAsyncTimeoutMillis(ActionRuntime runtime) {
+            return timeoutMillis;
+        }
+    }
+
+    protected static RequestManager createRequestManager(MockRequest request) {
+        return (RequestManager) Proxy.newProxyInstance(RequestManager.class.getClassLoader(), new Class<?>[] { RequestManager.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getRequest")) {
+                        return request.toProxy();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    protected static class MockRequest {
+
+        protected final boolean asyncSupported;
+        protected int startAsyncCount;
+
+        public MockRequest(boolean asyncSupported) {
+            this.asyncSupported = asyncSupported;
+        }
+
+        public HttpServletRequest toProxy() {
+            return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                    new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+                        final String name = method.getName();
+                        if (name.equals("isAsyncSupported")) {
+                            return asyncSupported;
+                        } else if (name.equals("startAsync")) {
+                            ++startAsyncCount;
+                            throw new IllegalStateException("Not supported by a filter");
+                        } else if (name.equals("toString")) {
+                            return "mockRequest";
+                        }
+                        throw new UnsupportedOperationException(name);
+                    });
+        }
+    }
+
+    protected static class MockJourneyProvider implements AsyncJourneyProvider {
+
+        protected final CompletableFuture<?> future;
+        protected Object asyncResult;
+        protected Throwable asyncCause;
+
+        public MockJourneyProvider(CompletableFuture<?> future) {
+            this.future = future;
+        }
+
+        @Override
+        public CompletableFuture<?> getAsyncFuture() {
+            return future;
+        }
+
+        @Override
+        public NextJourney resume(Object asyncResult, Throwable asyncCause) {
+            this.asyncResult = asyncResult;
+            this.asyncCause = asyncCause;
+            return null; // not used
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.lastaflute.web.ruts.process.populate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class FormJsonBodyReaderTest extends UnitLastaFluteTestCase {
+
+    public void test_read_captureWhole() throws Exception {
+        // ## Arrange ##
+        String json = "{\"sea\": \"mystic\", \"land\": 1}";
+        FormJsonBodyReader reader = new FormJsonBodyReader(new StringReader(json), 100);
+
+        // ## Act ##
+        char[] buffer = new char[8];
+        StringBuilder sb = new StringBuilder();
+        int length;
+        while ((length = reader.read(buffer, 0, buffer.length)) >= 0) {
+            sb.append(buffer, 0, length);
+        }
+
+        // ## Assert ##
+        assertEquals(json, sb.toString());
+        assertEquals(json, reader.getCapturedText());
+        assertTrue(reader.isCapturedWhole());
+        assertFalse(reader.isOverflowed());
+    }
+
+    public void test_read_captureLimit() throws Exception {
+        // ## Arrange ##
+        String json = "{\"sea\": \"mystic\", \"land\": 1}";
+        FormJsonBodyReader reader = new FormJsonBodyReader(new StringReader(json), 10);
+
+        // ## Act ##
+        reader.captureRest();
+
+        // ## Assert ##
+        assertEquals(json.substring(0, 10), reader.getCapturedText());
+        assertFalse(reader.isCapturedWhole());
+        assertTrue(reader.isOverflowed());
+    }
+
+    public void test_captureRest_afterMiddleRead() throws Exception {
+        // ## Arrange ##
+        String json = "{\"sea\": \"mystic\", \"land\": 1}";
+        FormJsonBodyReader reader = new FormJsonBodyReader(new StringReader(json), 100);
+        reader.read(new char[5], 0, 5);
+
+        // ## Act ##
+        reader.captureRest();
+
+        // ## Assert ##
+        assertEquals(json, reader.getCapturedText());
+        assertTrue(reader.isCapturedWhole());
+    }
+
+    public void test_read_failureKept() throws Exception {
+        // ## Arrange ##
+        IOException abort = new IOException("Connection reset by peer");
+        FormJsonBodyReader reader = new FormJsonBodyReader(new Reader() {
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                throw abort; // e.g. client abort
+            }
+
+            public void close() {
+            }
+        }, 100);
+        assertNull(reader.getReadFailure());
+
+        // ## Act ##
+        try {
+            reader.read(new char[5], 0, 5);
+            // ## Assert ##
+            fail();
+        } catch (IOException e) {
+            assertSame(abort, e);
+        }
+        assertSame(abort, reader.getReadFailure()); // to be rethrown as it is even if parser wraps it
+        assertFalse(reader.isCapturedWhole());
+    }
+}
@@ -0,0 +1,106 @@
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class AccessLogRingBufferTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                         Ring Buffer
+    //                                                                         ===========
+    public void test_ringBuffer_offer_poll_full() {
+        // ## Arrange ##
+        AccessLogRingBuffer<String> buffer = new AccessLogRingBuffer<String>(3);
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(4, buffer.getCapacity());
+        assertTrue(buffer.isEmpty());
+        assertTrue(buffer.offer("sea"));
+        assertTrue(buffer.offer("land"));
+        assertTrue(buffer.offer("piari"));
+        assertTrue(buffer.offer("bonvo"));
+        assertFalse(buffer.offer("dstore")); // full
+        assertEquals(4, buffer.size());
+        assertEquals("sea", buffer.poll());
+        assertTrue(buffer.offer("dstore")); // next round
+        List<String> drainedList = new ArrayList<String>();
+        assertEquals(4, buffer.drainTo(drainedList, 10));
+        assertEquals("[land, piari, bonvo, dstore]", drainedList.toString());
+        assertNull(buffer.poll());
+    }
+
+    public void test_ringBuffer_concurrentProducers() throws InterruptedException {
+        // ## Arrange ##
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<Integer>(64);
+        int producerCount = 4;
+        int perProducer = 10000;
+        CountDownLatch latch = new CountDownLatch(producerCount);
+        for (int i = 0; i < producerCount; i++) {
+            int base = i * perProducer;
+            new Thread(() -> {
+                for (int j = 0; j < perProducer; j++) {
+                    while (!buffer.offer(base + j)) {
+                        Thread.yield();
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        // ## Act ##
+        Set<Integer> consumedSet = new HashSet<Integer>();
+        while (consumedSet.size() < producerCount * perProducer) {
+            Integer entry = buffer.poll();
+            if (entry != null) {
+                assertTrue(consumedSet.add(entry)); // no duplicate
+            }
+        }
+        latch.await();
+
+        // ## Assert ##
+        assertEquals(producerCount * perProducer, consumedSet.size());
+        assertTrue(buffer.isEmpty());
+    }
+
+    // ===================================================================================
+    //                                                                       Rotating File
+    //                                                                       =============
+    public void test_rotatingFile_rotate() throws Exception {
+        // ## Arrange ##
+        Path dir = Files.createTempDirectory("lasta_access_log");
+        Path logFile = dir.resolve("access.log");
+        AccessLogRotatingFile rotatingFile = new AccessLogRotatingFile(logFile, 10L, 2);
+
+        // ## Act ##
+        try {
+            for (String line : new String[] { "sea\n", "land\n", "piari\n", "bonvo\n", "dstore\n" }) {
+                rotatingFile.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            }
+        } finally {
+            rotatingFile.close();
+        }
+
+        // ## Assert ##
+        assertEquals("dstore\n", read(logFile));
+        assertEquals("bonvo\n", read(dir.resolve("access.log.1")));
+        assertEquals("piari\n", read(dir.resolve("access.log.2"))); // first one was removed
+        assertFalse(Files.exists(dir.resolve("access.log.3")));
+    }
+
+    protected String read(Path path) throws Exception {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,153 @@
+package org.lastaflute.web.servlet.filter.accesslog;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class AsyncAccessLogHandlerTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                            Overflow
+    //                                                                            ========
+    public void test_handle_overflow_discard() throws Exception {
+        // ## Arrange ##
+        Path logFile = Files.createTempDirectory("lasta_access_log").resolve("access.log");
+        AsyncAccessLogHandler handler = new NotStartedAccessLogHandler(logFile, new AsyncAccessLogOption().bufferCapacity(4));
+
+        // ## Act ##
+        for (int i = 0; i < 6; i++) {
+            handler.handle(mockResource("/sea/" + i));
+        }
+
+        // ## Assert ##
+        log(handler);
+        assertEquals(4L, handler.getAcceptedCount());
+        assertEquals(2L, handler.getDroppedCount());
+        assertEquals(4, handler.getBufferedCount());
+    }
+
+    public void test_handle_overflow_wait() throws Exception {
+        // ## Arrange ##
+        Path logFile = Files.createTempDirectory("lasta_access_log").resolve("access.log");
+        AsyncAccessLogOption option = new AsyncAccessLogOption().bufferCapacity(4).waitOnOverflow(5L);
+        AsyncAccessLogHandler handler = new NotStartedAccessLogHandler(logFile, option);
+
+        // ## Act ##
+        long before = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            handler.handle(mockResource("/sea/" + i));
+        }
+        long elapsed = System.currentTimeMillis() - before;
+
+        // ## Assert ##
+        log(handler, elapsed);
+        assertEquals(4L, handler.getAcceptedCount());
+        assertEquals(1L, handler.getDroppedCount()); // after waiting
+        assertTrue(elapsed >= 5L);
+    }
+
+    // ===================================================================================
+    //                                                                              Rotate
+    //                                                                              ======
+    public void test_handle_rotate() throws Exception {
+        // ## Arrange ##
+        Path dir = Files.createTempDirectory("lasta_access_log");
+        Path logFile = dir.resolve("access.log");
+        AsyncAccessLogOption option = new AsyncAccessLogOption().batchSize(1).rotateFileSize(8L).rotateBackupCount(1);
+        option.formatBy((snapshot, sb) -> sb.append(snapshot.getRequestUri()));
+        AsyncAccessLogHandler handler = new AsyncAccessLogHandler(logFile.toString(), option);
+
+        // ## Act ##
+        handler.handle(mockResource("/sea"));
+        handler.handle(mockResource("/land"));
+        handler.handle(mockResource("/piari"));
+        handler.destroy();
+
+        // ## Assert ##
+        log(handler);
+        assertEquals(3L, handler.getWrittenCount());
+        assertEquals("/piari\n", read(logFile));
+        assertEquals("/land\n", read(dir.resolve("access.log.1")));
+        assertFalse(Files.exists(dir.resolve("access.log.2"))); // backup count
+    }
+
+    // ===================================================================================
+    //                                                                             Destroy
+    //                                                                             =======
+    public void test_destroy_acceptedAllWritten() throws Exception {
+        // ## Arrange ##
+        Path logFile = Files.createTempDirectory("lasta_access_log").resolve("access.log");
+        AsyncAccessLogOption option = new AsyncAccessLogOption().bufferCapacity(16).waitOnOverflow(1000L);
+        AsyncAccessLogHandler handler = new AsyncAccessLogHandler(logFile.toString(), option);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    handler.handle(mockResource("/sea"));
+                }
+            });
+            threads[i].start();
+        }
+
+        // ## Act ##
+        Thread.sleep(5L); // destroy while handling
+        handler.destroy();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // ## Assert ##
+        log(handler);
+        assertEquals(2000L, handler.getAcceptedCount() + handler.getDroppedCount());
+        assertEquals(handler.getAcceptedCount(), handler.getWrittenCount()); // not lost
+        assertEquals(handler.getWrittenCount(), (long) Files.readAllLines(logFile).size());
+        handler.handle(mockResource("/land"));
+        assertEquals(handler.getAcceptedCount(), handler.getWrittenCount()); // dropped after destroy
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected static class NotStartedAccessLogHandler extends AsyncAccessLogHandler {
+
+        public NotStartedAccessLogHandler(Path logFile, AsyncAccessLogOption option) {
+            super(logFile.toString(), option);
+        }
+
+        @Override
+        protected void ensureWriterStarted() { // to fill the buffer
+        }
+    }
+
+    protected AccessLogResource mockResource(String requestUri) {
+        ClassLoader loader = getClass().getClassLoader();
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(loader, new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    String methodName = method.getName();
+                    if ("getRequestURI".equals(methodName)) {
+                        return requestUri;
+                    } else if ("getMethod".equals(methodName)) {
+                        return "GET";
+                    }
+                    return null;
+                });
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(loader,
+                new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                    return "getStatus".equals(method.getName()) ? 200 : null;
+                });
+        return new AccessLogResource(request, response, null, System.currentTimeMillis());
+    }
+
+    protected String read(Path path) throws Exception {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
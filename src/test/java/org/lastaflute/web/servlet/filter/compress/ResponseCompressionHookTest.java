@@ -0,0 +1,75 @@
+package org.lastaflute.web.servlet.filter.compress;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.web.servlet.filter.compress.ResponseCompressionOption.CompressionEncoding;
+
+/**
+ * @author jflute
+ */
+public class ResponseCompressionHookTest extends PlainTestCase {
+
+    // ===================================================================================
+    //                                                                         Negotiation
+    //                                                                         ===========
+    public void test_negotiateEncoding_basic() {
+        // ## Arrange ##
+        ResponseCompressionHook hook = new ResponseCompressionHook();
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(CompressionEncoding.GZIP, hook.negotiateEncoding("gzip, deflate, br"));
+        assertEquals(CompressionEncoding.GZIP, hook.negotiateEncoding("x-gzip"));
+        assertEquals(CompressionEncoding.GZIP, hook.negotiateEncoding("*"));
+        assertEquals(CompressionEncoding.DEFLATE, hook.negotiateEncoding("gzip;q=0.5, deflate"));
+        assertEquals(CompressionEncoding.DEFLATE, hook.negotiateEncoding("deflate"));
+        assertNull(hook.negotiateEncoding((String) null));
+        assertNull(hook.negotiateEncoding("identity"));
+        assertNull(hook.negotiateEncoding("gzip;q=0, deflate;q=0"));
+        assertNull(hook.negotiateEncoding("*;q=0"));
+    }
+
+    public void test_negotiateEncoding_gzipOnly() {
+        // ## Arrange ##
+        ResponseCompressionHook hook = new ResponseCompressionHook(new ResponseCompressionOption().gzipOnly());
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals(CompressionEncoding.GZIP, hook.negotiateEncoding("gzip;q=0.5, deflate"));
+        assertNull(hook.negotiateEncoding("deflate"));
+    }
+
+    // ===================================================================================
+    //                                                                        Content Type
+    //                                                                        ============
+    public void test_isCompressibleContentType_default() {
+        // ## Arrange ##
+        ResponseCompressionOption option = new ResponseCompressionOption();
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(option.isCompressibleContentType("application/json; charset=UTF-8"));
+        assertTrue(option.isCompressibleContentType("text/html"));
+        assertTrue(option.isCompressibleContentType("TEXT/CSV"));
+        assertTrue(option.isCompressibleContentType("application/problem+json"));
+        assertFalse(option.isCompressibleContentType("application/zip"));
+        assertFalse(option.isCompressibleContentType("image/jpeg"));
+        assertFalse(option.isCompressibleContentType("video/mp4"));
+        assertFalse(option.isCompressibleContentType("application/octet-stream"));
+        assertFalse(option.isCompressibleContentType(null));
+    }
+
+    public void test_isCompressibleContentType_customized() {
+        // ## Arrange ##
+        ResponseCompressionOption option = new ResponseCompressionOption();
+
+        // ## Act ##
+        option.compressibleContentType("application/x-ndjson", "image/jpeg");
+        option.uncompressibleContentType("text/event-stream");
+
+        // ## Assert ##
+        assertTrue(option.isCompressibleContentType("application/x-ndjson"));
+        assertTrue(option.isCompressibleContentType("image/jpeg"));
+        assertFalse(option.isCompressibleContentType("text/event-stream"));
+        assertTrue(option.isCompressibleContentType("text/plain"));
+    }
+}
@@ -0,0 +1,46 @@
+package org.lastaflute.web.servlet.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class AsyncRequestCompletionTest extends PlainTestCase {
+
+    public void test_finish_deferredInOrder() {
+        // ## Arrange ##
+        AsyncRequestCompletion completion = new AsyncRequestCompletion();
+        List<String> calledList = new ArrayList<String>();
+        completion.deferFinishing(cause -> calledList.add("inner:" + cause.getMessage()));
+        completion.deferFinishing(cause -> {
+            throw new IllegalStateException("broken finishing");
+        });
+        completion.deferFinishing(cause -> calledList.add("outer:" + cause.getMessage()));
+
+        // ## Act ##
+        completion.finish(new IllegalStateException("sea"));
+        completion.finish(null); // ignored
+
+        // ## Assert ##
+        log(calledList);
+        assertTrue(completion.isFinished());
+        assertEquals("[inner:sea, outer:sea]", calledList.toString());
+    }
+
+    public void test_deferFinishing_afterFinished() {
+        // ## Arrange ##
+        AsyncRequestCompletion completion = new AsyncRequestCompletion();
+        completion.finish(null);
+        List<Throwable> causeList = new ArrayList<Throwable>();
+
+        // ## Act ##
+        completion.deferFinishing(cause -> causeList.add(cause)); // e.g. very fast future
+
+        // ## Assert ##
+        assertEquals(1, causeList.size());
+        assertNull(causeList.get(0));
+    }
+}
@@ -0,0 +1,52 @@
+package org.lastaflute.web.servlet.request;
+
+import java.util.List;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.web.servlet.request.ResponseDownloadPerformer.DownloadByteRange;
+
+/**
+ * @author jflute
+ */
+public class ResponseDownloadPerformerTest extends PlainTestCase {
+
+    public void test_parseByteRanges_satisfiable() {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = new ResponseDownloadPerformer();
+
+        // ## Act ##
+        List<DownloadByteRange> rangeList = performer.parseByteRanges("bytes=0-9, 90-, -5, 95-200", 100L);
+
+        // ## Assert ##
+        log(rangeList);
+        assertEquals(4, rangeList.size());
+        assertEquals("bytes 0-9/100", rangeList.get(0).toContentRange(100L));
+        assertEquals("bytes 90-99/100", rangeList.get(1).toContentRange(100L));
+        assertEquals("bytes 95-99/100", rangeList.get(2).toContentRange(100L));
+        assertEquals("bytes 95-99/100", rangeList.get(3).toContentRange(100L));
+        assertEquals(10L, rangeList.get(0).getLength());
+    }
+
+    public void test_parseByteRanges_unsatisfiable() {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = new ResponseDownloadPerformer();
+
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(performer.parseByteRanges("bytes=100-", 100L).isEmpty());
+        assertTrue(performer.parseByteRanges("bytes=-0", 100L).isEmpty());
+    }
+
+    public void test_parseByteRanges_invalid() {
+        // ## Arrange ##
+        ResponseDownloadPerformer performer = new ResponseDownloadPerformer();
+
+        // ## Act ##
+        // ## Assert ##
+        assertNull(performer.parseByteRanges("items=0-9", 100L));
+        assertNull(performer.parseByteRanges("bytes=9-0", 100L));
+        assertNull(performer.parseByteRanges("bytes=sea", 100L));
+        assertNull(performer.parseByteRanges("bytes=-", 100L));
+        assertNull(performer.parseByteRanges("bytes=0-0,1-1,2-2,3-3,4-4,5-5,6-6,7-7,8-8,9-9,10-10,11-11,12-12,13-13,14-14,15-15,16-16", 100L));
+    }
+}
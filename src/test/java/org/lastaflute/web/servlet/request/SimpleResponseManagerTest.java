@@ -0,0 +1,244 @@
+package org.lastaflute.web.servlet.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class SimpleResponseManagerTest extends PlainTestCase {
+
+    public void test_buildVersionETag_basic() {
+        // ## Arrange ##
+        SimpleResponseManager manager = new SimpleResponseManager();
+
+        // ## Act ##
+        // ## Assert ##
+        assertEquals("\"product-3-12\"", manager.buildVersionETag("product-3-12"));
+        String hashed = manager.buildVersionETag("has \"quote\" and space");
+        log(hashed);
+        assertTrue(hashed.startsWith("\"") && hashed.endsWith("\""));
+        assertFalse(hashed.contains(" "));
+        assertEquals(hashed, manager.buildVersionETag("has \"quote\" and space"));
+    }
+
+    public void test_buildBodyETag_basic() {
+        // ## Arrange ##
+        SimpleResponseManager manager = new SimpleResponseManager();
+
+        // ## Act ##
+        String sea = manager.buildBodyETag("{\"sea\":1}");
+        String land = manager.buildBodyETag("{\"sea\":2}");
+
+        // ## Assert ##
+        log(sea, land);
+        assertEquals(sea, manager.buildBodyETag("{\"sea\":1}"));
+        assertFalse(sea.equals(land));
+        assertTrue(sea.endsWith("-9\""));
+    }
+
+    public void test_doCheckNotModified_matched() {
+        // ## Arrange ##
+        Map<String, Object> responseMap = new HashMap<String, Object>();
+        SimpleResponseManager manager = new MockConditionalResponseManager("GET", "\"land\", \"sea\"", responseMap);
+
+        // ## Act ##
+        boolean notModified = manager.doCheckNotModified("\"sea\"");
+
+        // ## Assert ##
+        assertTrue(notModified);
+        assertEquals("\"sea\"", responseMap.get("ETag"));
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, responseMap.get("status"));
+    }
+
+    public void test_doCheckNotModified_notGetRequest() {
+        // ## Arrange ##
+        Map<String, Object> responseMap = new HashMap<String, Object>();
+        SimpleResponseManager manager = new MockConditionalResponseManager("POST", "\"sea\"", responseMap);
+
+        // ## Act ##
+        boolean notModified = manager.doCheckNotModified("\"sea\"");
+
+        // ## Assert ##
+        assertFalse(notModified);
+        assertTrue(responseMap.isEmpty()); // no ETag for update request
+    }
+
+    protected static class MockConditionalResponseManager extends SimpleResponseManager {
+
+        protected final String requestMethod;
+        protected final String ifNoneMatch;
+        protected final Map<String, Object> responseMap;
+
+        public MockConditionalResponseManager(String requestMethod, String ifNoneMatch, Map<String, Object> responseMap) {
+            this.requestMethod = requestMethod;
+            this.ifNoneMatch = ifNoneMatch;
+            this.responseMap = responseMap;
+        }
+
+        @Override
+        public HttpServletResponse getResponse() {
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                        final String name = method.getName();
+                        if (name.equals("setHeader")) {
+                            responseMap.put((String) args[0], args[1]);
+                        } else if (name.equals("setStatus")) {
+                            responseMap.put("status", args[0]);
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        protected RequestManager getRequestManager() {
+            final HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+                        final String name = method.getName();
+                        if (name.equals("getMethod")) {
+                            return requestMethod;
+                        } else if (name.equals("getHeader") && "If-None-Match".equals(args[0])) {
+                            return ifNoneMatch;
+                        }
+                        return null;
+                    });
+            return (RequestManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { RequestManager.class },
+                    (proxy, method, args) -> {
+                        return method.getName().equals("getRequest") ? request : null;
+                    });
+        }
+    }
+
+    // ===================================================================================
+    //                                                                           Streaming
+    //                                                                           =========
+    public void test_doWriteByStreaming_completed() {
+        // ## Arrange ##
+        SimpleResponseManager manager = new SimpleResponseManager();
+        MockStreamingResponse mock = new MockStreamingResponse(false);
+
+        // ## Act ##
+        manager.doWriteByStreaming(mock.toResponse(), out -> out.write("[{\"sea\":1}]"), "application/json", "UTF-8");
+
+        // ## Assert ##
+        assertEquals("[{\"sea\":1}]", mock.getWrittenText());
+        assertTrue(mock.isClosed());
+        assertFalse(mock.isResetBuffer());
+    }
+
+    public void test_doWriteByStreaming_failureBeforeCommitted() {
+        // ## Arrange ##
+        SimpleResponseManager manager = new SimpleResponseManager();
+        MockStreamingResponse mock = new MockStreamingResponse(false);
+
+        // ## Act ##
+        try {
+            manager.doWriteByStreaming(mock.toResponse(), out -> {
+                out.write("[{\"sea\":1},");
+                throw new IllegalStateException("mystic in the middle of stream");
+            }, "application/json", "UTF-8");
+            // ## Assert ##
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+            assertEquals("mystic in the middle of stream", e.getMessage());
+        }
+        assertEquals("", mock.getWrittenText()); // not flushed
+        assertFalse(mock.isClosed());
+        assertTrue(mock.isResetBuffer());
+    }
+
+    public void test_doWriteByStreaming_failureAfterCommitted() {
+        // ## Arrange ##
+        SimpleResponseManager manager = new SimpleResponseManager();
+        MockStreamingResponse mock = new MockStreamingResponse(true);
+
+        // ## Act ##
+        try {
+            manager.doWriteByStreaming(mock.toResponse(), out -> {
+                out.write("[{\"sea\":1},");
+                throw new IOException("mystic in the middle of stream");
+            }, "application/json", "UTF-8");
+            // ## Assert ##
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertFalse(mock.isClosed()); // body is not finished
+        assertFalse(mock.isResetBuffer()); // cannot reset after committed
+    }
+
+    protected static class MockStreamingResponse {
+
+        protected final boolean committed;
+        protected final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        protected boolean closed;
+        protected boolean resetBuffer;
+
+        public MockStreamingResponse(boolean committed) {
+            this.committed = committed;
+        }
+
+        public HttpServletResponse toResponse() {
+            final ServletOutputStream outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    written.write(b);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    closed = true;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+                        final String name = method.getName();
+                        if (name.equals("getOutputStream")) {
+                            return outputStream;
+                        } else if (name.equals("isCommitted")) {
+                            return committed;
+                        } else if (name.equals("resetBuffer")) {
+                            resetBuffer = true;
+                            return null;
+                        } else if (name.equals("getStatus")) {
+                            return 200;
+                        }
+                        return null; // e.g. setContentType()
+                    });
+        }
+
+        public String getWrittenText() {
+            return new String(written.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public boolean isResetBuffer() {
+            return resetBuffer;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.lastaflute.web.servlet.request.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class ParallelZipStreamAssemblerTest extends PlainTestCase {
+
+    public void test_assemble_readableAsZip() throws IOException {
+        // ## Arrange ##
+        Map<String, WritternZipStreamWriter> writerMap = new LinkedHashMap<String, WritternZipStreamWriter>();
+        writerMap.put("sea.csv", out -> {
+            for (int i = 0; i < 100000; i++) {
+                out.write(("sea," + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.close(); // no problem
+        });
+        writerMap.put("land/ランド.txt", out -> out.write("land".getBytes(StandardCharsets.UTF_8)));
+        writerMap.put("empty.txt", out -> {});
+        ParallelZipStreamAssembler assembler = new ParallelZipStreamAssembler(StandardCharsets.UTF_8, 3);
+        ByteArrayOutputStream zipOus = new ByteArrayOutputStream();
+
+        // ## Act ##
+        assembler.assemble(zipOus, writerMap, (fileName, e) -> {
+            throw new IllegalStateException(fileName, e);
+        });
+
+        // ## Assert ##
+        byte[] zipBytes = zipOus.toByteArray();
+        log("zip size: " + zipBytes.length);
+        List<String> nameList = new ArrayList<String>();
+        try (ZipInputStream zipIns = new ZipInputStream(new ByteArrayInputStream(zipBytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zipIns.getNextEntry()) != null) {
+                nameList.add(entry.getName());
+                String content = new String(readAll(zipIns), StandardCharsets.UTF_8);
+                if (entry.getName().equals("sea.csv")) {
+                    assertTrue(content.startsWith("sea,0\nsea,1\n"));
+                    assertTrue(content.endsWith("sea,99999\n"));
+                } else if (entry.getName().equals("land/ランド.txt")) {
+                    assertEquals("land", content);
+                } else {
+                    assertEquals("", content);
+                }
+            }
+        }
+        assertEquals("[sea.csv, land/ランド.txt, empty.txt]", nameList.toString());
+        Path zipFile = Files.createTempFile("lasta_zip_test", ".zip");
+        try {
+            Files.write(zipFile, zipBytes);
+            try (ZipFile zip = new ZipFile(zipFile.toFile(), StandardCharsets.UTF_8)) { // central directory
+                assertEquals(3, zip.size());
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                ZipEntry first = entries.nextElement();
+                assertEquals("sea.csv", first.getName());
+                assertTrue(first.getCompressedSize() < first.getSize());
+            }
+        } finally {
+            Files.deleteIfExists(zipFile);
+        }
+    }
+
+    public void test_assemble_writerFailure() {
+        // ## Arrange ##
+        Map<String, WritternZipStreamWriter> writerMap = new LinkedHashMap<String, WritternZipStreamWriter>();
+        writerMap.put("sea.txt", out -> out.write(1));
+        writerMap.put("land.txt", out -> {
+            throw new IOException("land failure");
+        });
+        ParallelZipStreamAssembler assembler = new ParallelZipStreamAssembler(StandardCharsets.UTF_8, 2);
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            assembler.assemble(new ByteArrayOutputStream(), writerMap, (fileName, e) -> {
+                throw new IllegalStateException(fileName, e);
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+            assertEquals("land.txt", e.getMessage());
+            assertEquals("land failure", e.getCause().getMessage());
+        } catch (IOException e) {
+            fail();
+        }
+    }
+
+    public void test_assemble_failure_tempFileDeleted() throws Exception {
+        // ## Arrange ##
+        Map<String, WritternZipStreamWriter> writerMap = new LinkedHashMap<String, WritternZipStreamWriter>();
+        writerMap.put("sea.txt", out -> out.write(1));
+        writerMap.put("land.txt", out -> {
+            throw new IOException("land failure");
+        });
+        writerMap.put("piari.txt", out -> {
+            try {
+                Thread.sleep(200L); // still deflating when failure
+            } catch (InterruptedException e) { // cancelled
+                Thread.currentThread().interrupt();
+            }
+            out.write(2);
+        });
+        writerMap.put("bonvo.txt", out -> out.write(3));
+        TrackedZipStreamAssembler assembler = new TrackedZipStreamAssembler(4);
+
+        // ## Act ##
+        try {
+            assembler.assemble(new ByteArrayOutputStream(), writerMap, (fileName, e) -> {
+                throw new IllegalStateException(fileName, e);
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+        }
+
+        // ## Assert ##
+        Thread.sleep(500L); // for cancelled deflating
+        Set<Path> tempFileSet = assembler.tracker.tempFileSet;
+        log(tempFileSet);
+        assertFalse(tempFileSet.isEmpty()); // depends on worker threads
+        for (Path tempFile : tempFileSet) {
+            assertFalse(Files.exists(tempFile));
+        }
+    }
+
+    public void test_getWorkerService_shared() {
+        // ## Arrange ##
+        ParallelZipStreamAssembler sea = new ParallelZipStreamAssembler(StandardCharsets.UTF_8, 2);
+        ParallelZipStreamAssembler land = new ParallelZipStreamAssembler(StandardCharsets.UTF_8, 4);
+
+        // ## Act ##
+        // ## Assert ##
+        assertSame(sea.getWorkerService(), land.getWorkerService()); // not created per download
+    }
+
+    protected static class TrackedZipStreamAssembler extends ParallelZipStreamAssembler {
+
+        protected volatile ZipTempFileTracker tracker;
+
+        public TrackedZipStreamAssembler(int parallelism) {
+            super(StandardCharsets.UTF_8, parallelism);
+        }
+
+        @Override
+        protected DeflatedZipEntry deflateEntry(String fileName, WritternZipStreamWriter writer, ZipTempFileTracker tracker)
+                throws IOException {
+            this.tracker = tracker;
+            return super.deflateEntry(fileName, writer, tracker);
+        }
+    }
+
+    protected byte[] readAll(ZipInputStream zipIns) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = zipIns.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,177 @@
+package org.lastaflute.web.token;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dbflute.optional.OptionalThing;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+
+/**
+ * @author jflute
+ */
+public class SimpleDoubleSubmitManagerTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                 Token Determination
+    //                                                                 ===================
+    public void test_determineTokenWithReset_concurrent_consumedOnlyOnce() throws Exception {
+        // ## Arrange ##
+        MockDoubleSubmitManager manager = new MockDoubleSubmitManager();
+        int threadCount = 16;
+        int roundCount = 200;
+        ExecutorService service = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int round = 0; round < roundCount; round++) {
+                String token = manager.saveToken(MockGroup.class);
+                manager.requestedToken = token;
+                CountDownLatch ready = new CountDownLatch(1);
+                List<Future<Boolean>> futureList = new ArrayList<Future<Boolean>>();
+                for (int i = 0; i < threadCount; i++) {
+                    futureList.add(service.submit(() -> {
+                        ready.await();
+                        return manager.determineTokenWithReset(MockGroup.class);
+                    }));
+                }
+
+                // ## Act ##
+                ready.countDown(); // start at the same time
+
+                // ## Assert ##
+                int consumedCount = 0;
+                for (Future<Boolean> future : futureList) {
+                    if (future.get()) {
+                        ++consumedCount;
+                    }
+                }
+                assertEquals(1, consumedCount);
+                assertNull(manager.sessionTokenMap); // removed because empty
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    public void test_determineToken_keep() {
+        // ## Arrange ##
+        MockDoubleSubmitManager manager = new MockDoubleSubmitManager();
+        String token = manager.saveToken(MockGroup.class);
+
+        // ## Act ##
+        // ## Assert ##
+        manager.requestedToken = "land";
+        assertFalse(manager.determineToken(MockGroup.class));
+        manager.requestedToken = token;
+        assertTrue(manager.determineToken(MockGroup.class));
+        assertTrue(manager.determineToken(MockGroup.class)); // still saved
+        assertTrue(manager.determineTokenWithReset(MockGroup.class));
+        assertFalse(manager.determineTokenWithReset(MockGroup.class)); // already consumed
+    }
+
+    public void test_determineTokenWithReset_unmatched_reset() {
+        // ## Arrange ##
+        MockDoubleSubmitManager manager = new MockDoubleSubmitManager();
+        String token = manager.saveToken(MockGroup.class);
+
+        // ## Act ##
+        manager.requestedToken = "land";
+        boolean first = manager.determineTokenWithReset(MockGroup.class);
+        manager.requestedToken = token;
+        boolean second = manager.determineTokenWithReset(MockGroup.class);
+
+        // ## Assert ##
+        assertFalse(first);
+        assertFalse(second); // reset even if unmatched, same as before
+    }
+
+    // ===================================================================================
+    //                                                                    Token Generation
+    //                                                                    ================
+    public void test_generateToken_concurrent_unique() throws Exception {
+        // ## Arrange ##
+        MockDoubleSubmitManager manager = new MockDoubleSubmitManager();
+        int threadCount = 16;
+        int tokenCount = 500;
+        Set<String> tokenSet = ConcurrentHashMap.newKeySet();
+        ExecutorService service = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<Future<?>>();
+            for (int i = 0; i < threadCount; i++) {
+                futureList.add(service.submit(() -> {
+                    ready.await();
+                    for (int j = 0; j < tokenCount; j++) {
+                        tokenSet.add(manager.generateToken(MockGroup.class));
+                    }
+                    return null;
+                }));
+            }
+
+            // ## Act ##
+            ready.countDown();
+            for (Future<?> future : futureList) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+
+        // ## Assert ##
+        assertEquals(threadCount * tokenCount, tokenSet.size());
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected static class MockGroup {
+    }
+
+    protected static class MockDoubleSubmitManager extends SimpleDoubleSubmitManager {
+
+        protected volatile DoubleSubmitTokenMap sessionTokenMap; // as session attribute
+        protected volatile String requestedToken; // as request parameter
+
+        @Override
+        protected void checkDoubleSubmitPreconditionExists(Class<?> groupType) {
+        }
+
+        @Override
+        public OptionalThing<DoubleSubmitTokenMap> getSessionTokenMap() {
+            return OptionalThing.ofNullable(sessionTokenMap, () -> {
+                throw new IllegalStateException("Not found the token map.");
+            });
+        }
+
+        @Override
+        protected void saveTokenMapToSession(DoubleSubmitTokenMap tokenMap) {
+            sessionTokenMap = tokenMap;
+        }
+
+        @Override
+        protected void removeTokenFromSession() {
+            sessionTokenMap = null;
+        }
+
+        @Override
+        public OptionalThing<String> getRequestedToken() {
+            return OptionalThing.ofNullable(requestedToken, () -> {
+                throw new IllegalStateException("Not found the requested token.");
+            });
+        }
+
+        @Override
+        protected byte[] prepareSessionIdBytes() {
+            return "sea".getBytes();
+        }
+
+        @Override
+        protected String getSessionLockKey() {
+            return "sea";
+        }
+    }
+}
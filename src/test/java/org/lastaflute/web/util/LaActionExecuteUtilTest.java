@@ -0,0 +1,56 @@
+package org.lastaflute.web.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+import org.dbflute.utflute.core.PlainTestCase;
+import org.lastaflute.web.response.HtmlResponse;
+import org.lastaflute.web.response.JsonResponse;
+
+/**
+ * @author jflute
+ */
+public class LaActionExecuteUtilTest extends PlainTestCase {
+
+    public void test_findResponseReturnType_basic() throws Exception {
+        // ## Arrange ##
+        Method sync = MockAction.class.getMethod("sync");
+        Method html = MockAction.class.getMethod("asyncHtml");
+        Method json = MockAction.class.getMethod("asyncJson");
+        Method raw = MockAction.class.getMethod("asyncRaw");
+
+        // ## Act ##
+        // ## Assert ##
+        assertFalse(LaActionExecuteUtil.isAsyncExecuteMethod(sync));
+        assertEquals(HtmlResponse.class, LaActionExecuteUtil.findResponseReturnType(sync));
+        assertTrue(LaActionExecuteUtil.isAsyncExecuteMethod(html));
+        assertEquals(HtmlResponse.class, LaActionExecuteUtil.findResponseReturnType(html));
+        assertEquals(JsonResponse.class, LaActionExecuteUtil.findResponseReturnType(json));
+        String genericExp = LaActionExecuteUtil.findResponseGenericReturnType(json).getTypeName();
+        log(genericExp);
+        assertTrue(genericExp.endsWith("JsonResponse<java.lang.String>"));
+        assertTrue(LaActionExecuteUtil.isAsyncExecuteMethod(raw));
+        assertNull(LaActionExecuteUtil.findResponseReturnType(raw));
+        assertNull(LaActionExecuteUtil.findResponseGenericReturnType(raw));
+    }
+
+    public static class MockAction {
+
+        public HtmlResponse sync() {
+            return null;
+        }
+
+        public CompletableFuture<HtmlResponse> asyncHtml() {
+            return null;
+        }
+
+        public CompletableFuture<JsonResponse<String>> asyncJson() {
+            return null;
+        }
+
+        @SuppressWarnings("rawtypes")
+        public CompletableFuture asyncRaw() {
+            return null;
+        }
+    }
+}
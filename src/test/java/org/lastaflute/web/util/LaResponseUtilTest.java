@@ -0,0 +1,21 @@
+package org.lastaflute.web.util;
+
+import org.dbflute.utflute.core.PlainTestCase;
+
+/**
+ * @author jflute
+ */
+public class LaResponseUtilTest extends PlainTestCase {
+
+    public void test_matchesIfNoneMatch_basic() {
+        // ## Arrange ##
+        // ## Act ##
+        // ## Assert ##
+        assertTrue(LaResponseUtil.matchesIfNoneMatch("\"sea\"", "\"sea\""));
+        assertTrue(LaResponseUtil.matchesIfNoneMatch("\"land\", W/\"sea\"", "\"sea\""));
+        assertTrue(LaResponseUtil.matchesIfNoneMatch("\"sea\"", "W/\"sea\"")); // weak comparison
+        assertTrue(LaResponseUtil.matchesIfNoneMatch(" * ", "\"sea\""));
+        assertFalse(LaResponseUtil.matchesIfNoneMatch("\"land\"", "\"sea\""));
+        assertFalse(LaResponseUtil.matchesIfNoneMatch("\"sea-\"", "\"sea\""));
+    }
+}
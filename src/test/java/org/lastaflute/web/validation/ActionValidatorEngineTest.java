@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.lastaflute.web.validation;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.validation.ValidatorFactory;
+
+import org.lastaflute.core.message.UserMessages;
+import org.lastaflute.unit.UnitLastaFluteTestCase;
+import org.lastaflute.unit.mock.core.message.MockMessageManager;
+
+/**
+ * @author jflute
+ */
+public class ActionValidatorEngineTest extends UnitLastaFluteTestCase {
+
+    // ===================================================================================
+    //                                                                   Validator Factory
+    //                                                                   =================
+    public void test_prepareFactory_reused() {
+        // ## Arrange ##
+        ActionValidatorEngine engine = new ActionValidatorEngine();
+        List<String> closedList = new ArrayList<String>();
+        List<String> builtList = new ArrayList<String>();
+
+        // ## Act ##
+        ValidatorFactory first = engine.prepareFactory(ActionValidator.class, () -> {
+            builtList.add("sea");
+            return createMockFactory("sea", closedList);
+        });
+        ValidatorFactory second = engine.prepareFactory(ActionValidator.class, () -> {
+            builtList.add("land");
+            return createMockFactory("land", closedList);
+        });
+
+        // ## Assert ##
+        assertSame(first, second);
+        assertEquals(newArrayList("sea"), builtList);
+        assertTrue(closedList.isEmpty());
+    }
+
+    public void test_prepareFactory_perBuilderType() {
+        // ## Arrange ##
+        ActionValidatorEngine engine = new ActionValidatorEngine();
+        List<String> closedList = new ArrayList<String>();
+
+        // ## Act ##
+        ValidatorFactory plain = engine.prepareFactory(ActionValidator.class, () -> createMockFactory("sea", closedList));
+        ValidatorFactory overridden = engine.prepareFactory(MockValidator.class, () -> createMockFactory("land", closedList));
+
+        // ## Assert ##
+        assertNotSame(plain, overridden);
+        assertEquals("sea", plain.toString());
+        assertEquals("land", overridden.toString());
+    }
+
+    public void test_prepareFactory_rebuiltAfterDispose() {
+        // ## Arrange ##
+        ActionValidatorEngine engine = new ActionValidatorEngine();
+        List<String> closedList = new ArrayList<String>();
+        ValidatorFactory before = engine.prepareFactory(ActionValidator.class, () -> createMockFactory("sea", closedList));
+
+        // ## Act ##
+        engine.dispose(); // e.g. hot deploy
+        ValidatorFactory after = engine.prepareFactory(ActionValidator.class, () -> createMockFactory("land", closedList));
+
+        // ## Assert ##
+        assertNotSame(before, after);
+        assertEquals(newArrayList("sea"), closedList);
+        assertEquals("land", after.toString());
+    }
+
+    public void test_prepareFactory_nullBuilt() {
+        // ## Arrange ##
+        ActionValidatorEngine engine = new ActionValidatorEngine();
+
+        // ## Act ##
+        // ## Assert ##
+        try {
+            engine.prepareFactory(ActionValidator.class, () -> null);
+            fail();
+        } catch (IllegalStateException e) {
+            log(e.getMessage());
+        }
+    }
+
+    // ===================================================================================
+    //                                                                  Validator Override
+    //                                                                  ==================
+    public void test_prepareValidatorFactory_overriddenBuildingHonored() {
+        // ## Arrange ##
+        ActionValidatorEngine engine = new ActionValidatorEngine();
+        List<String> closedList = new ArrayList<String>();
+        List<String> builtList = new ArrayList<String>();
+
+        // ## Act ##
+        ValidatorFactory first = new MockValidator(engine, builtList, closedList).prepareValidatorFactory();
+        ValidatorFactory second = new MockValidator(engine, builtList, closedList).prepareValidatorFactory();
+
+        // ## Assert ##
+        assertSame(first, second); // reused by other validator instance
+        assertEquals("mock", first.toString()); // overridden building
+        assertEquals(newArrayList("mock"), builtList); // only once
+    }
+
+    // ===================================================================================
+    //                                                                         Test Helper
+    //                                                                         ===========
+    protected static ValidatorFactory createMockFactory(String name, List<String> closedList) {
+        return (ValidatorFactory) Proxy.newProxyInstance(ValidatorFactory.class.getClassLoader(),
+                new Class<?>[] { ValidatorFactory.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closedList.add(name);
+                        return null;
+                    } else if (method.getName().equals("toString")) {
+                        return name;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    protected static class MockValidator extends ActionValidator<UserMessages> {
+
+        protected final ActionValidatorEngine engine;
+        protected final List<String> builtList;
+        protected final List<String> closedList;
+
+        public MockValidator(ActionValidatorEngine engine, List<String> builtList, List<String> closedList) {
+            super(new MockMessageManager(), () -> Locale.ENGLISH, () -> new UserMessages(), () -> null);
+            this.engine = engine;
+            this.builtList = builtList;
+            this.closedList = closedList;
+        }
+
+        @Override
+        protected ActionValidatorEngine getValidatorEngine() {
+            return engine;
+        }
+
+        @Override
+        protected ValidatorFactory buildValidatorFactory() {
+            builtList.add("mock");
+            return createMockFactory("mock", closedList);
+        }
+    }
+}